@@ -124,3 +124,33 @@ INSERT INTO
   ACT_RU_AUTHORIZATION (ID_, TYPE_, GROUP_ID_, RESOURCE_TYPE_, RESOURCE_ID_, PERMS_, REV_)
 VALUES
   ('camunda-admin-grant-decision-definition', 1, 'camunda-admin', 10, '*', 2147483647, 1);
+
+-- dimensional metrics --
+ALTER TABLE ACT_RU_METER_LOG
+  ADD PROC_DEF_KEY_ varchar(255);
+
+ALTER TABLE ACT_RU_METER_LOG
+  ADD ACT_TYPE_ varchar(255);
+
+-- authorization index --
+create table ACT_RU_AUTH_INDEX (
+  SUBJECT_ID_ varchar(255) not null,
+  RESOURCE_TYPE_ integer not null,
+  RESOURCE_ID_ varchar(64) not null,
+  PERMS_ integer not null,
+  DECIDED_PERMS_ integer not null,
+  primary key (SUBJECT_ID_, RESOURCE_TYPE_, RESOURCE_ID_)
+);
+
+insert into ACT_GE_PROPERTY
+values ('authorization-index.lock', '0', 1);
+
+-- correlation index --
+ALTER TABLE ACT_RU_VARIABLE
+  ADD CORR_KEY_ varchar(255);
+
+create index ACT_IDX_VARIABLE_CORR_KEY on ACT_RU_VARIABLE(CORR_KEY_);
+
+-- blob store --
+ALTER TABLE ACT_GE_BYTEARRAY
+  ADD IS_BLOB_ smallint check(IS_BLOB_ in (1,0));
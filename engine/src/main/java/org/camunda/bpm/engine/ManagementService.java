@@ -14,6 +14,7 @@ package org.camunda.bpm.engine;
 
 import java.sql.Connection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -24,11 +25,14 @@ import org.camunda.bpm.engine.authorization.Permissions;
 import org.camunda.bpm.engine.authorization.Resources;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.management.ActivityStatisticsQuery;
+import org.camunda.bpm.engine.management.CommandStatistics;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
 import org.camunda.bpm.engine.management.DeploymentStatisticsQuery;
 import org.camunda.bpm.engine.management.JobDefinition;
 import org.camunda.bpm.engine.management.JobDefinitionQuery;
 import org.camunda.bpm.engine.management.MetricsQuery;
 import org.camunda.bpm.engine.management.ProcessDefinitionStatisticsQuery;
+import org.camunda.bpm.engine.management.SignalBroadcastProgress;
 import org.camunda.bpm.engine.management.TableMetaData;
 import org.camunda.bpm.engine.management.TablePage;
 import org.camunda.bpm.engine.management.TablePageQuery;
@@ -904,4 +908,59 @@ public interface ManagementService {
    */
   void reportDbMetricsNow();
 
+  /**
+   * Returns the statistics of the caches which hold the deployed process, case and
+   * decision definitions and their model instances.
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   * @since 7.4
+   */
+  List<DeploymentCacheStatistics> getDeploymentCacheStatistics();
+
+  /**
+   * Returns the statistics of the executed commands, ordered by descending total
+   * duration. The list is empty unless command metrics are enabled in the process
+   * engine configuration.
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   * @since 7.4
+   */
+  List<CommandStatistics> getCommandStatistics();
+
+  /**
+   * Recalculates the authorization index which holds the effective permissions
+   * of the users. The index has to be rebuilt after it is enabled in the process
+   * engine configuration.
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   * @since 7.4
+   */
+  void rebuildAuthorizationIndex();
+
+  /**
+   * Recalculates the correlation index which holds the values of the variables
+   * used to correlate messages. The index has to be rebuilt after the correlation
+   * index keys of the process engine configuration are changed. The variables
+   * are updated page by page, each page in a transaction of its own. Until the
+   * method returns, messages may not be correlated by the changed keys.
+   *
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   * @since 7.4
+   */
+  void rebuildCorrelationIndex();
+
+  /**
+   * Returns the progress of an asynchronous signal broadcast.
+   *
+   * @param broadcastId the id of the broadcast returned by
+   *          {@link RuntimeService#signalEventReceivedAsync(String)}
+   *
+   * @since 7.4
+   */
+  SignalBroadcastProgress getSignalBroadcastProgress(String broadcastId);
+
 }
@@ -27,6 +27,7 @@ import org.camunda.bpm.engine.runtime.Execution;
 import org.camunda.bpm.engine.runtime.ExecutionQuery;
 import org.camunda.bpm.engine.runtime.IncidentQuery;
 import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.camunda.bpm.engine.runtime.MessageCorrelationItemResult;
 import org.camunda.bpm.engine.runtime.NativeExecutionQuery;
 import org.camunda.bpm.engine.runtime.NativeProcessInstanceQuery;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
@@ -1350,6 +1351,54 @@ public interface RuntimeService {
    */
   void signalEventReceived(String signalName, Map<String, Object> processVariables);
 
+  /**
+   * Notifies the process engine that a signal event of name 'signalName' has
+   * been received. Delivers the signal asynchronously to all executions waiting on
+   * the signal and to all process definitions that can started by this signal. <p/>
+   *
+   * The subscriptions of the signal are paged through by jobs which trigger them in
+   * batches, executed in parallel by the job executor. The batch size is configured with
+   * {@link org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl#setSignalBroadcastBatchSize(int)}.
+   * Subscriptions created while the broadcast is in progress may receive the signal as well. <p/>
+   *
+   * @param signalName
+   *          the name of the signal event
+   *
+   * @return the id of the broadcast, see {@link ManagementService#getSignalBroadcastProgress(String)}
+   *
+   * @throws AuthorizationException
+   *          <li>if the user has no {@link Permissions#UPDATE} permission on any {@link Resources#PROCESS_INSTANCE}
+   *          and no {@link Permissions#UPDATE_INSTANCE} permission on any {@link Resources#PROCESS_DEFINITION}.</li>
+   *          <li>if the user has no {@link Permissions#CREATE} permission on {@link Resources#PROCESS_INSTANCE}
+   *          or no {@link Permissions#CREATE_INSTANCE} permission on any {@link Resources#PROCESS_DEFINITION}.</li>
+   * @since 7.4
+   */
+  String signalEventReceivedAsync(String signalName);
+
+  /**
+   * Notifies the process engine that a signal event of name 'signalName' has
+   * been received. Delivers the signal asynchronously to all executions waiting on
+   * the signal and to all process definitions that can started by this signal. <p/>
+   *
+   * See {@link #signalEventReceivedAsync(String)}. The variables are stored with the
+   * signal like process variables until the signal is delivered.
+   *
+   * @param signalName
+   *          the name of the signal event
+   * @param processVariables
+   *          a map of variables added to the execution(s)
+   *
+   * @return the id of the broadcast, see {@link ManagementService#getSignalBroadcastProgress(String)}
+   *
+   * @throws AuthorizationException
+   *          <li>if the user has no {@link Permissions#UPDATE} permission on any {@link Resources#PROCESS_INSTANCE}
+   *          and no {@link Permissions#UPDATE_INSTANCE} permission on any {@link Resources#PROCESS_DEFINITION}.</li>
+   *          <li>if the user has no {@link Permissions#CREATE} permission on {@link Resources#PROCESS_INSTANCE}
+   *          or no {@link Permissions#CREATE_INSTANCE} permission on any {@link Resources#PROCESS_DEFINITION}.</li>
+   * @since 7.4
+   */
+  String signalEventReceivedAsync(String signalName, Map<String, Object> processVariables);
+
   /**
    * Notifies the process engine that a signal event of name 'signalName' has
    * been received. This method delivers the signal to a single execution, being the
@@ -1457,6 +1506,28 @@ public interface RuntimeService {
    */
   MessageCorrelationBuilder createMessageCorrelation(String messageName);
 
+  /**
+   * Correlates many messages like {@link MessageCorrelationBuilder#correlate()}, with few
+   * transactions and queries. The messages are correlated in batches of the
+   * message correlation batch size of the process engine configuration, each batch in
+   * one transaction (unless the method is called within an existing transaction).
+   * The executions and process definitions of all messages of a batch are resolved
+   * before the first message of the batch is triggered.
+   *
+   * <p>A message which cannot be correlated does not affect the other messages, its
+   * failure is contained in its result. If triggering a message fails, the messages of
+   * its batch are correlated again one by one. A message whose execution is removed or
+   * leaves the message event by a previous message of its batch is not correlated.</p>
+   *
+   * @param messageCorrelations the message correlations created by
+   *          {@link #createMessageCorrelation(String)}
+   *
+   * @return the result of each message correlation in the order of the message correlations
+   *
+   * @since 7.4
+   */
+  List<MessageCorrelationItemResult> correlateMessages(List<MessageCorrelationBuilder> messageCorrelations);
+
   /**
    * Correlates a message to either an execution that is waiting for this message or a process definition
    * that can be started by this message.
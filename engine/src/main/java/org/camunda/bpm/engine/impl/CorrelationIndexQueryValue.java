@@ -0,0 +1,44 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Restricts an execution query to process instances with a variable of the given
+ * name whose key in the correlation index is one of the given keys.
+ *
+ * @see org.camunda.bpm.engine.impl.runtime.CorrelationIndex
+ */
+public class CorrelationIndexQueryValue implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String name;
+  protected List<String> keys;
+
+  public CorrelationIndexQueryValue(String name, List<String> keys) {
+    this.name = name;
+    this.keys = keys;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public List<String> getKeys() {
+    return keys;
+  }
+
+}
@@ -25,4 +25,5 @@ public interface EventSubscriptionQueryProperty {
   // properties used in event subscription queries:
 
   public final static QueryProperty CREATED = new QueryPropertyImpl("CREATED_");
+  public final static QueryProperty ID = new QueryPropertyImpl("ID_");
 }
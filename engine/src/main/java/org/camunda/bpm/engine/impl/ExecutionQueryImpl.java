@@ -12,10 +12,12 @@
  */
 package org.camunda.bpm.engine.impl;
 
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotEmpty;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
@@ -38,7 +40,9 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
   protected String activityId;
   protected String executionId;
   protected String processInstanceId;
+  protected Set<String> processInstanceIds;
   protected List<EventSubscriptionQueryValue> eventSubscriptions;
+  protected List<CorrelationIndexQueryValue> correlationIndexValues;
   protected boolean hasMessageEventSubscriptions;
   protected SuspensionState suspensionState;
   protected String incidentType;
@@ -240,8 +244,8 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
     return processInstanceId;
   }
 
-  public String getProcessInstanceIds() {
-    return null;
+  public Set<String> getProcessInstanceIds() {
+    return processInstanceIds;
   }
 
   public String getBusinessKey() {
@@ -272,6 +276,29 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
     return suspensionState;
   }
 
+  /**
+   * Only select executions of the given process instances. Not used by end-users.
+   */
+  public ExecutionQueryImpl processInstanceIds(Set<String> processInstanceIds) {
+    ensureNotEmpty("Set of process instance ids", processInstanceIds);
+    this.processInstanceIds = processInstanceIds;
+    return this;
+  }
+
+  /**
+   * Only select executions of process instances which have a variable with the given name
+   * and one of the given keys in the correlation index. Not used by end-users.
+   */
+  public ExecutionQueryImpl correlationIndexKeyIn(String variableName, List<String> keys) {
+    ensureNotNull("Variable name", variableName);
+    ensureNotEmpty("Correlation keys", keys);
+    if(correlationIndexValues == null) {
+      correlationIndexValues = new ArrayList<CorrelationIndexQueryValue>();
+    }
+    correlationIndexValues.add(new CorrelationIndexQueryValue(variableName, keys));
+    return this;
+  }
+
   public void setSuspensionState(SuspensionState suspensionState) {
     this.suspensionState = suspensionState;
   }
@@ -284,6 +311,10 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
     this.eventSubscriptions = eventSubscriptions;
   }
 
+  public List<CorrelationIndexQueryValue> getCorrelationIndexValues() {
+    return correlationIndexValues;
+  }
+
   public String getIncidentId() {
     return incidentId;
   }
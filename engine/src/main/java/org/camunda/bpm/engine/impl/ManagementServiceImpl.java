@@ -15,6 +15,7 @@ package org.camunda.bpm.engine.impl;
 import java.sql.Connection;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -27,13 +28,18 @@ import org.camunda.bpm.engine.impl.cmd.DeleteJobCmd;
 import org.camunda.bpm.engine.impl.cmd.DeleteMetricsCmd;
 import org.camunda.bpm.engine.impl.cmd.DeletePropertyCmd;
 import org.camunda.bpm.engine.impl.cmd.ExecuteJobsCmd;
+import org.camunda.bpm.engine.impl.cmd.GetCommandStatisticsCmd;
+import org.camunda.bpm.engine.impl.cmd.GetDeploymentCacheStatisticsCmd;
 import org.camunda.bpm.engine.impl.cmd.GetHistoryLevelCmd;
 import org.camunda.bpm.engine.impl.cmd.GetJobExceptionStacktraceCmd;
 import org.camunda.bpm.engine.impl.cmd.GetProcessApplicationForDeploymentCmd;
+import org.camunda.bpm.engine.impl.cmd.GetSignalBroadcastProgressCmd;
 import org.camunda.bpm.engine.impl.cmd.GetPropertiesCmd;
 import org.camunda.bpm.engine.impl.cmd.GetTableCountCmd;
 import org.camunda.bpm.engine.impl.cmd.GetTableMetaDataCmd;
 import org.camunda.bpm.engine.impl.cmd.GetTableNameCmd;
+import org.camunda.bpm.engine.impl.cmd.RebuildAuthorizationIndexCmd;
+import org.camunda.bpm.engine.impl.cmd.RebuildCorrelationIndexCmd;
 import org.camunda.bpm.engine.impl.cmd.RegisterDeploymentCmd;
 import org.camunda.bpm.engine.impl.cmd.RegisterProcessApplicationCmd;
 import org.camunda.bpm.engine.impl.cmd.ReportDbMetricsCmd;
@@ -53,10 +59,13 @@ import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.metrics.MetricsQueryImpl;
 import org.camunda.bpm.engine.management.ActivityStatisticsQuery;
+import org.camunda.bpm.engine.management.CommandStatistics;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
 import org.camunda.bpm.engine.management.DeploymentStatisticsQuery;
 import org.camunda.bpm.engine.management.JobDefinitionQuery;
 import org.camunda.bpm.engine.management.MetricsQuery;
 import org.camunda.bpm.engine.management.ProcessDefinitionStatisticsQuery;
+import org.camunda.bpm.engine.management.SignalBroadcastProgress;
 import org.camunda.bpm.engine.management.TableMetaData;
 import org.camunda.bpm.engine.management.TablePageQuery;
 import org.camunda.bpm.engine.runtime.JobQuery;
@@ -328,6 +337,30 @@ public class ManagementServiceImpl extends ServiceImpl implements ManagementServ
     commandExecutor.execute(new ReportDbMetricsCmd());
   }
 
+  public List<DeploymentCacheStatistics> getDeploymentCacheStatistics() {
+    return commandExecutor.execute(new GetDeploymentCacheStatisticsCmd());
+  }
+
+  public List<CommandStatistics> getCommandStatistics() {
+    return commandExecutor.execute(new GetCommandStatisticsCmd());
+  }
+
+  public void rebuildAuthorizationIndex() {
+    commandExecutor.execute(new RebuildAuthorizationIndexCmd());
+  }
+
+  public void rebuildCorrelationIndex() {
+    // every page is rebuilt in a transaction of its own
+    String afterVariableId = null;
+    do {
+      afterVariableId = commandExecutor.execute(new RebuildCorrelationIndexCmd(afterVariableId));
+    } while (afterVariableId != null);
+  }
+
+  public SignalBroadcastProgress getSignalBroadcastProgress(String broadcastId) {
+    return commandExecutor.execute(new GetSignalBroadcastProgressCmd(broadcastId));
+  }
+
   public void setOverridingJobPriorityForJobDefinition(String jobDefinitionId, long priority) {
     commandExecutor.execute(new SetJobDefinitionPriorityCmd(jobDefinitionId, priority, false));
   }
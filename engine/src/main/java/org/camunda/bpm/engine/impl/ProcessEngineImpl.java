@@ -29,11 +29,14 @@ import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.TaskService;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.cfg.TransactionContextFactory;
+import org.camunda.bpm.engine.impl.cmd.ScheduleHistoryCleanupJobsCmd;
 import org.camunda.bpm.engine.impl.el.ExpressionManager;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventHandler;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.metrics.exporter.MetricsExporter;
 import org.camunda.bpm.engine.impl.metrics.reporter.DbMetricsReporter;
 
 /**
@@ -88,6 +91,10 @@ public class ProcessEngineImpl implements ProcessEngine {
 
     executeSchemaOperations();
 
+    if (processEngineConfiguration.isHistoryCleanupEnabled()) {
+      commandExecutor.execute(new ScheduleHistoryCleanupJobsCmd());
+    }
+
     if (name == null) {
       log.info("default activiti ProcessEngine created");
     } else {
@@ -101,6 +108,11 @@ public class ProcessEngineImpl implements ProcessEngine {
       jobExecutor.registerProcessEngine(this);
     }
 
+    if (processEngineConfiguration.getHistoryEventHandler() instanceof AsyncHistoryEventHandler) {
+      AsyncHistoryEventHandler asyncHistoryEventHandler = (AsyncHistoryEventHandler) processEngineConfiguration.getHistoryEventHandler();
+      asyncHistoryEventHandler.start(processEngineConfiguration.getCommandExecutorTxRequiresNew());
+    }
+
     if (processEngineConfiguration.isMetricsEnabled()) {
       String reporterId = processEngineConfiguration.getMetricsReporterIdProvider().provideId(this);
       DbMetricsReporter dbMetricsReporter = processEngineConfiguration.getDbMetricsReporter();
@@ -109,6 +121,10 @@ public class ProcessEngineImpl implements ProcessEngine {
       if(processEngineConfiguration.isDbMetricsReporterActivate()) {
         dbMetricsReporter.start();
       }
+
+      for (MetricsExporter metricsExporter : processEngineConfiguration.getMetricsExporters()) {
+        metricsExporter.start(name, processEngineConfiguration.getMetricsRegistry());
+      }
     }
 
   }
@@ -123,6 +139,10 @@ public class ProcessEngineImpl implements ProcessEngine {
 
     if(processEngineConfiguration.isMetricsEnabled()) {
       processEngineConfiguration.getDbMetricsReporter().stop();
+
+      for (MetricsExporter metricsExporter : processEngineConfiguration.getMetricsExporters()) {
+        metricsExporter.stop();
+      }
     }
 
     if ((jobExecutor != null)) {
@@ -130,6 +150,11 @@ public class ProcessEngineImpl implements ProcessEngine {
       jobExecutor.unregisterProcessEngine(this);
     }
 
+    if (processEngineConfiguration.getHistoryEventHandler() instanceof AsyncHistoryEventHandler) {
+      // writes the remaining history events
+      ((AsyncHistoryEventHandler) processEngineConfiguration.getHistoryEventHandler()).stop();
+    }
+
     commandExecutorSchemaOperations.execute(new SchemaOperationProcessEngineClose());
 
     processEngineConfiguration.close();
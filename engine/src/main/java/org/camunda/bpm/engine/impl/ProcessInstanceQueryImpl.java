@@ -17,11 +17,14 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotEmpty;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.SuspensionState;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
@@ -52,6 +55,7 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
   protected String caseInstanceId;
   protected String superCaseInstanceId;
   protected String subCaseInstanceId;
+  protected List<String> fetchedVariableNames;
 
   // Unused, see dynamic query
   protected String activityId;
@@ -184,6 +188,13 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     return this;
   }
 
+  public ProcessInstanceQuery withVariables(String... variableNames) {
+    ensureNotNull("variableNames", (Object[]) variableNames);
+    ensureNotEmpty("variableNames", Arrays.asList(variableNames));
+    this.fetchedVariableNames = Arrays.asList(variableNames);
+    return this;
+  }
+
   //results /////////////////////////////////////////////////////////////////
 
   public long executeCount(CommandContext commandContext) {
@@ -197,9 +208,21 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
   public List<ProcessInstance> executeList(CommandContext commandContext, Page page) {
     checkQueryOk();
     ensureVariablesInitialized();
-    return commandContext
+    List<ProcessInstance> processInstances = commandContext
       .getExecutionManager()
       .findProcessInstanceByQueryCriteria(this, page);
+
+    if (fetchedVariableNames != null) {
+      List<ExecutionEntity> executions = new ArrayList<ExecutionEntity>();
+      for (ProcessInstance processInstance : processInstances) {
+        executions.add((ExecutionEntity) processInstance);
+      }
+      commandContext
+        .getVariableInstanceManager()
+        .fetchProcessInstanceVariables(executions, fetchedVariableNames);
+    }
+
+    return processInstances;
   }
 
   //getters /////////////////////////////////////////////////////////////////
@@ -252,6 +275,11 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     return eventSubscriptions;
   }
 
+  public List<CorrelationIndexQueryValue> getCorrelationIndexValues() {
+    // the query shares the criteria of the execution query, the correlation index is only used by the latter
+    return null;
+  }
+
   public void setEventSubscriptions(List<EventSubscriptionQueryValue> eventSubscriptions) {
     this.eventSubscriptions = eventSubscriptions;
   }
@@ -284,4 +312,8 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     return subCaseInstanceId;
   }
 
+  public List<String> getFetchedVariableNames() {
+    return fetchedVariableNames;
+  }
+
 }
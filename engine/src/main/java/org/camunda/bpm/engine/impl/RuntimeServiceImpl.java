@@ -16,6 +16,7 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +25,7 @@ import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.form.FormData;
 import org.camunda.bpm.engine.impl.cmd.ActivateProcessInstanceCmd;
 import org.camunda.bpm.engine.impl.cmd.CorrelateMessageCmd;
+import org.camunda.bpm.engine.impl.cmd.CorrelateMessagesCmd;
 import org.camunda.bpm.engine.impl.cmd.DeleteProcessInstanceCmd;
 import org.camunda.bpm.engine.impl.cmd.FindActiveActivityIdsCmd;
 import org.camunda.bpm.engine.impl.cmd.GetActivityInstanceCmd;
@@ -36,16 +38,19 @@ import org.camunda.bpm.engine.impl.cmd.PatchExecutionVariablesCmd;
 import org.camunda.bpm.engine.impl.cmd.RemoveExecutionVariablesCmd;
 import org.camunda.bpm.engine.impl.cmd.SetExecutionVariablesCmd;
 import org.camunda.bpm.engine.impl.cmd.SignalCmd;
+import org.camunda.bpm.engine.impl.cmd.SignalEventReceivedAsyncCmd;
 import org.camunda.bpm.engine.impl.cmd.SignalEventReceivedCmd;
 import org.camunda.bpm.engine.impl.cmd.StartProcessInstanceByMessageAndProcessDefinitionIdCmd;
 import org.camunda.bpm.engine.impl.cmd.StartProcessInstanceByMessageCmd;
 import org.camunda.bpm.engine.impl.cmd.StartProcessInstanceCmd;
 import org.camunda.bpm.engine.impl.cmd.SuspendProcessInstanceCmd;
+import org.camunda.bpm.engine.impl.runtime.MessageCorrelationItemResultImpl;
 import org.camunda.bpm.engine.runtime.ActivityInstance;
 import org.camunda.bpm.engine.runtime.EventSubscriptionQuery;
 import org.camunda.bpm.engine.runtime.ExecutionQuery;
 import org.camunda.bpm.engine.runtime.IncidentQuery;
 import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.camunda.bpm.engine.runtime.MessageCorrelationItemResult;
 import org.camunda.bpm.engine.runtime.NativeExecutionQuery;
 import org.camunda.bpm.engine.runtime.NativeProcessInstanceQuery;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
@@ -350,6 +355,14 @@ public class RuntimeServiceImpl extends ServiceImpl implements RuntimeService {
     commandExecutor.execute(new SignalEventReceivedCmd(signalName, null, processVariables));
   }
 
+  public String signalEventReceivedAsync(String signalName) {
+    return commandExecutor.execute(new SignalEventReceivedAsyncCmd(signalName, null));
+  }
+
+  public String signalEventReceivedAsync(String signalName, Map<String, Object> processVariables) {
+    return commandExecutor.execute(new SignalEventReceivedAsyncCmd(signalName, processVariables));
+  }
+
   public void signalEventReceived(String signalName, String executionId) {
     commandExecutor.execute(new SignalEventReceivedCmd(signalName, executionId, null));
   }
@@ -372,6 +385,44 @@ public class RuntimeServiceImpl extends ServiceImpl implements RuntimeService {
     return new MessageCorrelationBuilderImpl(commandExecutor, messageName);
   }
 
+  public List<MessageCorrelationItemResult> correlateMessages(List<MessageCorrelationBuilder> messageCorrelations) {
+    ensureNotNull("messageCorrelations", messageCorrelations);
+
+    List<MessageCorrelationBuilderImpl> correlations = new ArrayList<MessageCorrelationBuilderImpl>(messageCorrelations.size());
+    for (MessageCorrelationBuilder messageCorrelation : messageCorrelations) {
+      ensureNotNull("messageCorrelation", messageCorrelation);
+      correlations.add((MessageCorrelationBuilderImpl) messageCorrelation);
+    }
+
+    // every command correlates the next batch of the remaining messages
+    List<MessageCorrelationItemResult> results = new ArrayList<MessageCorrelationItemResult>(correlations.size());
+    while (results.size() < correlations.size()) {
+      results.addAll(correlateMessageBatch(correlations.subList(results.size(), correlations.size())));
+    }
+
+    return results;
+  }
+
+  protected List<MessageCorrelationItemResult> correlateMessageBatch(List<MessageCorrelationBuilderImpl> messageCorrelations) {
+    CorrelateMessagesCmd command = new CorrelateMessagesCmd(messageCorrelations);
+    try {
+      return commandExecutor.execute(command);
+    }
+    catch (RuntimeException e) {
+      List<MessageCorrelationBuilderImpl> batch = command.getBatch();
+      if (batch == null || batch.size() == 1) {
+        return Collections.<MessageCorrelationItemResult>singletonList(new MessageCorrelationItemResultImpl(messageCorrelations.get(0), e));
+      }
+
+      // the transaction of the batch is rolled back, correlate the messages one by one to isolate the failure
+      List<MessageCorrelationItemResult> results = new ArrayList<MessageCorrelationItemResult>(batch.size());
+      for (MessageCorrelationBuilderImpl messageCorrelation : batch) {
+        results.addAll(correlateMessageBatch(Collections.singletonList(messageCorrelation)));
+      }
+      return results;
+    }
+  }
+
   public void correlateMessage(String messageName, Map<String, Object> correlationKeys, Map<String, Object> processVariables) {
     commandExecutor.execute(new CorrelateMessageCmd(messageName, null, correlationKeys, processVariables));
   }
@@ -16,9 +16,11 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotEmpty;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -93,6 +95,7 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
   protected boolean initializeFormKeys = false;
   protected boolean taskNameCaseInsensitive = false;
   protected String parentTaskId;
+  protected List<String> fetchedVariableNames;
 
   // case management /////////////////////////////
   protected String caseDefinitionKey;
@@ -706,6 +709,13 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
     return this;
   }
 
+  public TaskQuery withVariables(String... variableNames) {
+    ensureNotNull("variableNames", (Object[]) variableNames);
+    ensureNotEmpty("variableNames", Arrays.asList(variableNames));
+    this.fetchedVariableNames = Arrays.asList(variableNames);
+    return this;
+  }
+
   public TaskQuery taskNameCaseInsensitive() {
     this.taskNameCaseInsensitive = true;
     return this;
@@ -894,6 +904,16 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
       }
     }
 
+    if (fetchedVariableNames != null) {
+      List<TaskEntity> tasks = new ArrayList<TaskEntity>();
+      for (Task task : taskList) {
+        tasks.add((TaskEntity) task);
+      }
+      commandContext
+        .getVariableInstanceManager()
+        .fetchTaskVariables(tasks, fetchedVariableNames);
+    }
+
     return taskList;
   }
 
@@ -1140,6 +1160,10 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
     return initializeFormKeys;
   }
 
+  public List<String> getFetchedVariableNames() {
+    return fetchedVariableNames;
+  }
+
   public boolean isTaskNameCaseInsensitive() {
     return taskNameCaseInsensitive;
   }
@@ -1514,6 +1538,17 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
       extendedQuery.taskNameCaseInsensitive();
     }
 
+    if (extendingQuery.getFetchedVariableNames() != null || this.getFetchedVariableNames() != null) {
+      Set<String> fetchedVariableNames = new LinkedHashSet<String>();
+      if (this.getFetchedVariableNames() != null) {
+        fetchedVariableNames.addAll(this.getFetchedVariableNames());
+      }
+      if (extendingQuery.getFetchedVariableNames() != null) {
+        fetchedVariableNames.addAll(extendingQuery.getFetchedVariableNames());
+      }
+      extendedQuery.withVariables(fetchedVariableNames.toArray(new String[fetchedVariableNames.size()]));
+    }
+
     // merge variables
     mergeVariables(extendedQuery, extendingQuery);
 
@@ -16,6 +16,7 @@ package org.camunda.bpm.engine.impl.bpmn.behavior;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.core.model.BaseCallableElement;
 import org.camunda.bpm.engine.impl.core.model.CallableElement;
+import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionEntity;
 import org.camunda.bpm.engine.impl.pvm.delegate.ActivityExecution;
 import org.camunda.bpm.engine.impl.scripting.ExecutableScript;
 import org.camunda.bpm.engine.impl.scripting.ScriptFactory;
@@ -31,9 +32,8 @@ public class DecisionRuleTaskActivityBehavior extends ScriptTaskActivityBehavior
   }
 
   @Override
-  public void execute(ActivityExecution execution) throws Exception {
-    script = createScript(execution);
-    super.execute(execution);
+  protected ExecutableScript getScript(ActivityExecution execution) {
+    return createScript(execution);
   }
 
   public BaseCallableElement getCallableElement() {
@@ -44,10 +44,27 @@ public class DecisionRuleTaskActivityBehavior extends ScriptTaskActivityBehavior
     this.callableElement = callableElement;
   }
 
+  /**
+   * Returns the compiled decision which is cached by the decision definition
+   * of the deployment cache, so the decision is only compiled once.
+   */
   protected ExecutableScript createScript(ActivityExecution execution) {
     DecisionDefinition definition = CallableElementUtil.getDecisionDefinitionToCall(execution, getCallableElement());
-    ScriptFactory scriptFactory = getScriptFactory();
-    return scriptFactory.createScriptFromDecisionDefinition(definition);
+
+    if (definition instanceof DecisionDefinitionEntity) {
+      DecisionDefinitionEntity definitionEntity = (DecisionDefinitionEntity) definition;
+
+      ExecutableScript executableScript = definitionEntity.getExecutableScript();
+      if (executableScript == null) {
+        // may be compiled concurrently by other threads, the last one is kept
+        executableScript = getScriptFactory().createScriptFromDecisionDefinition(definition);
+        definitionEntity.setExecutableScript(executableScript);
+      }
+      return executableScript;
+    }
+    else {
+      return getScriptFactory().createScriptFromDecisionDefinition(definition);
+    }
   }
 
   protected ScriptFactory getScriptFactory() {
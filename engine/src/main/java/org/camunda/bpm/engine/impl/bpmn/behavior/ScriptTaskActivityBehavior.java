@@ -43,6 +43,8 @@ public class ScriptTaskActivityBehavior extends TaskActivityBehavior {
   }
 
   public void execute(final ActivityExecution execution) throws Exception {
+    final ExecutableScript script = getScript(execution);
+
     executeWithErrorPropagation(execution, new Callable<Void>() {
       @Override
       public Void call() throws Exception {
@@ -80,4 +82,12 @@ public class ScriptTaskActivityBehavior extends TaskActivityBehavior {
     return script;
   }
 
+  /**
+   * @return the script to execute for the given execution. The behavior is shared
+   *   by all executions of the activity, so subclasses must not change the script field.
+   */
+  protected ExecutableScript getScript(ActivityExecution execution) {
+    return script;
+  }
+
 }
@@ -25,6 +25,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -97,7 +98,9 @@ import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformFactory;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformListener;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformer;
 import org.camunda.bpm.engine.impl.cmmn.transformer.DefaultCmmnTransformFactory;
+import org.camunda.bpm.engine.impl.db.AuthorizationDecisionCache;
 import org.camunda.bpm.engine.impl.db.DbIdGenerator;
+import org.camunda.bpm.engine.impl.db.PrefetchingDbIdGenerator;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManagerFactory;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCacheKeyMapping;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlPersistenceProviderFactory;
@@ -133,8 +136,12 @@ import org.camunda.bpm.engine.impl.form.validator.MinValidator;
 import org.camunda.bpm.engine.impl.form.validator.ReadOnlyValidator;
 import org.camunda.bpm.engine.impl.form.validator.RequiredValidator;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.cleanup.HistoryCleanupBatchWindow;
+import org.camunda.bpm.engine.impl.history.cleanup.HistoryCleanupJobHandler;
 import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInstanceManager;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventBuffer;
 import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.parser.HistoryDecisionTableListener;
 import org.camunda.bpm.engine.impl.history.parser.HistoryParseListener;
@@ -154,9 +161,11 @@ import org.camunda.bpm.engine.impl.interceptor.CommandContextFactory;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutorImpl;
 import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.camunda.bpm.engine.impl.interceptor.CommandMetricsInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.AsyncContinuationJobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.AuthorizationIndexJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.DefaultFailedJobCommandFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.DefaultJobExecutor;
 import org.camunda.bpm.engine.impl.jobexecutor.DefaultJobPriorityProvider;
@@ -180,11 +189,17 @@ import org.camunda.bpm.engine.impl.metrics.MetricsReporterIdProvider;
 import org.camunda.bpm.engine.impl.metrics.SimpleIpBasedProvider;
 import org.camunda.bpm.engine.impl.metrics.parser.MetricsBpmnParseListener;
 import org.camunda.bpm.engine.impl.metrics.parser.MetricsCmmnTransformListener;
+import org.camunda.bpm.engine.impl.metrics.exporter.MetricsExporter;
 import org.camunda.bpm.engine.impl.metrics.reporter.DbMetricsReporter;
 import org.camunda.bpm.engine.impl.persistence.GenericManagerFactory;
+import org.camunda.bpm.engine.impl.persistence.blob.BlobStore;
+import org.camunda.bpm.engine.impl.persistence.blob.FileSystemBlobStore;
 import org.camunda.bpm.engine.impl.persistence.deploy.Deployer;
 import org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.CacheFactory;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DefaultCacheFactory;
 import org.camunda.bpm.engine.impl.persistence.entity.AttachmentManager;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationIndexManager;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
 import org.camunda.bpm.engine.impl.persistence.entity.CommentManager;
@@ -217,6 +232,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.TaskManager;
 import org.camunda.bpm.engine.impl.persistence.entity.UserOperationLogManager;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceManager;
 import org.camunda.bpm.engine.impl.runtime.CorrelationHandler;
+import org.camunda.bpm.engine.impl.runtime.CorrelationIndex;
 import org.camunda.bpm.engine.impl.runtime.DefaultCorrelationHandler;
 import org.camunda.bpm.engine.impl.scripting.ScriptFactory;
 import org.camunda.bpm.engine.impl.scripting.engine.BeansResolverFactory;
@@ -226,13 +242,17 @@ import org.camunda.bpm.engine.impl.scripting.engine.ScriptingEngines;
 import org.camunda.bpm.engine.impl.scripting.engine.VariableScopeResolverFactory;
 import org.camunda.bpm.engine.impl.scripting.env.ScriptEnvResolver;
 import org.camunda.bpm.engine.impl.scripting.env.ScriptingEnvironment;
+import org.camunda.bpm.engine.impl.signal.SignalBroadcastBatchJobHandler;
+import org.camunda.bpm.engine.impl.signal.SignalBroadcastJobHandler;
 import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.impl.util.ReflectUtil;
 import org.camunda.bpm.engine.impl.variable.ValueTypeResolverImpl;
 import org.camunda.bpm.engine.impl.variable.serializer.BooleanValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.ByteArrayValueSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryObjectSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.DateValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.DefaultVariableSerializers;
+import org.camunda.bpm.engine.impl.variable.serializer.DeserializedValueCache;
 import org.camunda.bpm.engine.impl.variable.serializer.DoubleValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.FileValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.IntegerValueSerializer;
@@ -321,6 +341,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected List<Deployer> deployers;
   protected DeploymentCache deploymentCache;
 
+  /** creates the caches of the deployment cache, defaults to bounded LRU caches */
+  protected CacheFactory cacheFactory;
+
+  /** maximum number of entries of each cache of the deployment cache, unbounded if less than or equal to zero */
+  protected int cacheCapacity = DeploymentCache.DEFAULT_CACHE_CAPACITY;
+
   // JOB EXECUTOR /////////////////////////////////////////////////////////////
 
   protected List<JobHandler> customJobHandlers;
@@ -339,6 +365,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected IdGenerator idGenerator;
   protected DataSource idGeneratorDataSource;
   protected String idGeneratorDataSourceJndiName;
+  /** If true, the default id generator fetches the next id block in the background
+   * instead of blocking all callers when the current block is exhausted. */
+  protected boolean isIdGeneratorPrefetchEnabled = false;
 
   // INCIDENT HANDLER /////////////////////////////////////////////////////////
 
@@ -449,6 +478,104 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected ResourceAuthorizationProvider resourceAuthorizationProvider;
 
+  /**
+   * The time in milliseconds the results of authorization checks are cached engine-wide,
+   * 0 disables the cache. The results are always cached for the duration of a command.
+   */
+  protected long authorizationCacheTimeToLive = 0;
+
+  /** the maximum number of cached authorization decisions */
+  protected int authorizationCacheCapacity = 10000;
+
+  protected AuthorizationDecisionCache authorizationDecisionCache;
+
+  /**
+   * The maximum number of deserialized object values which are cached engine-wide.
+   * The cache is disabled if the capacity is less than or equal to zero.
+   *
+   * @see DeserializedValueCache
+   */
+  protected int deserializedValueCacheCapacity = 0;
+
+  /**
+   * Names of the classes whose instances cannot be modified. Besides enums and immutable
+   * JDK types, only deserialized objects of these classes are cached.
+   *
+   * @see DeserializedValueCache
+   */
+  protected Set<String> deserializedValueCacheImmutableTypes = new HashSet<String>();
+
+  protected DeserializedValueCache deserializedValueCache;
+
+  /**
+   * Keeps the content of large file variables and attachments outside of the database.
+   * If not set, a {@link FileSystemBlobStore} is created if a {@link #blobStoreDirectory} is configured.
+   */
+  protected BlobStore blobStore;
+
+  protected String blobStoreDirectory;
+
+  /** the minimum size in bytes of content which is kept in the blob store */
+  protected int blobStoreThreshold = 1024 * 1024;
+
+  /**
+   * If true, the history of process instances whose time to live is expired is
+   * deleted by jobs which are scheduled when the process engine is built.
+   *
+   * @see HistoryCleanupJobHandler
+   */
+  protected boolean isHistoryCleanupEnabled = false;
+
+  /**
+   * The number of days the history of a finished process instance is kept, if no time
+   * to live is configured for its process definition key. If null, the history is kept forever.
+   */
+  protected Integer historyTimeToLive;
+
+  /** the number of days the history is kept by process definition key */
+  protected Map<String, Integer> historyTimeToLiveByProcessDefinitionKey = new HashMap<String, Integer>();
+
+  /** the time of the day the history cleanup starts in the format HH:mm, always if not set */
+  protected String historyCleanupBatchWindowStartTime;
+
+  /** the time of the day the history cleanup stops in the format HH:mm */
+  protected String historyCleanupBatchWindowEndTime;
+
+  protected HistoryCleanupBatchWindow historyCleanupBatchWindow;
+
+  /** the number of process instances deleted per transaction by the history cleanup */
+  protected int historyCleanupBatchSize = 500;
+
+  /**
+   * The number of signal subscriptions triggered per transaction by an asynchronous signal broadcast.
+   *
+   * @see SignalBroadcastJobHandler
+   */
+  protected int signalBroadcastBatchSize = 100;
+
+  /**
+   * The names of the variables which are maintained in the correlation index. Messages
+   * correlated by one of these variables look up the process instances in the index instead
+   * of comparing the variable values. Variables created before a name is added are indexed by
+   * {@link ManagementService#rebuildCorrelationIndex()}.
+   *
+   * @see CorrelationIndex
+   */
+  protected Set<String> correlationIndexKeys = new HashSet<String>();
+
+  /**
+   * The number of messages correlated per transaction by {@link RuntimeService#correlateMessages(List)}.
+   */
+  protected int messageCorrelationBatchSize = 100;
+
+  /**
+   * If true, the effective permissions of the users are maintained in the authorization
+   * index which is used by authorization checks instead of the authorizations. The index
+   * has to be rebuilt after it is enabled, see {@link ManagementService#rebuildAuthorizationIndex()},
+   * and must be enabled on all engines sharing the database.
+   */
+  protected boolean isAuthorizationIndexEnabled = false;
+
   protected List<ProcessEnginePlugin> processEnginePlugins = new ArrayList<ProcessEnginePlugin>();
 
   protected HistoryEventProducer historyEventProducer;
@@ -459,8 +586,39 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected HistoryEventHandler historyEventHandler;
 
+  /**
+   * If true, the history events are written asynchronously by dedicated writer threads
+   * after the producing transaction is committed, see {@link AsyncHistoryEventHandler}.
+   */
+  protected boolean isAsyncHistoryEnabled = false;
+
+  /** number of threads writing history events if async history is enabled */
+  protected int asyncHistoryWriterThreads = 1;
+
+  /** maximum number of history events queued per writer thread */
+  protected int asyncHistoryQueueCapacity = 10000;
+
+  /** maximum number of history events written in a single transaction */
+  protected int asyncHistoryBatchSize = 500;
+
+  /** time in milliseconds to wait for free space in a full history event queue */
+  protected long asyncHistoryQueueTimeout = 1000;
+
+  /**
+   * If true, the history events are stored in the producing transaction until they are
+   * written asynchronously, so that they are not lost if the engine crashes or writing fails.
+   * Default setting is false since storing the events adds a write to every transaction.
+   */
+  protected boolean isAsyncHistoryStoreEvents = false;
+
   protected boolean isExecutionTreePrefetchEnabled = true;
 
+  /**
+   * If true, the variables of all executions and tasks of a process instance are
+   * fetched with a single query as soon as the variables of one of them are accessed.
+   */
+  protected boolean isVariablePrefetchEnabled = false;
+
   /** If true the process engine will attempt to acquire an exclusive lock before
    * creating a deployment.
    */
@@ -471,6 +629,11 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
    */
   protected boolean isDbEntityCacheReuseEnabled = false;
 
+  /** If true, the operations of a flush are sent to the database using JDBC batching.
+   * Default setting is false, enabling it reduces the number of database round-trips per command.
+   */
+  protected boolean jdbcBatchProcessing = false;
+
   protected boolean isInvokeCustomVariableListeners = true;
 
   /**
@@ -491,8 +654,23 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected boolean isMetricsEnabled = true;
   protected boolean isDbMetricsReporterActivate = true;
 
+  /**
+   * If true, activity instance starts are additionally counted per process definition key
+   * and activity type. Applies to process definitions parsed after it was enabled.
+   */
+  protected boolean isDimensionalMetricsEnabled = false;
+
+  /**
+   * If true, the duration, the number of SQL statements and the number of cached entities
+   * are recorded per command class, see {@link CommandMetricsInterceptor}.
+   */
+  protected boolean isCommandMetricsEnabled = false;
+
   protected MetricsReporterIdProvider metricsReporterIdProvider;
 
+  /** exporters which make the metrics available to external monitoring systems */
+  protected List<MetricsExporter> metricsExporters = new ArrayList<MetricsExporter>();
+
   // buildProcessEngine ///////////////////////////////////////////////////////
 
   @Override
@@ -540,13 +718,19 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initJpa();
     initDelegateInterceptor();
     initEventHandlers();
+    initSignalBroadcast();
     initFailedJobCommandFactory();
     initProcessApplicationManager();
     initCorrelationHandler();
+    initMessageCorrelation();
     initIncidentHandlers();
     initPasswordDigest();
     initDeploymentRegistration();
     initResourceAuthorizationProvider();
+    initAuthorizationDecisionCache();
+    initDeserializedValueCache();
+    initBlobStore();
+    initHistoryCleanup();
     initMetrics();
 
     invokePostInit();
@@ -626,6 +810,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         commandInterceptorsTxRequired = new ArrayList<CommandInterceptor>();
       }
       commandInterceptorsTxRequired.addAll(getDefaultCommandInterceptorsTxRequired());
+      if (isCommandMetricsEnabled) {
+        commandInterceptorsTxRequired.add(new CommandMetricsInterceptor());
+      }
       if (customPostCommandInterceptorsTxRequired!=null) {
         commandInterceptorsTxRequired.addAll(customPostCommandInterceptorsTxRequired);
       }
@@ -641,6 +828,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         commandInterceptorsTxRequiresNew = new ArrayList<CommandInterceptor>();
       }
       commandInterceptorsTxRequiresNew.addAll(getDefaultCommandInterceptorsTxRequiresNew());
+      if (isCommandMetricsEnabled) {
+        commandInterceptorsTxRequiresNew.add(new CommandMetricsInterceptor());
+      }
       if (customPostCommandInterceptorsTxRequiresNew!=null) {
         commandInterceptorsTxRequiresNew.addAll(customPostCommandInterceptorsTxRequiresNew);
       }
@@ -898,6 +1088,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       addSessionFactory(new GenericManagerFactory(DeploymentManager.class));
       addSessionFactory(new GenericManagerFactory(ExecutionManager.class));
       addSessionFactory(new GenericManagerFactory(HistoricActivityInstanceManager.class));
+      addSessionFactory(new GenericManagerFactory(HistoryEventBuffer.class));
       addSessionFactory(new GenericManagerFactory(HistoricCaseActivityInstanceManager.class));
       addSessionFactory(new GenericManagerFactory(HistoricStatisticsManager.class));
       addSessionFactory(new GenericManagerFactory(HistoricDetailManager.class));
@@ -923,6 +1114,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       addSessionFactory(new GenericManagerFactory(StatisticsManager.class));
       addSessionFactory(new GenericManagerFactory(IncidentManager.class));
       addSessionFactory(new GenericManagerFactory(AuthorizationManager.class));
+      addSessionFactory(new GenericManagerFactory(AuthorizationIndexManager.class));
       addSessionFactory(new GenericManagerFactory(FilterManager.class));
       addSessionFactory(new GenericManagerFactory(MeterLogManager.class));
 
@@ -960,6 +1152,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     dbSqlSessionFactory.setCmmnEnabled(cmmnEnabled);
     dbSqlSessionFactory.setDatabaseTablePrefix(databaseTablePrefix);
     dbSqlSessionFactory.setDatabaseSchema(databaseSchema);
+    dbSqlSessionFactory.setJdbcBatchProcessing(jdbcBatchProcessing);
     addSessionFactory(dbSqlSessionFactory);
     addSessionFactory(new DbSqlPersistenceProviderFactory());
   }
@@ -1002,7 +1195,11 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         deployers.addAll(customPostDeployers);
       }
 
-      deploymentCache = new DeploymentCache();
+      if (cacheFactory == null) {
+        cacheFactory = new DefaultCacheFactory();
+      }
+
+      deploymentCache = new DeploymentCache(cacheFactory, cacheCapacity);
       deploymentCache.setDeployers(deployers);
     }
   }
@@ -1153,6 +1350,18 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     TimerActivateJobDefinitionHandler activateJobDefinitionHandler = new TimerActivateJobDefinitionHandler();
     jobHandlers.put(activateJobDefinitionHandler.getType(), activateJobDefinitionHandler);
 
+    AuthorizationIndexJobHandler authorizationIndexJobHandler = new AuthorizationIndexJobHandler();
+    jobHandlers.put(authorizationIndexJobHandler.getType(), authorizationIndexJobHandler);
+
+    HistoryCleanupJobHandler historyCleanupJobHandler = new HistoryCleanupJobHandler();
+    jobHandlers.put(historyCleanupJobHandler.getType(), historyCleanupJobHandler);
+
+    SignalBroadcastJobHandler signalBroadcastJobHandler = new SignalBroadcastJobHandler();
+    jobHandlers.put(signalBroadcastJobHandler.getType(), signalBroadcastJobHandler);
+
+    SignalBroadcastBatchJobHandler signalBroadcastBatchJobHandler = new SignalBroadcastBatchJobHandler();
+    jobHandlers.put(signalBroadcastBatchJobHandler.getType(), signalBroadcastBatchJobHandler);
+
     // if we have custom job handlers, register them
     if (getCustomJobHandlers()!=null) {
       for (JobHandler customJobHandler : getCustomJobHandlers()) {
@@ -1237,7 +1446,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         idGeneratorCommandExecutor = commandExecutorTxRequiresNew;
       }
 
-      DbIdGenerator dbIdGenerator = new DbIdGenerator();
+      DbIdGenerator dbIdGenerator;
+      if (isIdGeneratorPrefetchEnabled) {
+        dbIdGenerator = new PrefetchingDbIdGenerator();
+      } else {
+        dbIdGenerator = new DbIdGenerator();
+      }
       dbIdGenerator.setIdBlockSize(idBlockSize);
       dbIdGenerator.setCommandExecutor(idGeneratorCommandExecutor);
       idGenerator = dbIdGenerator;
@@ -1287,6 +1501,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
       initDefaultMetrics(metricsRegistry);
 
+      if (idGenerator instanceof PrefetchingDbIdGenerator) {
+        ((PrefetchingDbIdGenerator) idGenerator).setMetricsRegistry(metricsRegistry);
+      }
+
       if(dbMetricsReporter == null) {
         dbMetricsReporter = new DbMetricsReporter(metricsRegistry, commandExecutorTxRequired);
       }
@@ -1305,6 +1523,13 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     metricsRegistry.createMeter(Metrics.JOB_EXECUTION_REJECTED);
 
     metricsRegistry.createMeter(Metrics.EXECUTED_DECISION_ELEMENTS);
+
+    metricsRegistry.createMeter(Metrics.ID_GENERATOR_REFILL_STALL);
+
+    metricsRegistry.createHistogram(Metrics.JOB_EXECUTION_DURATION);
+    // high frequency timers which are only available to metrics exporters
+    metricsRegistry.createHistogram(Metrics.JOB_ACQUISITION_DURATION).setReportedToDatabase(false);
+    metricsRegistry.createHistogram(Metrics.DB_FLUSH_SIZE).setReportedToDatabase(false);
   }
 
   protected void initSerialization() {
@@ -1328,6 +1553,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       variableSerializers.addSerializer(new DoubleValueSerializer());
       variableSerializers.addSerializer(new ByteArrayValueSerializer());
       variableSerializers.addSerializer(new JavaObjectSerializer());
+      variableSerializers.addSerializer(new CompactBinaryObjectSerializer());
       variableSerializers.addSerializer(new FileValueSerializer());
 
       if (customPostVariableSerializers!=null) {
@@ -1474,6 +1700,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initSignalBroadcast() {
+    if(signalBroadcastBatchSize < 1) {
+      throw new ProcessEngineException("Signal broadcast batch size must be positive but is " + signalBroadcastBatchSize);
+    }
+  }
+
   // JPA //////////////////////////////////////////////////////////////////////
 
   protected void initJpa() {
@@ -1522,6 +1754,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   }
 
+  protected void initMessageCorrelation() {
+    if(messageCorrelationBatchSize < 1) {
+      throw new ProcessEngineException("Message correlation batch size must be positive but is " + messageCorrelationBatchSize);
+    }
+  }
+
   // history handlers /////////////////////////////////////////////////////
 
   protected void initHistoryEventProducer() {
@@ -1546,6 +1784,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     if(historyEventHandler == null) {
       historyEventHandler = new DbHistoryEventHandler();
     }
+    if(isAsyncHistoryEnabled && !(historyEventHandler instanceof AsyncHistoryEventHandler)) {
+      AsyncHistoryEventHandler asyncHistoryEventHandler = new AsyncHistoryEventHandler(historyEventHandler);
+      asyncHistoryEventHandler.setWriterThreads(asyncHistoryWriterThreads);
+      asyncHistoryEventHandler.setQueueCapacity(asyncHistoryQueueCapacity);
+      asyncHistoryEventHandler.setBatchSize(asyncHistoryBatchSize);
+      asyncHistoryEventHandler.setQueueTimeout(asyncHistoryQueueTimeout);
+      asyncHistoryEventHandler.setStoreEvents(isAsyncHistoryStoreEvents);
+      historyEventHandler = asyncHistoryEventHandler;
+    }
   }
 
   // password digest //////////////////////////////////////////////////////////
@@ -1571,6 +1818,34 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initDeserializedValueCache() {
+    if(deserializedValueCache == null && deserializedValueCacheCapacity > 0) {
+      deserializedValueCache = new DeserializedValueCache(deserializedValueCacheCapacity, deserializedValueCacheImmutableTypes);
+    }
+  }
+
+  protected void initBlobStore() {
+    if(blobStore == null && blobStoreDirectory != null) {
+      blobStore = new FileSystemBlobStore(blobStoreDirectory);
+    }
+  }
+
+  protected void initHistoryCleanup() {
+    if(historyCleanupBatchWindow == null) {
+      historyCleanupBatchWindow = new HistoryCleanupBatchWindow(historyCleanupBatchWindowStartTime, historyCleanupBatchWindowEndTime);
+    }
+    // the ids of a batch are deleted with in-lists, which are limited to 1000 elements on some databases
+    if(historyCleanupBatchSize < 1 || historyCleanupBatchSize > 1000) {
+      throw new ProcessEngineException("History cleanup batch size must be between 1 and 1000 but is " + historyCleanupBatchSize);
+    }
+  }
+
+  protected void initAuthorizationDecisionCache() {
+    if(authorizationDecisionCache == null && authorizationCacheTimeToLive > 0) {
+      authorizationDecisionCache = new AuthorizationDecisionCache(authorizationCacheTimeToLive, authorizationCacheCapacity);
+    }
+  }
+
   // getters and setters //////////////////////////////////////////////////////
 
   @Override
@@ -2289,6 +2564,24 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.deploymentCache = deploymentCache;
   }
 
+  public CacheFactory getCacheFactory() {
+    return cacheFactory;
+  }
+
+  public ProcessEngineConfigurationImpl setCacheFactory(CacheFactory cacheFactory) {
+    this.cacheFactory = cacheFactory;
+    return this;
+  }
+
+  public int getCacheCapacity() {
+    return cacheCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setCacheCapacity(int cacheCapacity) {
+    this.cacheCapacity = cacheCapacity;
+    return this;
+  }
+
   public ProcessEngineConfigurationImpl setDelegateInterceptor(DelegateInterceptor delegateInterceptor) {
     this.delegateInterceptor = delegateInterceptor;
     return this;
@@ -2535,6 +2828,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.isExecutionTreePrefetchEnabled = isExecutionTreePrefetchingEnabled;
   }
 
+  public boolean isVariablePrefetchEnabled() {
+    return isVariablePrefetchEnabled;
+  }
+
+  public void setVariablePrefetchEnabled(boolean isVariablePrefetchEnabled) {
+    this.isVariablePrefetchEnabled = isVariablePrefetchEnabled;
+  }
+
   public ProcessEngineImpl getProcessEngine() {
     return processEngine;
   }
@@ -2684,6 +2985,24 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public boolean isIdGeneratorPrefetchEnabled() {
+    return isIdGeneratorPrefetchEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setIdGeneratorPrefetchEnabled(boolean isIdGeneratorPrefetchEnabled) {
+    this.isIdGeneratorPrefetchEnabled = isIdGeneratorPrefetchEnabled;
+    return this;
+  }
+
+  public boolean isJdbcBatchProcessing() {
+    return jdbcBatchProcessing;
+  }
+
+  public ProcessEngineConfigurationImpl setJdbcBatchProcessing(boolean jdbcBatchProcessing) {
+    this.jdbcBatchProcessing = jdbcBatchProcessing;
+    return this;
+  }
+
   public DbEntityCacheKeyMapping getDbEntityCacheKeyMapping() {
     return dbEntityCacheKeyMapping;
   }
@@ -2716,6 +3035,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   }
 
   public void close() {
+    if (idGenerator instanceof PrefetchingDbIdGenerator) {
+      ((PrefetchingDbIdGenerator) idGenerator).close();
+    }
+
     if (dataSource instanceof PooledDataSource) {
       // ACT-233: connection pool of Ibatis is not properely initialized if this is not called!
       ((PooledDataSource)dataSource).forceCloseAll();
@@ -2740,6 +3063,258 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return isMetricsEnabled;
   }
 
+  public ProcessEngineConfigurationImpl setDimensionalMetricsEnabled(boolean isDimensionalMetricsEnabled) {
+    this.isDimensionalMetricsEnabled = isDimensionalMetricsEnabled;
+    return this;
+  }
+
+  public boolean isDimensionalMetricsEnabled() {
+    return isDimensionalMetricsEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setCommandMetricsEnabled(boolean isCommandMetricsEnabled) {
+    this.isCommandMetricsEnabled = isCommandMetricsEnabled;
+    return this;
+  }
+
+  public boolean isCommandMetricsEnabled() {
+    return isCommandMetricsEnabled;
+  }
+
+  public long getAuthorizationCacheTimeToLive() {
+    return authorizationCacheTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCacheTimeToLive(long authorizationCacheTimeToLive) {
+    this.authorizationCacheTimeToLive = authorizationCacheTimeToLive;
+    return this;
+  }
+
+  public int getAuthorizationCacheCapacity() {
+    return authorizationCacheCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationCacheCapacity(int authorizationCacheCapacity) {
+    this.authorizationCacheCapacity = authorizationCacheCapacity;
+    return this;
+  }
+
+  public int getDeserializedValueCacheCapacity() {
+    return deserializedValueCacheCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setDeserializedValueCacheCapacity(int deserializedValueCacheCapacity) {
+    this.deserializedValueCacheCapacity = deserializedValueCacheCapacity;
+    return this;
+  }
+
+  public Set<String> getDeserializedValueCacheImmutableTypes() {
+    return deserializedValueCacheImmutableTypes;
+  }
+
+  public ProcessEngineConfigurationImpl setDeserializedValueCacheImmutableTypes(Set<String> deserializedValueCacheImmutableTypes) {
+    this.deserializedValueCacheImmutableTypes = deserializedValueCacheImmutableTypes;
+    return this;
+  }
+
+  public DeserializedValueCache getDeserializedValueCache() {
+    return deserializedValueCache;
+  }
+
+  public ProcessEngineConfigurationImpl setDeserializedValueCache(DeserializedValueCache deserializedValueCache) {
+    this.deserializedValueCache = deserializedValueCache;
+    return this;
+  }
+
+  public BlobStore getBlobStore() {
+    return blobStore;
+  }
+
+  public ProcessEngineConfigurationImpl setBlobStore(BlobStore blobStore) {
+    this.blobStore = blobStore;
+    return this;
+  }
+
+  public String getBlobStoreDirectory() {
+    return blobStoreDirectory;
+  }
+
+  public ProcessEngineConfigurationImpl setBlobStoreDirectory(String blobStoreDirectory) {
+    this.blobStoreDirectory = blobStoreDirectory;
+    return this;
+  }
+
+  public int getBlobStoreThreshold() {
+    return blobStoreThreshold;
+  }
+
+  public ProcessEngineConfigurationImpl setBlobStoreThreshold(int blobStoreThreshold) {
+    this.blobStoreThreshold = blobStoreThreshold;
+    return this;
+  }
+
+  public boolean isHistoryCleanupEnabled() {
+    return isHistoryCleanupEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupEnabled(boolean isHistoryCleanupEnabled) {
+    this.isHistoryCleanupEnabled = isHistoryCleanupEnabled;
+    return this;
+  }
+
+  public Integer getHistoryTimeToLive() {
+    return historyTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryTimeToLive(Integer historyTimeToLive) {
+    this.historyTimeToLive = historyTimeToLive;
+    return this;
+  }
+
+  public Map<String, Integer> getHistoryTimeToLiveByProcessDefinitionKey() {
+    return historyTimeToLiveByProcessDefinitionKey;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryTimeToLiveByProcessDefinitionKey(Map<String, Integer> historyTimeToLiveByProcessDefinitionKey) {
+    this.historyTimeToLiveByProcessDefinitionKey = historyTimeToLiveByProcessDefinitionKey;
+    return this;
+  }
+
+  public String getHistoryCleanupBatchWindowStartTime() {
+    return historyCleanupBatchWindowStartTime;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupBatchWindowStartTime(String historyCleanupBatchWindowStartTime) {
+    this.historyCleanupBatchWindowStartTime = historyCleanupBatchWindowStartTime;
+    return this;
+  }
+
+  public String getHistoryCleanupBatchWindowEndTime() {
+    return historyCleanupBatchWindowEndTime;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupBatchWindowEndTime(String historyCleanupBatchWindowEndTime) {
+    this.historyCleanupBatchWindowEndTime = historyCleanupBatchWindowEndTime;
+    return this;
+  }
+
+  public HistoryCleanupBatchWindow getHistoryCleanupBatchWindow() {
+    return historyCleanupBatchWindow;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupBatchWindow(HistoryCleanupBatchWindow historyCleanupBatchWindow) {
+    this.historyCleanupBatchWindow = historyCleanupBatchWindow;
+    return this;
+  }
+
+  public int getHistoryCleanupBatchSize() {
+    return historyCleanupBatchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupBatchSize(int historyCleanupBatchSize) {
+    this.historyCleanupBatchSize = historyCleanupBatchSize;
+    return this;
+  }
+
+  public int getSignalBroadcastBatchSize() {
+    return signalBroadcastBatchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setSignalBroadcastBatchSize(int signalBroadcastBatchSize) {
+    this.signalBroadcastBatchSize = signalBroadcastBatchSize;
+    return this;
+  }
+
+  public int getMessageCorrelationBatchSize() {
+    return messageCorrelationBatchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setMessageCorrelationBatchSize(int messageCorrelationBatchSize) {
+    this.messageCorrelationBatchSize = messageCorrelationBatchSize;
+    return this;
+  }
+
+  public Set<String> getCorrelationIndexKeys() {
+    return correlationIndexKeys;
+  }
+
+  public ProcessEngineConfigurationImpl setCorrelationIndexKeys(Set<String> correlationIndexKeys) {
+    this.correlationIndexKeys = correlationIndexKeys;
+    return this;
+  }
+
+  public AuthorizationDecisionCache getAuthorizationDecisionCache() {
+    return authorizationDecisionCache;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationDecisionCache(AuthorizationDecisionCache authorizationDecisionCache) {
+    this.authorizationDecisionCache = authorizationDecisionCache;
+    return this;
+  }
+
+  public boolean isAuthorizationIndexEnabled() {
+    return isAuthorizationIndexEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setAuthorizationIndexEnabled(boolean isAuthorizationIndexEnabled) {
+    this.isAuthorizationIndexEnabled = isAuthorizationIndexEnabled;
+    return this;
+  }
+
+  public boolean isAsyncHistoryEnabled() {
+    return isAsyncHistoryEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryEnabled(boolean isAsyncHistoryEnabled) {
+    this.isAsyncHistoryEnabled = isAsyncHistoryEnabled;
+    return this;
+  }
+
+  public int getAsyncHistoryWriterThreads() {
+    return asyncHistoryWriterThreads;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryWriterThreads(int asyncHistoryWriterThreads) {
+    this.asyncHistoryWriterThreads = asyncHistoryWriterThreads;
+    return this;
+  }
+
+  public int getAsyncHistoryQueueCapacity() {
+    return asyncHistoryQueueCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryQueueCapacity(int asyncHistoryQueueCapacity) {
+    this.asyncHistoryQueueCapacity = asyncHistoryQueueCapacity;
+    return this;
+  }
+
+  public int getAsyncHistoryBatchSize() {
+    return asyncHistoryBatchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryBatchSize(int asyncHistoryBatchSize) {
+    this.asyncHistoryBatchSize = asyncHistoryBatchSize;
+    return this;
+  }
+
+  public long getAsyncHistoryQueueTimeout() {
+    return asyncHistoryQueueTimeout;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryQueueTimeout(long asyncHistoryQueueTimeout) {
+    this.asyncHistoryQueueTimeout = asyncHistoryQueueTimeout;
+    return this;
+  }
+
+  public boolean isAsyncHistoryStoreEvents() {
+    return isAsyncHistoryStoreEvents;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryStoreEvents(boolean isAsyncHistoryStoreEvents) {
+    this.isAsyncHistoryStoreEvents = isAsyncHistoryStoreEvents;
+    return this;
+  }
+
   public DbMetricsReporter getDbMetricsReporter() {
     return dbMetricsReporter;
   }
@@ -2758,6 +3333,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public List<MetricsExporter> getMetricsExporters() {
+    return metricsExporters;
+  }
+
+  public ProcessEngineConfigurationImpl setMetricsExporters(List<MetricsExporter> metricsExporters) {
+    this.metricsExporters = metricsExporters;
+    return this;
+  }
+
   public MetricsReporterIdProvider getMetricsReporterIdProvider() {
     return metricsReporterIdProvider;
   }
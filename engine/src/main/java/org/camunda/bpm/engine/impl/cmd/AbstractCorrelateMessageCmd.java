@@ -65,11 +65,12 @@ public abstract class AbstractCorrelateMessageCmd implements Command<Void> {
     new MessageEventReceivedCmd(messageName, correlationResult.getExecutionEntity().getId(), processVariables, isExclusiveCorrelation).execute(commandContext);
   }
 
-  protected void instantiateProcess(CommandContext commandContext, MessageCorrelationResult correlationResult) {
+  protected ExecutionEntity instantiateProcess(CommandContext commandContext, MessageCorrelationResult correlationResult) {
     ProcessDefinitionEntity processDefinitionEntity = correlationResult.getProcessDefinitionEntity();
     ActivityImpl messageStartEvent = processDefinitionEntity.findActivity(correlationResult.getStartEventActivityId());
     ExecutionEntity processInstance = processDefinitionEntity.createProcessInstance(businessKey, messageStartEvent);
     processInstance.start(processVariables);
+    return processInstance;
   }
 
   protected void checkAuthorization(MessageCorrelationResult correlation) {
@@ -15,7 +15,11 @@ package org.camunda.bpm.engine.impl.cmd;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.camunda.bpm.engine.impl.Page;
 import org.camunda.bpm.engine.impl.db.DbEntity;
@@ -61,6 +65,8 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
       .getJobManager()
       .findNextJobsToExecute(new Page(0, numJobsToAcquire));
 
+    Map<String, List<JobEntity>> exclusiveJobsByProcessInstance = findExclusiveJobsToExecute(commandContext, jobs);
+
     for (JobEntity job: jobs) {
       List<String> jobIds = new ArrayList<String>();
 
@@ -68,12 +74,13 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
         if (job.isExclusive() && job.getProcessInstanceId() != null) {
           // acquire all exclusive jobs in the same process instance
           // (includes the current job)
-          List<JobEntity> exclusiveJobs = commandContext.getJobManager()
-            .findExclusiveJobsToExecute(job.getProcessInstanceId());
-          for (JobEntity exclusiveJob : exclusiveJobs) {
-            if(exclusiveJob != null) {
-              lockJob(exclusiveJob, lockOwner, lockTimeInMillis);
-              jobIds.add(exclusiveJob.getId());
+          List<JobEntity> exclusiveJobs = exclusiveJobsByProcessInstance.get(job.getProcessInstanceId());
+          if (exclusiveJobs != null) {
+            for (JobEntity exclusiveJob : exclusiveJobs) {
+              if(exclusiveJob != null && !acquiredJobs.contains(exclusiveJob.getId())) {
+                lockJob(exclusiveJob, lockOwner, lockTimeInMillis);
+                jobIds.add(exclusiveJob.getId());
+              }
             }
           }
         } else {
@@ -86,6 +93,11 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
       acquiredJobs.addJobIdBatch(jobIds);
     }
 
+    if (jobExecutor.isDueDateAwareAcquisition() && jobs.size() < numJobsToAcquire) {
+      // all due jobs were fetched, so the acquisition can wait until the next job is due
+      acquiredJobs.setNextDueDate(commandContext.getJobManager().findNextJobDueDate());
+    }
+
     // register an OptimisticLockingListener which is notified about jobs which cannot be acquired.
     // the listener removes them from the list of acquired jobs.
     commandContext
@@ -95,6 +107,40 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
     return acquiredJobs;
   }
 
+  /**
+   * Fetches the exclusive jobs of all process instances which have an exclusive job
+   * among the given jobs with a single query and groups them by process instance id.
+   */
+  protected Map<String, List<JobEntity>> findExclusiveJobsToExecute(CommandContext commandContext, List<JobEntity> jobs) {
+    Set<String> processInstanceIds = new HashSet<String>();
+    for (JobEntity job : jobs) {
+      if (job != null && job.isExclusive() && job.getProcessInstanceId() != null) {
+        processInstanceIds.add(job.getProcessInstanceId());
+      }
+    }
+
+    Map<String, List<JobEntity>> exclusiveJobsByProcessInstance = new HashMap<String, List<JobEntity>>();
+    if (processInstanceIds.isEmpty()) {
+      return exclusiveJobsByProcessInstance;
+    }
+
+    List<JobEntity> exclusiveJobs = commandContext
+      .getJobManager()
+      .findExclusiveJobsToExecute(processInstanceIds);
+
+    for (JobEntity exclusiveJob : exclusiveJobs) {
+      String processInstanceId = exclusiveJob.getProcessInstanceId();
+      List<JobEntity> jobsOfProcessInstance = exclusiveJobsByProcessInstance.get(processInstanceId);
+      if (jobsOfProcessInstance == null) {
+        jobsOfProcessInstance = new ArrayList<JobEntity>();
+        exclusiveJobsByProcessInstance.put(processInstanceId, jobsOfProcessInstance);
+      }
+      jobsOfProcessInstance.add(exclusiveJob);
+    }
+
+    return exclusiveJobsByProcessInstance;
+  }
+
   protected void lockJob(JobEntity job, String lockOwner, int lockTimeInMillis) {
     job.setLockOwner(lockOwner);
     GregorianCalendar gregorianCalendar = new GregorianCalendar();
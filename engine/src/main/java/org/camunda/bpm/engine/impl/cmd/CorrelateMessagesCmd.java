@@ -0,0 +1,188 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureAtLeastOneNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.camunda.bpm.engine.AuthorizationException;
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.exception.NullValueException;
+import org.camunda.bpm.engine.impl.MessageCorrelationBuilderImpl;
+import org.camunda.bpm.engine.impl.event.MessageEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.runtime.CorrelationHandler;
+import org.camunda.bpm.engine.impl.runtime.CorrelationSet;
+import org.camunda.bpm.engine.impl.runtime.MessageCorrelationItemResultImpl;
+import org.camunda.bpm.engine.impl.runtime.MessageCorrelationResult;
+import org.camunda.bpm.engine.runtime.MessageCorrelationItemResult;
+
+/**
+ * <p>Correlates a batch of messages in one transaction. The batch consists of the first
+ * messages of the given list, up to the message correlation batch size of the process
+ * engine configuration. The executions and process
+ * definitions of all messages are resolved together by the {@link CorrelationHandler}
+ * before the first message is triggered, so a message cannot correlate to an execution
+ * which is created by another message of the same batch. Since triggering a message may
+ * remove other executions (e.g. by an interrupting boundary event) or leave the event,
+ * a resolved execution is only triggered if it still exists and is still subscribed to
+ * the message. Otherwise the message is reported as failed. If several messages of a
+ * batch resolve to the same execution, a later message is therefore only triggered if
+ * the execution has reached the message event again.</p>
+ *
+ * <p>A message which does not match exactly one execution or process definition, or
+ * which the user is not authorized to correlate, is reported as failed without affecting
+ * the other messages. An exception thrown while a message is triggered fails the whole
+ * command.</p>
+ */
+public class CorrelateMessagesCmd implements Command<List<MessageCorrelationItemResult>> {
+
+  protected List<MessageCorrelationBuilderImpl> messageCorrelations;
+
+  /** the messages correlated by the command, null until the command is executed */
+  protected List<MessageCorrelationBuilderImpl> batch;
+
+  public CorrelateMessagesCmd(List<MessageCorrelationBuilderImpl> messageCorrelations) {
+    this.messageCorrelations = messageCorrelations;
+  }
+
+  /**
+   * @return the results of the messages of the batch, in the order of the messages
+   */
+  public List<MessageCorrelationItemResult> execute(final CommandContext commandContext) {
+    int batchSize = commandContext.getProcessEngineConfiguration().getMessageCorrelationBatchSize();
+    batch = new ArrayList<MessageCorrelationBuilderImpl>(messageCorrelations.subList(0, Math.min(batchSize, messageCorrelations.size())));
+
+    List<MessageCorrelationItemResult> results = new ArrayList<MessageCorrelationItemResult>(batch.size());
+
+    final List<MessageCorrelationItemResultImpl> pendingResults = new ArrayList<MessageCorrelationItemResultImpl>();
+    final List<CorrelateMessageCmd> pendingCommands = new ArrayList<CorrelateMessageCmd>();
+    final List<String> messageNames = new ArrayList<String>();
+    final List<CorrelationSet> correlationSets = new ArrayList<CorrelationSet>();
+
+    for (MessageCorrelationBuilderImpl messageCorrelation : batch) {
+      MessageCorrelationItemResultImpl result = new MessageCorrelationItemResultImpl(messageCorrelation);
+      results.add(result);
+
+      CorrelateMessageCmd command = new CorrelateMessageCmd(messageCorrelation);
+      try {
+        ensureAtLeastOneNotNull("At least one of the following correlation criteria has to be present: "
+            + "messageName, businessKey, correlationKeys, processInstanceId",
+            command.messageName, command.businessKey, command.correlationKeys, command.processInstanceId);
+      }
+      catch (NullValueException e) {
+        result.setFailure(e);
+        continue;
+      }
+
+      pendingResults.add(result);
+      pendingCommands.add(command);
+      messageNames.add(command.messageName);
+      correlationSets.add(new CorrelationSet(command.businessKey, command.processInstanceId, command.correlationKeys));
+    }
+
+    if (pendingCommands.isEmpty()) {
+      return results;
+    }
+
+    final CorrelationHandler correlationHandler = commandContext.getProcessEngineConfiguration().getCorrelationHandler();
+    List<List<MessageCorrelationResult>> correlations = commandContext.runWithoutAuthorization(new Callable<List<List<MessageCorrelationResult>>>() {
+      public List<List<MessageCorrelationResult>> call() throws Exception {
+        return correlationHandler.correlateMessagesInBatch(commandContext, messageNames, correlationSets);
+      }
+    });
+
+    for (int i = 0; i < pendingCommands.size(); i++) {
+      CorrelateMessageCmd command = pendingCommands.get(i);
+      MessageCorrelationItemResultImpl result = pendingResults.get(i);
+      List<MessageCorrelationResult> matches = correlations.get(i);
+
+      if (matches.isEmpty()) {
+        result.setFailure(new MismatchingMessageCorrelationException(command.messageName, "No process definition or execution matches the parameters"));
+      }
+      else if (matches.size() > 1) {
+        result.setFailure(new MismatchingMessageCorrelationException(command.messageName, command.businessKey, command.correlationKeys,
+            String.valueOf(matches.size()) + " executions match the correlation keys. Should be one or zero."));
+      }
+      else if (!isSubscribed(commandContext, command.messageName, matches.get(0))) {
+        result.setFailure(new MismatchingMessageCorrelationException(command.messageName,
+            "The matching execution does not wait for the message anymore after a previous message of the batch"));
+      }
+      else {
+        correlate(commandContext, command, matches.get(0), result);
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * @return the messages which the command has tried to correlate, null if the command
+   *   failed before the batch was determined
+   */
+  public List<MessageCorrelationBuilderImpl> getBatch() {
+    return batch;
+  }
+
+  /**
+   * @return false if the matching execution has been removed or has left the message event
+   *   since the messages of the batch were resolved, true otherwise
+   */
+  protected boolean isSubscribed(CommandContext commandContext, String messageName, MessageCorrelationResult correlationResult) {
+    if (!MessageCorrelationResult.TYPE_EXECUTION.equals(correlationResult.getResultType())) {
+      return true;
+    }
+
+    ExecutionEntity execution = correlationResult.getExecutionEntity();
+    if (commandContext.getDbEntityManager().isDeleted(execution)) {
+      return false;
+    }
+
+    // the subscriptions of the execution are kept up to date when previous messages of the batch are triggered
+    for (EventSubscriptionEntity eventSubscription : execution.getEventSubscriptions()) {
+      if (MessageEventHandler.EVENT_HANDLER_TYPE.equals(eventSubscription.getEventType())
+          && (messageName == null || messageName.equals(eventSubscription.getEventName()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected void correlate(CommandContext commandContext, CorrelateMessageCmd command, MessageCorrelationResult correlationResult,
+      MessageCorrelationItemResultImpl result) {
+
+    try {
+      command.checkAuthorization(correlationResult);
+    }
+    catch (AuthorizationException e) {
+      result.setFailure(e);
+      return;
+    }
+
+    if (MessageCorrelationResult.TYPE_EXECUTION.equals(correlationResult.getResultType())) {
+      command.triggerExecution(commandContext, correlationResult);
+      result.setProcessInstanceId(correlationResult.getExecutionEntity().getProcessInstanceId());
+    }
+    else {
+      ExecutionEntity processInstance = command.instantiateProcess(commandContext, correlationResult);
+      result.setProcessInstanceId(processInstance.getId());
+    }
+  }
+
+}
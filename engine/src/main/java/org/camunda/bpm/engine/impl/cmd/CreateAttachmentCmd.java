@@ -23,7 +23,6 @@ import org.camunda.bpm.engine.impl.persistence.entity.AttachmentEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.PropertyChange;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
-import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.task.Attachment;
 
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
@@ -74,9 +73,9 @@ public class CreateAttachmentCmd implements Command<Attachment> {
     dbEntityManger.insert(attachment);
 
     if (content != null) {
-      byte[] bytes = IoUtil.readInputStream(content, attachmentName);
-      ByteArrayEntity byteArray = new ByteArrayEntity(bytes);
-      dbEntityManger.insert(byteArray);
+      ByteArrayEntity byteArray = commandContext
+        .getByteArrayManager()
+        .insertByteArray(attachmentName, content);
       attachment.setContentId(byteArray.getId());
     }
 
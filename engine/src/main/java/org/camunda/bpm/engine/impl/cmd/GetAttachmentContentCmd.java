@@ -13,7 +13,6 @@
 
 package org.camunda.bpm.engine.impl.cmd;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Serializable;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
@@ -45,9 +44,8 @@ public class GetAttachmentContentCmd implements Command<InputStream>, Serializab
     }
     
     ByteArrayEntity byteArray = dbEntityManger.selectById(ByteArrayEntity.class, contentId);
-    byte[] bytes = byteArray.getBytes();
-    
-    return new ByteArrayInputStream(bytes);
+
+    return commandContext.getByteArrayManager().openContent(byteArray);
   }
 
 }
@@ -0,0 +1,53 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.metrics.CommandMetrics;
+import org.camunda.bpm.engine.impl.metrics.CommandStatisticsImpl;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.CommandStatistics;
+
+public class GetCommandStatisticsCmd implements Command<List<CommandStatistics>> {
+
+  public List<CommandStatistics> execute(CommandContext commandContext) {
+    commandContext.getAuthorizationManager().isCamundaAdmin();
+
+    List<CommandStatistics> statistics = new ArrayList<CommandStatistics>();
+
+    MetricsRegistry metricsRegistry = commandContext.getProcessEngineConfiguration().getMetricsRegistry();
+    if (metricsRegistry != null) {
+      for (CommandMetrics commandMetrics : metricsRegistry.getAllCommandMetrics()) {
+        statistics.add(new CommandStatisticsImpl(commandMetrics));
+      }
+    }
+
+    // the most expensive commands first
+    Collections.sort(statistics, new Comparator<CommandStatistics>() {
+      public int compare(CommandStatistics statistics1, CommandStatistics statistics2) {
+        long duration1 = statistics1.getTotalDuration();
+        long duration2 = statistics2.getTotalDuration();
+        return duration1 > duration2 ? -1 : (duration1 == duration2 ? 0 : 1);
+      }
+    });
+
+    return statistics;
+  }
+
+}
@@ -0,0 +1,50 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
+import org.camunda.bpm.engine.impl.signal.SignalBroadcastBatchJobHandler;
+import org.camunda.bpm.engine.impl.signal.SignalBroadcastJobHandler;
+import org.camunda.bpm.engine.impl.signal.SignalBroadcastProgressImpl;
+import org.camunda.bpm.engine.management.SignalBroadcastProgress;
+
+public class GetSignalBroadcastProgressCmd implements Command<SignalBroadcastProgress> {
+
+  protected static final List<String> JOB_HANDLER_TYPES = Arrays.asList(SignalBroadcastJobHandler.TYPE, SignalBroadcastBatchJobHandler.TYPE);
+
+  protected final String broadcastId;
+
+  public GetSignalBroadcastProgressCmd(String broadcastId) {
+    this.broadcastId = broadcastId;
+  }
+
+  public SignalBroadcastProgress execute(CommandContext commandContext) {
+    ensureNotNull("broadcastId", broadcastId);
+
+    JobManager jobManager = commandContext.getJobManager();
+    String configurationLike = SignalBroadcastJobHandler.getConfigurationLike(broadcastId);
+
+    long jobs = jobManager.findJobCountByHandlerTypesAndConfigurationLike(JOB_HANDLER_TYPES, configurationLike, false);
+    long failedJobs = jobManager.findJobCountByHandlerTypesAndConfigurationLike(JOB_HANDLER_TYPES, configurationLike, true);
+
+    return new SignalBroadcastProgressImpl(broadcastId, jobs - failedJobs, failedJobs);
+  }
+
+}
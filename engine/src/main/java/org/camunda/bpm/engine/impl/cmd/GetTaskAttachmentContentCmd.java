@@ -13,7 +13,6 @@
 
 package org.camunda.bpm.engine.impl.cmd;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Serializable;
 
@@ -56,9 +55,7 @@ public class GetTaskAttachmentContentCmd implements Command<InputStream>, Serial
         .getDbEntityManager()
         .selectById(ByteArrayEntity.class, contentId);
 
-    byte[] bytes = byteArray.getBytes();
-
-    return new ByteArrayInputStream(bytes);
+    return commandContext.getByteArrayManager().openContent(byteArray);
   }
 
 }
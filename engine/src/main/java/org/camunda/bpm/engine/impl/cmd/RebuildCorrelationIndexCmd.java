@@ -0,0 +1,52 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Recalculates the keys of the correlation index of one page of variables based on
+ * the correlation index keys of the process engine configuration. The command returns
+ * the id of the last variable of the page, which is passed to the command rebuilding
+ * the next page, or null if all pages are rebuilt.
+ */
+public class RebuildCorrelationIndexCmd implements Command<String> {
+
+  /** the number of variables which are updated in one transaction */
+  public static final int PAGE_SIZE = 1000;
+
+  protected String afterVariableId;
+
+  /**
+   * @param afterVariableId the id returned by the command for the previous page or null for the first page
+   */
+  public RebuildCorrelationIndexCmd(String afterVariableId) {
+    this.afterVariableId = afterVariableId;
+  }
+
+  public String execute(CommandContext commandContext) {
+    commandContext.getAuthorizationManager().isCamundaAdmin();
+
+    Set<String> variableNames = commandContext.getProcessEngineConfiguration().getCorrelationIndexKeys();
+    if (variableNames == null) {
+      variableNames = new HashSet<String>();
+    }
+
+    return commandContext.getVariableInstanceManager().rebuildCorrelationIndex(variableNames, afterVariableId, PAGE_SIZE);
+  }
+
+}
@@ -0,0 +1,64 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.Date;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.cleanup.HistoryCleanupBatchWindow;
+import org.camunda.bpm.engine.impl.history.cleanup.HistoryCleanupJobHandler;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * Schedules a {@link HistoryCleanupJobHandler history cleanup job} for each partition
+ * of the history which has no job yet. Executed when the process engine is built.
+ * The deployment lock is held while checking for existing jobs, so that engines
+ * of a cluster do not schedule duplicate jobs.
+ */
+public class ScheduleHistoryCleanupJobsCmd implements Command<Void> {
+
+  public Void execute(CommandContext commandContext) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = commandContext.getProcessEngineConfiguration();
+
+    if (HistoryLevel.HISTORY_LEVEL_NONE.equals(processEngineConfiguration.getHistoryLevel())) {
+      return null;
+    }
+
+    if (processEngineConfiguration.isDeploymentLockUsed()) {
+      // engines of a cluster are built concurrently, the lock ensures that only one
+      // of them finds a partition without job and schedules it
+      commandContext.getPropertyManager().acquireExclusiveLock();
+    }
+
+    HistoryCleanupBatchWindow batchWindow = processEngineConfiguration.getHistoryCleanupBatchWindow();
+    Date now = ClockUtil.getCurrentTime();
+    Date dueDate = batchWindow.isWithin(now) ? now : batchWindow.getNextStart(now);
+
+    for (String partition : HistoryCleanupJobHandler.getPartitions(processEngineConfiguration)) {
+      boolean isScheduled = !commandContext
+        .getJobManager()
+        .findJobsByConfiguration(HistoryCleanupJobHandler.TYPE, partition)
+        .isEmpty();
+
+      if (!isScheduled) {
+        HistoryCleanupJobHandler.scheduleJob(partition, dueDate, commandContext);
+      }
+    }
+
+    return null;
+  }
+
+}
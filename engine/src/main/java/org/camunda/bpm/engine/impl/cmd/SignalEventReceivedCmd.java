@@ -63,16 +63,7 @@ public class SignalEventReceivedCmd implements Command<Void> {
     if(executionId == null) {
 
       List<SignalEventSubscriptionEntity> signalEventSubscriptions = eventSubscriptionManager.findSignalEventSubscriptionsByEventName(eventName);
-
-      List<SignalEventSubscriptionEntity> catchSignalEventSubscription = filterIntermediateSubscriptions(signalEventSubscriptions);
-      List<SignalEventSubscriptionEntity> startSignalEventSubscriptions = filterStartSubscriptions(signalEventSubscriptions);
-      Map<String, ProcessDefinitionEntity> processDefinitions = getProcessDefinitionsOfSubscriptions(startSignalEventSubscriptions);
-
-      checkAuthorizationOfCatchSignals(authorizationManager, catchSignalEventSubscription);
-      checkAuthorizationOfStartSignals(authorizationManager, startSignalEventSubscriptions, processDefinitions);
-
-      notifyExecutions(catchSignalEventSubscription);
-      startProcessInstances(startSignalEventSubscriptions, processDefinitions);
+      sendSignal(signalEventSubscriptions, commandContext);
 
     } else {
 
@@ -90,6 +81,24 @@ public class SignalEventReceivedCmd implements Command<Void> {
     return null;
   }
 
+  /**
+   * Delivers the signal to the given subscriptions of intermediate signal events
+   * and signal start events.
+   */
+  public void sendSignal(List<SignalEventSubscriptionEntity> signalEventSubscriptions, CommandContext commandContext) {
+    final AuthorizationManager authorizationManager = commandContext.getAuthorizationManager();
+
+    List<SignalEventSubscriptionEntity> catchSignalEventSubscription = filterIntermediateSubscriptions(signalEventSubscriptions);
+    List<SignalEventSubscriptionEntity> startSignalEventSubscriptions = filterStartSubscriptions(signalEventSubscriptions);
+    Map<String, ProcessDefinitionEntity> processDefinitions = getProcessDefinitionsOfSubscriptions(startSignalEventSubscriptions);
+
+    checkAuthorizationOfCatchSignals(authorizationManager, catchSignalEventSubscription);
+    checkAuthorizationOfStartSignals(authorizationManager, startSignalEventSubscriptions, processDefinitions);
+
+    notifyExecutions(catchSignalEventSubscription);
+    startProcessInstances(startSignalEventSubscriptions, processDefinitions);
+  }
+
   protected Map<String, ProcessDefinitionEntity> getProcessDefinitionsOfSubscriptions(List<SignalEventSubscriptionEntity> startSignalEventSubscriptions) {
     DeploymentCache deploymentCache = Context.getProcessEngineConfiguration().getDeploymentCache();
 
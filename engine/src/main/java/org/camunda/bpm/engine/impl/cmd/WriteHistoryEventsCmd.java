@@ -0,0 +1,55 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.StoredHistoryEvents;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Writes a batch of history events in a single transaction and deletes the
+ * byte arrays in which the events are stored.
+ *
+ * @see org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventHandler
+ */
+public class WriteHistoryEventsCmd implements Command<Void> {
+
+  protected HistoryEventHandler historyEventHandler;
+  protected List<HistoryEvent> historyEvents;
+  protected List<String> storedEventsIds;
+
+  public WriteHistoryEventsCmd(HistoryEventHandler historyEventHandler, List<HistoryEvent> historyEvents) {
+    this(historyEventHandler, historyEvents, Collections.<String>emptyList());
+  }
+
+  public WriteHistoryEventsCmd(HistoryEventHandler historyEventHandler, List<HistoryEvent> historyEvents, List<String> storedEventsIds) {
+    this.historyEventHandler = historyEventHandler;
+    this.historyEvents = historyEvents;
+    this.storedEventsIds = storedEventsIds;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    historyEventHandler.handleEvents(historyEvents);
+
+    for (String storedEventsId : storedEventsIds) {
+      StoredHistoryEvents.delete(commandContext, storedEventsId);
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,48 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.StoredHistoryEvents;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+
+/**
+ * Writes the history events stored in a byte array and deletes the byte array.
+ *
+ * @see org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventHandler#recover()
+ */
+public class WriteStoredHistoryEventsCmd implements Command<Void> {
+
+  protected HistoryEventHandler historyEventHandler;
+  protected String storedEventsId;
+
+  public WriteStoredHistoryEventsCmd(HistoryEventHandler historyEventHandler, String storedEventsId) {
+    this.historyEventHandler = historyEventHandler;
+    this.storedEventsId = storedEventsId;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    ByteArrayEntity byteArray = commandContext.getDbEntityManager().selectById(ByteArrayEntity.class, storedEventsId);
+    if (byteArray == null) {
+      // written in the meantime
+      return null;
+    }
+
+    historyEventHandler.handleEvents(StoredHistoryEvents.load(byteArray));
+    commandContext.getDbEntityManager().delete(byteArray);
+    return null;
+  }
+
+}
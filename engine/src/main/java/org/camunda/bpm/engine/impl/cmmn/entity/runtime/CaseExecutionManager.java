@@ -120,4 +120,9 @@ public class CaseExecutionManager extends AbstractManager {
     return getDbEntityManager().selectList("selectCaseExecutionsByCaseInstanceId", caseInstanceId);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<CaseExecutionEntity> findCaseExecutionsByCaseInstanceIds(List<String> caseInstanceIds) {
+    return getDbEntityManager().selectList("selectCaseExecutionsByCaseInstanceIds", caseInstanceIds);
+  }
+
 }
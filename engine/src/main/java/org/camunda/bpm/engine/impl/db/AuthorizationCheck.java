@@ -41,6 +41,10 @@ public class AuthorizationCheck implements Serializable {
   /** the ids of the groups to check permissions for */
   protected List<String> authGroupIds = new ArrayList<String>();
 
+  /** the subject of the authorization index entries to check permissions against,
+   * null if the authorizations are evaluated */
+  protected String authIndexSubjectId;
+
   /** the default permissions to use if no matching authorization
    * can be found.*/
   protected int authDefaultPerm = Permissions.ALL.getValue();
@@ -73,6 +77,14 @@ public class AuthorizationCheck implements Serializable {
     this.authGroupIds = authGroupIds;
   }
 
+  public String getAuthIndexSubjectId() {
+    return authIndexSubjectId;
+  }
+
+  public void setAuthIndexSubjectId(String authIndexSubjectId) {
+    this.authIndexSubjectId = authIndexSubjectId;
+  }
+
   public int getAuthDefaultPerm() {
     return authDefaultPerm;
   }
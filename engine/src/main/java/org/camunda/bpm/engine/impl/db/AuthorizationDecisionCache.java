@@ -0,0 +1,117 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.ConcurrentLruCache;
+
+/**
+ * <p>Engine-wide cache of the results of authorization checks. A decision expires
+ * after the configured time to live. Once the capacity is reached, the least
+ * recently used decisions are evicted.</p>
+ *
+ * <p>All decisions are invalidated once a transaction which created, updated or
+ * deleted authorizations is committed. Since authorizations changed by other
+ * process engines of a cluster are not noticed, the time to live should be short.</p>
+ *
+ * @see org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager#isAuthorized(String, java.util.List, java.util.List)
+ */
+public class AuthorizationDecisionCache {
+
+  /** number of independently locked segments of the cache */
+  protected static final int CONCURRENCY_LEVEL = 16;
+
+  protected final long timeToLive;
+  protected final int capacity;
+
+  protected final ConcurrentLruCache<Object, AuthorizationDecision> decisions;
+
+  /** incremented on invalidation, decisions read from an older generation are not cached */
+  protected final AtomicLong generation = new AtomicLong(0);
+
+  /**
+   * @param timeToLive the time in milliseconds a decision is cached
+   * @param capacity the maximum number of cached decisions
+   */
+  public AuthorizationDecisionCache(long timeToLive, int capacity) {
+    this.timeToLive = timeToLive;
+    this.capacity = capacity;
+    this.decisions = new ConcurrentLruCache<Object, AuthorizationDecision>(capacity, CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * @return the cached decision or null if no decision is cached or it is expired
+   */
+  public Boolean get(Object key) {
+    AuthorizationDecision decision = decisions.get(key);
+    if (decision == null) {
+      return null;
+    }
+    if (decision.expirationTime <= System.currentTimeMillis()) {
+      decisions.remove(key);
+      return null;
+    }
+    return decision.isAuthorized;
+  }
+
+  /**
+   * Must be invoked before the decision is read from the database.
+   *
+   * @return the generation to pass to {@link #put(Object, boolean, long)}
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Caches the decision unless the cache was invalidated since the given generation.
+   */
+  public void put(Object key, boolean isAuthorized, long generation) {
+    decisions.put(key, new AuthorizationDecision(isAuthorized, System.currentTimeMillis() + timeToLive));
+
+    if (this.generation.get() != generation) {
+      // the decision may be outdated
+      decisions.remove(key);
+    }
+  }
+
+  public void invalidate() {
+    generation.incrementAndGet();
+    decisions.clear();
+  }
+
+  public int size() {
+    return decisions.size();
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  protected static class AuthorizationDecision {
+
+    protected final boolean isAuthorized;
+    protected final long expirationTime;
+
+    public AuthorizationDecision(boolean isAuthorized, long expirationTime) {
+      this.isAuthorized = isAuthorized;
+      this.expirationTime = expirationTime;
+    }
+  }
+
+}
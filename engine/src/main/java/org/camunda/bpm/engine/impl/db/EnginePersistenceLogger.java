@@ -502,4 +502,37 @@ public class EnginePersistenceLogger extends ProcessEngineLogger {
         "The output instances for the historic decision instance are not fetched. You must call 'includeOutputs()' on the query to enable fetching."
         ));
   }
+
+  public ProcessEngineException flushDbOperationsException(List<DbOperation> operationsToFlush, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+      "062",
+      "Exception while flushing batched Database Operations with message '{}'. Flush summary: \n {}",
+      cause.getMessage(),
+      buildStringFromList(operationsToFlush, false)
+    ), cause);
+  }
+
+  public ProcessEngineException unknownBatchUpdateCountException(DbOperation operation) {
+    return new ProcessEngineException(exceptionMessage(
+      "063",
+      "JDBC driver did not report the number of affected rows for '{}'. Concurrent modifications can not be detected, disable JDBC batch processing for this database.",
+      operation
+    ));
+  }
+
+  public void idBlockPrefetchFailed(Throwable cause) {
+    logWarn("064", "Prefetching the next id block failed. The id block is fetched synchronously instead.", cause);
+  }
+
+  public void idBlockRefillStalled() {
+    logDebug("065", "Id block exhausted before the next id block was prefetched. Waiting for the id block to be fetched.");
+  }
+
+  public ProcessEngineException missingBatchResultException(DbOperation operation) {
+    return new ProcessEngineException(exceptionMessage(
+      "066",
+      "The result of '{}' is missing from the results of the JDBC batch.",
+      operation
+    ));
+  }
 }
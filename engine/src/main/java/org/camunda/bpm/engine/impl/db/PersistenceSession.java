@@ -28,6 +28,15 @@ public interface PersistenceSession extends Session {
 
   void executeDbOperation(DbOperation operation);
 
+  /**
+   * Makes sure all operations passed to {@link #executeDbOperation(DbOperation)} are
+   * performed against the database. Sessions which execute operations eagerly
+   * do not need to do anything here.
+   *
+   * @return the operations which failed while being flushed
+   */
+  List<DbOperation> flushOperations();
+
   List<?> selectList(String statement, Object parameter);
 
   <T extends DbEntity> T selectById(Class<T> type, String id);
@@ -0,0 +1,224 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.GetNextIdBlockCmd;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.Metrics;
+
+/**
+ * {@link DbIdGenerator} which hands out ids without locking and fetches the next
+ * id block in the background once the remaining ids of the current block drop
+ * below the {@link #getLowWaterMark() low-water mark}.
+ *
+ * <p>Callers only wait for the database if the current block is exhausted before
+ * the next block is available. These refill stalls are counted and reported as
+ * {@link Metrics#ID_GENERATOR_REFILL_STALL}.</p>
+ */
+public class PrefetchingDbIdGenerator extends DbIdGenerator {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  /** initially exhausted, so the first call fetches a block */
+  protected final AtomicReference<IdRange> currentRange = new AtomicReference<IdRange>(new IdRange(0, -1));
+  protected final AtomicReference<Future<IdBlock>> prefetchedBlock = new AtomicReference<Future<IdBlock>>();
+
+  /** number of remaining ids in the current block which triggers prefetching the next block, defaults to half the block size */
+  protected int lowWaterMark = -1;
+
+  protected final AtomicLong refillStallCount = new AtomicLong(0);
+  protected final AtomicLong prefetchCount = new AtomicLong(0);
+
+  protected ExecutorService prefetchExecutor;
+  protected volatile boolean closed = false;
+  protected MetricsRegistry metricsRegistry;
+
+  public String getNextId() {
+    ensureNotClosed();
+
+    while (true) {
+      IdRange range = currentRange.get();
+      long id = range.next.getAndIncrement();
+
+      if (id <= range.lastId) {
+        if (range.lastId - id <= getLowWaterMark() && prefetchedBlock.get() == null) {
+          prefetchNextBlock();
+        }
+        return Long.toString(id);
+      }
+
+      switchToNextRange(range);
+    }
+  }
+
+  protected void prefetchNextBlock() {
+    FutureTask<IdBlock> prefetchTask = new FutureTask<IdBlock>(new Callable<IdBlock>() {
+      public IdBlock call() throws Exception {
+        return fetchIdBlock();
+      }
+    });
+
+    // only one prefetch at a time
+    if (prefetchedBlock.compareAndSet(null, prefetchTask)) {
+      prefetchCount.incrementAndGet();
+      getPrefetchExecutor().execute(prefetchTask);
+    }
+  }
+
+  protected synchronized void switchToNextRange(IdRange exhaustedRange) {
+    if (currentRange.get() != exhaustedRange) {
+      // another thread already switched the range
+      return;
+    }
+
+    Future<IdBlock> nextBlock = prefetchedBlock.get();
+    IdBlock idBlock = null;
+
+    // the initial block is fetched by the first caller, only waiting for a requested prefetch is a stall
+    if (nextBlock != null && !nextBlock.isDone()) {
+      LOG.idBlockRefillStalled();
+      refillStallCount.incrementAndGet();
+      if (metricsRegistry != null) {
+        metricsRegistry.markOccurrence(Metrics.ID_GENERATOR_REFILL_STALL);
+      }
+    }
+
+    if (nextBlock != null) {
+      try {
+        idBlock = nextBlock.get();
+      }
+      catch (Exception e) {
+        LOG.idBlockPrefetchFailed(e);
+      }
+    }
+
+    if (idBlock == null) {
+      idBlock = fetchIdBlock();
+    }
+
+    currentRange.set(new IdRange(idBlock.getNextId(), idBlock.getLastId()));
+
+    // allow the next prefetch only after the prefetched block is in use
+    prefetchedBlock.set(null);
+  }
+
+  @Override
+  protected synchronized void getNewBlock() {
+    IdBlock idBlock = fetchIdBlock();
+    currentRange.set(new IdRange(idBlock.getNextId(), idBlock.getLastId()));
+  }
+
+  protected IdBlock fetchIdBlock() {
+    return commandExecutor.execute(new GetNextIdBlockCmd(idBlockSize));
+  }
+
+  protected synchronized ExecutorService getPrefetchExecutor() {
+    ensureNotClosed();
+    if (prefetchExecutor == null) {
+      prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "camunda-id-block-prefetch");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return prefetchExecutor;
+  }
+
+  /**
+   * Stops the background prefetching. Ids prefetched but not handed out yet are lost,
+   * which leaves a gap in the id sequence.
+   */
+  public synchronized void close() {
+    closed = true;
+    if (prefetchExecutor != null) {
+      prefetchExecutor.shutdownNow();
+      prefetchExecutor = null;
+    }
+  }
+
+  protected void ensureNotClosed() {
+    if (closed) {
+      throw new ProcessEngineException("The id generator is closed");
+    }
+  }
+
+  // getters / setters //////////////////////////////////////
+
+  /**
+   * @return the block which is fetched in the background, or null if no prefetch is pending
+   */
+  public Future<IdBlock> getPrefetchedBlock() {
+    return prefetchedBlock.get();
+  }
+
+  public int getLowWaterMark() {
+    if (lowWaterMark < 0) {
+      return idBlockSize / 2;
+    }
+    return lowWaterMark;
+  }
+
+  public void setLowWaterMark(int lowWaterMark) {
+    this.lowWaterMark = lowWaterMark;
+  }
+
+  /**
+   * @return the number of times a caller had to wait for an id block to be fetched from the database
+   */
+  public long getRefillStallCount() {
+    return refillStallCount.get();
+  }
+
+  /**
+   * @return the number of id blocks fetched in the background
+   */
+  public long getPrefetchCount() {
+    return prefetchCount.get();
+  }
+
+  public MetricsRegistry getMetricsRegistry() {
+    return metricsRegistry;
+  }
+
+  public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+  }
+
+  /**
+   * Range of ids which are handed out using an atomic counter.
+   */
+  protected static class IdRange {
+
+    protected final AtomicLong next;
+    protected final long lastId;
+
+    public IdRange(long nextId, long lastId) {
+      this.next = new AtomicLong(nextId);
+      this.lastId = lastId;
+    }
+  }
+
+}
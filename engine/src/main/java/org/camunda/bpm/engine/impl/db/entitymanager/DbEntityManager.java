@@ -67,6 +67,7 @@ import org.camunda.bpm.engine.impl.identity.db.DbGroupQueryImpl;
 import org.camunda.bpm.engine.impl.identity.db.DbUserQueryImpl;
 import org.camunda.bpm.engine.impl.interceptor.Session;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.management.Metrics;
 
 /**
  *
@@ -282,6 +283,7 @@ public class DbEntityManager implements Session, EntityLoadListener {
     // obtain totally ordered operation list from operation manager
     List<DbOperation> operationsToFlush = dbOperationManager.calculateFlush();
     LOG.databaseFlushSummary(operationsToFlush);
+    recordFlushSize(operationsToFlush.size());
 
     // execute the flush
     for (DbOperation dbOperation : operationsToFlush) {
@@ -295,6 +297,26 @@ public class DbEntityManager implements Session, EntityLoadListener {
         handleOptimisticLockingException(dbOperation);
       }
     }
+
+    // the persistence session may defer the execution of operations (e.g. JDBC batching)
+    List<DbOperation> failedOperations;
+    try {
+      failedOperations = persistenceSession.flushOperations();
+    }
+    catch(Exception e) {
+      throw LOG.flushDbOperationsException(operationsToFlush, e);
+    }
+    for (DbOperation failedOperation : failedOperations) {
+      handleOptimisticLockingException(failedOperation);
+    }
+  }
+
+  protected void recordFlushSize(int flushSize) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    // read-only commands are not recorded
+    if (flushSize > 0 && processEngineConfiguration != null && processEngineConfiguration.isMetricsEnabled()) {
+      processEngineConfiguration.getMetricsRegistry().recordValue(Metrics.DB_FLUSH_SIZE, flushSize);
+    }
   }
 
   public void flushEntity(DbEntity entity) {
@@ -335,6 +335,17 @@ public class DbEntityCache {
     }
   }
 
+  /**
+   * @return the number of cached entities
+   */
+  public int size() {
+    int size = 0;
+    for (Map<String, CachedDbEntity> typeCache : cachedEntites.values()) {
+      size += typeCache.size();
+    }
+    return size;
+  }
+
   public List<CachedDbEntity> getCachedEntities() {
     List<CachedDbEntity> result = new ArrayList<CachedDbEntity>();
     for (Map<String, CachedDbEntity> typeCache : cachedEntites.values()) {
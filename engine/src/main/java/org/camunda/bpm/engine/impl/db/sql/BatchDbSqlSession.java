@@ -0,0 +1,204 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db.sql;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+
+/**
+ * {@link DbSqlSession} which uses a MyBatis batch executor: consecutive
+ * operations using the same statement are sent to the database as a single
+ * JDBC batch. Since the flush list is sorted by entity type and operation
+ * type, this groups most of the operations of a flush.
+ *
+ * <p>The results of the operations (affected rows) are only known after the
+ * batch is sent to the database. Since the batch executor sends pending statements
+ * before every query, the batch is sent and its results are evaluated before any
+ * select is executed or the sql session is accessed directly. Optimistic locking
+ * failures are detected based on the update counts; if the JDBC driver does not
+ * report them ({@link Statement#SUCCESS_NO_INFO}) for an update or delete, the
+ * flush fails since concurrent modifications can not be detected.</p>
+ */
+public class BatchDbSqlSession extends DbSqlSession {
+
+  /** the operations executed since the batch was sent, in execution order */
+  protected List<DbOperation> batchedOperations = new ArrayList<DbOperation>();
+
+  /** the failed operations of the batches sent since the last flush */
+  protected List<DbOperation> failedOperations = new ArrayList<DbOperation>();
+
+  public BatchDbSqlSession(DbSqlSessionFactory dbSqlSessionFactory) {
+    super(dbSqlSessionFactory, ExecutorType.BATCH);
+  }
+
+  // select ////////////////////////////////////////////
+
+  @Override
+  public List<?> selectList(String statement, Object parameter) {
+    executeBatch();
+    return super.selectList(statement, parameter);
+  }
+
+  @Override
+  public <T extends DbEntity> T selectById(Class<T> type, String id) {
+    executeBatch();
+    return super.selectById(type, id);
+  }
+
+  @Override
+  public Object selectOne(String statement, Object parameter) {
+    executeBatch();
+    return super.selectOne(statement, parameter);
+  }
+
+  @Override
+  public SqlSession getSqlSession() {
+    // statements executed directly must not flush the batch without evaluating its results
+    executeBatch();
+    return super.getSqlSession();
+  }
+
+  // lock ////////////////////////////////////////////
+
+  @Override
+  public void lock(String statement, Object parameter) {
+    // pending operations must not be mixed up with the result of the lock statement
+    executeBatch();
+
+    super.lock(statement, parameter);
+
+    // the lock must be acquired immediately
+    sqlSession.flushStatements();
+  }
+
+  // results are deferred until the batch is sent ///
+
+  @Override
+  protected void entityInsertPerformed(DbEntityOperation operation) {
+    batchedOperations.add(operation);
+  }
+
+  @Override
+  protected void entityDeletePerformed(DbEntityOperation operation, int nrOfRowsDeleted) {
+    batchedOperations.add(operation);
+  }
+
+  @Override
+  protected void entityUpdatePerformed(DbEntityOperation operation, int numOfRowsUpdated) {
+    batchedOperations.add(operation);
+  }
+
+  @Override
+  protected void bulkOperationPerformed(DbBulkOperation operation) {
+    batchedOperations.add(operation);
+  }
+
+  // flush ////////////////////////////////////////////
+
+  @Override
+  public List<DbOperation> flushOperations() {
+    executeBatch();
+
+    List<DbOperation> result = new ArrayList<DbOperation>(failedOperations);
+    failedOperations.clear();
+    return result;
+  }
+
+  /**
+   * Sends the pending statements to the database and evaluates the results
+   * of the batched operations.
+   */
+  protected void executeBatch() {
+    if (batchedOperations.isEmpty()) {
+      return;
+    }
+
+    try {
+      List<BatchResult> batchResults = sqlSession.flushStatements();
+
+      Iterator<DbOperation> operationsIt = batchedOperations.iterator();
+      DbOperation operation = operationsIt.next();
+
+      for (BatchResult batchResult : batchResults) {
+        List<Object> parameterObjects = batchResult.getParameterObjects();
+        int[] updateCounts = batchResult.getUpdateCounts();
+
+        for (int i = 0; i < parameterObjects.size() && operation != null; i++) {
+          // statements which were not issued by a db operation (e.g. the lock statement)
+          // are part of the batch results as well; skip them
+          if (getParameter(operation) == parameterObjects.get(i)) {
+            int updateCount = i < updateCounts.length ? updateCounts[i] : Statement.SUCCESS_NO_INFO;
+            operationPerformed(operation, updateCount);
+            if (operation.isFailed()) {
+              failedOperations.add(operation);
+            }
+            operation = operationsIt.hasNext() ? operationsIt.next() : null;
+          }
+        }
+      }
+
+      if (operation != null) {
+        throw LOG.missingBatchResultException(operation);
+      }
+    }
+    finally {
+      batchedOperations.clear();
+    }
+  }
+
+  protected void operationPerformed(DbOperation operation, int updateCount) {
+    switch (operation.getOperationType()) {
+
+      case INSERT:
+        super.entityInsertPerformed((DbEntityOperation) operation);
+        break;
+
+      case DELETE:
+        super.entityDeletePerformed((DbEntityOperation) operation, getKnownUpdateCount(operation, updateCount));
+        break;
+
+      case UPDATE:
+        super.entityUpdatePerformed((DbEntityOperation) operation, getKnownUpdateCount(operation, updateCount));
+        break;
+
+      default:
+        super.bulkOperationPerformed((DbBulkOperation) operation);
+    }
+  }
+
+  protected int getKnownUpdateCount(DbOperation operation, int updateCount) {
+    if (updateCount == Statement.SUCCESS_NO_INFO) {
+      throw LOG.unknownBatchUpdateCountException(operation);
+    }
+    return updateCount;
+  }
+
+  protected Object getParameter(DbOperation operation) {
+    if (operation instanceof DbEntityOperation) {
+      return ((DbEntityOperation) operation).getEntity();
+    } else {
+      return ((DbBulkOperation) operation).getParameter();
+    }
+  }
+
+}
@@ -29,8 +29,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
@@ -41,6 +43,7 @@ import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
 import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.impl.util.ReflectUtil;
 
@@ -61,6 +64,9 @@ public class DbSqlSession extends AbstractPersistenceSession {
   protected SqlSession sqlSession;
   protected DbSqlSessionFactory dbSqlSessionFactory;
 
+  /** number of statements executed by this session */
+  protected int statementCount;
+
   protected String connectionMetadataDefaultCatalog = null;
   protected String connectionMetadataDefaultSchema = null;
 
@@ -80,10 +86,18 @@ public class DbSqlSession extends AbstractPersistenceSession {
     this.connectionMetadataDefaultSchema = schema;
   }
 
+  protected DbSqlSession(DbSqlSessionFactory dbSqlSessionFactory, ExecutorType executorType) {
+    this.dbSqlSessionFactory = dbSqlSessionFactory;
+    this.sqlSession = dbSqlSessionFactory
+      .getSqlSessionFactory()
+      .openSession(executorType);
+  }
+
   // select ////////////////////////////////////////////
 
   public List<?> selectList(String statement, Object parameter){
     statement = dbSqlSessionFactory.mapStatement(statement);
+    statementCount++;
     List<Object> resultList = sqlSession.selectList(statement, parameter);
     for (Object object : resultList) {
       fireEntityLoaded(object);
@@ -97,6 +111,7 @@ public class DbSqlSession extends AbstractPersistenceSession {
     selectStatement = dbSqlSessionFactory.mapStatement(selectStatement);
     ensureNotNull("no select statement for " + type + " in the ibatis mapping files", "selectStatement", selectStatement);
 
+    statementCount++;
     Object result = sqlSession.selectOne(selectStatement, id);
     fireEntityLoaded(result);
     return (T) result;
@@ -104,6 +119,7 @@ public class DbSqlSession extends AbstractPersistenceSession {
 
   public Object selectOne(String statement, Object parameter) {
     statement = dbSqlSessionFactory.mapStatement(statement);
+    statementCount++;
     Object result = sqlSession.selectOne(statement, parameter);
     fireEntityLoaded(result);
     return result;
@@ -117,6 +133,7 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // Id using the DbIdGenerator while performing a deployment.
     if (!DbSqlSessionFactory.H2.equals(dbSqlSessionFactory.getDatabaseType())) {
       String mappedStatement = dbSqlSessionFactory.mapStatement(statement);
+      statementCount++;
       sqlSession.update(mappedStatement, parameter);
     }
   }
@@ -136,12 +153,17 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // execute the insert
     executeInsertEntity(insertStatement, dbEntity);
 
+    entityInsertPerformed(operation);
+  }
+
+  protected void entityInsertPerformed(DbEntityOperation operation) {
     // perform post insert actions on entity
-    entityInserted(dbEntity);
+    entityInserted(operation.getEntity());
   }
 
   protected void executeInsertEntity(String insertStatement, Object parameter) {
     LOG.executeDatabaseOperation("INSERT", parameter);
+    statementCount++;
     sqlSession.insert(insertStatement, parameter);
 
     // set revision of our copy to 1
@@ -171,6 +193,12 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // execute the delete
     int nrOfRowsDeleted = executeDelete(deleteStatement, dbEntity);
 
+    entityDeletePerformed(operation, nrOfRowsDeleted);
+  }
+
+  protected void entityDeletePerformed(DbEntityOperation operation, int nrOfRowsDeleted) {
+    DbEntity dbEntity = operation.getEntity();
+
     // It only makes sense to check for optimistic locking exceptions for objects that actually have a revision
     if (dbEntity instanceof HasDbRevision && nrOfRowsDeleted == 0) {
       operation.setFailed(true);
@@ -184,6 +212,7 @@ public class DbSqlSession extends AbstractPersistenceSession {
   protected int executeDelete(String deleteStatement, Object parameter) {
     // map the statement
     deleteStatement = dbSqlSessionFactory.mapStatement(deleteStatement);
+    statementCount++;
     return sqlSession.delete(deleteStatement, parameter);
   }
 
@@ -199,6 +228,8 @@ public class DbSqlSession extends AbstractPersistenceSession {
     LOG.executeDatabaseBulkOperation("DELETE", statement, parameter);
 
     executeDelete(statement, parameter);
+
+    bulkOperationPerformed(operation);
   }
 
   // update ////////////////////////////////////////
@@ -216,6 +247,12 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // execute update
     int numOfRowsUpdated = executeUpdate(updateStatement, dbEntity);
 
+    entityUpdatePerformed(operation, numOfRowsUpdated);
+  }
+
+  protected void entityUpdatePerformed(DbEntityOperation operation, int numOfRowsUpdated) {
+    DbEntity dbEntity = operation.getEntity();
+
     if (dbEntity instanceof HasDbRevision) {
       if(numOfRowsUpdated != 1) {
         // failed with optimistic locking
@@ -234,6 +271,7 @@ public class DbSqlSession extends AbstractPersistenceSession {
 
   protected int executeUpdate(String updateStatement, Object parameter) {
     updateStatement = dbSqlSessionFactory.mapStatement(updateStatement);
+    statementCount++;
     return sqlSession.update(updateStatement, parameter);
   }
 
@@ -249,10 +287,21 @@ public class DbSqlSession extends AbstractPersistenceSession {
     LOG.executeDatabaseBulkOperation("UPDATE", statement, parameter);
 
     executeUpdate(statement, parameter);
+
+    bulkOperationPerformed(operation);
+  }
+
+  protected void bulkOperationPerformed(DbBulkOperation operation) {
+    // nothing to do
   }
 
   // flush ////////////////////////////////////////////////////////////////////
 
+  public List<DbOperation> flushOperations() {
+    // nothing to do: operations are executed eagerly
+    return Collections.emptyList();
+  }
+
   public void flush() {
     // nothing to do
   }
@@ -691,6 +740,11 @@ public class DbSqlSession extends AbstractPersistenceSession {
   public SqlSession getSqlSession() {
     return sqlSession;
   }
+
+  public int getStatementCount() {
+    return statementCount;
+  }
+
   public DbSqlSessionFactory getDbSqlSessionFactory() {
     return dbSqlSessionFactory;
   }
@@ -84,6 +84,8 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.event", "'event'");
     constants.put("constant.op_message", "NEW_VALUE_ || '_|_' || PROPERTY_");
     constants.put("constant.for.update", "for update");
+    // milliseconds between START_TIME_ and the end time parameter, used by updates if the start time is not known
+    constants.put("constant.duration", "DATEDIFF('MILLISECOND', START_TIME_, #{endTime, jdbcType=TIMESTAMP})");
     dbSpecificConstants.put(H2, constants);
 
     //mysql specific
@@ -110,6 +112,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.event", "'event'");
     constants.put("constant.op_message", "CONCAT(NEW_VALUE_, '_|_', PROPERTY_)");
     constants.put("constant.for.update", "for update");
+    constants.put("constant.duration", "TIMESTAMPDIFF(MICROSECOND, START_TIME_, #{endTime, jdbcType=TIMESTAMP}) DIV 1000");
     dbSpecificConstants.put(MYSQL, constants);
 
     //postgres specific
@@ -153,6 +156,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.event", "'event'");
     constants.put("constant.op_message", "NEW_VALUE_ || '_|_' || PROPERTY_");
     constants.put("constant.for.update", "for update");
+    constants.put("constant.duration", "CAST(EXTRACT(EPOCH FROM (#{endTime, jdbcType=TIMESTAMP} - START_TIME_)) * 1000 AS BIGINT)");
     dbSpecificConstants.put(POSTGRES, constants);
 
     // oracle
@@ -175,6 +179,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.event", "cast('event' as nvarchar2(255))");
     constants.put("constant.op_message", "NEW_VALUE_ || '_|_' || PROPERTY_");
     constants.put("constant.for.update", "for update");
+    constants.put("constant.duration", "ROUND(EXTRACT(DAY FROM (#{endTime, jdbcType=TIMESTAMP} - START_TIME_)) * 86400000 + EXTRACT(HOUR FROM (#{endTime, jdbcType=TIMESTAMP} - START_TIME_)) * 3600000 + EXTRACT(MINUTE FROM (#{endTime, jdbcType=TIMESTAMP} - START_TIME_)) * 60000 + EXTRACT(SECOND FROM (#{endTime, jdbcType=TIMESTAMP} - START_TIME_)) * 1000)");
     dbSpecificConstants.put(ORACLE, constants);
 
     // db2
@@ -205,6 +210,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.event", "'event'");
     constants.put("constant.op_message", "CAST(CONCAT(CONCAT(COALESCE(NEW_VALUE_,''), '_|_'), COALESCE(PROPERTY_,'')) as varchar(255))");
     constants.put("constant.for.update", "for read only with rs use and keep update locks");
+    constants.put("constant.duration", "(DAYS(CAST(#{endTime, jdbcType=TIMESTAMP} AS TIMESTAMP)) - DAYS(START_TIME_)) * BIGINT(86400000) + (MIDNIGHT_SECONDS(CAST(#{endTime, jdbcType=TIMESTAMP} AS TIMESTAMP)) - MIDNIGHT_SECONDS(START_TIME_)) * 1000 + (MICROSECOND(CAST(#{endTime, jdbcType=TIMESTAMP} AS TIMESTAMP)) - MICROSECOND(START_TIME_)) / 1000");
     dbSpecificConstants.put(DB2, constants);
 
     // mssql
@@ -231,6 +237,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(MSSQL, "selectHistoricTaskInstanceByNativeQuery", "selectHistoricTaskInstanceByNativeQuery_mssql_or_db2");
     addDatabaseSpecificStatement(MSSQL, "selectTaskByNativeQuery", "selectTaskByNativeQuery_mssql_or_db2");
     addDatabaseSpecificStatement(MSSQL, "lockDeploymentLockProperty", "lockDeploymentLockProperty_mssql");
+    addDatabaseSpecificStatement(MSSQL, "lockAuthorizationIndexLockProperty", "lockAuthorizationIndexLockProperty_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectEventSubscriptionsByNameAndExecution", "selectEventSubscriptionsByNameAndExecution_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectEventSubscriptionsByExecutionAndType", "selectEventSubscriptionsByExecutionAndType_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectHistoricDecisionInstancesByNativeQuery", "selectHistoricDecisionInstancesByNativeQuery_mssql_or_db2");
@@ -238,6 +245,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants = new HashMap<String, String>();
     constants.put("constant.event", "'event'");
     constants.put("constant.op_message", "NEW_VALUE_ + '_|_' + PROPERTY_");
+    constants.put("constant.duration", "CAST(DATEDIFF(s, START_TIME_, #{endTime, jdbcType=TIMESTAMP}) AS BIGINT) * 1000 + DATEPART(ms, #{endTime, jdbcType=TIMESTAMP}) - DATEPART(ms, START_TIME_)");
     dbSpecificConstants.put(MSSQL, constants);
   }
 
@@ -261,13 +269,18 @@ public class DbSqlSessionFactory implements SessionFactory {
   protected boolean isDbHistoryUsed = true;
   protected boolean cmmnEnabled = true;
   protected boolean dmnEnabled = true;
+  protected boolean jdbcBatchProcessing = false;
 
   public Class< ? > getSessionType() {
     return DbSqlSession.class;
   }
 
   public Session openSession() {
-    return new DbSqlSession(this);
+    if (jdbcBatchProcessing) {
+      return new BatchDbSqlSession(this);
+    } else {
+      return new DbSqlSession(this);
+    }
   }
 
   // insert, update and delete statements /////////////////////////////////////
@@ -430,6 +443,14 @@ public class DbSqlSessionFactory implements SessionFactory {
     this.dmnEnabled = dmnEnabled;
   }
 
+  public boolean isJdbcBatchProcessing() {
+    return jdbcBatchProcessing;
+  }
+
+  public void setJdbcBatchProcessing(boolean jdbcBatchProcessing) {
+    this.jdbcBatchProcessing = jdbcBatchProcessing;
+  }
+
   public void setDatabaseTablePrefix(String databaseTablePrefix) {
     this.databaseTablePrefix = databaseTablePrefix;
   }
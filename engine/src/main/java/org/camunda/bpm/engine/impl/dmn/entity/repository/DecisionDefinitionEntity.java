@@ -16,6 +16,7 @@ import java.io.Serializable;
 
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.scripting.ExecutableScript;
 import org.camunda.bpm.engine.repository.DecisionDefinition;
 import org.camunda.bpm.engine.repository.ResourceDefinitionEntity;
 import org.camunda.bpm.dmn.engine.impl.DmnDecisionTableImpl;
@@ -34,6 +35,9 @@ public class DecisionDefinitionEntity extends DmnDecisionTableImpl implements De
   protected String resourceName;
   protected String diagramResourceName;
 
+  /** the compiled decision, kept as long as the decision definition is in the deployment cache */
+  protected transient volatile ExecutableScript executableScript;
+
   public DecisionDefinitionEntity() {
 
   }
@@ -114,6 +118,14 @@ public class DecisionDefinitionEntity extends DmnDecisionTableImpl implements De
     this.diagramResourceName = diagramResourceName;
   }
 
+  public ExecutableScript getExecutableScript() {
+    return executableScript;
+  }
+
+  public void setExecutableScript(ExecutableScript executableScript) {
+    this.executableScript = executableScript;
+  }
+
   public Object getPersistentState() {
     return DecisionDefinitionEntity.class;
   }
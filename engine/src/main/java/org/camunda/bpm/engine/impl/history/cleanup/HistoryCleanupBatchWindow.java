@@ -0,0 +1,126 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.cleanup;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+
+/**
+ * <p>The daily time window in which the history cleanup deletes historic data,
+ * for example <code>22:00</code> to <code>06:00</code>. A window whose end is
+ * before its start spans midnight. A window without start and end is always open.</p>
+ *
+ * <p>Times are interpreted in the default time zone of the JVM.</p>
+ */
+public class HistoryCleanupBatchWindow {
+
+  /** the delay after which the cleanup checks for new data if the window is always open */
+  protected static final long ALWAYS_OPEN_RESCHEDULE_DELAY = 60 * 60 * 1000L;
+
+  /** minute of the day the window opens, -1 if the window is always open */
+  protected final int startMinute;
+
+  /** minute of the day the window closes, -1 if the window is always open */
+  protected final int endMinute;
+
+  /**
+   * @param startTime the time the window opens in the format <code>HH:mm</code> or null
+   * @param endTime the time the window closes in the format <code>HH:mm</code> or null
+   */
+  public HistoryCleanupBatchWindow(String startTime, String endTime) {
+    if (startTime == null && endTime == null) {
+      startMinute = -1;
+      endMinute = -1;
+    }
+    else if (startTime == null || endTime == null) {
+      throw new ProcessEngineException("History cleanup batch window requires both a start and an end time");
+    }
+    else {
+      startMinute = parseMinuteOfDay(startTime);
+      endMinute = parseMinuteOfDay(endTime);
+
+      if (startMinute == endMinute) {
+        throw new ProcessEngineException("History cleanup batch window must not start and end at the same time: " + startTime);
+      }
+    }
+  }
+
+  public boolean isAlwaysOpen() {
+    return startMinute == -1;
+  }
+
+  /**
+   * @return true if the given date is within the window
+   */
+  public boolean isWithin(Date date) {
+    if (isAlwaysOpen()) {
+      return true;
+    }
+
+    int minute = getMinuteOfDay(date);
+    if (startMinute < endMinute) {
+      return minute >= startMinute && minute < endMinute;
+    }
+    else {
+      // the window spans midnight
+      return minute >= startMinute || minute < endMinute;
+    }
+  }
+
+  /**
+   * @return the next time after the given date at which the window opens. If the
+   *   window is always open, the time at which the cleanup should check for new data.
+   */
+  public Date getNextStart(Date date) {
+    if (isAlwaysOpen()) {
+      return new Date(date.getTime() + ALWAYS_OPEN_RESCHEDULE_DELAY);
+    }
+
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(date);
+    calendar.set(Calendar.HOUR_OF_DAY, startMinute / 60);
+    calendar.set(Calendar.MINUTE, startMinute % 60);
+    calendar.set(Calendar.SECOND, 0);
+    calendar.set(Calendar.MILLISECOND, 0);
+
+    if (!calendar.getTime().after(date)) {
+      calendar.add(Calendar.DAY_OF_MONTH, 1);
+    }
+    return calendar.getTime();
+  }
+
+  protected int getMinuteOfDay(Date date) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(date);
+    return calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+  }
+
+  protected int parseMinuteOfDay(String time) {
+    String[] parts = time.trim().split(":");
+    if (parts.length == 2) {
+      try {
+        int hours = Integer.parseInt(parts[0]);
+        int minutes = Integer.parseInt(parts[1]);
+        if (hours >= 0 && hours < 24 && minutes >= 0 && minutes < 60) {
+          return hours * 60 + minutes;
+        }
+      } catch (NumberFormatException e) {
+        // handled below
+      }
+    }
+    throw new ProcessEngineException("Invalid history cleanup batch window time '" + time + "', expected format is HH:mm");
+  }
+
+}
@@ -0,0 +1,144 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.cleanup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobHandler;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TimerEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * <p>Deletes the history of process instances whose time to live is expired.</p>
+ *
+ * <p>The history is partitioned by process definition key: there is one job for each
+ * process definition key with a configured time to live and one job for all other
+ * process definitions if a default time to live is configured, so that the partitions
+ * are cleaned up in parallel by the job executor. The configuration of a job is the
+ * process definition key or {@link #DEFAULT_PARTITION}.</p>
+ *
+ * <p>Each execution deletes one batch of process instances, the longest ended first.
+ * If the batch was full, the job is rescheduled immediately, otherwise when the
+ * {@link HistoryCleanupBatchWindow batch window} opens the next time.</p>
+ *
+ * @see ProcessEngineConfigurationImpl#setHistoryTimeToLive(Integer)
+ * @see ProcessEngineConfigurationImpl#setHistoryTimeToLiveByProcessDefinitionKey(Map)
+ */
+public class HistoryCleanupJobHandler implements JobHandler {
+
+  public static final String TYPE = "history-cleanup";
+
+  /** the partition of all process definitions without a time to live of their own */
+  public static final String DEFAULT_PARTITION = "*";
+
+  protected static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+  public String getType() {
+    return TYPE;
+  }
+
+  public void execute(String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = commandContext.getProcessEngineConfiguration();
+
+    Integer timeToLive = getTimeToLive(processEngineConfiguration, configuration);
+    if (!processEngineConfiguration.isHistoryCleanupEnabled() || timeToLive == null) {
+      // the partition is not cleaned up anymore
+      return;
+    }
+
+    HistoryCleanupBatchWindow batchWindow = processEngineConfiguration.getHistoryCleanupBatchWindow();
+    Date now = ClockUtil.getCurrentTime();
+
+    boolean isBatchFull = false;
+    if (batchWindow.isWithin(now)) {
+      isBatchFull = cleanupBatch(configuration, timeToLive, now, processEngineConfiguration, commandContext);
+    }
+
+    Date nextDueDate = isBatchFull ? now : batchWindow.getNextStart(now);
+    scheduleJob(configuration, nextDueDate, commandContext);
+  }
+
+  /**
+   * @return true if the batch was full, i.e. there may be more history to delete
+   */
+  protected boolean cleanupBatch(String partition, int timeToLive, Date now,
+      ProcessEngineConfigurationImpl processEngineConfiguration, CommandContext commandContext) {
+
+    Date endTimeBefore = new Date(now.getTime() - timeToLive * MILLIS_PER_DAY);
+    int batchSize = processEngineConfiguration.getHistoryCleanupBatchSize();
+
+    String processDefinitionKey = null;
+    Collection<String> excludedProcessDefinitionKeys = null;
+    if (DEFAULT_PARTITION.equals(partition)) {
+      excludedProcessDefinitionKeys = getTimeToLiveByProcessDefinitionKey(processEngineConfiguration).keySet();
+    }
+    else {
+      processDefinitionKey = partition;
+    }
+
+    List<String> processInstanceIds = commandContext
+      .getHistoricProcessInstanceManager()
+      .findHistoricProcessInstanceIdsForCleanup(processDefinitionKey, excludedProcessDefinitionKeys, endTimeBefore, batchSize);
+
+    commandContext
+      .getHistoricProcessInstanceManager()
+      .deleteHistoricProcessInstancesByIds(processInstanceIds);
+
+    return processInstanceIds.size() == batchSize;
+  }
+
+  public static void scheduleJob(String partition, Date dueDate, CommandContext commandContext) {
+    TimerEntity timer = new TimerEntity();
+
+    timer.setDuedate(dueDate);
+    timer.setJobHandlerType(TYPE);
+    timer.setJobHandlerConfiguration(partition);
+
+    commandContext.getJobManager().schedule(timer);
+  }
+
+  /**
+   * @return the partitions which are cleaned up with the given configuration
+   */
+  public static List<String> getPartitions(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    List<String> partitions = new ArrayList<String>(getTimeToLiveByProcessDefinitionKey(processEngineConfiguration).keySet());
+    if (processEngineConfiguration.getHistoryTimeToLive() != null) {
+      partitions.add(DEFAULT_PARTITION);
+    }
+    return partitions;
+  }
+
+  /**
+   * @return the time to live in days of the partition or null if it is not cleaned up
+   */
+  public static Integer getTimeToLive(ProcessEngineConfigurationImpl processEngineConfiguration, String partition) {
+    if (DEFAULT_PARTITION.equals(partition)) {
+      return processEngineConfiguration.getHistoryTimeToLive();
+    }
+    else {
+      return getTimeToLiveByProcessDefinitionKey(processEngineConfiguration).get(partition);
+    }
+  }
+
+  protected static Map<String, Integer> getTimeToLiveByProcessDefinitionKey(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    return processEngineConfiguration.getHistoryTimeToLiveByProcessDefinitionKey();
+  }
+
+}
@@ -36,6 +36,9 @@ public class HistoricVariableUpdateEventEntity extends HistoricDetailEventEntity
   protected String textValue2;
   protected byte[] byteValue;
 
+  /** the id of a blob holding the value, which is kept by the history instead of the byte value */
+  protected String blobValueId;
+
   protected String byteArrayId;
 
   // getter / setters ////////////////////////////
@@ -82,6 +85,12 @@ public class HistoricVariableUpdateEventEntity extends HistoricDetailEventEntity
   public void setByteValue(byte[] byteValue) {
     this.byteValue = byteValue;
   }
+  public String getBlobValueId() {
+    return blobValueId;
+  }
+  public void setBlobValueId(String blobValueId) {
+    this.blobValueId = blobValueId;
+  }
   public int getRevision() {
     return revision;
   }
@@ -0,0 +1,609 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.cmd.WriteHistoryEventsCmd;
+import org.camunda.bpm.engine.impl.cmd.WriteStoredHistoryEventsCmd;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoricDetailEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandContextListener;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+
+/**
+ * <p>{@link HistoryEventHandler} which decouples writing the history from the
+ * transaction producing it. The history events of a transaction are buffered
+ * and handed to a bounded queue once the transaction is committed. Dedicated
+ * writer threads take the events from the queue and write them using the
+ * delegate handler, up to {@link #getBatchSize()} events in a single transaction.
+ * Events of rolled back transactions are discarded.</p>
+ *
+ * <p>The events are partitioned by process instance (or case instance) and every
+ * partition has its own queue and writer thread, so the events of an instance are
+ * written in the order in which they were produced.</p>
+ *
+ * <p>If the queue of a partition stays full for longer than {@link #getQueueTimeout()},
+ * the committing thread writes the queued events of the partition together with its
+ * own events (back-pressure). The same happens for the remaining events when the
+ * handler is {@link #stop() stopped}, so no committed events are lost on shutdown.
+ * As long as the handler is not started, the events are written synchronously.</p>
+ *
+ * <p>If {@link #setStoreEvents(boolean) enabled}, the events are additionally
+ * {@link StoredHistoryEvents stored} in the producing transaction and the stored events
+ * are deleted in the transaction writing them. Events which cannot be written stay stored,
+ * as do the events which are lost from the queue because the engine crashes. They are
+ * written in the order they were stored on {@link #recover()}, which is invoked when
+ * the handler is started.</p>
+ *
+ * <p>Note that the history of a transaction is only visible to queries after the
+ * events have been written.</p>
+ */
+public class AsyncHistoryEventHandler implements HistoryEventHandler {
+
+  private final static Logger log = Logger.getLogger(AsyncHistoryEventHandler.class.getName());
+
+  /** time a writer waits for new events before it checks whether it should stop */
+  protected static final long POLL_INTERVAL = 100;
+
+  protected HistoryEventHandler delegate;
+
+  protected int writerThreads = 1;
+  protected int queueCapacity = 10000;
+  protected int batchSize = 500;
+  protected long queueTimeout = 1000;
+  protected boolean storeEvents = false;
+
+  protected volatile boolean isActive = false;
+  protected CommandExecutor commandExecutor;
+  protected HistoryEventPartition[] partitions;
+  protected List<Thread> writers = new ArrayList<Thread>();
+
+  public AsyncHistoryEventHandler(HistoryEventHandler delegate) {
+    this.delegate = delegate;
+  }
+
+  public void handleEvent(HistoryEvent historyEvent) {
+    CommandContext commandContext = Context.getCommandContext();
+
+    if (!isActive || commandContext == null) {
+      delegate.handleEvent(historyEvent);
+    }
+    else {
+      HistoryEventBuffer historyEventBuffer = commandContext.getSession(HistoryEventBuffer.class);
+      if (historyEventBuffer.isEmpty()) {
+        EnqueueHistoryEventsListener listener = new EnqueueHistoryEventsListener(historyEventBuffer);
+        commandContext.registerCommandContextListener(listener);
+        commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, listener);
+      }
+      historyEventBuffer.add(historyEvent);
+    }
+  }
+
+  public void handleEvents(List<HistoryEvent> historyEvents) {
+    for (HistoryEvent historyEvent : historyEvents) {
+      handleEvent(historyEvent);
+    }
+  }
+
+  // lifecycle ////////////////////////////////////////////
+
+  /**
+   * Writes the stored events which are left over and starts the writer threads.
+   *
+   * @param commandExecutor used to write the events, must open a new transaction
+   *   since it may be invoked after a transaction is committed
+   */
+  public synchronized void start(CommandExecutor commandExecutor) {
+    if (isActive) {
+      return;
+    }
+
+    this.commandExecutor = commandExecutor;
+
+    if (storeEvents) {
+      recover();
+    }
+
+    partitions = new HistoryEventPartition[writerThreads];
+    for (int i = 0; i < writerThreads; i++) {
+      partitions[i] = new HistoryEventPartition(queueCapacity);
+
+      Thread writer = new Thread(new HistoryEventWriter(partitions[i]), "camunda-history-writer-" + i);
+      writer.setDaemon(true);
+      writers.add(writer);
+    }
+
+    isActive = true;
+
+    for (Thread writer : writers) {
+      writer.start();
+    }
+  }
+
+  /**
+   * Stops the writer threads and writes the remaining events in the calling thread.
+   */
+  public synchronized void stop() {
+    if (!isActive) {
+      return;
+    }
+
+    isActive = false;
+
+    for (HistoryEventPartition partition : partitions) {
+      partition.wakeUp();
+    }
+
+    for (Thread writer : writers) {
+      try {
+        writer.join();
+      }
+      catch (InterruptedException e) {
+        log.log(Level.WARNING, "Interrupted while waiting for history writer " + writer.getName() + " to stop", e);
+        Thread.currentThread().interrupt();
+      }
+    }
+    writers.clear();
+
+    flush();
+  }
+
+  /**
+   * Writes the events which are queued at the time of invocation in the calling thread.
+   */
+  public void flush() {
+    if (partitions == null) {
+      return;
+    }
+
+    for (HistoryEventPartition partition : partitions) {
+      synchronized (partition.writeLock) {
+        writeInBatches(partition.poll(Integer.MAX_VALUE, 0));
+      }
+    }
+  }
+
+  /**
+   * Writes the stored events which are not written yet, e.g. because the engine
+   * crashed before or because writing them failed. Each stored chunk of events
+   * is written in its own transaction, in the order the chunks were stored.
+   */
+  public void recover() {
+    List<String> storedEventsIds = commandExecutor.execute(new Command<List<String>>() {
+      public List<String> execute(CommandContext commandContext) {
+        return StoredHistoryEvents.findIds(commandContext);
+      }
+    });
+
+    for (String storedEventsId : storedEventsIds) {
+      try {
+        commandExecutor.execute(new WriteStoredHistoryEventsCmd(delegate, storedEventsId));
+      }
+      catch (OptimisticLockingException e) {
+        log.fine("History events stored in byte array " + storedEventsId + " have been written by another transaction");
+      }
+      catch (Exception e) {
+        log.log(Level.SEVERE, "Could not write the history events stored in byte array " + storedEventsId, e);
+      }
+    }
+  }
+
+  // queueing and writing ////////////////////////////////////
+
+  /**
+   * Splits the events into one chunk per partition and stores the chunks.
+   */
+  protected List<HistoryEventChunk> createChunks(CommandContext commandContext, List<HistoryEvent> historyEvents) {
+    Map<HistoryEventPartition, HistoryEventChunk> chunksByPartition = new LinkedHashMap<HistoryEventPartition, HistoryEventChunk>();
+    for (HistoryEvent historyEvent : historyEvents) {
+      HistoryEventPartition partition = getPartition(historyEvent);
+      HistoryEventChunk chunk = chunksByPartition.get(partition);
+      if (chunk == null) {
+        chunk = new HistoryEventChunk(partition);
+        chunksByPartition.put(partition, chunk);
+      }
+      chunk.historyEvents.add(historyEvent);
+    }
+
+    List<HistoryEventChunk> chunks = new ArrayList<HistoryEventChunk>(chunksByPartition.values());
+    if (storeEvents && commandContext != null) {
+      for (HistoryEventChunk chunk : chunks) {
+        try {
+          chunk.storedEventsId = StoredHistoryEvents.store(commandContext, chunk.historyEvents);
+        }
+        catch (ProcessEngineException e) {
+          // the transaction must not fail because of its history
+          log.log(Level.WARNING, "Could not store " + chunk.historyEvents.size() + " history events, they are lost if they cannot be written", e);
+        }
+      }
+    }
+    return chunks;
+  }
+
+  protected void enqueue(List<HistoryEventChunk> chunks) {
+    for (HistoryEventChunk chunk : chunks) {
+      if (!isActive || !chunk.partition.offer(chunk, queueTimeout)) {
+        writeInCallingThread(chunk);
+      }
+    }
+  }
+
+  protected void writeInCallingThread(HistoryEventChunk chunk) {
+    HistoryEventPartition partition = chunk.partition;
+    synchronized (partition.writeLock) {
+      // the queued events have been produced before and must be written first
+      List<HistoryEventChunk> pendingChunks = partition.poll(Integer.MAX_VALUE, 0);
+      if (isActive) {
+        log.fine("History event queue is full, writing " + (countEvents(pendingChunks) + chunk.size()) + " history events in the calling thread");
+      }
+      pendingChunks.add(chunk);
+      writeInBatches(pendingChunks);
+    }
+  }
+
+  protected void writeInBatches(List<HistoryEventChunk> chunks) {
+    List<HistoryEventChunk> batch = new ArrayList<HistoryEventChunk>();
+    int batchEvents = 0;
+    for (HistoryEventChunk chunk : chunks) {
+      if (!batch.isEmpty() && batchEvents + chunk.size() > batchSize) {
+        write(batch);
+        batch = new ArrayList<HistoryEventChunk>();
+        batchEvents = 0;
+      }
+      batch.add(chunk);
+      batchEvents += chunk.size();
+    }
+    write(batch);
+  }
+
+  protected void write(List<HistoryEventChunk> chunks) {
+    if (chunks.isEmpty()) {
+      return;
+    }
+
+    List<HistoryEvent> historyEvents = new ArrayList<HistoryEvent>();
+    List<String> storedEventsIds = new ArrayList<String>();
+    for (HistoryEventChunk chunk : chunks) {
+      historyEvents.addAll(chunk.historyEvents);
+      if (chunk.storedEventsId != null) {
+        storedEventsIds.add(chunk.storedEventsId);
+      }
+    }
+
+    try {
+      commandExecutor.execute(new WriteHistoryEventsCmd(delegate, historyEvents, storedEventsIds));
+    }
+    catch (Exception e) {
+      if (chunks.size() > 1) {
+        // do not fail the whole batch because of a single chunk
+        log.log(Level.WARNING, "Could not write " + historyEvents.size() + " history events in a single transaction, writing them chunk by chunk", e);
+        for (HistoryEventChunk chunk : chunks) {
+          write(Collections.singletonList(chunk));
+        }
+      }
+      else {
+        handleWriteFailure(chunks.get(0), e);
+      }
+    }
+  }
+
+  protected void handleWriteFailure(HistoryEventChunk chunk, Exception e) {
+    if (chunk.storedEventsId == null) {
+      if (chunk.size() == 1) {
+        log.log(Level.SEVERE, "Could not write history event " + chunk.historyEvents.get(0), e);
+      }
+      else {
+        log.log(Level.WARNING, "Could not write " + chunk.size() + " history events in a single transaction, writing them one by one", e);
+        for (HistoryEvent historyEvent : chunk.historyEvents) {
+          HistoryEventChunk singleEvent = new HistoryEventChunk(chunk.partition);
+          singleEvent.historyEvents.add(historyEvent);
+          write(Collections.singletonList(singleEvent));
+        }
+      }
+    }
+    else if (e instanceof OptimisticLockingException) {
+      log.fine("History events stored in byte array " + chunk.storedEventsId + " have been written by another transaction");
+    }
+    else {
+      // the stored events must be written together with the deletion of the byte array
+      log.log(Level.WARNING, "Could not write " + chunk.size() + " history events, they remain stored in byte array "
+          + chunk.storedEventsId + " and are written on recovery", e);
+    }
+  }
+
+  protected static int countEvents(List<HistoryEventChunk> chunks) {
+    int events = 0;
+    for (HistoryEventChunk chunk : chunks) {
+      events += chunk.size();
+    }
+    return events;
+  }
+
+  protected HistoryEventPartition getPartition(HistoryEvent historyEvent) {
+    String key = getPartitionKey(historyEvent);
+    int index = key == null ? 0 : (key.hashCode() & Integer.MAX_VALUE) % partitions.length;
+    return partitions[index];
+  }
+
+  /**
+   * @return the key of the events which must be written in order
+   */
+  protected String getPartitionKey(HistoryEvent historyEvent) {
+    if (historyEvent.getProcessInstanceId() != null) {
+      return historyEvent.getProcessInstanceId();
+    }
+    if (historyEvent.getCaseInstanceId() != null) {
+      return historyEvent.getCaseInstanceId();
+    }
+    if (historyEvent instanceof HistoricDetailEventEntity && ((HistoricDetailEventEntity) historyEvent).getTaskId() != null) {
+      // variables of a standalone task
+      return ((HistoricDetailEventEntity) historyEvent).getTaskId();
+    }
+    return historyEvent.getId();
+  }
+
+  // getters / setters /////////////////////////////////////
+
+  public HistoryEventHandler getDelegate() {
+    return delegate;
+  }
+
+  public boolean isActive() {
+    return isActive;
+  }
+
+  public int getWriterThreads() {
+    return writerThreads;
+  }
+
+  public void setWriterThreads(int writerThreads) {
+    this.writerThreads = writerThreads;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  /**
+   * @param queueCapacity the maximum number of queued events per writer thread
+   */
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public long getQueueTimeout() {
+    return queueTimeout;
+  }
+
+  /**
+   * @param queueTimeout the time in milliseconds a committing thread waits for free
+   *   space in a full queue before it writes the events itself
+   */
+  public void setQueueTimeout(long queueTimeout) {
+    this.queueTimeout = queueTimeout;
+  }
+
+  public boolean isStoreEvents() {
+    return storeEvents;
+  }
+
+  /**
+   * @param storeEvents whether the events are stored in the producing transaction,
+   *   so that they can be recovered if they cannot be written
+   */
+  public void setStoreEvents(boolean storeEvents) {
+    this.storeEvents = storeEvents;
+  }
+
+  /**
+   * @return the number of events which are queued but not written yet
+   */
+  public int getQueueSize() {
+    int queueSize = 0;
+    if (partitions != null) {
+      for (HistoryEventPartition partition : partitions) {
+        queueSize += partition.size();
+      }
+    }
+    return queueSize;
+  }
+
+  // helper classes ////////////////////////////////////////
+
+  /**
+   * Stores the buffered events before the sessions are flushed and enqueues
+   * them once the transaction is committed. The chunks are created when the
+   * command context is closed, so they do not depend on the buffer which may
+   * already be closed when the transaction manager reports the commit.
+   */
+  protected class EnqueueHistoryEventsListener implements CommandContextListener, TransactionListener {
+
+    protected HistoryEventBuffer historyEventBuffer;
+    protected List<HistoryEventChunk> chunks;
+
+    public EnqueueHistoryEventsListener(HistoryEventBuffer historyEventBuffer) {
+      this.historyEventBuffer = historyEventBuffer;
+    }
+
+    public void onCommandContextClose(CommandContext commandContext) {
+      chunks = createChunks(commandContext, historyEventBuffer.getHistoryEvents());
+    }
+
+    public void onCommandFailed(CommandContext commandContext, Throwable t) {
+      // the events are discarded
+    }
+
+    public void execute(CommandContext commandContext) {
+      int chunkedEvents = chunks != null ? countEvents(chunks) : 0;
+      List<HistoryEvent> historyEvents = historyEventBuffer.getHistoryEvents();
+
+      List<HistoryEventChunk> committedChunks = new ArrayList<HistoryEventChunk>();
+      if (chunks != null) {
+        committedChunks.addAll(chunks);
+      }
+      if (historyEvents.size() > chunkedEvents) {
+        // produced while the sessions were flushed, these events are not stored
+        committedChunks.addAll(createChunks(null, historyEvents.subList(chunkedEvents, historyEvents.size())));
+      }
+      enqueue(committedChunks);
+    }
+  }
+
+  /**
+   * The events of a transaction which belong to the same partition.
+   */
+  protected static class HistoryEventChunk {
+
+    protected final HistoryEventPartition partition;
+    protected final List<HistoryEvent> historyEvents = new ArrayList<HistoryEvent>();
+    protected String storedEventsId;
+
+    public HistoryEventChunk(HistoryEventPartition partition) {
+      this.partition = partition;
+    }
+
+    public int size() {
+      return historyEvents.size();
+    }
+  }
+
+  protected class HistoryEventWriter implements Runnable {
+
+    protected HistoryEventPartition partition;
+
+    public HistoryEventWriter(HistoryEventPartition partition) {
+      this.partition = partition;
+    }
+
+    public void run() {
+      while (isActive) {
+        // events taken from the queue must be written before a committing thread
+        // may write the subsequent events of the partition
+        synchronized (partition.writeLock) {
+          writeInBatches(partition.poll(batchSize, POLL_INTERVAL));
+        }
+      }
+    }
+  }
+
+  /**
+   * Bounded queue of the events of a partition. The capacity is measured in events,
+   * the events of a chunk are added and removed together.
+   */
+  protected static class HistoryEventPartition {
+
+    /** held while events taken from the queue are written */
+    protected final Object writeLock = new Object();
+
+    protected final ArrayDeque<HistoryEventChunk> queue = new ArrayDeque<HistoryEventChunk>();
+    protected final int capacity;
+    protected int size = 0;
+
+    public HistoryEventPartition(int capacity) {
+      this.capacity = capacity;
+    }
+
+    /**
+     * Adds the chunk, waits up to the given time for free space.
+     */
+    public synchronized boolean offer(HistoryEventChunk chunk, long timeout) {
+      if (chunk.size() > capacity) {
+        return false;
+      }
+
+      long deadline = System.currentTimeMillis() + timeout;
+      while (capacity - size < chunk.size()) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0 || !await(remaining)) {
+          return false;
+        }
+      }
+
+      queue.add(chunk);
+      size += chunk.size();
+      notifyAll();
+      return true;
+    }
+
+    /**
+     * Removes chunks with up to the given number of events, at least one chunk if
+     * the queue is not empty. Waits up to the given time if the queue is empty.
+     */
+    public synchronized List<HistoryEventChunk> poll(int maxEvents, long timeout) {
+      if (queue.isEmpty() && timeout > 0) {
+        await(timeout);
+      }
+
+      List<HistoryEventChunk> chunks = new ArrayList<HistoryEventChunk>();
+      int events = 0;
+      while (!queue.isEmpty() && (chunks.isEmpty() || events + queue.peek().size() <= maxEvents)) {
+        HistoryEventChunk chunk = queue.poll();
+        chunks.add(chunk);
+        events += chunk.size();
+      }
+
+      if (!chunks.isEmpty()) {
+        size -= events;
+        // wake up threads waiting for free space
+        notifyAll();
+      }
+      return chunks;
+    }
+
+    public synchronized int size() {
+      return size;
+    }
+
+    public synchronized void wakeUp() {
+      notifyAll();
+    }
+
+    /**
+     * @return false if the thread was interrupted
+     */
+    protected boolean await(long timeout) {
+      try {
+        wait(timeout);
+        return true;
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
+
+}
@@ -16,12 +16,16 @@ import java.util.List;
 
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
+import org.camunda.bpm.engine.impl.history.event.HistoricCaseActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricCaseInstanceEventEntity;
 import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInstanceEntity;
 import org.camunda.bpm.engine.impl.history.event.HistoricScopeInstanceEvent;
 import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
 import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
 import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
 
 /**
@@ -60,8 +64,9 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
     if(eventType == null || isInitialEvent(eventType)) {
       dbEntityManager.insert(historyEvent);
     } else {
-      if(dbEntityManager.getCachedEntity(historyEvent.getClass(), historyEvent.getId()) == null) {
-        if (historyEvent instanceof HistoricScopeInstanceEvent) {
+      HistoryEvent cachedEvent = dbEntityManager.getCachedEntity(historyEvent.getClass(), historyEvent.getId());
+      if(cachedEvent == null) {
+        if (historyEvent instanceof HistoricScopeInstanceEvent && isStartTimeRequired(historyEvent)) {
           // if this is a scope, get start time from existing event in DB
           HistoricScopeInstanceEvent existingEvent = (HistoricScopeInstanceEvent) dbEntityManager.selectById(historyEvent.getClass(), historyEvent.getId());
           if(existingEvent != null) {
@@ -74,14 +79,38 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
         } else {
           dbEntityManager.merge(historyEvent);
         }
+      } else if(cachedEvent != historyEvent) {
+        // the cached event has been produced in a different command context
+        // (e.g. if the events are written asynchronously)
+        replaceCachedEvent(cachedEvent, historyEvent);
       }
     }
   }
 
+  /** replaces an event in the entity cache by a more recent event of the same instance */
+  protected void replaceCachedEvent(HistoryEvent cachedEvent, HistoryEvent historyEvent) {
+    DbEntityCache dbEntityCache = getDbEntityManager().getDbEntityCache();
+
+    if (historyEvent instanceof HistoricScopeInstanceEvent) {
+      HistoricScopeInstanceEvent historicScopeInstanceEvent = (HistoricScopeInstanceEvent) historyEvent;
+      historicScopeInstanceEvent.setStartTime(((HistoricScopeInstanceEvent) cachedEvent).getStartTime());
+    }
+
+    boolean isTransient = dbEntityCache.isTransient(cachedEvent);
+    dbEntityCache.remove(cachedEvent);
+
+    if (isTransient) {
+      dbEntityCache.putTransient(historyEvent);
+    } else {
+      dbEntityCache.putMerged(historyEvent);
+    }
+  }
+
 
   /** customized insert behavior for HistoricVariableUpdateEventEntity */
   protected void insertHistoricVariableUpdateEntity(HistoricVariableUpdateEventEntity historyEvent) {
     DbEntityManager dbEntityManager = getDbEntityManager();
+    String blobValueId = historyEvent.getBlobValueId();
 
     // insert update only if history level = FULL
     if(Context.getProcessEngineConfiguration().getHistoryLevel()
@@ -98,26 +127,33 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
         historyEvent.setByteArrayId(byteArrayEntity.getId());
 
       }
+      else if(blobValueId != null) {
+        // the update references the blob of the event
+        getByteArrayManager().insertBlobReference(historyEvent.getVariableName(), blobValueId);
+        historyEvent.setByteArrayId(blobValueId);
+        blobValueId = null;
+      }
       dbEntityManager.insert(historyEvent);
     }
 
     // always insert/update HistoricProcessVariableInstance
+    HistoricVariableInstanceEntity historicVariableInstance = null;
     if(HistoryEventTypes.VARIABLE_INSTANCE_CREATE.getEventName().equals(historyEvent.getEventType())) {
-      HistoricVariableInstanceEntity persistentObject = new HistoricVariableInstanceEntity(historyEvent);
-      dbEntityManager.insert(persistentObject);
+      historicVariableInstance = new HistoricVariableInstanceEntity(historyEvent);
+      dbEntityManager.insert(historicVariableInstance);
 
     } else if(HistoryEventTypes.VARIABLE_INSTANCE_UPDATE.getEventName().equals(historyEvent.getEventType())) {
-      HistoricVariableInstanceEntity historicVariableInstanceEntity = dbEntityManager.selectById(HistoricVariableInstanceEntity.class, historyEvent.getVariableInstanceId());
-      if(historicVariableInstanceEntity != null) {
-        historicVariableInstanceEntity.updateFromEvent(historyEvent);
+      historicVariableInstance = dbEntityManager.selectById(HistoricVariableInstanceEntity.class, historyEvent.getVariableInstanceId());
+      if(historicVariableInstance != null) {
+        historicVariableInstance.updateFromEvent(historyEvent);
 
       } else {
         // #CAM-1344 / #SUPPORT-688
         // this is a FIX for process instances which were started in camunda fox 6.1 and migrated to camunda BPM 7.0.
         // in fox 6.1 the HistoricVariable instances were flushed to the DB when the process instance completed.
         // Since fox 6.2 we populate the HistoricVariable table as we go.
-        HistoricVariableInstanceEntity persistentObject = new HistoricVariableInstanceEntity(historyEvent);
-        dbEntityManager.insert(persistentObject);
+        historicVariableInstance = new HistoricVariableInstanceEntity(historyEvent);
+        dbEntityManager.insert(historicVariableInstance);
       }
 
     } else if(HistoryEventTypes.VARIABLE_INSTANCE_DELETE.getEventName().equals(historyEvent.getEventType())) {
@@ -127,6 +163,34 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
       }
     }
 
+    if(historyEvent.getBlobValueId() != null) {
+      referenceBlobValue(historyEvent, historicVariableInstance, blobValueId);
+    }
+
+  }
+
+  /**
+   * The historic variable instance references the blob of the event unless the
+   * blob is referenced by the historic variable update already. In that case, the
+   * instance references a copy of the blob, since both delete their blob. A blob
+   * which is not referenced at all is deleted.
+   */
+  protected void referenceBlobValue(HistoricVariableUpdateEventEntity historyEvent,
+      HistoricVariableInstanceEntity historicVariableInstance, String unreferencedBlobId) {
+    ByteArrayManager byteArrayManager = getByteArrayManager();
+
+    if(historicVariableInstance != null) {
+      String blobId = unreferencedBlobId != null ? unreferencedBlobId : byteArrayManager.copyBlob(historyEvent.getBlobValueId());
+      byteArrayManager.insertBlobReference(historyEvent.getVariableName(), blobId);
+      historicVariableInstance.setByteArrayId(blobId);
+
+    } else if(unreferencedBlobId != null) {
+      byteArrayManager.deleteBlob(unreferencedBlobId);
+    }
+  }
+
+  protected ByteArrayManager getByteArrayManager() {
+    return Context.getCommandContext().getByteArrayManager();
   }
 
   protected void insertHistoricDecisionInstanceEntity(HistoricDecisionInstanceEntity historicDecisionInstanceEntity) {
@@ -138,6 +202,16 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
   }
 
 
+  /**
+   * The start time is required to calculate the duration of an ended scope. For activity,
+   * process and task instances, the duration is calculated by the update statement if the
+   * start time is not known, so the existing event does not have to be selected.
+   */
+  protected boolean isStartTimeRequired(HistoryEvent historyEvent) {
+    return historyEvent instanceof HistoricCaseInstanceEventEntity
+        || historyEvent instanceof HistoricCaseActivityInstanceEventEntity;
+  }
+
   protected boolean isInitialEvent(String eventType) {
     return HistoryEventTypes.ACTIVITY_INSTANCE_START.getEventName().equals(eventType)
         || HistoryEventTypes.PROCESS_INSTANCE_START.getEventName().equals(eventType)
@@ -0,0 +1,52 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.interceptor.Session;
+
+/**
+ * Collects the history events produced in a command context until the
+ * transaction is committed.
+ *
+ * @see AsyncHistoryEventHandler
+ */
+public class HistoryEventBuffer implements Session {
+
+  protected List<HistoryEvent> historyEvents = new ArrayList<HistoryEvent>();
+
+  public void add(HistoryEvent historyEvent) {
+    historyEvents.add(historyEvent);
+  }
+
+  public boolean isEmpty() {
+    return historyEvents.isEmpty();
+  }
+
+  public List<HistoryEvent> getHistoryEvents() {
+    return historyEvents;
+  }
+
+  public void flush() {
+    // the events are handed over after the transaction is committed
+  }
+
+  public void close() {
+    // the events are not cleared, a transaction manager may report
+    // the commit after the command context is closed
+  }
+
+}
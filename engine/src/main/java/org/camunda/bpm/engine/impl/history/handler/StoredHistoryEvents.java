@@ -0,0 +1,129 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+
+/**
+ * <p>Stores history events in a byte array of the transaction producing them,
+ * so that committed events which are not written yet survive a crash or a
+ * failing write. The byte array is deleted in the transaction writing the events.</p>
+ *
+ * <p>The byte array is deleted with a revision check. If two transactions write
+ * the same stored events, only one of them commits.</p>
+ *
+ * <p>The name of the byte array contains a sequence which is based on the time the
+ * events are stored and strictly increasing within the process engine, so that stored
+ * events can be written in the order they were produced. The order of events stored
+ * by different process engines depends on their clocks.</p>
+ *
+ * @see AsyncHistoryEventHandler#recover()
+ */
+public class StoredHistoryEvents {
+
+  /** the prefix of the names of the byte arrays holding stored history events */
+  public static final String BYTE_ARRAY_NAME_PREFIX = "history-events-";
+
+  /** the last sequence used for the name of a byte array */
+  protected static final AtomicLong lastSequence = new AtomicLong();
+
+  /**
+   * Inserts a byte array holding the given events.
+   *
+   * @return the id of the byte array
+   */
+  public static String store(CommandContext commandContext, List<HistoryEvent> historyEvents) {
+    ByteArrayEntity byteArray = new ByteArrayEntity(getByteArrayName(nextSequence()), serialize(historyEvents));
+    commandContext.getDbEntityManager().insert(byteArray);
+    return byteArray.getId();
+  }
+
+  /**
+   * @return the ids of the byte arrays holding stored history events, in the order the events were stored
+   */
+  @SuppressWarnings("unchecked")
+  public static List<String> findIds(CommandContext commandContext) {
+    return (List<String>) commandContext.getDbEntityManager()
+        .selectList("selectByteArrayIdsByNamePrefix", BYTE_ARRAY_NAME_PREFIX + "%");
+  }
+
+  /**
+   * Deletes the byte array with the given id, the transaction fails with an
+   * {@link org.camunda.bpm.engine.OptimisticLockingException} if the byte
+   * array was deleted by another transaction.
+   */
+  public static void delete(CommandContext commandContext, String storedEventsId) {
+    ByteArrayEntity byteArray = new ByteArrayEntity();
+    byteArray.setId(storedEventsId);
+    byteArray.setRevision(1);
+    commandContext.getDbEntityManager().delete(byteArray);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static List<HistoryEvent> load(ByteArrayEntity byteArray) {
+    try {
+      ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(byteArray.getBytes()));
+      try {
+        return (List<HistoryEvent>) in.readObject();
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (Exception e) {
+      throw new ProcessEngineException("Cannot read the history events stored in byte array " + byteArray.getId(), e);
+    }
+  }
+
+  protected static String getByteArrayName(long sequence) {
+    // padded, so that the names are ordered like the sequences
+    return BYTE_ARRAY_NAME_PREFIX + String.format("%019d", sequence);
+  }
+
+  protected static long nextSequence() {
+    long sequence = System.currentTimeMillis() * 1000;
+    while (true) {
+      long last = lastSequence.get();
+      long next = Math.max(sequence, last + 1);
+      if (lastSequence.compareAndSet(last, next)) {
+        return next;
+      }
+    }
+  }
+
+  protected static byte[] serialize(List<HistoryEvent> historyEvents) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(new ArrayList<HistoryEvent>(historyEvents));
+      out.close();
+      return bytes.toByteArray();
+    }
+    catch (IOException e) {
+      throw new ProcessEngineException("Cannot store history events", e);
+    }
+  }
+
+}
@@ -43,6 +43,7 @@ import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.oplog.UserOperationLogContext;
 import org.camunda.bpm.engine.impl.oplog.UserOperationLogContextEntry;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricJobLogEventEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.IncidentEntity;
@@ -229,11 +230,32 @@ public class DefaultHistoryEventProducer implements HistoryEventProducer {
     evt.setDoubleValue(variableInstance.getDoubleValue());
     evt.setLongValue(variableInstance.getLongValue());
     if (variableInstance.getByteArrayValueId() != null) {
+      ByteArrayManager byteArrayManager = Context.getCommandContext().getByteArrayManager();
       ByteArrayEntity byteArrayValue = variableInstance.getByteArrayValue();
-      evt.setByteValue(byteArrayValue.getBytes());
+      if (byteArrayManager.isBlob(byteArrayValue)) {
+        // the history keeps its own copy of the blob, since the blob of the variable
+        // is deleted with the variable; the content is not read into memory
+        if (isBlobValueKept(evt, eventType)) {
+          evt.setBlobValueId(byteArrayManager.copyBlob(byteArrayValue.getId()));
+        }
+      }
+      else {
+        evt.setByteValue(byteArrayValue.getBytes());
+      }
     }
   }
 
+  /**
+   * @return false if the history does not keep the value of the event, so that the blob
+   *   of the value does not have to be copied
+   */
+  protected boolean isBlobValueKept(HistoricVariableUpdateEventEntity evt, HistoryEventType eventType) {
+    // the value of a deleted variable is only kept by the variable update
+    return !HistoryEventTypes.VARIABLE_INSTANCE_DELETE.equals(eventType)
+        || Context.getProcessEngineConfiguration().getHistoryLevel()
+          .isHistoryEventProduced(HistoryEventTypes.VARIABLE_INSTANCE_UPDATE_DETAIL, evt);
+  }
+
   protected void initUserOperationLogEvent(UserOperationLogEntryEventEntity evt, UserOperationLogContext context,
       UserOperationLogContextEntry contextEntry, PropertyChange propertyChange) {
     // init properties
@@ -108,6 +108,7 @@ public class DbIdentityServiceProvider extends DbReadOnlyIdentityServiceProvider
     parameters.put("groupId", groupId);
     getDbSqlSession().getSqlSession().insert("insertMembership", parameters);
     createDefaultMembershipAuthorizations(userId, groupId);
+    membershipsModified(userId);
   }
 
   public void deleteMembership(String userId, String groupId) {
@@ -118,16 +119,31 @@ public class DbIdentityServiceProvider extends DbReadOnlyIdentityServiceProvider
     parameters.put("userId", userId);
     parameters.put("groupId", groupId);
     getDbEntityManager().delete(MembershipEntity.class, "deleteMembership", parameters);
+    membershipsModified(userId);
   }
 
   protected void deleteMembershipsByUserId(String userId) {
     getDbEntityManager().delete(MembershipEntity.class, "deleteMembershipsByUserId", userId);
+    membershipsModified(userId);
   }
 
   protected void deleteMembershipsByGroupId(String groupId) {
+    if (isAuthorizationIndexEnabled()) {
+      getAuthorizationIndexManager().groupMembershipsDeleted(groupId);
+    }
     getDbEntityManager().delete(MembershipEntity.class, "deleteMembershipsByGroupId", groupId);
   }
 
+  protected void membershipsModified(String userId) {
+    if (isAuthorizationIndexEnabled()) {
+      getAuthorizationIndexManager().membershipsModified(userId);
+    }
+  }
+
+  protected boolean isAuthorizationIndexEnabled() {
+    return Context.getProcessEngineConfiguration().isAuthorizationIndexEnabled();
+  }
+
   // authorizations ////////////////////////////////////////////////////////////
 
   protected void createDefaultAuthorizations(UserEntity userEntity) {
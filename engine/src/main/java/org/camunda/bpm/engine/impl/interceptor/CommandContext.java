@@ -48,6 +48,7 @@ import org.camunda.bpm.engine.impl.identity.ReadOnlyIdentityProvider;
 import org.camunda.bpm.engine.impl.identity.WritableIdentityProvider;
 import org.camunda.bpm.engine.impl.jobexecutor.FailedJobCommandFactory;
 import org.camunda.bpm.engine.impl.persistence.entity.AttachmentManager;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationIndexManager;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
 import org.camunda.bpm.engine.impl.persistence.entity.CommentManager;
@@ -443,6 +444,10 @@ public class CommandContext {
     return getSession(AuthorizationManager.class);
   }
 
+  public AuthorizationIndexManager getAuthorizationIndexManager() {
+    return getSession(AuthorizationIndexManager.class);
+  }
+
   public ReadOnlyIdentityProvider getReadOnlyIdentityProvider() {
     return getSession(ReadOnlyIdentityProvider.class);
   }
@@ -0,0 +1,109 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.interceptor;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.TransactionContext;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
+import org.camunda.bpm.engine.impl.metrics.CommandMetrics;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+
+/**
+ * <p>Records the {@link CommandMetrics} of each command which runs in its own command
+ * context: the duration until the transaction completed, the number of SQL statements
+ * executed including the flush and the number of entities in the entity cache.</p>
+ *
+ * <p>Must be placed after the {@link CommandContextInterceptor} in the interceptor chain.
+ * Commands which reuse the command context of another command are part of that command's
+ * metrics.</p>
+ *
+ * @see ProcessEngineConfigurationImpl#setCommandMetricsEnabled(boolean)
+ */
+public class CommandMetricsInterceptor extends CommandInterceptor {
+
+  /** the command context of the command currently instrumented by the thread */
+  protected static ThreadLocal<CommandContext> instrumentedCommandContext = new ThreadLocal<CommandContext>();
+
+  public <T> T execute(Command<T> command) {
+    CommandContext commandContext = Context.getCommandContext();
+    CommandContext outerCommandContext = instrumentedCommandContext.get();
+
+    if (commandContext == null || commandContext == outerCommandContext) {
+      return next.execute(command);
+    }
+
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    MetricsRegistry metricsRegistry = processEngineConfiguration.getMetricsRegistry();
+    if (!processEngineConfiguration.isMetricsEnabled() || metricsRegistry == null) {
+      return next.execute(command);
+    }
+
+    CommandMetricsListener listener = new CommandMetricsListener(metricsRegistry, command.getClass().getName());
+
+    TransactionContext transactionContext = commandContext.getTransactionContext();
+    transactionContext.addTransactionListener(TransactionState.COMMITTED, listener);
+    transactionContext.addTransactionListener(TransactionState.ROLLED_BACK, listener);
+
+    instrumentedCommandContext.set(commandContext);
+    try {
+      return next.execute(command);
+    }
+    finally {
+      if (outerCommandContext != null) {
+        instrumentedCommandContext.set(outerCommandContext);
+      }
+      else {
+        instrumentedCommandContext.remove();
+      }
+    }
+  }
+
+  /**
+   * Records the metrics when the transaction of the command context completed.
+   */
+  public static class CommandMetricsListener implements TransactionListener {
+
+    protected MetricsRegistry metricsRegistry;
+    protected String commandName;
+    protected long startTime = System.nanoTime();
+
+    public CommandMetricsListener(MetricsRegistry metricsRegistry, String commandName) {
+      this.metricsRegistry = metricsRegistry;
+      this.commandName = commandName;
+    }
+
+    public void execute(CommandContext commandContext) {
+      long duration = (System.nanoTime() - startTime) / 1000;
+
+      // look up the sessions without opening them
+      int statementCount = 0;
+      int cachedEntityCount = 0;
+      for (Session session : commandContext.getSessions().values()) {
+        if (session instanceof DbSqlSession) {
+          statementCount = ((DbSqlSession) session).getStatementCount();
+        }
+        else if (session instanceof DbEntityManager) {
+          cachedEntityCount = ((DbEntityManager) session).getDbEntityCache().size();
+        }
+      }
+
+      metricsRegistry.getCommandMetrics(commandName)
+        .record(duration, statementCount, cachedEntityCount);
+    }
+  }
+
+}
@@ -27,6 +27,7 @@ public abstract class AcquireJobsRunnable implements Runnable {
 
   protected volatile boolean isInterrupted = false;
   protected volatile boolean isJobAdded = false;
+  protected volatile boolean isDueDateAdded = false;
   protected final Object MONITOR = new Object();
   protected final AtomicBoolean isWaiting = new AtomicBoolean(false);
 
@@ -76,6 +77,19 @@ public abstract class AcquireJobsRunnable implements Runnable {
     }
   }
 
+  /**
+   * Wakes up the acquisition thread to recalculate its wait time since
+   * a job becomes due earlier than any known job.
+   */
+  public void dueDateAdded() {
+    isDueDateAdded = true;
+    if(isWaiting.compareAndSet(true, false)) {
+      synchronized (MONITOR) {
+        MONITOR.notifyAll();
+      }
+    }
+  }
+
   public boolean isJobAdded() {
     return isJobAdded;
   }
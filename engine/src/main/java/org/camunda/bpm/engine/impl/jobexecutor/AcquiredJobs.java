@@ -13,6 +13,7 @@
 package org.camunda.bpm.engine.impl.jobexecutor;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -32,6 +33,9 @@ public class AcquiredJobs {
 
   protected int numberOfJobsFailedToLock = 0;
 
+  /** the earliest due date of the jobs which were not due yet, if requested */
+  protected Date nextDueDate;
+
   public AcquiredJobs(int numberOfJobsAttemptedToAcquire) {
     this.numberOfJobsAttemptedToAcquire = numberOfJobsAttemptedToAcquire;
   }
@@ -79,4 +83,12 @@ public class AcquiredJobs {
     return numberOfJobsAttemptedToAcquire;
   }
 
+  public Date getNextDueDate() {
+    return nextDueDate;
+  }
+
+  public void setNextDueDate(Date nextDueDate) {
+    this.nextDueDate = nextDueDate;
+  }
+
 }
@@ -0,0 +1,56 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationIndexManager;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
+
+/**
+ * <p>Recalculates the stale entries of the authorization index. Each execution
+ * recalculates the entries of a limited number of subjects and sends a new job
+ * if there may be more stale subjects.</p>
+ *
+ * @see AuthorizationIndexManager
+ */
+public class AuthorizationIndexJobHandler implements JobHandler {
+
+  public static final String TYPE = "authorization-index-update";
+
+  /** the configuration of every job, used to find pending jobs */
+  public static final String CONFIGURATION = "stale-entries";
+
+  protected static final int SUBJECTS_PER_JOB = 100;
+
+  public String getType() {
+    return TYPE;
+  }
+
+  public void execute(String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    boolean isPageFull = commandContext.getAuthorizationIndexManager().updateStaleEntries(SUBJECTS_PER_JOB);
+
+    if (isPageFull) {
+      sendJob(commandContext);
+    }
+  }
+
+  public static void sendJob(CommandContext commandContext) {
+    MessageEntity message = new MessageEntity();
+    message.setJobHandlerType(TYPE);
+    message.setJobHandlerConfiguration(CONFIGURATION);
+
+    commandContext.getJobManager().send(message);
+  }
+
+}
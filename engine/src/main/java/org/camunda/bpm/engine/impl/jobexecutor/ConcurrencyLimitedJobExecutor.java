@@ -0,0 +1,161 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+
+/**
+ * <p>{@link JobExecutor} which executes each batch of jobs on its own thread. Instead
+ * of a bounded queue, the number of batches executed concurrently is limited by a
+ * {@link Semaphore} with {@link #getMaxConcurrentJobs() maxConcurrentJobs} permits.</p>
+ *
+ * <p>Jobs are acquired according to the number of available permits (see
+ * {@link PermitBasedJobAcquisitionStrategy}), so acquired jobs are not rejected
+ * because of a full queue. This suits jobs which spend most of their time
+ * waiting for I/O, e.g. connectors or slow delegates, where a high concurrency
+ * limit keeps many jobs in flight.</p>
+ *
+ * <p><em>NOTE: use this class in environments in which self-management of threads
+ * is permitted.</em></p>
+ */
+public class ConcurrencyLimitedJobExecutor extends JobExecutor {
+
+  private static Logger log = Logger.getLogger(ConcurrencyLimitedJobExecutor.class.getName());
+
+  protected int maxConcurrentJobs = 100;
+
+  protected Semaphore permits;
+  protected ExecutorService executorService;
+
+  protected void ensureInitialization() {
+    super.ensureInitialization();
+
+    acquireJobsRunnable = new SequentialJobAcquisitionRunnable(this) {
+      protected JobAcquisitionStrategy initializeAcquisitionStrategy() {
+        return new PermitBasedJobAcquisitionStrategy(ConcurrencyLimitedJobExecutor.this);
+      }
+    };
+  }
+
+  protected void startExecutingJobs() {
+    if (executorService == null || executorService.isShutdown()) {
+      permits = new Semaphore(maxConcurrentJobs);
+      executorService = Executors.newCachedThreadPool(new JobThreadFactory(getName()));
+    }
+
+    startJobAcquisitionThread();
+  }
+
+  protected void stopExecutingJobs() {
+    stopJobAcquisitionThread();
+
+    executorService.shutdown();
+
+    // Waits for 1 minute to finish all currently executing jobs
+    try {
+      if (!executorService.awaitTermination(60L, TimeUnit.SECONDS)) {
+        log.log(Level.WARNING, "Timeout during shutdown of job executor. "
+                + "The current running jobs could not end within 60 seconds after shutdown operation.");
+      }
+    } catch (InterruptedException e) {
+      log.log(Level.WARNING, "Interrupted while shutting down the job executor. ", e);
+    }
+  }
+
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    if (!permits.tryAcquire()) {
+      rejectJobs(jobIds, processEngine);
+      return;
+    }
+
+    final Runnable executeJobsRunnable = getExecuteJobsRunnable(jobIds, processEngine);
+    try {
+      executorService.execute(new Runnable() {
+        public void run() {
+          try {
+            executeJobsRunnable.run();
+          }
+          finally {
+            permits.release();
+          }
+        }
+      });
+
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      rejectJobs(jobIds, processEngine);
+    }
+  }
+
+  protected void rejectJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    logRejectedExecution(processEngine, jobIds.size());
+    rejectedJobsHandler.jobsRejected(jobIds, processEngine, this);
+  }
+
+  /**
+   * @return the number of job batches which can be submitted for execution
+   *   before jobs are rejected
+   */
+  public int getAvailablePermits() {
+    if (permits == null) {
+      return maxConcurrentJobs;
+    }
+    return permits.availablePermits();
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public int getMaxConcurrentJobs() {
+    return maxConcurrentJobs;
+  }
+
+  /**
+   * Sets the maximum number of job batches executed concurrently. Takes
+   * effect the next time the job executor is started.
+   */
+  public void setMaxConcurrentJobs(int maxConcurrentJobs) {
+    this.maxConcurrentJobs = maxConcurrentJobs;
+  }
+
+  public ExecutorService getExecutorService() {
+    return executorService;
+  }
+
+  protected static class JobThreadFactory implements ThreadFactory {
+
+    protected final String namePrefix;
+    protected final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    public JobThreadFactory(String namePrefix) {
+      this.namePrefix = namePrefix;
+    }
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, namePrefix + "-job-" + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
@@ -20,6 +20,7 @@ import org.camunda.bpm.engine.impl.ProcessEngineImpl;
 import org.camunda.bpm.engine.impl.cmd.ExecuteJobsCmd;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.management.Metrics;
 
 
 /**
@@ -63,10 +64,13 @@ public class ExecuteJobsRunnable implements Runnable {
       while (!currentProcessorJobQueue.isEmpty()) {
         
         String nextJobId = currentProcessorJobQueue.remove(0);
+        long startTime = System.currentTimeMillis();
         try {
           executeJob(nextJobId, commandExecutor);        
         } catch(Throwable t) {
           LOGG.log(Level.WARNING, "Exception while executing job with id "+nextJobId, t);
+        } finally {
+          recordJobExecutionDuration(System.currentTimeMillis() - startTime);
         }
         
       }      
@@ -78,5 +82,13 @@ public class ExecuteJobsRunnable implements Runnable {
   protected void executeJob(String nextJobId, CommandExecutor commandExecutor) {    
     commandExecutor.execute(new ExecuteJobsCmd(nextJobId));
   }
+
+  protected void recordJobExecutionDuration(long duration) {
+    if (processEngine != null && processEngine.getProcessEngineConfiguration().isMetricsEnabled()) {
+      processEngine.getProcessEngineConfiguration()
+        .getMetricsRegistry()
+        .recordValue(Metrics.JOB_EXECUTION_DURATION, duration);
+    }
+  }
   
 }
@@ -0,0 +1,38 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.Date;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Tells the {@link JobExecutor} about the due date of a job which was created
+ * in a committed transaction.
+ */
+public class JobDueDateNotification implements TransactionListener {
+
+  protected JobExecutor jobExecutor;
+  protected Date dueDate;
+
+  public JobDueDateNotification(JobExecutor jobExecutor, Date dueDate) {
+    this.jobExecutor = jobExecutor;
+    this.dueDate = dueDate;
+  }
+
+  public void execute(CommandContext commandContext) {
+    jobExecutor.jobDueDateAdded(dueDate);
+  }
+
+}
@@ -0,0 +1,84 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.Date;
+import java.util.TreeSet;
+
+/**
+ * <p>Holds the due dates of jobs which are known to become due in the future,
+ * ordered ascending, so that the job acquisition can wake up when the earliest
+ * of them is due instead of waiting for the next poll.</p>
+ *
+ * <p>The due dates are hints only: a job may have been deleted or acquired by
+ * another node in the meantime, which results in an acquisition cycle without
+ * jobs. Only the earliest {@link #getCapacity() capacity} due dates are kept.</p>
+ */
+public class JobDueDateQueue {
+
+  public static final int DEFAULT_CAPACITY = 1000;
+
+  protected final TreeSet<Long> dueDates = new TreeSet<Long>();
+  protected final int capacity;
+
+  public JobDueDateQueue() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public JobDueDateQueue(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * @return true if the due date is now the earliest due date of the queue
+   */
+  public synchronized boolean add(Date dueDate) {
+    Long dueTime = dueDate.getTime();
+    dueDates.add(dueTime);
+
+    if (dueDates.size() > capacity) {
+      dueDates.pollLast();
+    }
+
+    return dueTime.equals(dueDates.first());
+  }
+
+  /**
+   * Removes the due dates which are before or at the given time.
+   *
+   * @return the earliest due date after the given time or null if there is none
+   */
+  public synchronized Date removeDueDatesUntil(Date time) {
+    while (!dueDates.isEmpty() && dueDates.first() <= time.getTime()) {
+      dueDates.pollFirst();
+    }
+
+    if (dueDates.isEmpty()) {
+      return null;
+    }
+    return new Date(dueDates.first());
+  }
+
+  public synchronized int size() {
+    return dueDates.size();
+  }
+
+  public synchronized void clear() {
+    dueDates.clear();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+}
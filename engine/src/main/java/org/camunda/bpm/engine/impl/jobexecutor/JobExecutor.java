@@ -13,6 +13,7 @@
 
 package org.camunda.bpm.engine.impl.jobexecutor;
 
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
@@ -73,6 +74,14 @@ public abstract class JobExecutor {
   protected String lockOwner = UUID.randomUUID().toString();
   protected int lockTimeInMillis = 5 * 60 * 1000;
 
+  /**
+   * If true, the job acquisition keeps track of the due dates of jobs which are not
+   * due yet and wakes up when the earliest of them becomes due instead of waiting
+   * for the idle wait time.
+   */
+  protected boolean dueDateAwareAcquisition = false;
+  protected JobDueDateQueue dueDateQueue = new JobDueDateQueue();
+
   public void start() {
     if (isActive) {
       return;
@@ -110,6 +119,20 @@ public abstract class JobExecutor {
     }
   }
 
+  /**
+   * Notifies the job acquisition about a job which becomes due at the given date.
+   * Has no effect if {@link #isDueDateAwareAcquisition() due date aware acquisition}
+   * is disabled.
+   */
+  public void jobDueDateAdded(Date dueDate) {
+    if (dueDateAwareAcquisition && dueDate != null) {
+      boolean isEarliestDueDate = dueDateQueue.add(dueDate);
+      if (isEarliestDueDate && isActive) {
+        acquireJobsRunnable.dueDateAdded();
+      }
+    }
+  }
+
   public synchronized void registerProcessEngine(ProcessEngineImpl processEngine) {
     processEngines.add(processEngine);
 
@@ -151,6 +174,14 @@ public abstract class JobExecutor {
     }
   }
 
+  public void logAcquisitionDuration(ProcessEngineImpl engine, long duration) {
+    if (engine != null && engine.getProcessEngineConfiguration().isMetricsEnabled()) {
+      engine.getProcessEngineConfiguration()
+        .getMetricsRegistry()
+        .recordValue(Metrics.JOB_ACQUISITION_DURATION, duration);
+    }
+  }
+
   public void logAcquiredJobs(ProcessEngineImpl engine, int numJobs) {
     if (engine != null && engine.getProcessEngineConfiguration().isMetricsEnabled()) {
       engine.getProcessEngineConfiguration()
@@ -301,6 +332,18 @@ public abstract class JobExecutor {
     this.backoffDecreaseThreshold = backoffDecreaseThreshold;
   }
 
+  public boolean isDueDateAwareAcquisition() {
+    return dueDateAwareAcquisition;
+  }
+
+  public void setDueDateAwareAcquisition(boolean dueDateAwareAcquisition) {
+    this.dueDateAwareAcquisition = dueDateAwareAcquisition;
+  }
+
+  public JobDueDateQueue getDueDateQueue() {
+    return dueDateQueue;
+  }
+
   public String getName() {
     return name;
   }
@@ -0,0 +1,53 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+/**
+ * <p>{@link BackoffJobAcquisitionStrategy} for the {@link ConcurrencyLimitedJobExecutor}
+ * which never acquires more jobs than there are permits available for executing them.</p>
+ *
+ * <p>If no permit is available, no jobs are acquired and the acquisition waits for
+ * the execution saturation wait time before checking again.</p>
+ */
+public class PermitBasedJobAcquisitionStrategy extends BackoffJobAcquisitionStrategy {
+
+  protected ConcurrencyLimitedJobExecutor jobExecutor;
+
+  /** true if there was no permit available in the current acquisition cycle */
+  protected boolean permitsExhausted = false;
+
+  public PermitBasedJobAcquisitionStrategy(ConcurrencyLimitedJobExecutor jobExecutor) {
+    super(jobExecutor);
+    this.jobExecutor = jobExecutor;
+  }
+
+  @Override
+  public void reconfigure(JobAcquisitionContext context) {
+    super.reconfigure(context);
+    executionSaturated = executionSaturated || permitsExhausted;
+    permitsExhausted = false;
+  }
+
+  @Override
+  public int getNumJobsToAcquire(String processEngine) {
+    int availablePermits = jobExecutor.getAvailablePermits();
+    if (availablePermits <= 0) {
+      permitsExhausted = true;
+      return 0;
+    }
+
+    // a batch uses a single permit and contains at least one job
+    return Math.min(super.getNumJobsToAcquire(processEngine), availablePermits);
+  }
+
+}
@@ -1,5 +1,6 @@
 package org.camunda.bpm.engine.impl.jobexecutor;
 
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Level;
@@ -7,6 +8,7 @@ import java.util.logging.Logger;
 
 import org.camunda.bpm.engine.impl.ProcessEngineImpl;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
 
 
 /**
@@ -59,13 +61,48 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
       long waitTime = acquisitionStrategy.getWaitTime();
       // wait the requested wait time minus the time that acquisition itself took
       // this makes the intervals of job acquisition more constant and therefore predictable
-      waitTime = Math.max(0, (acquisitionContext.getAcquisitionTime() + waitTime) - System.currentTimeMillis());
+      long wakeUpTime = acquisitionContext.getAcquisitionTime() + waitTime;
 
-      suspendAcquisition(waitTime);
+      if (jobExecutor.isDueDateAwareAcquisition()) {
+        suspendAcquisitionUntilDue(wakeUpTime);
+      }
+      else {
+        suspendAcquisition(Math.max(0, wakeUpTime - System.currentTimeMillis()));
+      }
     }
     log.info(jobExecutor.getName() + " stopped job acquisition");
   }
 
+  /**
+   * Waits until the given wake up time or until the earliest known job due date,
+   * whichever comes first. If a job with an earlier due date is added while waiting,
+   * the wait time is recalculated.
+   */
+  protected void suspendAcquisitionUntilDue(long wakeUpTime) {
+    JobDueDateQueue dueDateQueue = jobExecutor.getDueDateQueue();
+
+    do {
+      isDueDateAdded = false;
+
+      long now = System.currentTimeMillis();
+      long waitTime = wakeUpTime - now;
+
+      // due dates are compared with the engine clock
+      Date currentTime = ClockUtil.getCurrentTime();
+      Date nextDueDate = dueDateQueue.removeDueDatesUntil(currentTime);
+      if (nextDueDate != null) {
+        waitTime = Math.min(waitTime, nextDueDate.getTime() - currentTime.getTime());
+      }
+
+      if (waitTime <= 0) {
+        return;
+      }
+
+      suspendAcquisition(waitTime);
+
+    } while (isDueDateAdded && !isInterrupted);
+  }
+
   protected JobAcquisitionContext initializeAcquisitionContext() {
     return new JobAcquisitionContext();
   }
@@ -110,7 +147,9 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
 
     if (numJobsToAcquire > 0) {
       jobExecutor.logAcquisitionAttempt(currentProcessEngine);
+      long acquisitionStart = System.currentTimeMillis();
       acquiredJobs = commandExecutor.execute(jobExecutor.getAcquireJobsCmd(numJobsToAcquire));
+      jobExecutor.logAcquisitionDuration(currentProcessEngine, System.currentTimeMillis() - acquisitionStart);
     }
     else {
       acquiredJobs = new AcquiredJobs(numJobsToAcquire);
@@ -118,6 +157,10 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
 
     context.submitAcquiredJobs(currentProcessEngine.getName(), acquiredJobs);
 
+    if (acquiredJobs.getNextDueDate() != null) {
+      jobExecutor.jobDueDateAdded(acquiredJobs.getNextDueDate());
+    }
+
     jobExecutor.logAcquiredJobs(currentProcessEngine, acquiredJobs.size());
     jobExecutor.logAcquisitionFailureJobs(currentProcessEngine, acquiredJobs.getNumberOfJobsFailedToLock());
 
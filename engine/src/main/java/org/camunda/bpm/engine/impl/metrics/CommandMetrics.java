@@ -0,0 +1,64 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+/**
+ * Records the duration, the number of executed SQL statements and the number of
+ * cached entities of the executions of a command class.
+ *
+ * @see org.camunda.bpm.engine.impl.interceptor.CommandMetricsInterceptor
+ */
+public class CommandMetrics {
+
+  protected final String commandName;
+
+  /** in microseconds */
+  protected final HistogramMeter duration;
+  protected final HistogramMeter statementCount;
+  protected final HistogramMeter cachedEntityCount;
+
+  public CommandMetrics(String commandName) {
+    this.commandName = commandName;
+    this.duration = new HistogramMeter(commandName);
+    this.statementCount = new HistogramMeter(commandName);
+    this.cachedEntityCount = new HistogramMeter(commandName);
+  }
+
+  /**
+   * @param duration the duration of the command execution in microseconds
+   * @param statementCount the number of SQL statements executed by the command
+   * @param cachedEntityCount the number of entities in the entity cache when the command completed
+   */
+  public void record(long duration, long statementCount, long cachedEntityCount) {
+    this.duration.record(duration);
+    this.statementCount.record(statementCount);
+    this.cachedEntityCount.record(cachedEntityCount);
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  public HistogramMeter getDuration() {
+    return duration;
+  }
+
+  public HistogramMeter getStatementCount() {
+    return statementCount;
+  }
+
+  public HistogramMeter getCachedEntityCount() {
+    return cachedEntityCount;
+  }
+
+}
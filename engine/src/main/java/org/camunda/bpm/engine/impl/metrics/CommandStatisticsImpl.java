@@ -0,0 +1,84 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+import org.camunda.bpm.engine.management.CommandStatistics;
+
+/**
+ * Snapshot of the {@link CommandMetrics} of a command class.
+ */
+public class CommandStatisticsImpl implements CommandStatistics {
+
+  protected String commandName;
+  protected long count;
+  protected long totalDuration;
+  protected long maxDuration;
+  protected long duration95thPercentile;
+  protected long totalStatementCount;
+  protected long maxStatementCount;
+  protected long maxCachedEntityCount;
+
+  public CommandStatisticsImpl(CommandMetrics commandMetrics) {
+    this.commandName = commandMetrics.getCommandName();
+    this.count = commandMetrics.getDuration().getTotalCount();
+    this.totalDuration = commandMetrics.getDuration().getTotalSum();
+    this.maxDuration = commandMetrics.getDuration().getMax();
+    this.duration95thPercentile = commandMetrics.getDuration().getValueAtPercentile(95);
+    this.totalStatementCount = commandMetrics.getStatementCount().getTotalSum();
+    this.maxStatementCount = commandMetrics.getStatementCount().getMax();
+    this.maxCachedEntityCount = commandMetrics.getCachedEntityCount().getMax();
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getTotalDuration() {
+    return totalDuration;
+  }
+
+  public long getMaxDuration() {
+    return maxDuration;
+  }
+
+  public long getDuration95thPercentile() {
+    return duration95thPercentile;
+  }
+
+  public long getTotalStatementCount() {
+    return totalStatementCount;
+  }
+
+  public long getMaxStatementCount() {
+    return maxStatementCount;
+  }
+
+  public long getMaxCachedEntityCount() {
+    return maxCachedEntityCount;
+  }
+
+  public String toString() {
+    return this.getClass().getSimpleName()
+        + "[commandName=" + commandName
+        + ", count=" + count
+        + ", totalDuration=" + totalDuration
+        + ", maxDuration=" + maxDuration
+        + ", totalStatementCount=" + totalStatementCount
+        + "]";
+  }
+
+}
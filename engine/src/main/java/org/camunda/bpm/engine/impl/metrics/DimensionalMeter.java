@@ -0,0 +1,46 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+/**
+ * <p>A {@link Meter} which counts the occurrences of a metric for a single
+ * process definition key and activity type. The values are reported in addition
+ * to the value of the global meter with the same name.</p>
+ *
+ * <p>Since an engine may hold a dimensional meter for every activity type of
+ * every deployed process definition, it uses fewer cells than a global meter.</p>
+ *
+ * @see MetricsRegistry#getDimensionalMeter(String, String, String)
+ */
+public class DimensionalMeter extends Meter {
+
+  protected static final int NUMBER_OF_DIMENSIONAL_CELLS = Math.min(4, NUMBER_OF_CELLS);
+
+  protected final String processDefinitionKey;
+  protected final String activityType;
+
+  public DimensionalMeter(String name, String processDefinitionKey, String activityType) {
+    super(name, NUMBER_OF_DIMENSIONAL_CELLS);
+    this.processDefinitionKey = processDefinitionKey;
+    this.activityType = activityType;
+  }
+
+  public String getProcessDefinitionKey() {
+    return processDefinitionKey;
+  }
+
+  public String getActivityType() {
+    return activityType;
+  }
+
+}
@@ -0,0 +1,185 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Meter which records the distribution of values, e.g. durations in milliseconds.
+ * Values are counted in buckets with exponentially growing bounds (0, 1, 2-3, 4-7, ...),
+ * so percentiles can be estimated within a factor of two.</p>
+ *
+ * <p>Recording a value does not allocate any objects. Count and sum are kept
+ * in striped {@link Meter Meters}.</p>
+ */
+public class HistogramMeter {
+
+  /** values greater than or equal to 2^(NUMBER_OF_BUCKETS - 2) are counted in the last bucket */
+  protected static final int NUMBER_OF_BUCKETS = 40;
+
+  protected String name;
+
+  /** if false, the histogram is only available to metrics exporters */
+  protected boolean reportedToDatabase = true;
+
+  protected final Meter count;
+  protected final Meter sum;
+  protected final AtomicLong max = new AtomicLong(0);
+  protected final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+  public HistogramMeter(String name) {
+    this.name = name;
+    this.count = new Meter(name);
+    this.sum = new Meter(name);
+  }
+
+  /**
+   * @param value the value to record, negative values are recorded as zero
+   */
+  public void record(long value) {
+    value = Math.max(0, value);
+
+    count.mark();
+    sum.markTimes(value);
+    buckets.incrementAndGet(bucketIndex(value));
+
+    long currentMax = max.get();
+    while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getSum() {
+    return sum.get();
+  }
+
+  /**
+   * @return the number of values recorded since the histogram was created, regardless of {@link #getAndClear()}
+   */
+  public long getTotalCount() {
+    return count.getTotal();
+  }
+
+  /**
+   * @return the sum of the values recorded since the histogram was created, regardless of {@link #getAndClear()}
+   */
+  public long getTotalSum() {
+    return sum.getTotal();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @param percentile the percentile between 0 and 100
+   * @return the upper bound of the bucket which contains the given percentile
+   *   of the recorded values or 0 if no values have been recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long[] bucketCounts = new long[NUMBER_OF_BUCKETS];
+    long totalCount = 0;
+    for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+      bucketCounts[i] = buckets.get(i);
+      totalCount += bucketCounts[i];
+    }
+
+    if (totalCount == 0) {
+      return 0;
+    }
+
+    long rank = (long) Math.ceil(totalCount * Math.min(100, Math.max(0, percentile)) / 100);
+    long accumulatedCount = 0;
+    for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+      accumulatedCount += bucketCounts[i];
+      if (accumulatedCount >= rank && accumulatedCount > 0) {
+        return Math.min(bucketUpperBound(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Resets the histogram.
+   *
+   * @return the count, sum and maximum of the values recorded since the last reset
+   */
+  public Snapshot getAndClear() {
+    for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    long maxValue = max.getAndSet(0);
+    return new Snapshot(count.getAndClear(), sum.getAndClear(), maxValue);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isReportedToDatabase() {
+    return reportedToDatabase;
+  }
+
+  public void setReportedToDatabase(boolean reportedToDatabase) {
+    this.reportedToDatabase = reportedToDatabase;
+  }
+
+  protected static int bucketIndex(long value) {
+    if (value == 0) {
+      return 0;
+    }
+    int index = 64 - Long.numberOfLeadingZeros(value);
+    return Math.min(index, NUMBER_OF_BUCKETS - 1);
+  }
+
+  protected static long bucketUpperBound(int bucketIndex) {
+    if (bucketIndex == 0) {
+      return 0;
+    }
+    if (bucketIndex == NUMBER_OF_BUCKETS - 1) {
+      return Long.MAX_VALUE;
+    }
+    return (1L << bucketIndex) - 1;
+  }
+
+  public static class Snapshot {
+
+    protected final long count;
+    protected final long sum;
+    protected final long max;
+
+    public Snapshot(long count, long sum, long max) {
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getSum() {
+      return sum;
+    }
+
+    public long getMax() {
+      return max;
+    }
+  }
+
+}
@@ -13,29 +13,57 @@
 package org.camunda.bpm.engine.impl.metrics;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
- * A Meter implementation based on AtomicLong
+ * <p>A counting Meter. Instead of a single shared counter, occurrences are added to
+ * one of several cells chosen by the current thread, so that threads marking
+ * the same meter concurrently rarely update the same cache line. Marking does not
+ * allocate any objects.</p>
+ *
+ * <p>The cells are summed up when the value is read. Reading while other threads
+ * mark the meter does not return an atomic snapshot, but no occurrence is lost:
+ * it is either part of the returned value or of a later one.</p>
  *
  * @author Daniel Meyer
  *
  */
 public class Meter {
 
-  protected AtomicLong counter = new AtomicLong(0);
+  /** number of array elements per cell, so that each cell uses its own 64 byte cache line */
+  protected static final int CELL_PADDING = 8;
+
+  protected static final int NUMBER_OF_CELLS = numberOfCells();
+
+  /** number of cells of this meter, a power of two */
+  protected final int numberOfCells;
+
+  protected final AtomicLongArray cells;
+
+  /** sum of the values returned by {@link #getAndClear()} */
+  protected final AtomicLong clearedValue = new AtomicLong(0);
 
   protected String name;
 
   public Meter(String name) {
+    this(name, NUMBER_OF_CELLS);
+  }
+
+  /**
+   * @param numberOfCells the number of cells, must be a power of two
+   */
+  protected Meter(String name, int numberOfCells) {
     this.name = name;
+    this.numberOfCells = numberOfCells;
+    this.cells = new AtomicLongArray(numberOfCells * CELL_PADDING);
   }
 
   public void mark() {
-    counter.incrementAndGet();
+    markTimes(1);
   }
 
   public void markTimes(long times) {
-    counter.addAndGet(times);
+    cells.addAndGet(cellIndex(), times);
   }
 
   public String getName() {
@@ -47,11 +75,49 @@ public class Meter {
   }
 
   public long getAndClear() {
-    return counter.getAndSet(0);
+    long sum = 0;
+    for (int i = 0; i < numberOfCells; i++) {
+      sum += cells.getAndSet(i * CELL_PADDING, 0);
+    }
+    clearedValue.addAndGet(sum);
+    return sum;
   }
 
   public long get() {
-    return counter.get();
+    long sum = 0;
+    for (int i = 0; i < numberOfCells; i++) {
+      sum += cells.get(i * CELL_PADDING);
+    }
+    return sum;
+  }
+
+  /**
+   * @return the number of occurrences since the meter was created, regardless of
+   *   {@link #getAndClear()}. While the meter is cleared concurrently, the returned
+   *   value may be temporarily lower than a previously returned one.
+   */
+  public long getTotal() {
+    return clearedValue.get() + get();
+  }
+
+  protected int cellIndex() {
+    long threadId = Thread.currentThread().getId();
+    // thread ids are sequential, spread them over the cells
+    int hash = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+    return ((hash >>> 16) & (numberOfCells - 1)) * CELL_PADDING;
+  }
+
+  /**
+   * @return the next power of two greater than or equal to twice the
+   *   number of processors, at most 64
+   */
+  protected static int numberOfCells() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int cells = 1;
+    while (cells < 2 * processors && cells < 64) {
+      cells <<= 1;
+    }
+    return cells;
   }
 
 }
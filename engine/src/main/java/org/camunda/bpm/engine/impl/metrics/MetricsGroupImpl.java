@@ -0,0 +1,68 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+import java.io.Serializable;
+
+import org.camunda.bpm.engine.management.MetricsGroup;
+
+public class MetricsGroupImpl implements MetricsGroup, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String processDefinitionKey;
+  protected String activityType;
+  protected long sum;
+
+  public MetricsGroupImpl() {
+  }
+
+  public MetricsGroupImpl(String processDefinitionKey, String activityType, long sum) {
+    this.processDefinitionKey = processDefinitionKey;
+    this.activityType = activityType;
+    this.sum = sum;
+  }
+
+  public String getProcessDefinitionKey() {
+    return processDefinitionKey;
+  }
+
+  public void setProcessDefinitionKey(String processDefinitionKey) {
+    this.processDefinitionKey = processDefinitionKey;
+  }
+
+  public String getActivityType() {
+    return activityType;
+  }
+
+  public void setActivityType(String activityType) {
+    this.activityType = activityType;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+  public void setSum(long sum) {
+    this.sum = sum;
+  }
+
+  public String toString() {
+    return this.getClass().getSimpleName()
+        + "[processDefinitionKey=" + processDefinitionKey
+        + ", activityType=" + activityType
+        + ", sum=" + sum
+        + "]";
+  }
+
+}
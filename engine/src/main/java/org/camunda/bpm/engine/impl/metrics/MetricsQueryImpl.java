@@ -16,11 +16,13 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.List;
 
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.management.MetricsGroup;
 import org.camunda.bpm.engine.management.MetricsQuery;
 
 /**
@@ -35,6 +37,10 @@ public class MetricsQueryImpl implements Serializable, Command<Object>, MetricsQ
   protected String reporter;
   protected Date startDate;
   protected Date endDate;
+  protected String processDefinitionKey;
+  protected String activityType;
+  protected boolean groupByProcessDefinitionKey;
+  protected boolean groupByActivityType;
   protected MetricsQueryType queryType;
 
   protected transient CommandExecutor commandExecutor;
@@ -67,16 +73,47 @@ public class MetricsQueryImpl implements Serializable, Command<Object>, MetricsQ
     return this;
   }
 
+  public MetricsQueryImpl processDefinitionKey(String processDefinitionKey) {
+    ensureNotNull("processDefinitionKey", processDefinitionKey);
+    this.processDefinitionKey = processDefinitionKey;
+    return this;
+  }
+
+  public MetricsQueryImpl activityType(String activityType) {
+    ensureNotNull("activityType", activityType);
+    this.activityType = activityType;
+    return this;
+  }
+
+  public MetricsQueryImpl groupByProcessDefinitionKey() {
+    this.groupByProcessDefinitionKey = true;
+    return this;
+  }
+
+  public MetricsQueryImpl groupByActivityType() {
+    this.groupByActivityType = true;
+    return this;
+  }
+
   public long sum() {
     queryType = MetricsQueryType.SUM;
     return (Long) commandExecutor.execute(this);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<MetricsGroup> groupedSum() {
+    queryType = MetricsQueryType.GROUPED_SUM;
+    return (List<MetricsGroup>) commandExecutor.execute(this);
+  }
+
   public Object execute(CommandContext commandContext) {
     switch (queryType) {
     case SUM:
       return commandContext.getMeterLogManager()
           .executeSelectSum(this);
+    case GROUPED_SUM:
+      return commandContext.getMeterLogManager()
+          .executeSelectGroupedSum(this);
     }
     throw new ProcessEngineException("Incorrect query type. Must be one of "+MetricsQueryType.values());
   }
@@ -97,4 +134,43 @@ public class MetricsQueryImpl implements Serializable, Command<Object>, MetricsQ
     return reporter;
   }
 
+  public String getProcessDefinitionKey() {
+    return processDefinitionKey;
+  }
+
+  public String getActivityType() {
+    return activityType;
+  }
+
+  public boolean isGroupByProcessDefinitionKey() {
+    return groupByProcessDefinitionKey;
+  }
+
+  public boolean isGroupByActivityType() {
+    return groupByActivityType;
+  }
+
+  /**
+   * @return true if the query selects the values collected per process definition key and
+   *   activity type, false if it selects the global values
+   */
+  public boolean isDimensional() {
+    return processDefinitionKey != null
+        || activityType != null
+        || groupByProcessDefinitionKey
+        || groupByActivityType
+        || queryType == MetricsQueryType.GROUPED_SUM;
+  }
+
+  /**
+   * @return true if the values of the given meter are selected by this query
+   */
+  public boolean matches(DimensionalMeter meter) {
+    return (name == null || name.equals(meter.getName()))
+        && (processDefinitionKey == null || processDefinitionKey.equals(meter.getProcessDefinitionKey()))
+        && (activityType == null || activityType.equals(meter.getActivityType()))
+        && (!groupByProcessDefinitionKey || meter.getProcessDefinitionKey() != null)
+        && (!groupByActivityType || meter.getActivityType() != null);
+  }
+
 }
@@ -18,6 +18,7 @@ package org.camunda.bpm.engine.impl.metrics;
  */
 public enum MetricsQueryType {
 
-  SUM
+  SUM,
+  GROUPED_SUM
 
 }
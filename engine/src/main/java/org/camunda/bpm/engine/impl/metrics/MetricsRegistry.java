@@ -12,8 +12,13 @@
  */
 package org.camunda.bpm.engine.impl.metrics;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Daniel Meyer
@@ -22,6 +27,13 @@ import java.util.Map;
 public class MetricsRegistry {
 
   protected Map<String, Meter> meters = new HashMap<String, Meter>();
+  protected Map<String, HistogramMeter> histograms = new HashMap<String, HistogramMeter>();
+
+  /** dimensional meters by name, process definition key and activity type; created on demand */
+  protected ConcurrentMap<List<String>, DimensionalMeter> dimensionalMeters = new ConcurrentHashMap<List<String>, DimensionalMeter>();
+
+  /** command metrics by command class name; created on demand */
+  protected ConcurrentMap<String, CommandMetrics> commandMetrics = new ConcurrentHashMap<String, CommandMetrics>();
 
   public Meter getMeterByName(String name) {
     return meters.get(name);
@@ -49,4 +61,71 @@ public class MetricsRegistry {
     return meter;
   }
 
+  public HistogramMeter getHistogramByName(String name) {
+    return histograms.get(name);
+  }
+
+  public Map<String, HistogramMeter> getHistograms() {
+    return histograms;
+  }
+
+  public void recordValue(String name, long value) {
+    HistogramMeter histogram = histograms.get(name);
+
+    if (histogram != null) {
+      histogram.record(value);
+    }
+  }
+
+  public HistogramMeter createHistogram(String name) {
+    HistogramMeter histogram = new HistogramMeter(name);
+    histograms.put(name, histogram);
+    return histogram;
+  }
+
+  /**
+   * Returns the meter for the given metric, process definition key and activity type.
+   * The meter is created if it does not exist yet.
+   */
+  public DimensionalMeter getDimensionalMeter(String name, String processDefinitionKey, String activityType) {
+    List<String> dimensions = Arrays.asList(name, processDefinitionKey, activityType);
+
+    DimensionalMeter meter = dimensionalMeters.get(dimensions);
+    if (meter == null) {
+      DimensionalMeter newMeter = new DimensionalMeter(name, processDefinitionKey, activityType);
+      meter = dimensionalMeters.putIfAbsent(dimensions, newMeter);
+      if (meter == null) {
+        meter = newMeter;
+      }
+    }
+    return meter;
+  }
+
+  public Collection<DimensionalMeter> getDimensionalMeters() {
+    return dimensionalMeters.values();
+  }
+
+  /**
+   * Returns the metrics of the given command class. They are created if they do not exist yet.
+   */
+  public CommandMetrics getCommandMetrics(String commandName) {
+    CommandMetrics metrics = commandMetrics.get(commandName);
+    if (metrics == null) {
+      CommandMetrics newMetrics = new CommandMetrics(commandName);
+      metrics = commandMetrics.putIfAbsent(commandName, newMetrics);
+      if (metrics == null) {
+        metrics = newMetrics;
+      }
+    }
+    return metrics;
+  }
+
+  public Collection<CommandMetrics> getAllCommandMetrics() {
+    return commandMetrics.values();
+  }
+
+  public void clearCommandMetrics() {
+    commandMetrics.clear();
+  }
+
 }
@@ -0,0 +1,83 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics.exporter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+
+/**
+ * Exports the totals of the meters, which are not affected by the
+ * {@link org.camunda.bpm.engine.impl.metrics.reporter.DbMetricsReporter DbMetricsReporter}
+ * clearing the meters. The exported totals never decrease.
+ */
+public abstract class AbstractMetricsExporter implements MetricsExporter {
+
+  protected String processEngineName;
+  protected MetricsRegistry metricsRegistry;
+
+  /** the last exported total by meter or histogram value */
+  protected ConcurrentMap<Object, Long> exportedTotals = new ConcurrentHashMap<Object, Long>();
+
+  public void start(String processEngineName, MetricsRegistry metricsRegistry) {
+    this.processEngineName = processEngineName;
+    this.metricsRegistry = metricsRegistry;
+    startExporter();
+  }
+
+  protected abstract void startExporter();
+
+  protected long getTotal(Meter meter) {
+    return monotonic(meter, meter.getTotal());
+  }
+
+  protected long getTotalCount(HistogramMeter histogram) {
+    return monotonic(histogram.getName() + "-count", histogram.getTotalCount());
+  }
+
+  protected long getTotalSum(HistogramMeter histogram) {
+    return monotonic(histogram.getName() + "-sum", histogram.getTotalSum());
+  }
+
+  /**
+   * A total may be temporarily lower than a previously exported one while the meter
+   * is cleared. Since monitoring systems consider a decreasing counter as restarted,
+   * the previously exported total is returned instead.
+   */
+  protected long monotonic(Object key, long total) {
+    Long exportedTotal = exportedTotals.get(key);
+    while (exportedTotal == null || exportedTotal < total) {
+      boolean updated = exportedTotal == null
+          ? exportedTotals.putIfAbsent(key, total) == null
+          : exportedTotals.replace(key, exportedTotal, total);
+
+      if (updated) {
+        return total;
+      }
+      exportedTotal = exportedTotals.get(key);
+    }
+    return exportedTotal;
+  }
+
+  public String getProcessEngineName() {
+    return processEngineName;
+  }
+
+  public MetricsRegistry getMetricsRegistry() {
+    return metricsRegistry;
+  }
+
+}
@@ -0,0 +1,148 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics.exporter;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+
+/**
+ * <p>Registers an MBean with the platform MBean server which exposes the total of each
+ * meter as a read-only attribute named like the meter (e.g. <code>activity-instance-start</code>).
+ * Histograms are exposed as the attributes <code>&lt;name&gt;-count</code>,
+ * <code>&lt;name&gt;-sum</code> and <code>&lt;name&gt;-max</code>.</p>
+ *
+ * <p>The MBean is registered as <code>org.camunda.bpm.engine:type=Metrics,engine=&lt;engine name&gt;</code>.
+ * Dimensional meters are not exposed.</p>
+ */
+public class JmxMetricsExporter extends AbstractMetricsExporter implements DynamicMBean {
+
+  public static final String DOMAIN = "org.camunda.bpm.engine";
+
+  protected static final String COUNT_SUFFIX = "-count";
+  protected static final String SUM_SUFFIX = "-sum";
+  protected static final String MAX_SUFFIX = "-max";
+
+  protected MBeanServer mBeanServer;
+  protected ObjectName objectName;
+
+  protected void startExporter() {
+    try {
+      mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      objectName = new ObjectName(DOMAIN + ":type=Metrics,engine=" + ObjectName.quote(processEngineName));
+      mBeanServer.registerMBean(this, objectName);
+    }
+    catch (Exception e) {
+      throw new ProcessEngineException("Could not register metrics MBean of process engine '" + processEngineName + "'", e);
+    }
+  }
+
+  public void stop() {
+    if (objectName != null && mBeanServer.isRegistered(objectName)) {
+      try {
+        mBeanServer.unregisterMBean(objectName);
+      }
+      catch (Exception e) {
+        throw new ProcessEngineException("Could not unregister metrics MBean '" + objectName + "'", e);
+      }
+    }
+    objectName = null;
+  }
+
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    Meter meter = metricsRegistry.getMeterByName(attribute);
+    if (meter != null) {
+      return getTotal(meter);
+    }
+
+    for (HistogramMeter histogram : metricsRegistry.getHistograms().values()) {
+      if (attribute.equals(histogram.getName() + COUNT_SUFFIX)) {
+        return getTotalCount(histogram);
+      }
+      if (attribute.equals(histogram.getName() + SUM_SUFFIX)) {
+        return getTotalSum(histogram);
+      }
+      if (attribute.equals(histogram.getName() + MAX_SUFFIX)) {
+        return histogram.getMax();
+      }
+    }
+
+    throw new AttributeNotFoundException("No metric with name " + attribute);
+  }
+
+  public AttributeList getAttributes(String[] attributes) {
+    AttributeList attributeList = new AttributeList();
+    for (String attribute : attributes) {
+      try {
+        attributeList.add(new Attribute(attribute, getAttribute(attribute)));
+      }
+      catch (AttributeNotFoundException e) {
+        // not part of the result
+      }
+    }
+    return attributeList;
+  }
+
+  public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+    throw new AttributeNotFoundException("Attribute " + attribute.getName() + " is read-only");
+  }
+
+  public AttributeList setAttributes(AttributeList attributes) {
+    // all attributes are read-only
+    return new AttributeList();
+  }
+
+  public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+    throw new ReflectionException(new NoSuchMethodException(actionName));
+  }
+
+  public MBeanInfo getMBeanInfo() {
+    List<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+    for (String meterName : metricsRegistry.getMeters().keySet()) {
+      attributes.add(attributeInfo(meterName, "Number of occurrences since the process engine was started"));
+    }
+    for (String histogramName : metricsRegistry.getHistograms().keySet()) {
+      attributes.add(attributeInfo(histogramName + COUNT_SUFFIX, "Number of recorded values since the process engine was started"));
+      attributes.add(attributeInfo(histogramName + SUM_SUFFIX, "Sum of recorded values since the process engine was started"));
+      attributes.add(attributeInfo(histogramName + MAX_SUFFIX, "Maximum recorded value since the last report to the database"));
+    }
+
+    return new MBeanInfo(getClass().getName(),
+        "Metrics of process engine '" + processEngineName + "'",
+        attributes.toArray(new MBeanAttributeInfo[attributes.size()]),
+        null, null, null);
+  }
+
+  protected MBeanAttributeInfo attributeInfo(String name, String description) {
+    return new MBeanAttributeInfo(name, Long.class.getName(), description, true, false, false);
+  }
+
+  public ObjectName getObjectName() {
+    return objectName;
+  }
+
+}
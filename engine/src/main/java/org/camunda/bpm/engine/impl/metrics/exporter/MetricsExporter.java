@@ -0,0 +1,34 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics.exporter;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+
+/**
+ * <p>Makes the values of a {@link MetricsRegistry} available to an external
+ * monitoring system. In contrast to the
+ * {@link org.camunda.bpm.engine.impl.metrics.reporter.DbMetricsReporter DbMetricsReporter},
+ * exporters must not clear the meters and should not access the database.</p>
+ *
+ * <p>Exporters are configured with
+ * {@link ProcessEngineConfigurationImpl#setMetricsExporters(java.util.List)}. They are
+ * started when the process engine is built and stopped when it is closed.</p>
+ */
+public interface MetricsExporter {
+
+  void start(String processEngineName, MetricsRegistry metricsRegistry);
+
+  void stop();
+
+}
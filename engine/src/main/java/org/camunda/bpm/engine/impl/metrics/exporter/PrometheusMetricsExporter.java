@@ -0,0 +1,278 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics.exporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.metrics.CommandMetrics;
+import org.camunda.bpm.engine.impl.metrics.DimensionalMeter;
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>Serves the metrics in the Prometheus text exposition format over HTTP, by default
+ * at <code>http://localhost:9404/metrics</code>. Each request reads the current values
+ * from memory, the database is not accessed.</p>
+ *
+ * <p>Meters are exported as counters (e.g. <code>camunda_activity_instance_start_total</code>),
+ * dimensional meters with the labels <code>process_definition_key</code> and
+ * <code>activity_type</code>. Histograms and command metrics are exported as summaries.</p>
+ */
+public class PrometheusMetricsExporter extends AbstractMetricsExporter {
+
+  protected final static Logger log = Logger.getLogger(PrometheusMetricsExporter.class.getName());
+
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  protected static final double[] QUANTILES = { 0.5, 0.95, 0.99 };
+
+  protected String host = "localhost";
+  protected int port = 9404;
+  protected String path = "/metrics";
+  protected String prefix = "camunda_";
+
+  protected HttpServer server;
+  protected ExecutorService executorService;
+
+  protected void startExporter() {
+    try {
+      server = HttpServer.create(new InetSocketAddress(host, port), 0);
+    }
+    catch (IOException e) {
+      throw new ProcessEngineException("Could not start Prometheus metrics exporter on " + host + ":" + port, e);
+    }
+
+    server.createContext(path, new HttpHandler() {
+      public void handle(HttpExchange exchange) throws IOException {
+        try {
+          byte[] body = getMetrics().getBytes("UTF-8");
+          exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+          exchange.sendResponseHeaders(200, body.length);
+
+          OutputStream responseBody = exchange.getResponseBody();
+          responseBody.write(body);
+          responseBody.flush();
+        }
+        finally {
+          exchange.close();
+        }
+      }
+    });
+
+    executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "camunda-prometheus-exporter");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    server.setExecutor(executorService);
+    server.start();
+
+    log.info("Prometheus metrics exporter of process engine '" + processEngineName + "' listening on "
+        + host + ":" + getPort() + path);
+  }
+
+  public void stop() {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+    }
+    if (executorService != null) {
+      executorService.shutdownNow();
+      executorService = null;
+    }
+  }
+
+  /**
+   * @return the current metrics in the Prometheus text format
+   */
+  public String getMetrics() {
+    StringBuilder builder = new StringBuilder();
+
+    Map<String, List<DimensionalMeter>> dimensionalMeters = new LinkedHashMap<String, List<DimensionalMeter>>();
+    for (DimensionalMeter meter : metricsRegistry.getDimensionalMeters()) {
+      List<DimensionalMeter> meters = dimensionalMeters.get(meter.getName());
+      if (meters == null) {
+        meters = new ArrayList<DimensionalMeter>();
+        dimensionalMeters.put(meter.getName(), meters);
+      }
+      meters.add(meter);
+    }
+
+    for (Meter meter : metricsRegistry.getMeters().values()) {
+      String metricName = metricName(meter.getName()) + "_total";
+      appendType(builder, metricName, "counter");
+      appendSample(builder, metricName, labels(), getTotal(meter));
+
+      List<DimensionalMeter> meters = dimensionalMeters.remove(meter.getName());
+      if (meters != null) {
+        appendDimensionalSamples(builder, metricName, meters);
+      }
+    }
+
+    // dimensional meters without a global meter
+    for (List<DimensionalMeter> meters : dimensionalMeters.values()) {
+      String metricName = metricName(meters.get(0).getName()) + "_total";
+      appendType(builder, metricName, "counter");
+      appendDimensionalSamples(builder, metricName, meters);
+    }
+
+    for (HistogramMeter histogram : metricsRegistry.getHistograms().values()) {
+      String metricName = metricName(histogram.getName());
+      appendType(builder, metricName, "summary");
+      appendSummarySamples(builder, metricName, labels(), histogram);
+    }
+
+    Collection<CommandMetrics> commandMetrics = metricsRegistry.getAllCommandMetrics();
+    if (!commandMetrics.isEmpty()) {
+      appendCommandMetrics(builder, commandMetrics);
+    }
+
+    return builder.toString();
+  }
+
+  protected void appendDimensionalSamples(StringBuilder builder, String metricName, List<DimensionalMeter> meters) {
+    for (DimensionalMeter meter : meters) {
+      String labels = labels("process_definition_key", meter.getProcessDefinitionKey(), "activity_type", meter.getActivityType());
+      appendSample(builder, metricName, labels, getTotal(meter));
+    }
+  }
+
+  protected void appendCommandMetrics(StringBuilder builder, Collection<CommandMetrics> commandMetrics) {
+    String durationName = metricName("command-duration-microseconds");
+    appendType(builder, durationName, "summary");
+    for (CommandMetrics metrics : commandMetrics) {
+      appendSummarySamples(builder, durationName, labels("command", metrics.getCommandName()), metrics.getDuration());
+    }
+
+    String statementsName = metricName("command-statements");
+    appendType(builder, statementsName, "summary");
+    for (CommandMetrics metrics : commandMetrics) {
+      appendSummarySamples(builder, statementsName, labels("command", metrics.getCommandName()), metrics.getStatementCount());
+    }
+
+    String cachedEntitiesName = metricName("command-cached-entities");
+    appendType(builder, cachedEntitiesName, "summary");
+    for (CommandMetrics metrics : commandMetrics) {
+      appendSummarySamples(builder, cachedEntitiesName, labels("command", metrics.getCommandName()), metrics.getCachedEntityCount());
+    }
+  }
+
+  protected void appendSummarySamples(StringBuilder builder, String metricName, String labels, HistogramMeter histogram) {
+    for (double quantile : QUANTILES) {
+      String quantileLabels = labels + ",quantile=\"" + quantile + "\"";
+      appendSample(builder, metricName, quantileLabels, histogram.getValueAtPercentile(quantile * 100));
+    }
+    // histograms of different metrics may share a name, so the exported totals are tracked by instance
+    appendSample(builder, metricName + "_sum", labels, monotonic(Arrays.asList(histogram, "sum"), histogram.getTotalSum()));
+    appendSample(builder, metricName + "_count", labels, monotonic(Arrays.asList(histogram, "count"), histogram.getTotalCount()));
+  }
+
+  protected void appendType(StringBuilder builder, String metricName, String type) {
+    builder.append("# TYPE ").append(metricName).append(' ').append(type).append('\n');
+  }
+
+  protected void appendSample(StringBuilder builder, String metricName, String labels, long value) {
+    builder.append(metricName).append('{').append(labels).append("} ").append(value).append('\n');
+  }
+
+  /**
+   * @param labelNamesAndValues alternating label names and values, labels without a value are omitted
+   * @return the labels including the engine label
+   */
+  protected String labels(String... labelNamesAndValues) {
+    StringBuilder labels = new StringBuilder();
+    labels.append("engine=\"").append(escapeLabelValue(processEngineName)).append('"');
+    for (int i = 0; i + 1 < labelNamesAndValues.length; i += 2) {
+      if (labelNamesAndValues[i + 1] != null) {
+        labels.append(',').append(labelNamesAndValues[i])
+          .append("=\"").append(escapeLabelValue(labelNamesAndValues[i + 1])).append('"');
+      }
+    }
+    return labels.toString();
+  }
+
+  /**
+   * @return the name with the prefix, invalid characters (e.g. '-') are replaced by '_'
+   */
+  protected String metricName(String name) {
+    return (prefix + name).replaceAll("[^a-zA-Z0-9_:]", "_");
+  }
+
+  protected String escapeLabelValue(String value) {
+    if (value == null) {
+      return "";
+    }
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  // getters / setters //////////////////////////////////////
+
+  public String getHost() {
+    return host;
+  }
+
+  public void setHost(String host) {
+    this.host = host;
+  }
+
+  /**
+   * @return the port the exporter is listening on, which differs from the
+   *   configured port if the exporter was configured with port 0
+   */
+  public int getPort() {
+    if (server != null) {
+      return server.getAddress().getPort();
+    }
+    return port;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  public String getPrefix() {
+    return prefix;
+  }
+
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+}
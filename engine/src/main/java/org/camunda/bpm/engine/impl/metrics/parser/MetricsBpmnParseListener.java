@@ -13,8 +13,16 @@
 package org.camunda.bpm.engine.impl.metrics.parser;
 
 import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.helper.BpmnProperties;
 import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.metrics.DimensionalMeter;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ProcessDefinitionImpl;
 import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
 import org.camunda.bpm.engine.impl.util.xml.Element;
 import org.camunda.bpm.engine.management.Metrics;
@@ -27,8 +35,55 @@ public class MetricsBpmnParseListener extends AbstractBpmnParseListener {
 
   public static MetricsExecutionListener ACTIVITY_INSTANCE_START_COUNTER = new MetricsExecutionListener(Metrics.ACTIVTY_INSTANCE_START);
 
+  /** marks the meter of the engine's registry directly, resolved on first parse */
+  protected MetricsExecutionListener activityInstanceStartCounter;
+
   protected void addListeners(ActivityImpl activity) {
-    activity.addBuiltInListener(ExecutionListener.EVENTNAME_START, ACTIVITY_INSTANCE_START_COUNTER);
+    activity.addBuiltInListener(ExecutionListener.EVENTNAME_START, getActivityInstanceStartCounter());
+
+    MetricsExecutionListener dimensionalCounter = getDimensionalActivityInstanceStartCounter(activity);
+    if (dimensionalCounter != null) {
+      activity.addBuiltInListener(ExecutionListener.EVENTNAME_START, dimensionalCounter);
+    }
+  }
+
+  protected MetricsExecutionListener getActivityInstanceStartCounter() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    MetricsRegistry metricsRegistry = processEngineConfiguration != null ? processEngineConfiguration.getMetricsRegistry() : null;
+    Meter meter = metricsRegistry != null ? metricsRegistry.getMeterByName(Metrics.ACTIVTY_INSTANCE_START) : null;
+
+    if (meter == null) {
+      return ACTIVITY_INSTANCE_START_COUNTER;
+    }
+
+    if (activityInstanceStartCounter == null || activityInstanceStartCounter.getMeter() != meter) {
+      activityInstanceStartCounter = new MetricsExecutionListener(meter);
+    }
+    return activityInstanceStartCounter;
+  }
+
+  /**
+   * @return a listener counting the activity instance starts per process definition key and
+   *   activity type, or null if dimensional metrics are disabled
+   */
+  protected MetricsExecutionListener getDimensionalActivityInstanceStartCounter(ActivityImpl activity) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration == null
+        || !processEngineConfiguration.isDimensionalMetricsEnabled()
+        || processEngineConfiguration.getMetricsRegistry() == null) {
+      return null;
+    }
+
+    String processDefinitionKey = null;
+    ProcessDefinitionImpl processDefinition = activity.getProcessDefinition();
+    if (processDefinition instanceof ProcessDefinitionEntity) {
+      processDefinitionKey = ((ProcessDefinitionEntity) processDefinition).getKey();
+    }
+    String activityType = activity.getProperties().get(BpmnProperties.TYPE);
+
+    DimensionalMeter meter = processEngineConfiguration.getMetricsRegistry()
+      .getDimensionalMeter(Metrics.ACTIVTY_INSTANCE_START, processDefinitionKey, activityType);
+    return new MetricsExecutionListener(meter);
   }
 
   public void parseStartEvent(Element startEventElement, ScopeImpl scope, ActivityImpl activity) {
@@ -15,6 +15,7 @@ package org.camunda.bpm.engine.impl.metrics.parser;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.ExecutionListener;
 import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.metrics.Meter;
 
 /**
  * @author Daniel Meyer
@@ -24,14 +25,31 @@ public class MetricsExecutionListener implements ExecutionListener {
 
   protected String metricsName;
 
+  /** the meter resolved when the listener was created, null to look it up by name */
+  protected Meter meter;
+
   public MetricsExecutionListener(String metricsName) {
     this.metricsName = metricsName;
   }
 
+  public MetricsExecutionListener(Meter meter) {
+    this.metricsName = meter.getName();
+    this.meter = meter;
+  }
+
   public void notify(DelegateExecution execution) throws Exception {
-    Context.getProcessEngineConfiguration()
-      .getMetricsRegistry()
-      .markOccurrence(metricsName);
+    if (meter != null) {
+      meter.mark();
+    }
+    else {
+      Context.getProcessEngineConfiguration()
+        .getMetricsRegistry()
+        .markOccurrence(metricsName);
+    }
+  }
+
+  public Meter getMeter() {
+    return meter;
   }
 
 }
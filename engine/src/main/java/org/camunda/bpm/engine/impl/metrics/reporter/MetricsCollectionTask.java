@@ -21,6 +21,8 @@ import java.util.logging.Logger;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.metrics.DimensionalMeter;
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
 import org.camunda.bpm.engine.impl.metrics.Meter;
 import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
 import org.camunda.bpm.engine.impl.persistence.entity.MeterLogEntity;
@@ -35,6 +37,10 @@ public class MetricsCollectionTask extends TimerTask {
 
   protected final static Logger log = Logger.getLogger(MetricsCollectionTask.class.getName());
 
+  /** suffixes of the meter log names of the number and the sum of values recorded by a histogram */
+  public final static String COUNT_SUFFIX = "-count";
+  public final static String SUM_SUFFIX = "-sum";
+
   protected MetricsRegistry metricsRegistry;
   protected CommandExecutor commandExecutor;
   protected String reporterId = null;
@@ -68,12 +74,38 @@ public class MetricsCollectionTask extends TimerTask {
 
     }
 
+    for (HistogramMeter histogram : metricsRegistry.getHistograms().values()) {
+      if (!histogram.isReportedToDatabase()) {
+        continue;
+      }
+      HistogramMeter.Snapshot snapshot = histogram.getAndClear();
+      logs.add(new MeterLogEntity(histogram.getName() + COUNT_SUFFIX,
+          reporterId,
+          snapshot.getCount(),
+          ClockUtil.getCurrentTime()));
+      logs.add(new MeterLogEntity(histogram.getName() + SUM_SUFFIX,
+          reporterId,
+          snapshot.getSum(),
+          ClockUtil.getCurrentTime()));
+    }
+
+    for (DimensionalMeter meter : metricsRegistry.getDimensionalMeters()) {
+      long value = meter.getAndClear();
+      // most definitions are idle most of the time, don't log a row for each of them
+      if (value > 0) {
+        logs.add(new MeterLogEntity(meter.getName(),
+            reporterId,
+            meter.getProcessDefinitionKey(),
+            meter.getActivityType(),
+            value,
+            ClockUtil.getCurrentTime()));
+      }
+    }
+
     commandExecutor.execute(new Command<Void>() {
 
       public Void execute(CommandContext commandContext) {
-        for (MeterLogEntity meterLogEntity : logs) {
-          commandContext.getMeterLogManager().insert(meterLogEntity);
-        }
+        commandContext.getMeterLogManager().insertAll(logs);
         return null;
       }
     });
@@ -32,6 +32,7 @@ import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.Session;
 import org.camunda.bpm.engine.impl.persistence.entity.AttachmentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationIndexManager;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
 import org.camunda.bpm.engine.impl.persistence.entity.DeploymentManager;
@@ -210,6 +211,10 @@ public abstract class AbstractManager implements Session {
     return getSession(AuthorizationManager.class);
   }
 
+  protected AuthorizationIndexManager getAuthorizationIndexManager() {
+    return getSession(AuthorizationIndexManager.class);
+  }
+
   protected void configureQuery(AbstractQuery<?,?> query, Resource resource) {
     getAuthorizationManager().configureQuery(query, resource);
   }
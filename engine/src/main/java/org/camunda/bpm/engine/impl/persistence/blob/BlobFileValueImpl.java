@@ -0,0 +1,86 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.blob;
+
+import java.io.InputStream;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.core.variable.value.FileValueImpl;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.variable.type.ValueType;
+
+/**
+ * A file value whose content is kept in a {@link BlobStore}. The content is
+ * not held in memory, every invocation of {@link #getValue()} opens a new
+ * stream of the blob.
+ */
+public class BlobFileValueImpl extends FileValueImpl {
+
+  private static final long serialVersionUID = 1L;
+
+  protected transient BlobStore blobStore;
+  protected String blobId;
+
+  public BlobFileValueImpl(BlobStore blobStore, String blobId, String filename, String mimeType, String encoding) {
+    super(null, ValueType.FILE, filename, mimeType, encoding);
+    this.blobStore = blobStore;
+    this.blobId = blobId;
+  }
+
+  @Override
+  public InputStream getValue() {
+    if (value != null) {
+      return super.getValue();
+    }
+
+    InputStream content = blobStore != null ? blobStore.read(blobId) : null;
+    if (content == null) {
+      throw new ProcessEngineException("Content of file '" + filename + "' is not available: blob '" + blobId + "' does not exist");
+    }
+    return content;
+  }
+
+  /**
+   * Reads the complete content of the blob into memory.
+   */
+  @Override
+  public byte[] getByteArray() {
+    if (value == null) {
+      InputStream content = getValue();
+      try {
+        value = IoUtil.readInputStream(content, filename);
+      }
+      finally {
+        IoUtil.closeSilently(content);
+      }
+    }
+    return value;
+  }
+
+  public String getBlobId() {
+    return blobId;
+  }
+
+  /**
+   * @return true if the content was not read into memory
+   */
+  public boolean isStreamed() {
+    return value == null;
+  }
+
+  @Override
+  public String toString() {
+    return "BlobFileValueImpl [mimeType=" + mimeType + ", filename=" + filename + ", blobId=" + blobId + "]";
+  }
+
+}
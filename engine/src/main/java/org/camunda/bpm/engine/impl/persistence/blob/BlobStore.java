@@ -0,0 +1,49 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.blob;
+
+import java.io.InputStream;
+
+/**
+ * <p>Keeps the content of large byte arrays outside of the database. A blob is
+ * identified by the id of the {@link org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity}
+ * which references it.</p>
+ *
+ * <p>Implementations must be thread-safe. The blob store is not transactional,
+ * the engine deletes blobs once the deletion of the referencing byte array is
+ * committed and the blobs written by a transaction which is rolled back.</p>
+ *
+ * @see org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager
+ */
+public interface BlobStore {
+
+  /**
+   * Writes the content of the stream as the blob with the given id. The stream
+   * is read completely but not closed.
+   */
+  void write(String blobId, InputStream content);
+
+  /**
+   * @return a stream of the blob with the given id which must be closed by the
+   *   caller, or null if the blob does not exist
+   */
+  InputStream read(String blobId);
+
+  boolean contains(String blobId);
+
+  /**
+   * Deletes the blob with the given id. Does nothing if the blob does not exist.
+   */
+  void delete(String blobId);
+
+}
@@ -0,0 +1,109 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.blob;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+
+/**
+ * {@link BlobStore} which keeps every blob in a file of a local directory. The
+ * directory must not be shared by process engines which use different databases.
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+  protected static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  protected final File directory;
+
+  public FileSystemBlobStore(File directory) {
+    this.directory = directory;
+
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new ProcessEngineException("Cannot create blob store directory '" + directory + "'");
+    }
+  }
+
+  public FileSystemBlobStore(String directory) {
+    this(new File(directory));
+  }
+
+  public void write(String blobId, InputStream content) {
+    File file = getFile(blobId);
+    // write a temporary file first, so that a blob is never read partially
+    File tempFile = new File(directory, file.getName() + TEMP_FILE_SUFFIX);
+
+    OutputStream outputStream = null;
+    try {
+      outputStream = new BufferedOutputStream(new FileOutputStream(tempFile));
+      byte[] buffer = new byte[16 * 1024];
+      int bytesRead = content.read(buffer);
+      while (bytesRead != -1) {
+        outputStream.write(buffer, 0, bytesRead);
+        bytesRead = content.read(buffer);
+      }
+      outputStream.close();
+      outputStream = null;
+
+      if (!tempFile.renameTo(file)) {
+        throw new IOException("cannot rename '" + tempFile + "' to '" + file + "'");
+      }
+
+    } catch (IOException e) {
+      tempFile.delete();
+      throw new ProcessEngineException("Cannot write blob '" + blobId + "': " + e.getMessage(), e);
+
+    } finally {
+      IoUtil.closeSilently(outputStream);
+    }
+  }
+
+  public InputStream read(String blobId) {
+    try {
+      return new FileInputStream(getFile(blobId));
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+  }
+
+  public boolean contains(String blobId) {
+    return getFile(blobId).isFile();
+  }
+
+  public void delete(String blobId) {
+    File file = getFile(blobId);
+    if (file.exists() && !file.delete()) {
+      throw new ProcessEngineException("Cannot delete blob '" + blobId + "'");
+    }
+  }
+
+  protected File getFile(String blobId) {
+    if (blobId.indexOf('/') >= 0 || blobId.indexOf('\\') >= 0 || blobId.startsWith(".")) {
+      throw new ProcessEngineException("Invalid blob id '" + blobId + "'");
+    }
+    return new File(directory, blobId);
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+}
@@ -16,9 +16,8 @@ package org.camunda.bpm.engine.impl.persistence.deploy;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Callable;
 
 import org.camunda.bpm.engine.exception.cmmn.CaseDefinitionNotFoundException;
@@ -33,11 +32,17 @@ import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionEntity;
 import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionQueryImpl;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.Cache;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.CacheFactory;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DefaultCacheFactory;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCacheStatisticsImpl;
 import org.camunda.bpm.engine.impl.persistence.entity.DeploymentEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
 import org.camunda.bpm.engine.repository.CaseDefinition;
 import org.camunda.bpm.engine.repository.DecisionDefinition;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.repository.ResourceDefinitionEntity;
 import org.camunda.bpm.model.bpmn.Bpmn;
 import org.camunda.bpm.model.bpmn.BpmnModelInstance;
 import org.camunda.bpm.model.cmmn.Cmmn;
@@ -54,14 +59,33 @@ public class DeploymentCache {
 
   protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
 
-  protected Map<String, ProcessDefinitionEntity> processDefinitionCache = new HashMap<String, ProcessDefinitionEntity>();
-  protected Map<String, CaseDefinitionEntity> caseDefinitionCache = new HashMap<String, CaseDefinitionEntity>();
-  protected Map<String, DecisionDefinitionEntity> decisionDefinitionCache = new HashMap<String, DecisionDefinitionEntity>();
-  protected Map<String, BpmnModelInstance> bpmnModelInstanceCache = new HashMap<String, BpmnModelInstance>();
-  protected Map<String, CmmnModelInstance> cmmnModelInstanceCache = new HashMap<String, CmmnModelInstance>();
-  protected Map<String, DmnModelInstance> dmnModelInstanceCache = new HashMap<String, DmnModelInstance>();
+  public static final int DEFAULT_CACHE_CAPACITY = 1000;
+
+  protected Cache<String, ProcessDefinitionEntity> processDefinitionCache;
+  protected Cache<String, CaseDefinitionEntity> caseDefinitionCache;
+  protected Cache<String, DecisionDefinitionEntity> decisionDefinitionCache;
+  protected Cache<String, BpmnModelInstance> bpmnModelInstanceCache;
+  protected Cache<String, CmmnModelInstance> cmmnModelInstanceCache;
+  protected Cache<String, DmnModelInstance> dmnModelInstanceCache;
   protected List<Deployer> deployers;
 
+  public DeploymentCache() {
+    this(new DefaultCacheFactory(), DEFAULT_CACHE_CAPACITY);
+  }
+
+  /**
+   * @param cacheFactory creates the caches for definitions and model instances
+   * @param cacheCapacity the maximum number of entries of each cache
+   */
+  public DeploymentCache(CacheFactory cacheFactory, int cacheCapacity) {
+    processDefinitionCache = cacheFactory.createCache(cacheCapacity);
+    caseDefinitionCache = cacheFactory.createCache(cacheCapacity);
+    decisionDefinitionCache = cacheFactory.createCache(cacheCapacity);
+    bpmnModelInstanceCache = cacheFactory.createCache(cacheCapacity);
+    cmmnModelInstanceCache = cacheFactory.createCache(cacheCapacity);
+    dmnModelInstanceCache = cacheFactory.createCache(cacheCapacity);
+  }
+
   public void deploy(final DeploymentEntity deployment) {
     Context.getCommandContext().runWithoutAuthorization(new Callable<Void>() {
       public Void call() throws Exception {
@@ -73,6 +97,31 @@ public class DeploymentCache {
     });
   }
 
+  /**
+   * Returns the definition which was deployed again by {@link #deploy(DeploymentEntity)}.
+   * If the deployment contains more definitions than the cache can hold, the
+   * definition may already have been evicted again. In this case, it is taken
+   * from the deployed artifacts and put into the cache once more.
+   */
+  protected <T extends ResourceDefinitionEntity> T getRedeployedDefinition(DeploymentEntity deployment, Class<T> definitionType, String definitionId, Cache<String, T> cache) {
+    T definition = cache.get(definitionId);
+
+    if (definition == null) {
+      List<T> deployedDefinitions = deployment.getDeployedArtifacts(definitionType);
+      if (deployedDefinitions != null) {
+        for (T deployedDefinition : deployedDefinitions) {
+          if (definitionId.equals(deployedDefinition.getId())) {
+            definition = deployedDefinition;
+            cache.put(definitionId, definition);
+            break;
+          }
+        }
+      }
+    }
+
+    return definition;
+  }
+
   // PROCESS DEFINITION ////////////////////////////////////////////////////////////////////////////////
 
   public ProcessDefinitionEntity findDeployedProcessDefinitionById(String processDefinitionId) {
@@ -134,7 +183,7 @@ public class DeploymentCache {
         .findDeploymentById(deploymentId);
       deployment.setNew(false);
       deploy(deployment);
-      cachedProcessDefinition = processDefinitionCache.get(processDefinitionId);
+      cachedProcessDefinition = getRedeployedDefinition(deployment, ProcessDefinitionEntity.class, processDefinitionId, processDefinitionCache);
 
       ensureNotNull("deployment '" + deploymentId + "' didn't put process definition '" + processDefinitionId + "' in the cache", "cachedProcessDefinition", cachedProcessDefinition);
     } else {
@@ -290,7 +339,7 @@ public class DeploymentCache {
       deployment.setNew(false);
       deploy(deployment);
 
-      cachedCaseDefinition = caseDefinitionCache.get(caseDefinitionId);
+      cachedCaseDefinition = getRedeployedDefinition(deployment, CaseDefinitionEntity.class, caseDefinitionId, caseDefinitionCache);
 
       ensureNotNull("deployment '" + deploymentId + "' didn't put case definition '" + caseDefinitionId + "' in the cache", "cachedCaseDefinition", cachedCaseDefinition);
 
@@ -423,7 +472,7 @@ public class DeploymentCache {
       deployment.setNew(false);
       deploy(deployment);
 
-      cachedDecisionDefinition = decisionDefinitionCache.get(decisionDefinitionId);
+      cachedDecisionDefinition = getRedeployedDefinition(deployment, DecisionDefinitionEntity.class, decisionDefinitionId, decisionDefinitionCache);
 
       ensureNotNull("deployment '" + deploymentId + "' didn't put decision definition '" + decisionDefinitionId + "' in the cache", "cachedDecisionDefinition", cachedDecisionDefinition);
 
@@ -476,31 +525,35 @@ public class DeploymentCache {
 
   // getters and setters //////////////////////////////////////////////////////
 
-  public Map<String, BpmnModelInstance> getBpmnModelInstanceCache() {
+  public Cache<String, BpmnModelInstance> getBpmnModelInstanceCache() {
     return bpmnModelInstanceCache;
   }
 
-  public Map<String, CmmnModelInstance> getCmmnModelInstanceCache() {
+  public Cache<String, CmmnModelInstance> getCmmnModelInstanceCache() {
     return cmmnModelInstanceCache;
   }
 
-  public Map<String, DmnModelInstance> getDmnModelInstanceCache() {
+  public Cache<String, DmnModelInstance> getDmnModelInstanceCache() {
     return dmnModelInstanceCache;
   }
 
-  public Map<String, ProcessDefinitionEntity> getProcessDefinitionCache() {
+  public Cache<String, DecisionDefinitionEntity> getDecisionDefinitionCache() {
+    return decisionDefinitionCache;
+  }
+
+  public Cache<String, ProcessDefinitionEntity> getProcessDefinitionCache() {
     return processDefinitionCache;
   }
 
-  public void setProcessDefinitionCache(Map<String, ProcessDefinitionEntity> processDefinitionCache) {
+  public void setProcessDefinitionCache(Cache<String, ProcessDefinitionEntity> processDefinitionCache) {
     this.processDefinitionCache = processDefinitionCache;
   }
 
-  public Map<String, CaseDefinitionEntity> getCaseDefinitionCache() {
+  public Cache<String, CaseDefinitionEntity> getCaseDefinitionCache() {
     return caseDefinitionCache;
   }
 
-  public void setCaseDefinitionCache(Map<String, CaseDefinitionEntity> caseDefinitionCache) {
+  public void setCaseDefinitionCache(Cache<String, CaseDefinitionEntity> caseDefinitionCache) {
     this.caseDefinitionCache = caseDefinitionCache;
   }
 
@@ -512,6 +565,20 @@ public class DeploymentCache {
     this.deployers = deployers;
   }
 
+  /**
+   * @return the statistics of the caches held by this deployment cache
+   */
+  public List<DeploymentCacheStatistics> getStatistics() {
+    List<DeploymentCacheStatistics> statistics = new ArrayList<DeploymentCacheStatistics>();
+    statistics.add(new DeploymentCacheStatisticsImpl(DeploymentCacheStatistics.PROCESS_DEFINITION_CACHE, processDefinitionCache));
+    statistics.add(new DeploymentCacheStatisticsImpl(DeploymentCacheStatistics.BPMN_MODEL_INSTANCE_CACHE, bpmnModelInstanceCache));
+    statistics.add(new DeploymentCacheStatisticsImpl(DeploymentCacheStatistics.CASE_DEFINITION_CACHE, caseDefinitionCache));
+    statistics.add(new DeploymentCacheStatisticsImpl(DeploymentCacheStatistics.CMMN_MODEL_INSTANCE_CACHE, cmmnModelInstanceCache));
+    statistics.add(new DeploymentCacheStatisticsImpl(DeploymentCacheStatistics.DECISION_DEFINITION_CACHE, decisionDefinitionCache));
+    statistics.add(new DeploymentCacheStatisticsImpl(DeploymentCacheStatistics.DMN_MODEL_INSTANCE_CACHE, dmnModelInstanceCache));
+    return statistics;
+  }
+
   public void removeDeployment(String deploymentId) {
     removeAllProcessDefinitionsByDeploymentId(deploymentId);
     removeAllCaseDefinitionsByDeploymentId(deploymentId);
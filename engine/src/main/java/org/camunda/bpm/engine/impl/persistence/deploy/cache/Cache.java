@@ -0,0 +1,69 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.Set;
+
+/**
+ * A thread-safe cache used by the {@link org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache}.
+ * Implementations may evict entries at any time; callers must be able to
+ * restore an entry which is not present anymore.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public interface Cache<K, V> {
+
+  /**
+   * @return the cached value or null if the key is not (or no longer) present
+   */
+  V get(K key);
+
+  void put(K key, V value);
+
+  void remove(K key);
+
+  boolean containsKey(K key);
+
+  void clear();
+
+  boolean isEmpty();
+
+  int size();
+
+  /**
+   * @return a snapshot of the keys currently present in the cache
+   */
+  Set<K> keySet();
+
+  /**
+   * @return the maximum number of entries or -1 if the cache is unbounded
+   */
+  int getCapacity();
+
+  /**
+   * @return the number of {@link #get(Object)} calls which returned a value
+   */
+  long getHitCount();
+
+  /**
+   * @return the number of {@link #get(Object)} calls which did not return a value
+   */
+  long getMissCount();
+
+  /**
+   * @return the number of entries removed to stay within the capacity
+   */
+  long getEvictionCount();
+
+}
@@ -0,0 +1,28 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+/**
+ * Creates the caches of the {@link org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache}.
+ * A custom factory can be set with
+ * {@link org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl#setCacheFactory(CacheFactory)}
+ * to plug in a different eviction strategy.
+ */
+public interface CacheFactory {
+
+  /**
+   * @param capacity the configured maximum number of entries of the cache
+   */
+  <T> Cache<String, T> createCache(int capacity);
+
+}
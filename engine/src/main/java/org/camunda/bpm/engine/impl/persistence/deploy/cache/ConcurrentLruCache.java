@@ -0,0 +1,189 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded least recently used cache. The entries are spread over a number of
+ * independently locked segments, each with its own share of the capacity, so
+ * concurrent access to different segments does not contend for a single lock.
+ * The eviction order is least recently used per segment, which approximates
+ * a global LRU order.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class ConcurrentLruCache<K, V> implements Cache<K, V> {
+
+  protected final int capacity;
+  protected final Segment<K, V>[] segments;
+
+  protected final AtomicLong hitCount = new AtomicLong(0);
+  protected final AtomicLong missCount = new AtomicLong(0);
+  protected final AtomicLong evictionCount = new AtomicLong(0);
+
+  /**
+   * @param capacity the maximum number of entries, unbounded if less than or equal to zero
+   * @param concurrencyLevel the number of segments
+   */
+  @SuppressWarnings("unchecked")
+  public ConcurrentLruCache(int capacity, int concurrencyLevel) {
+    if (capacity > 0 && concurrencyLevel > capacity) {
+      concurrencyLevel = capacity;
+    }
+    concurrencyLevel = Math.max(1, concurrencyLevel);
+
+    this.capacity = capacity > 0 ? capacity : -1;
+    this.segments = new Segment[concurrencyLevel];
+
+    for (int i = 0; i < concurrencyLevel; i++) {
+      int segmentCapacity = -1;
+      if (capacity > 0) {
+        // distribute the remainder so that the segment capacities add up to the capacity
+        segmentCapacity = capacity / concurrencyLevel + (i < capacity % concurrencyLevel ? 1 : 0);
+      }
+      segments[i] = new Segment<K, V>(segmentCapacity, evictionCount);
+    }
+  }
+
+  public V get(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    V value;
+    synchronized (segment) {
+      value = segment.get(key);
+    }
+
+    if (value != null) {
+      hitCount.incrementAndGet();
+    }
+    else {
+      missCount.incrementAndGet();
+    }
+    return value;
+  }
+
+  public void put(K key, V value) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.put(key, value);
+    }
+  }
+
+  public void remove(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.remove(key);
+    }
+  }
+
+  public boolean containsKey(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.containsKey(key);
+    }
+  }
+
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  public boolean isEmpty() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        if (!segment.isEmpty()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  public int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public Set<K> keySet() {
+    Set<K> keys = new HashSet<K>();
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        keys.addAll(segment.keySet());
+      }
+    }
+    return keys;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  protected Segment<K, V> segmentFor(K key) {
+    int hash = key.hashCode();
+    // spread the bits, the hash codes of ids often differ in the low bits only
+    hash ^= (hash >>> 16);
+    return segments[(hash & Integer.MAX_VALUE) % segments.length];
+  }
+
+  /**
+   * Access ordered map which removes its eldest entry once the capacity
+   * is exceeded. Access has to be synchronized on the segment.
+   */
+  protected static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    protected final int capacity;
+    protected final transient AtomicLong evictionCount;
+
+    public Segment(int capacity, AtomicLong evictionCount) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+      this.evictionCount = evictionCount;
+    }
+
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      if (capacity > 0 && size() > capacity) {
+        evictionCount.incrementAndGet();
+        return true;
+      }
+      return false;
+    }
+  }
+
+}
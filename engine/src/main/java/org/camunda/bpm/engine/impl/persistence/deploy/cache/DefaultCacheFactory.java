@@ -0,0 +1,33 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+/**
+ * Creates a {@link ConcurrentLruCache} for each cache. A capacity
+ * less than or equal to zero creates an unbounded cache.
+ */
+public class DefaultCacheFactory implements CacheFactory {
+
+  /** minimum number of entries per segment of a cache */
+  protected static final int MIN_SEGMENT_CAPACITY = 16;
+  protected static final int MAX_SEGMENTS = 16;
+
+  public <T> Cache<String, T> createCache(int capacity) {
+    int segments = MAX_SEGMENTS;
+    if (capacity > 0) {
+      segments = Math.max(1, Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY));
+    }
+    return new ConcurrentLruCache<String, T>(capacity, segments);
+  }
+
+}
@@ -13,6 +13,7 @@
 
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +52,14 @@ public class AttachmentManager extends AbstractHistoricManager {
     }
   }
 
+  public void deleteAttachmentsByProcessInstanceIds(List<String> processInstanceIds) {
+    checkHistoryEnabled();
+    Map<String, List<String>> parameters = Collections.singletonMap("processInstanceIds", processInstanceIds);
+    getByteArrayManager().deleteByteArrays("deleteAttachmentByteArraysByProcessInstanceIds",
+        "selectAttachmentByteArrayIdsByProcessInstanceIds", parameters);
+    getDbEntityManager().delete(AttachmentEntity.class, "deleteAttachmentsByProcessInstanceIds", parameters);
+  }
+
   public Attachment findAttachmentByTaskIdAndAttachmentId(String taskId, String attachmentId) {
     checkHistoryEnabled();
 
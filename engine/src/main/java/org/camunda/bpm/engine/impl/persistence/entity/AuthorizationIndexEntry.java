@@ -0,0 +1,98 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+/**
+ * <p>The effective permissions of a user on a resource, as decided by the
+ * authorizations of the user, the groups of the user and the global
+ * authorizations.</p>
+ *
+ * <p>The entries of the subject {@link org.camunda.bpm.engine.authorization.Authorization#ANY}
+ * contain the permissions decided by global authorizations only.</p>
+ *
+ * @see AuthorizationIndexManager
+ */
+public class AuthorizationIndexEntry {
+
+  protected String subjectId;
+  protected int resourceType;
+  protected String resourceId;
+
+  /** the granted permissions */
+  protected int permissions;
+
+  /** the permissions which are either granted or revoked */
+  protected int decidedPermissions;
+
+  public AuthorizationIndexEntry() {
+  }
+
+  public AuthorizationIndexEntry(String subjectId, int resourceType, String resourceId, int permissions, int decidedPermissions) {
+    this.subjectId = subjectId;
+    this.resourceType = resourceType;
+    this.resourceId = resourceId;
+    this.permissions = permissions;
+    this.decidedPermissions = decidedPermissions;
+  }
+
+  public String getSubjectId() {
+    return subjectId;
+  }
+
+  public void setSubjectId(String subjectId) {
+    this.subjectId = subjectId;
+  }
+
+  public int getResourceType() {
+    return resourceType;
+  }
+
+  public void setResourceType(int resourceType) {
+    this.resourceType = resourceType;
+  }
+
+  public String getResourceId() {
+    return resourceId;
+  }
+
+  public void setResourceId(String resourceId) {
+    this.resourceId = resourceId;
+  }
+
+  public int getPermissions() {
+    return permissions;
+  }
+
+  public void setPermissions(int permissions) {
+    this.permissions = permissions;
+  }
+
+  public int getDecidedPermissions() {
+    return decidedPermissions;
+  }
+
+  public void setDecidedPermissions(int decidedPermissions) {
+    this.decidedPermissions = decidedPermissions;
+  }
+
+  public String toString() {
+    return this.getClass().getSimpleName()
+           + "[subjectId=" + subjectId
+           + ", resourceType=" + resourceType
+           + ", resourceId=" + resourceId
+           + ", permissions=" + permissions
+           + ", decidedPermissions=" + decidedPermissions
+           + "]";
+  }
+
+}
@@ -0,0 +1,498 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+import static org.camunda.bpm.engine.authorization.Authorization.ANY;
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_GLOBAL;
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_GRANT;
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_REVOKE;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.ibatis.session.SqlSession;
+import org.camunda.bpm.engine.authorization.Authorization;
+import org.camunda.bpm.engine.authorization.Resource;
+import org.camunda.bpm.engine.impl.Direction;
+import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.QueryOrderingProperty;
+import org.camunda.bpm.engine.impl.QueryPropertyImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.digest.ShaHashDigest;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandContextListener;
+import org.camunda.bpm.engine.impl.jobexecutor.AuthorizationIndexJobHandler;
+import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+
+/**
+ * <p>Maintains the authorization index (<code>ACT_RU_AUTH_INDEX</code>) which holds the
+ * effective permissions of every user who has authorizations or group memberships.
+ * Authorization checks can look up the permissions of a resource by its id instead of
+ * evaluating all authorizations of the user and the groups of the user.</p>
+ *
+ * <p>Changes of authorizations and memberships are collected during the command. When
+ * the command context is closed, the entries of the affected users are replaced by a
+ * {@link #STALE_FINGERPRINT stale} membership fingerprint, so that their authorizations
+ * are evaluated until the {@link AuthorizationIndexJobHandler index update job} has
+ * recalculated the entries from the committed authorizations and memberships. Changes
+ * of global authorizations mark all entries as stale. Marking and recalculating the
+ * entries is serialized by an exclusive lock on a property, so that concurrent changes
+ * of the same user can not leave outdated entries behind.</p>
+ *
+ * <p>The index is based on the memberships stored by the engine's identity service.
+ * Together with the entries of a user, a fingerprint of the groups of the user is
+ * stored. The entries are only used if the groups of the authentication have the
+ * same fingerprint, otherwise the authorizations are evaluated. This is the case
+ * if groups are provided by another identity service (e.g. LDAP) or the
+ * authentication contains other groups than the stored memberships.</p>
+ *
+ * @see ProcessEngineConfigurationImpl#isAuthorizationIndexEnabled()
+ */
+public class AuthorizationIndexManager extends AbstractManager {
+
+  /** all permissions which can be stored in an integer column */
+  protected static final int ALL_PERMISSIONS = Integer.MAX_VALUE;
+
+  // precedence of the authorizations, see authCheck in Authorization.xml
+  protected static final int USER_RESOURCE = 0;
+  protected static final int USER_ANY = 1;
+  protected static final int GROUP_RESOURCE = 2;
+  protected static final int GROUP_ANY = 3;
+  protected static final int GLOBAL_RESOURCE = 4;
+  protected static final int GLOBAL_ANY = 5;
+
+  /** resource type of the entry which holds the membership fingerprint of a user */
+  public static final int MEMBERSHIP_RESOURCE_TYPE = -1;
+
+  /**
+   * membership fingerprint of a subject whose entries have to be recalculated, it never
+   * matches the fingerprint of any groups (also used as literal in AuthorizationIndex.xml)
+   */
+  public static final String STALE_FINGERPRINT = "stale";
+
+  protected static final QueryOrderingProperty SUBJECT_ID_ORDERING_PROPERTY = new QueryOrderingProperty(null, new QueryPropertyImpl("SUBJECT_ID_"));
+
+  static {
+    SUBJECT_ID_ORDERING_PROPERTY.setDirection(Direction.ASCENDING);
+  }
+
+  protected Set<String> modifiedUserIds = new HashSet<String>();
+  protected Set<String> modifiedGroupIds = new HashSet<String>();
+  protected boolean isGlobalAuthorizationModified = false;
+  protected boolean isUpdateScheduled = false;
+
+  /** the membership fingerprints of the subjects read in this command context */
+  protected Map<String, String> membershipFingerprints = new HashMap<String, String>();
+
+  // change tracking ///////////////////////////////////////////
+
+  public void authorizationInserted(AuthorizationEntity authorization) {
+    addModifiedSubject(authorization);
+  }
+
+  public void authorizationUpdated(AuthorizationEntity authorization) {
+    // the user or group of the authorization may have changed
+    AuthorizationEntity persistentAuthorization = (AuthorizationEntity) getSqlSession()
+        .selectOne("selectAuthorizationForIndexById", authorization.getId());
+    if (persistentAuthorization != null) {
+      addModifiedSubject(persistentAuthorization);
+    }
+    addModifiedSubject(authorization);
+  }
+
+  public void authorizationDeleted(AuthorizationEntity authorization) {
+    addModifiedSubject(authorization);
+  }
+
+  public void authorizationsDeleted(Resource resource, String resourceId) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("resourceType", resource.resourceType());
+    parameters.put("resourceId", resourceId);
+
+    List<AuthorizationEntity> authorizations = getSqlSession().selectList("selectAuthorizationsForIndexByResourceId", parameters);
+    for (AuthorizationEntity authorization : authorizations) {
+      addModifiedSubject(authorization);
+    }
+  }
+
+  public void membershipsModified(String userId) {
+    modifiedUserIds.add(userId);
+    scheduleUpdate();
+  }
+
+  /**
+   * Has to be invoked before the memberships of the group are deleted.
+   */
+  public void groupMembershipsDeleted(String groupId) {
+    modifiedUserIds.addAll(selectUserIdsByGroupId(groupId));
+    scheduleUpdate();
+  }
+
+  protected void addModifiedSubject(AuthorizationEntity authorization) {
+    if (authorization.getAuthorizationType() == AUTH_TYPE_GLOBAL) {
+      isGlobalAuthorizationModified = true;
+    }
+    else if (authorization.getUserId() != null) {
+      modifiedUserIds.add(authorization.getUserId());
+    }
+    else if (authorization.getGroupId() != null) {
+      modifiedGroupIds.add(authorization.getGroupId());
+    }
+    scheduleUpdate();
+  }
+
+  protected void scheduleUpdate() {
+    membershipFingerprints.clear();
+
+    if (!isUpdateScheduled) {
+      isUpdateScheduled = true;
+
+      // the entries are marked as stale before the modified authorizations and memberships are flushed
+      getCommandContext().registerCommandContextListener(new CommandContextListener() {
+
+        public void onCommandContextClose(CommandContext commandContext) {
+          markModifiedSubjectsStale();
+        }
+
+        public void onCommandFailed(CommandContext commandContext, Throwable t) {
+          // nothing to do
+        }
+
+      });
+    }
+  }
+
+  /**
+   * @return true if authorizations or memberships have been modified in this command context
+   * and the index does not reflect them yet
+   */
+  public boolean isIndexOutdated() {
+    return isUpdateScheduled;
+  }
+
+  // index maintenance /////////////////////////////////////////
+
+  protected void markModifiedSubjectsStale() {
+    acquireLock();
+
+    Set<String> subjectIds = new TreeSet<String>(modifiedUserIds);
+    if (isDbIdentityUsed()) {
+      for (String groupId : modifiedGroupIds) {
+        subjectIds.addAll(selectUserIdsByGroupId(groupId));
+      }
+    }
+
+    if (isGlobalAuthorizationModified) {
+      // the global authorizations are part of the entries of every user
+      getDbEntityManager().update(AuthorizationEntity.class, "updateAuthorizationIndexFingerprintsToStale", null);
+      subjectIds.add(ANY);
+    }
+
+    for (String subjectId : subjectIds) {
+      getDbEntityManager().delete(AuthorizationEntity.class, "deleteAuthorizationIndexEntriesBySubjectId", subjectId);
+      insertEntry(new AuthorizationIndexEntry(subjectId, MEMBERSHIP_RESOURCE_TYPE, STALE_FINGERPRINT, 0, 0));
+    }
+
+    scheduleUpdateJob();
+  }
+
+  /**
+   * Marks the entries of all users and the global entries as stale.
+   */
+  public void rebuildIndex() {
+    acquireLock();
+    membershipFingerprints.clear();
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("isDbIdentityUsed", isDbIdentityUsed());
+
+    getDbEntityManager().delete(AuthorizationEntity.class, "deleteAllAuthorizationIndexEntries", null);
+    insertEntry(new AuthorizationIndexEntry(ANY, MEMBERSHIP_RESOURCE_TYPE, STALE_FINGERPRINT, 0, 0));
+    getDbEntityManager().update(AuthorizationEntity.class, "insertAuthorizationIndexStaleFingerprints", parameters);
+
+    scheduleUpdateJob();
+  }
+
+  /**
+   * Recalculates the entries of stale subjects.
+   *
+   * @return true if the entries of the maximal number of subjects were recalculated,
+   * i.e. there may be more stale subjects
+   */
+  public boolean updateStaleEntries(int maxResults) {
+    acquireLock();
+
+    List<String> subjectIds = findStaleSubjectIds(maxResults);
+    for (String subjectId : subjectIds) {
+      updateEntries(subjectId);
+    }
+
+    return subjectIds.size() == maxResults;
+  }
+
+  /**
+   * Recalculates the entries of a user or the global entries. Users without authorizations
+   * and memberships are not indexed since the global entries apply to them.
+   */
+  protected void updateEntries(String subjectId) {
+    getDbEntityManager().delete(AuthorizationEntity.class, "deleteAuthorizationIndexEntriesBySubjectId", subjectId);
+    membershipFingerprints.remove(subjectId);
+
+    if (ANY.equals(subjectId)) {
+      insertEntries(calculateEntries(ANY, selectAuthorizations(null)));
+      insertEntry(new AuthorizationIndexEntry(ANY, MEMBERSHIP_RESOURCE_TYPE, getMembershipFingerprint(null), 0, 0));
+    }
+    else {
+      List<AuthorizationEntity> authorizations = selectAuthorizations(subjectId);
+      if (hasUserOrGroupAuthorizations(authorizations) || hasMemberships(subjectId)) {
+        insertEntries(calculateEntries(subjectId, authorizations));
+        insertMembershipFingerprint(subjectId);
+      }
+    }
+  }
+
+  /**
+   * Sends the index update job unless there is one which has not been executed yet.
+   * It is executed after the lock is released and recalculates all stale entries.
+   */
+  protected void scheduleUpdateJob() {
+    JobManager jobManager = getJobManager();
+
+    List<JobEntity> jobs = jobManager.findJobsByConfiguration(AuthorizationIndexJobHandler.TYPE, AuthorizationIndexJobHandler.CONFIGURATION);
+    for (JobEntity job : jobs) {
+      if (job.getRetries() > 0) {
+        return;
+      }
+    }
+
+    AuthorizationIndexJobHandler.sendJob(getCommandContext());
+  }
+
+  protected void acquireLock() {
+    getCommandContext().getPropertyManager().acquireAuthorizationIndexLock();
+  }
+
+  /**
+   * Stores the fingerprint of the groups the entries of the user are calculated for.
+   */
+  protected void insertMembershipFingerprint(String userId) {
+    List<String> groupIds = Collections.emptyList();
+    if (isDbIdentityUsed()) {
+      groupIds = getSqlSession().selectList("selectAuthorizationIndexGroupIdsByUserId", userId);
+    }
+    insertEntry(new AuthorizationIndexEntry(userId, MEMBERSHIP_RESOURCE_TYPE, getMembershipFingerprint(groupIds), 0, 0));
+  }
+
+  /**
+   * @return a fingerprint of the given groups which does not depend on their order
+   */
+  protected String getMembershipFingerprint(List<String> groupIds) {
+    StringBuilder groups = new StringBuilder();
+    if (groupIds != null) {
+      for (String groupId : new TreeSet<String>(groupIds)) {
+        // the length separates the group ids
+        groups.append(groupId.length()).append(':').append(groupId);
+      }
+    }
+    return new ShaHashDigest().encrypt(groups.toString());
+  }
+
+  protected List<AuthorizationEntity> selectAuthorizations(String userId) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("userId", userId);
+    parameters.put("isDbIdentityUsed", isDbIdentityUsed());
+    return getSqlSession().selectList("selectAuthorizationsForIndex", parameters);
+  }
+
+  protected boolean hasUserOrGroupAuthorizations(List<AuthorizationEntity> authorizations) {
+    for (AuthorizationEntity authorization : authorizations) {
+      if (authorization.getAuthorizationType() != AUTH_TYPE_GLOBAL) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected boolean hasMemberships(String userId) {
+    if (!isDbIdentityUsed()) {
+      return false;
+    }
+    Long count = (Long) getSqlSession().selectOne("selectAuthorizationIndexMembershipCount", userId);
+    return count != null && count > 0;
+  }
+
+  protected void insertEntries(List<AuthorizationIndexEntry> entries) {
+    for (AuthorizationIndexEntry entry : entries) {
+      insertEntry(entry);
+    }
+  }
+
+  protected void insertEntry(AuthorizationIndexEntry entry) {
+    // executed as bulk operation after the deletes of the entries which it replaces
+    getDbEntityManager().update(AuthorizationEntity.class, "insertAuthorizationIndexEntry", entry);
+  }
+
+  /**
+   * Calculates the effective permissions of the subject for every resource
+   * which is referenced by the given authorizations. Every permission is decided
+   * by the authorization with the highest precedence which either grants or revokes it.
+   */
+  protected List<AuthorizationIndexEntry> calculateEntries(String subjectId, List<AuthorizationEntity> authorizations) {
+    // resource type -> resource id -> authorizations
+    Map<Integer, Map<String, List<AuthorizationEntity>>> authorizationsByResource = new HashMap<Integer, Map<String, List<AuthorizationEntity>>>();
+
+    for (AuthorizationEntity authorization : authorizations) {
+      if (authorization.getResourceId() == null) {
+        continue;
+      }
+
+      Map<String, List<AuthorizationEntity>> authorizationsByResourceId = authorizationsByResource.get(authorization.getResourceType());
+      if (authorizationsByResourceId == null) {
+        authorizationsByResourceId = new HashMap<String, List<AuthorizationEntity>>();
+        authorizationsByResourceId.put(ANY, new ArrayList<AuthorizationEntity>());
+        authorizationsByResource.put(authorization.getResourceType(), authorizationsByResourceId);
+      }
+
+      List<AuthorizationEntity> resourceAuthorizations = authorizationsByResourceId.get(authorization.getResourceId());
+      if (resourceAuthorizations == null) {
+        resourceAuthorizations = new ArrayList<AuthorizationEntity>();
+        authorizationsByResourceId.put(authorization.getResourceId(), resourceAuthorizations);
+      }
+      resourceAuthorizations.add(authorization);
+    }
+
+    List<AuthorizationIndexEntry> entries = new ArrayList<AuthorizationIndexEntry>();
+
+    for (Entry<Integer, Map<String, List<AuthorizationEntity>>> resourceTypeEntry : authorizationsByResource.entrySet()) {
+      int resourceType = resourceTypeEntry.getKey();
+      Map<String, List<AuthorizationEntity>> authorizationsByResourceId = resourceTypeEntry.getValue();
+      List<AuthorizationEntity> anyResourceAuthorizations = authorizationsByResourceId.get(ANY);
+
+      for (Entry<String, List<AuthorizationEntity>> resourceEntry : authorizationsByResourceId.entrySet()) {
+        String resourceId = resourceEntry.getKey();
+
+        int[] grants = new int[GLOBAL_ANY + 1];
+        int[] revokes = new int[GLOBAL_ANY + 1];
+
+        if (!ANY.equals(resourceId)) {
+          addPermissions(resourceEntry.getValue(), false, grants, revokes);
+        }
+        addPermissions(anyResourceAuthorizations, true, grants, revokes);
+
+        int permissions = 0;
+        int decidedPermissions = 0;
+        for (int i = 0; i <= GLOBAL_ANY; i++) {
+          int granted = grants[i] & ~decidedPermissions;
+          permissions |= granted;
+          decidedPermissions |= granted;
+          decidedPermissions |= revokes[i] & ~decidedPermissions;
+        }
+
+        if (decidedPermissions != 0) {
+          entries.add(new AuthorizationIndexEntry(subjectId, resourceType, resourceId, permissions, decidedPermissions));
+        }
+      }
+    }
+
+    return entries;
+  }
+
+  protected void addPermissions(List<AuthorizationEntity> authorizations, boolean isAnyResource, int[] grants, int[] revokes) {
+    for (AuthorizationEntity authorization : authorizations) {
+      int level;
+      if (authorization.getAuthorizationType() == AUTH_TYPE_GLOBAL) {
+        level = isAnyResource ? GLOBAL_ANY : GLOBAL_RESOURCE;
+      }
+      else if (authorization.getUserId() != null) {
+        level = isAnyResource ? USER_ANY : USER_RESOURCE;
+      }
+      else {
+        level = isAnyResource ? GROUP_ANY : GROUP_RESOURCE;
+      }
+
+      int permissions = authorization.getPermissions() & ALL_PERMISSIONS;
+      int authorizationType = authorization.getAuthorizationType();
+
+      // a global authorization grants its permissions and revokes all others
+      if (authorizationType == AUTH_TYPE_GRANT || authorizationType == AUTH_TYPE_GLOBAL) {
+        grants[level] |= permissions;
+      }
+      if (authorizationType == AUTH_TYPE_REVOKE || authorizationType == AUTH_TYPE_GLOBAL) {
+        revokes[level] |= ~permissions & ALL_PERMISSIONS;
+      }
+    }
+  }
+
+  // index lookups /////////////////////////////////////////////
+
+  /**
+   * @return true if the index contains entries of the given user, regardless of the groups
+   * and whether they are stale
+   */
+  public boolean isUserIndexed(String userId) {
+    return findMembershipFingerprint(userId) != null;
+  }
+
+  /**
+   * @return true if the index contains up to date entries of the given user (or of
+   * {@link Authorization#ANY} for the global entries) which are calculated for exactly the given groups
+   */
+  public boolean isUserIndexedForGroups(String userId, List<String> groupIds) {
+    String fingerprint = findMembershipFingerprint(userId);
+    return fingerprint != null && fingerprint.equals(getMembershipFingerprint(groupIds));
+  }
+
+  protected String findMembershipFingerprint(String userId) {
+    if (!membershipFingerprints.containsKey(userId)) {
+      String fingerprint = (String) getDbEntityManager().selectOne("selectAuthorizationIndexMembershipFingerprint", userId);
+      membershipFingerprints.put(userId, fingerprint);
+    }
+    return membershipFingerprints.get(userId);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected List<String> findStaleSubjectIds(int maxResults) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("orderingProperties", Collections.singletonList(SUBJECT_ID_ORDERING_PROPERTY));
+
+    return getDbEntityManager().selectList("selectStaleAuthorizationIndexSubjectIds", parameters, new Page(0, maxResults));
+  }
+
+  public List<AuthorizationIndexEntry> findEntriesBySubjectId(String subjectId) {
+    List<AuthorizationIndexEntry> entries = getSqlSession().selectList("selectAuthorizationIndexEntriesBySubjectId", subjectId);
+    return entries != null ? entries : Collections.<AuthorizationIndexEntry>emptyList();
+  }
+
+  // helper ////////////////////////////////////////////////////
+
+  protected List<String> selectUserIdsByGroupId(String groupId) {
+    return getSqlSession().selectList("selectAuthorizationIndexUserIdsByGroupId", groupId);
+  }
+
+  protected SqlSession getSqlSession() {
+    return getDbSqlSession().getSqlSession();
+  }
+
+  protected boolean isDbIdentityUsed() {
+    return Context.getProcessEngineConfiguration().isDbIdentityUsed();
+  }
+
+}
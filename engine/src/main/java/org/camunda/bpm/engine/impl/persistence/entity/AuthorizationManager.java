@@ -34,6 +34,7 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -71,8 +72,11 @@ import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.TaskQueryImpl;
 import org.camunda.bpm.engine.impl.UserOperationLogQueryImpl;
 import org.camunda.bpm.engine.impl.VariableInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.AuthorizationCheck;
+import org.camunda.bpm.engine.impl.db.AuthorizationDecisionCache;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.PermissionCheck;
@@ -91,6 +95,12 @@ public class AuthorizationManager extends AbstractManager {
   protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
   public static final String DEFAULT_AUTHORIZATION_CHECK = "defaultAuthorizationCheck";
 
+  /** decisions of the authorization checks performed in this command context */
+  protected Map<Object, Boolean> authorizationDecisions = new HashMap<Object, Boolean>();
+
+  /** true if authorizations have been created, updated or deleted in this command context */
+  protected boolean isAuthorizationModified = false;
+
   public Authorization createNewAuthorization(int type) {
     checkAuthorization(CREATE, AUTHORIZATION, null);
     return new AuthorizationEntity(type);
@@ -100,6 +110,11 @@ public class AuthorizationManager extends AbstractManager {
   public void insert(DbEntity authorization) {
     checkAuthorization(CREATE, AUTHORIZATION, null);
     getDbEntityManager().insert(authorization);
+    authorizationModified();
+
+    if (isAuthorizationIndexEnabled()) {
+      getAuthorizationIndexManager().authorizationInserted((AuthorizationEntity) authorization);
+    }
   }
 
   public List<Authorization> selectAuthorizationByQueryCriteria(AuthorizationQueryImpl authorizationQuery) {
@@ -137,7 +152,13 @@ public class AuthorizationManager extends AbstractManager {
 
   public void update(AuthorizationEntity authorization) {
     checkAuthorization(UPDATE, AUTHORIZATION, authorization.getId());
+
+    if (isAuthorizationIndexEnabled()) {
+      getAuthorizationIndexManager().authorizationUpdated(authorization);
+    }
+
     getDbEntityManager().merge(authorization);
+    authorizationModified();
   }
 
   @Override
@@ -145,6 +166,11 @@ public class AuthorizationManager extends AbstractManager {
     checkAuthorization(DELETE, AUTHORIZATION, authorization.getId());
     deleteAuthorizationsByResourceId(AUTHORIZATION, authorization.getId());
     super.delete(authorization);
+    authorizationModified();
+
+    if (isAuthorizationIndexEnabled()) {
+      getAuthorizationIndexManager().authorizationDeleted((AuthorizationEntity) authorization);
+    }
   }
 
   // authorization checks ///////////////////////////////////////////
@@ -235,11 +261,73 @@ public class AuthorizationManager extends AbstractManager {
   }
 
   public boolean isAuthorized(String userId, List<String> groupIds, List<PermissionCheck> permissionChecks) {
-    AuthorizationCheck authCheck = new AuthorizationCheck();
-    authCheck.setAuthUserId(userId);
-    authCheck.setAuthGroupIds(groupIds);
-    authCheck.setPermissionChecks(permissionChecks);
-    return getDbEntityManager().selectBoolean("isUserAuthorizedForResource", authCheck);
+    Object decisionKey = getAuthorizationDecisionKey(userId, groupIds, permissionChecks);
+
+    Boolean isAuthorized = authorizationDecisions.get(decisionKey);
+    if (isAuthorized == null) {
+
+      // the engine-wide cache must neither serve nor see uncommitted authorizations
+      AuthorizationDecisionCache decisionCache = isAuthorizationModified ? null : getAuthorizationDecisionCache();
+      if (decisionCache != null) {
+        isAuthorized = decisionCache.get(decisionKey);
+      }
+
+      if (isAuthorized == null) {
+        long generation = decisionCache != null ? decisionCache.getGeneration() : 0;
+
+        AuthorizationCheck authCheck = new AuthorizationCheck();
+        authCheck.setAuthUserId(userId);
+        authCheck.setAuthGroupIds(groupIds);
+        authCheck.setAuthIndexSubjectId(getAuthorizationIndexSubjectId(userId, groupIds));
+        authCheck.setPermissionChecks(permissionChecks);
+        isAuthorized = getDbEntityManager().selectBoolean("isUserAuthorizedForResource", authCheck);
+
+        if (decisionCache != null) {
+          decisionCache.put(decisionKey, isAuthorized, generation);
+        }
+      }
+
+      authorizationDecisions.put(decisionKey, isAuthorized);
+    }
+
+    return isAuthorized;
+  }
+
+  protected Object getAuthorizationDecisionKey(String userId, List<String> groupIds, List<PermissionCheck> permissionChecks) {
+    List<Object> key = new ArrayList<Object>(2 + 5 * permissionChecks.size());
+    key.add(userId);
+    key.add(groupIds != null ? new HashSet<String>(groupIds) : null);
+    for (PermissionCheck permissionCheck : permissionChecks) {
+      key.add(permissionCheck.getPerms());
+      key.add(permissionCheck.getResourceType());
+      key.add(permissionCheck.getResourceId());
+      key.add(permissionCheck.getResourceIdQueryParam());
+      key.add(permissionCheck.getAuthorizationNotFoundReturnValue());
+    }
+    return key;
+  }
+
+  protected AuthorizationDecisionCache getAuthorizationDecisionCache() {
+    return Context.getProcessEngineConfiguration().getAuthorizationDecisionCache();
+  }
+
+  /**
+   * Discards the decisions of this command context and invalidates the
+   * engine-wide decisions once the transaction is committed.
+   */
+  protected void authorizationModified() {
+    authorizationDecisions.clear();
+
+    final AuthorizationDecisionCache decisionCache = getAuthorizationDecisionCache();
+    if (decisionCache != null && !isAuthorizationModified) {
+      getCommandContext().getTransactionContext().addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+        public void execute(CommandContext commandContext) {
+          decisionCache.invalidate();
+        }
+      });
+    }
+
+    isAuthorizationModified = true;
   }
 
   // authorization checks on queries ////////////////////////////////
@@ -259,14 +347,47 @@ public class AuthorizationManager extends AbstractManager {
 
       query.setAuthUserId(currentUserId);
       query.setAuthGroupIds(currentGroupIds);
+      query.setAuthIndexSubjectId(getAuthorizationIndexSubjectId(currentUserId, currentGroupIds));
     }
     else {
       query.setAuthorizationCheckEnabled(false);
       query.setAuthUserId(null);
       query.setAuthGroupIds(null);
+      query.setAuthIndexSubjectId(null);
     }
   }
 
+  /**
+   * @return the subject whose entries of the authorization index decide about the permissions
+   * of the user or null if the authorizations have to be evaluated
+   */
+  protected String getAuthorizationIndexSubjectId(String userId, List<String> groupIds) {
+    if (!isAuthorizationIndexEnabled()) {
+      return null;
+    }
+
+    AuthorizationIndexManager authorizationIndexManager = getAuthorizationIndexManager();
+    if (authorizationIndexManager.isIndexOutdated()) {
+      return null;
+    }
+
+    if (userId != null && authorizationIndexManager.isUserIndexed(userId)) {
+      // the entries only apply if the user is authenticated with the groups they are calculated for
+      return authorizationIndexManager.isUserIndexedForGroups(userId, groupIds) ? userId : null;
+    }
+    else if ((groupIds == null || groupIds.isEmpty()) && authorizationIndexManager.isUserIndexedForGroups(Authorization.ANY, groupIds)) {
+      // only global authorizations apply to the user
+      return Authorization.ANY;
+    }
+    else {
+      return null;
+    }
+  }
+
+  protected boolean isAuthorizationIndexEnabled() {
+    return Context.getProcessEngineConfiguration().isAuthorizationIndexEnabled();
+  }
+
   @Override
   public void configureQuery(AbstractQuery query, Resource resource) {
     configureQuery(query, resource, "RES.ID_");
@@ -302,10 +423,15 @@ public class AuthorizationManager extends AbstractManager {
     }
 
     if(isAuthorizationEnabled()) {
+      if (isAuthorizationIndexEnabled()) {
+        getAuthorizationIndexManager().authorizationsDeleted(resource, resourceId);
+      }
+
       Map<String, Object> deleteParams = new HashMap<String, Object>();
       deleteParams.put("resourceType", resource.resourceType());
       deleteParams.put("resourceId", resourceId);
       getDbEntityManager().delete(AuthorizationEntity.class, "deleteAuthorizationsForResourceId", deleteParams);
+      authorizationModified();
     }
 
   }
@@ -543,6 +669,33 @@ public class AuthorizationManager extends AbstractManager {
     checkAuthorization(firstCheck, secondCheck);
   }
 
+  public void checkSignalAllProcessInstances() {
+    // necessary permissions:
+    // - UPDATE on ANY PROCESS_INSTANCE
+
+    PermissionCheck firstCheck = new PermissionCheck();
+    firstCheck.setPermission(UPDATE);
+    firstCheck.setResource(PROCESS_INSTANCE);
+
+    // ... OR ...
+
+    // - UPDATE_INSTANCE on ANY PROCESS_DEFINITION
+
+    PermissionCheck secondCheck = new PermissionCheck();
+    secondCheck.setPermission(UPDATE_INSTANCE);
+    secondCheck.setResource(PROCESS_DEFINITION);
+    secondCheck.setAuthorizationNotFoundReturnValue(0l);
+
+    checkAuthorization(firstCheck, secondCheck);
+
+    // AND
+
+    // - CREATE on PROCESS_INSTANCE
+    // - CREATE_INSTANCE on ANY PROCESS_DEFINITION
+    checkAuthorization(CREATE, PROCESS_INSTANCE);
+    checkAuthorization(CREATE_INSTANCE, PROCESS_DEFINITION);
+  }
+
   // delete permission /////////////////////////////////////////////////
 
   public void checkDeleteProcessInstance(ExecutionEntity execution) {
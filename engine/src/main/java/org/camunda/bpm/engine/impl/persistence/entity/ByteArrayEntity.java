@@ -13,6 +13,8 @@
 package org.camunda.bpm.engine.impl.persistence.entity;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.db.DbEntity;
@@ -31,6 +33,8 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
   protected String name;
   protected byte[] bytes;
   protected String deploymentId;
+  /** true if the content is kept in the blob store instead of the bytes */
+  protected boolean blob;
 
   public ByteArrayEntity() {
   }
@@ -49,7 +53,10 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
   }
 
   public Object getPersistentState() {
-    return (bytes != null ? bytes : PERSISTENTSTATE_NULL);
+    Map<String, Object> persistentState = new HashMap<String, Object>();
+    persistentState.put("bytes", bytes != null ? bytes : PERSISTENTSTATE_NULL);
+    persistentState.put("blob", blob);
+    return persistentState;
   }
 
   public int getRevisionNext() {
@@ -86,6 +93,14 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
     this.bytes = bytes;
   }
 
+  public boolean isBlob() {
+    return blob;
+  }
+
+  public void setBlob(boolean blob) {
+    this.blob = blob;
+  }
+
   public int getRevision() {
     return revision;
   }
@@ -101,6 +116,7 @@ public class ByteArrayEntity implements Serializable, DbEntity, HasDbRevision {
            + ", revision=" + revision
            + ", name=" + name
            + ", deploymentId=" + deploymentId
+           + ", blob=" + blob
            + "]";
   }
 
@@ -10,16 +10,40 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.impl.persistence.blob.BlobStore;
+import org.camunda.bpm.engine.impl.util.IoUtil;
 
 /**
  * @author Joram Barrez
  */
 public class ByteArrayManager extends AbstractManager {
 
+  protected static final byte[] BLOB_REFERENCE = new byte[0];
+
+  protected static final int READ_BUFFER_SIZE = 4096;
+
+  /** blobs written by the current command, deleted if the transaction is rolled back */
+  protected List<String> writtenBlobIds;
+
+  /** blobs of deleted byte arrays, deleted once the transaction is committed */
+  protected List<String> deletedBlobIds;
+
   /**
    * Deletes the {@link ByteArrayEntity} with the given id from the database.
    * Important: this operation will NOT do any optimistic locking, to avoid loading the
@@ -28,6 +52,258 @@ public class ByteArrayManager extends AbstractManager {
    */
   public void deleteByteArrayById(String byteArrayEntityId) {
     getDbEntityManager().delete(ByteArrayEntity.class, "deleteByteArrayNoRevisionCheck", byteArrayEntityId);
+
+    if (getBlobStore() != null) {
+      deleteBlobOnCommit(byteArrayEntityId);
+    }
+  }
+
+  /**
+   * Deletes byte arrays in bulk with the given statement. If a {@link BlobStore} is
+   * configured, the ids of the byte arrays are selected with the given statement first,
+   * so that their blobs are deleted once the transaction is committed.
+   */
+  @SuppressWarnings("unchecked")
+  public void deleteByteArrays(String deleteStatement, String selectIdsStatement, Object parameter) {
+    if (getBlobStore() != null) {
+      List<String> byteArrayIds = getDbEntityManager().selectListWithRawParameter(selectIdsStatement, parameter, 0, Integer.MAX_VALUE);
+      for (String byteArrayId : byteArrayIds) {
+        deleteBlobOnCommit(byteArrayId);
+      }
+    }
+
+    getDbEntityManager().delete(ByteArrayEntity.class, deleteStatement, parameter);
+  }
+
+  // blobs ////////////////////////////////////////////////////////////////////
+
+  /**
+   * Inserts a byte array with the content of the stream. If a {@link BlobStore}
+   * is configured and the content is at least as large as the blob store threshold,
+   * the content is streamed to the blob store instead of being read into memory.
+   */
+  public ByteArrayEntity insertByteArray(String name, InputStream content) {
+    ByteArrayEntity byteArray;
+
+    if (getBlobStore() == null) {
+      byteArray = new ByteArrayEntity(name, IoUtil.readInputStream(content, name));
+      getDbEntityManager().insert(byteArray);
+    }
+    else {
+      // read up to the threshold to decide where the content is kept
+      byte[] head = readHead(content, name, getBlobStoreThreshold());
+
+      if (head.length < getBlobStoreThreshold()) {
+        byteArray = new ByteArrayEntity(name, head);
+        getDbEntityManager().insert(byteArray);
+      }
+      else {
+        byteArray = insertBlobReference(name);
+        writeBlob(byteArray, new SequenceInputStream(new ByteArrayInputStream(head), content));
+      }
+    }
+
+    return byteArray;
+  }
+
+  /**
+   * @return true if the content of the byte array should be kept in the blob store
+   */
+  public boolean isBlobStoreUsed(int contentLength) {
+    return getBlobStore() != null && contentLength >= getBlobStoreThreshold();
+  }
+
+  /**
+   * Inserts a byte array which references a blob. The blob must be written
+   * with {@link #writeBlob(ByteArrayEntity, InputStream)}.
+   */
+  public ByteArrayEntity insertBlobReference(String name) {
+    ByteArrayEntity byteArray = new ByteArrayEntity(name, BLOB_REFERENCE);
+    byteArray.setBlob(true);
+    getDbEntityManager().insert(byteArray);
+    return byteArray;
+  }
+
+  /**
+   * Inserts a byte array which references the existing blob with the given id,
+   * e.g. a blob written by {@link #copyBlob(String)}.
+   */
+  public ByteArrayEntity insertBlobReference(String name, String blobId) {
+    ByteArrayEntity byteArray = new ByteArrayEntity(name, BLOB_REFERENCE);
+    byteArray.setId(blobId);
+    byteArray.setBlob(true);
+    getDbEntityManager().insert(byteArray);
+    return byteArray;
+  }
+
+  /**
+   * Writes the content as the blob of the given byte array which must be
+   * empty. The blob is deleted if the transaction is rolled back.
+   */
+  public void writeBlob(ByteArrayEntity byteArray, InputStream content) {
+    byteArray.setBytes(BLOB_REFERENCE);
+    byteArray.setBlob(true);
+    writeBlob(byteArray.getId(), content);
+  }
+
+  /**
+   * Copies the blob with the given id to a new blob without reading it into memory.
+   * The copy is deleted if the transaction is rolled back. A byte array referencing
+   * the copy can be inserted with {@link #insertBlobReference(String, String)}.
+   *
+   * @return the id of the copy
+   */
+  public String copyBlob(String blobId) {
+    BlobStore blobStore = getBlobStore();
+    InputStream content = blobStore != null ? blobStore.read(blobId) : null;
+    if (content == null) {
+      throw new ProcessEngineException("Cannot copy blob '" + blobId + "': blob does not exist");
+    }
+
+    String copyId = Context.getProcessEngineConfiguration().getIdGenerator().getNextId();
+    try {
+      writeBlob(copyId, content);
+    }
+    finally {
+      IoUtil.closeSilently(content);
+    }
+    return copyId;
+  }
+
+  /**
+   * Deletes the blob with the given id once the transaction is committed.
+   */
+  public void deleteBlob(String blobId) {
+    if (getBlobStore() != null) {
+      deleteBlobOnCommit(blobId);
+    }
+  }
+
+  /**
+   * @return true if the content of the byte array is kept in the blob store
+   */
+  public boolean isBlob(ByteArrayEntity byteArray) {
+    return byteArray.isBlob();
+  }
+
+  /**
+   * @return a stream of the content of the byte array, read from the blob store if applicable
+   * @throws ProcessEngineException if the byte array references a blob which does not exist
+   */
+  public InputStream openContent(ByteArrayEntity byteArray) {
+    if (isBlob(byteArray)) {
+      return readBlob(byteArray);
+    }
+    else {
+      return new ByteArrayInputStream(byteArray.getBytes());
+    }
+  }
+
+  /**
+   * @return the content of the byte array, read completely from the blob store if applicable
+   * @throws ProcessEngineException if the byte array references a blob which does not exist
+   */
+  public byte[] getContent(ByteArrayEntity byteArray) {
+    if (isBlob(byteArray)) {
+      InputStream content = readBlob(byteArray);
+      try {
+        return IoUtil.readInputStream(content, byteArray.getName());
+      }
+      finally {
+        IoUtil.closeSilently(content);
+      }
+    }
+    else {
+      return byteArray.getBytes();
+    }
+  }
+
+  protected InputStream readBlob(ByteArrayEntity byteArray) {
+    BlobStore blobStore = getBlobStore();
+    if (blobStore == null) {
+      throw new ProcessEngineException("Cannot read blob of byte array '" + byteArray.getId() + "': no blob store configured");
+    }
+
+    InputStream content = blobStore.read(byteArray.getId());
+    if (content == null) {
+      throw new ProcessEngineException("Cannot read blob of byte array '" + byteArray.getId() + "': blob does not exist");
+    }
+    return content;
+  }
+
+  protected void writeBlob(String blobId, InputStream content) {
+    BlobStore blobStore = getBlobStore();
+    if (blobStore == null) {
+      throw new ProcessEngineException("Cannot write blob '" + blobId + "': no blob store configured");
+    }
+
+    if (writtenBlobIds == null) {
+      writtenBlobIds = new ArrayList<String>();
+      addTransactionListener(TransactionState.ROLLED_BACK, new DeleteBlobsListener(blobStore, writtenBlobIds));
+    }
+    writtenBlobIds.add(blobId);
+
+    blobStore.write(blobId, content);
+  }
+
+  protected void deleteBlobOnCommit(String byteArrayId) {
+    if (deletedBlobIds == null) {
+      deletedBlobIds = new ArrayList<String>();
+      addTransactionListener(TransactionState.COMMITTED, new DeleteBlobsListener(getBlobStore(), deletedBlobIds));
+    }
+    deletedBlobIds.add(byteArrayId);
+  }
+
+  protected void addTransactionListener(TransactionState transactionState, TransactionListener listener) {
+    Context.getCommandContext()
+      .getTransactionContext()
+      .addTransactionListener(transactionState, listener);
+  }
+
+  /**
+   * Reads at most the given number of bytes from the stream. The content is read
+   * incrementally, so that small contents do not allocate a buffer of the full length.
+   */
+  protected byte[] readHead(InputStream content, String name, int length) {
+    ByteArrayOutputStream head = new ByteArrayOutputStream(Math.min(length, READ_BUFFER_SIZE));
+    byte[] buffer = new byte[Math.min(length, READ_BUFFER_SIZE)];
+    try {
+      while (head.size() < length) {
+        int bytesRead = content.read(buffer, 0, Math.min(buffer.length, length - head.size()));
+        if (bytesRead == -1) {
+          break;
+        }
+        head.write(buffer, 0, bytesRead);
+      }
+    } catch (IOException e) {
+      throw new ProcessEngineException("couldn't read input stream " + name, e);
+    }
+    return head.toByteArray();
+  }
+
+  protected BlobStore getBlobStore() {
+    return Context.getProcessEngineConfiguration().getBlobStore();
+  }
+
+  protected int getBlobStoreThreshold() {
+    return Context.getProcessEngineConfiguration().getBlobStoreThreshold();
+  }
+
+  protected static class DeleteBlobsListener implements TransactionListener {
+
+    protected final BlobStore blobStore;
+    protected final List<String> blobIds;
+
+    public DeleteBlobsListener(BlobStore blobStore, List<String> blobIds) {
+      this.blobStore = blobStore;
+      this.blobIds = blobIds;
+    }
+
+    public void execute(CommandContext commandContext) {
+      for (String blobId : blobIds) {
+        blobStore.delete(blobId);
+      }
+    }
   }
 
 }
@@ -13,6 +13,7 @@
 
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +62,11 @@ public class CommentManager extends AbstractHistoricManager {
     getDbEntityManager().delete(CommentEntity.class, "deleteCommentsByTaskId", taskId);
   }
 
+  public void deleteCommentsByProcessInstanceIds(List<String> processInstanceIds) {
+    checkHistoryEnabled();
+    getDbEntityManager().delete(CommentEntity.class, "deleteCommentsByProcessInstanceIds", Collections.singletonMap("processInstanceIds", processInstanceIds));
+  }
+
   @SuppressWarnings("unchecked")
   public List<Comment> findCommentsByProcessInstanceId(String processInstanceId) {
     checkHistoryEnabled();
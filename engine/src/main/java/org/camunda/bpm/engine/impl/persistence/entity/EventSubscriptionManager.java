@@ -14,16 +14,22 @@
 package org.camunda.bpm.engine.impl.persistence.entity;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.camunda.bpm.engine.impl.Direction;
 import org.camunda.bpm.engine.impl.EventSubscriptionQueryImpl;
+import org.camunda.bpm.engine.impl.EventSubscriptionQueryProperty;
 import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.QueryOrderingProperty;
 import org.camunda.bpm.engine.impl.jobexecutor.ProcessEventJobHandler;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.impl.util.CollectionUtil;
 import org.camunda.bpm.engine.runtime.EventSubscription;
 
 
@@ -32,6 +38,15 @@ import org.camunda.bpm.engine.runtime.EventSubscription;
  */
 public class EventSubscriptionManager extends AbstractManager {
 
+  /** the maximum number of ids in one IN clause */
+  protected static final int MAX_IN_LIST_SIZE = 1000;
+
+  protected static final QueryOrderingProperty ID_ORDERING_PROPERTY = new QueryOrderingProperty(null, EventSubscriptionQueryProperty.ID);
+
+  static {
+    ID_ORDERING_PROPERTY.setDirection(Direction.ASCENDING);
+  }
+
   /** keep track of subscriptions created in the current command */
   protected List<SignalEventSubscriptionEntity> createdSignalSubscriptions = new ArrayList<SignalEventSubscriptionEntity>();
 
@@ -90,6 +105,39 @@ public class EventSubscriptionManager extends AbstractManager {
     return new ArrayList<SignalEventSubscriptionEntity>(selectList);
   }
 
+  /**
+   * @return the ids of the signal event subscriptions with the given event name which were
+   *   created not after the given time and are greater than the given id (if not null), ordered by id
+   */
+  @SuppressWarnings("unchecked")
+  public List<String> findSignalEventSubscriptionIdsByEventName(String eventName, Date createdBefore, String afterId, int maxResults) {
+    Map<String, Object> params = new HashMap<String, Object>();
+    params.put("eventName", eventName);
+    params.put("createdBefore", createdBefore);
+    params.put("afterId", afterId);
+    params.put("orderingProperties", Collections.singletonList(ID_ORDERING_PROPERTY));
+
+    return getDbEntityManager().selectList("selectSignalEventSubscriptionIdsByEventName", params, new Page(0, maxResults));
+  }
+
+  /**
+   * @return the signal event subscriptions with the given event name and one of the given ids
+   */
+  @SuppressWarnings("unchecked")
+  public List<SignalEventSubscriptionEntity> findSignalEventSubscriptionsByEventNameAndIds(String eventName, List<String> ids) {
+    List<SignalEventSubscriptionEntity> subscriptions = new ArrayList<SignalEventSubscriptionEntity>();
+
+    for (List<String> partition : CollectionUtil.partition(ids, MAX_IN_LIST_SIZE)) {
+      Map<String, Object> params = new HashMap<String, Object>();
+      params.put("eventName", eventName);
+      params.put("ids", partition);
+
+      subscriptions.addAll(getDbEntityManager().selectList("selectSignalEventSubscriptionsByEventNameAndIds", params));
+    }
+
+    return subscriptions;
+  }
+
   @SuppressWarnings("unchecked")
   public List<SignalEventSubscriptionEntity> findSignalEventSubscriptionsByExecution(String executionId) {
     final String query = "selectSignalEventSubscriptionsByExecution";
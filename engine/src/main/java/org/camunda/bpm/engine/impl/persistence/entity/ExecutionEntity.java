@@ -65,6 +65,7 @@ import org.camunda.bpm.engine.impl.variable.VariableDeclaration;
 import org.camunda.bpm.engine.runtime.Execution;
 import org.camunda.bpm.engine.runtime.Job;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
 import org.camunda.bpm.engine.variable.VariableMap;
 import org.camunda.bpm.model.bpmn.BpmnModelInstance;
 import org.camunda.bpm.model.bpmn.instance.FlowElement;
@@ -202,6 +203,9 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
    */
   protected String superCaseExecutionId;
 
+  /** the variables fetched by a process instance query, see {@link ProcessInstanceQuery#withVariables(String...)} */
+  protected VariableMap fetchedVariables;
+
   public ExecutionEntity() {
 
   }
@@ -996,7 +1000,29 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   }
 
   protected List<VariableInstanceEntity> loadVariableInstances() {
-    return Context.getCommandContext().getVariableInstanceManager().findVariableInstancesByExecutionId(id);
+    VariableInstanceManager variableInstanceManager = Context.getCommandContext().getVariableInstanceManager();
+
+    if (isVariablePrefetchEnabled() && processInstanceId != null) {
+      List<VariableInstanceEntity> variableInstances = variableInstanceManager.prefetchVariableInstancesByProcessInstanceId(processInstanceId);
+
+      List<VariableInstanceEntity> executionVariableInstances = new ArrayList<VariableInstanceEntity>();
+      for (VariableInstanceEntity variableInstance : variableInstances) {
+        if (id.equals(variableInstance.getExecutionId()) && variableInstance.getTaskId() == null) {
+          executionVariableInstances.add(variableInstance);
+        }
+      }
+      return executionVariableInstances;
+
+    } else {
+      return variableInstanceManager.findVariableInstancesByExecutionId(id);
+    }
+  }
+
+  /**
+   * @return true if the variables of all executions and tasks of the process instance are fetched at once
+   */
+  protected boolean isVariablePrefetchEnabled() {
+    return Context.getProcessEngineConfiguration().isVariablePrefetchEnabled();
   }
 
   protected boolean isAutoFireHistoryEvents() {
@@ -1097,8 +1123,8 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
       if(execution.eventSubscriptions == null && eventSubscriptions != null) {
         execution.eventSubscriptions = new ArrayList<EventSubscriptionEntity>();
       }
-      if(variableStore.getVariableInstancesDirect() == null && variables != null) {
-        variableStore.setVariableInstances(new HashMap<String, VariableInstanceEntity>());
+      if(execution.variableStore.getVariableInstancesDirect() == null && variables != null) {
+        execution.variableStore.setVariableInstances(new HashMap<String, VariableInstanceEntity>());
       }
       String parentId = execution.getParentId();
       ExecutionEntity parent = executionsMap.get(parentId);
@@ -1406,6 +1432,14 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     return parentId;
   }
 
+  public VariableMap getFetchedVariables() {
+    return fetchedVariables;
+  }
+
+  public void setFetchedVariables(VariableMap fetchedVariables) {
+    this.fetchedVariables = fetchedVariables;
+  }
+
   public void setParentId(String parentId) {
     this.parentId = parentId;
   }
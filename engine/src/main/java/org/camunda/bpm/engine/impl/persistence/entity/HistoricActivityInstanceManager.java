@@ -13,6 +13,7 @@
 
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,12 @@ public class HistoricActivityInstanceManager extends AbstractHistoricManager {
     }
   }
 
+  public void deleteHistoricActivityInstancesByProcessInstanceIds(List<String> processInstanceIds) {
+    if (isHistoryEnabled()) {
+      getDbEntityManager().delete(HistoricActivityInstanceEntity.class, "deleteHistoricActivityInstancesByProcessInstanceIds", Collections.singletonMap("processInstanceIds", processInstanceIds));
+    }
+  }
+
   public void insertHistoricActivityInstance(HistoricActivityInstanceEntity historicActivityInstance) {
     getDbEntityManager().insert(historicActivityInstance);
   }
@@ -15,7 +15,9 @@ package org.camunda.bpm.engine.impl.persistence.entity;
 
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureOnlyOneNotNull;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.camunda.bpm.engine.history.HistoricDetail;
 import org.camunda.bpm.engine.impl.HistoricDetailQueryImpl;
@@ -33,6 +35,15 @@ public class HistoricDetailManager extends AbstractHistoricManager {
     deleteHistoricDetailsByProcessCaseInstanceId(historicProcessInstanceId, null);
   }
 
+  public void deleteHistoricDetailsByProcessInstanceIds(List<String> processInstanceIds) {
+    if (isHistoryEnabled()) {
+      Map<String, List<String>> parameters = Collections.singletonMap("processInstanceIds", processInstanceIds);
+      getByteArrayManager().deleteByteArrays("deleteHistoricDetailByteArraysByProcessInstanceIds",
+          "selectHistoricDetailByteArrayIdsByProcessInstanceIds", parameters);
+      getDbEntityManager().delete(HistoricDetailEventEntity.class, "deleteHistoricDetailsByProcessInstanceIds", parameters);
+    }
+  }
+
   public void deleteHistoricDetailsByCaseInstanceId(String historicCaseInstanceId) {
     deleteHistoricDetailsByProcessCaseInstanceId(null, historicCaseInstanceId);
   }
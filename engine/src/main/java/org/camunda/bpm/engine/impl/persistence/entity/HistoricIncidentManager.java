@@ -12,6 +12,7 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.camunda.bpm.engine.history.HistoricIncident;
@@ -42,6 +43,12 @@ public class HistoricIncidentManager extends AbstractHistoricManager {
     }
   }
 
+  public void deleteHistoricIncidentsByProcessInstanceIds(List<String> processInstanceIds) {
+    if (isHistoryLevelFullEnabled()) {
+      getDbEntityManager().delete(HistoricIncidentEntity.class, "deleteHistoricIncidentsByProcessInstanceIds", Collections.singletonMap("processInstanceIds", processInstanceIds));
+    }
+  }
+
   public void deleteHistoricIncidentsByProcessDefinitionId(String processDefinitionId) {
     if (isHistoryLevelFullEnabled()) {
       getDbEntityManager().delete(HistoricIncidentEntity.class, "deleteHistoricIncidentsByProcessDefinitionId", processDefinitionId);
@@ -12,6 +12,7 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -76,6 +77,13 @@ public class HistoricJobLogManager extends AbstractManager {
     getDbEntityManager().delete(HistoricJobLogEventEntity.class, "deleteHistoricJobLogByProcessInstanceId", processInstanceId);
   }
 
+  public void deleteHistoricJobLogsByProcessInstanceIds(List<String> processInstanceIds) {
+    Map<String, List<String>> parameters = Collections.singletonMap("processInstanceIds", processInstanceIds);
+    getByteArrayManager().deleteByteArrays("deleteExceptionByteArraysByProcessInstanceIds",
+        "selectExceptionByteArrayIdsByProcessInstanceIds", parameters);
+    getDbEntityManager().delete(HistoricJobLogEventEntity.class, "deleteHistoricJobLogsByProcessInstanceIds", parameters);
+  }
+
   public void deleteHistoricJobLogsByProcessDefinitionId(String processDefinitionId) {
     deleteExceptionByteArrayByParameterMap("processDefinitionId", processDefinitionId);
     getDbEntityManager().delete(HistoricJobLogEventEntity.class, "deleteHistoricJobLogByProcessDefinitionId", processDefinitionId);
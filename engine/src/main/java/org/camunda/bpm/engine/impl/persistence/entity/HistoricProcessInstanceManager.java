@@ -13,13 +13,19 @@
 
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.Direction;
 import org.camunda.bpm.engine.impl.HistoricProcessInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.HistoricProcessInstanceQueryProperty;
 import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.QueryOrderingProperty;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
@@ -31,6 +37,12 @@ import org.camunda.bpm.engine.impl.persistence.AbstractHistoricManager;
  */
 public class HistoricProcessInstanceManager extends AbstractHistoricManager {
 
+  protected static final QueryOrderingProperty END_TIME_ORDERING_PROPERTY = new QueryOrderingProperty(null, HistoricProcessInstanceQueryProperty.END_TIME);
+
+  static {
+    END_TIME_ORDERING_PROPERTY.setDirection(Direction.ASCENDING);
+  }
+
   public HistoricProcessInstanceEntity findHistoricProcessInstance(String processInstanceId) {
     if (isHistoryEnabled()) {
       return getDbEntityManager().selectById(HistoricProcessInstanceEntity.class, processInstanceId);
@@ -87,6 +99,60 @@ public class HistoricProcessInstanceManager extends AbstractHistoricManager {
     }
   }
 
+  /**
+   * Deletes the history of the given process instances with one statement per
+   * history table. The process instances must be finished.
+   */
+  public void deleteHistoricProcessInstancesByIds(List<String> historicProcessInstanceIds) {
+    if (isHistoryEnabled() && !historicProcessInstanceIds.isEmpty()) {
+
+      getHistoricDetailManager()
+        .deleteHistoricDetailsByProcessInstanceIds(historicProcessInstanceIds);
+
+      getHistoricVariableInstanceManager()
+        .deleteHistoricVariableInstancesByProcessInstanceIds(historicProcessInstanceIds);
+
+      getHistoricActivityInstanceManager()
+        .deleteHistoricActivityInstancesByProcessInstanceIds(historicProcessInstanceIds);
+
+      getHistoricTaskInstanceManager()
+        .deleteHistoricTaskInstancesByProcessInstanceIds(historicProcessInstanceIds);
+
+      getUserOperationLogManager()
+        .deleteOperationLogEntriesByProcessInstanceIds(historicProcessInstanceIds);
+
+      getHistoricIncidentManager()
+        .deleteHistoricIncidentsByProcessInstanceIds(historicProcessInstanceIds);
+
+      getHistoricJobLogManager()
+        .deleteHistoricJobLogsByProcessInstanceIds(historicProcessInstanceIds);
+
+      // the bulk deletes are flushed grouped by entity type, byte arrays before the history
+      // tables which reference them and comments and attachments before the task instances
+      getDbEntityManager().delete(HistoricProcessInstanceEntity.class, "deleteHistoricProcessInstancesByIds",
+          Collections.singletonMap("processInstanceIds", historicProcessInstanceIds));
+    }
+  }
+
+  /**
+   * @return the ids of at most maxResults historic process instances which ended before
+   *   the given time, the longest ended first. If a process definition key is given, only
+   *   instances of this process definition are selected, otherwise instances of all process
+   *   definitions except the excluded ones.
+   */
+  @SuppressWarnings("unchecked")
+  public List<String> findHistoricProcessInstanceIdsForCleanup(String processDefinitionKey, Collection<String> excludedProcessDefinitionKeys,
+      Date endTimeBefore, int maxResults) {
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("processDefinitionKey", processDefinitionKey);
+    parameters.put("excludedProcessDefinitionKeys", excludedProcessDefinitionKeys);
+    parameters.put("endTimeBefore", endTimeBefore);
+    parameters.put("orderingProperties", Collections.singletonList(END_TIME_ORDERING_PROPERTY));
+
+    return getDbEntityManager().selectList("selectHistoricProcessInstanceIdsForCleanup", parameters, new Page(0, maxResults));
+  }
+
   public long findHistoricProcessInstanceCountByQueryCriteria(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery) {
     if (isHistoryEnabled()) {
       getAuthorizationManager().configureHistoricProcessInstanceQuery(historicProcessInstanceQuery);
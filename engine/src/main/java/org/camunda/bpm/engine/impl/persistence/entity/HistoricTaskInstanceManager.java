@@ -43,6 +43,24 @@ public class HistoricTaskInstanceManager extends AbstractHistoricManager {
     deleteHistoricTaskInstances("processInstanceId", processInstanceId);
   }
 
+  /**
+   * Deletes the historic task instances of the process instances together with
+   * their comments and attachments and the comments and attachments of the process instances.
+   */
+  public void deleteHistoricTaskInstancesByProcessInstanceIds(List<String> processInstanceIds) {
+    if (isHistoryEnabled()) {
+      // comments and attachments are selected by their task instances, so they are deleted first
+      getCommandContext()
+        .getCommentManager()
+        .deleteCommentsByProcessInstanceIds(processInstanceIds);
+
+      getAttachmentManager()
+        .deleteAttachmentsByProcessInstanceIds(processInstanceIds);
+
+      getDbEntityManager().delete(HistoricTaskInstanceEntity.class, "deleteHistoricTaskInstancesByProcessInstanceIds", Collections.singletonMap("processInstanceIds", processInstanceIds));
+    }
+  }
+
   public void deleteHistoricTaskInstancesByCaseInstanceId(String caseInstanceId) {
     deleteHistoricTaskInstances("caseInstanceId", caseInstanceId);
   }
@@ -15,7 +15,9 @@ package org.camunda.bpm.engine.impl.persistence.entity;
 
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureOnlyOneNotNull;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.camunda.bpm.engine.history.HistoricVariableInstance;
 import org.camunda.bpm.engine.history.HistoricVariableInstanceQuery;
@@ -33,6 +35,15 @@ public class HistoricVariableInstanceManager extends AbstractHistoricManager {
     deleteHistoricVariableInstancesByProcessCaseInstanceId(historicProcessInstanceId, null);
   }
 
+  public void deleteHistoricVariableInstancesByProcessInstanceIds(List<String> processInstanceIds) {
+    if (isHistoryEnabled()) {
+      Map<String, List<String>> parameters = Collections.singletonMap("processInstanceIds", processInstanceIds);
+      getByteArrayManager().deleteByteArrays("deleteHistoricVariableInstanceByteArraysByProcessInstanceIds",
+          "selectHistoricVariableInstanceByteArrayIdsByProcessInstanceIds", parameters);
+      getDbEntityManager().delete(HistoricVariableInstanceEntity.class, "deleteHistoricVariableInstancesByProcessInstanceIds", parameters);
+    }
+  }
+
   public void deleteHistoricVariableInstanceByCaseInstanceId(String historicCaseInstanceId) {
     deleteHistoricVariableInstancesByProcessCaseInstanceId(null, historicCaseInstanceId);
   }
@@ -18,6 +18,7 @@ import static org.camunda.bpm.engine.impl.jobexecutor.TimerEventJobHandler.JOB_H
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +34,7 @@ import org.camunda.bpm.engine.impl.cfg.TransactionListener;
 import org.camunda.bpm.engine.impl.cfg.TransactionState;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.jobexecutor.ExclusiveJobAddedNotification;
+import org.camunda.bpm.engine.impl.jobexecutor.JobDueDateNotification;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
 import org.camunda.bpm.engine.impl.jobexecutor.MessageAddedNotification;
@@ -101,6 +103,11 @@ public class JobManager extends AbstractManager {
     if (duedate.getTime() < (ClockUtil.getCurrentTime().getTime() + waitTimeInMillis)) {
       hintJobExecutor(timer);
     }
+    else if (jobExecutor.isDueDateAwareAcquisition() && !timer.isSuspended()) {
+      Context.getCommandContext()
+        .getTransactionContext()
+        .addTransactionListener(TransactionState.COMMITTED, new JobDueDateNotification(jobExecutor, duedate));
+    }
   }
 
   protected void hintJobExecutor(JobEntity job) {
@@ -142,16 +149,7 @@ public class JobManager extends AbstractManager {
 
   @SuppressWarnings("unchecked")
   public List<JobEntity> findNextJobsToExecute(Page page) {
-    Map<String,Object> params = new HashMap<String, Object>();
-    Date now = ClockUtil.getCurrentTime();
-    params.put("now", now);
-    params.put("deploymentAware", Context.getProcessEngineConfiguration().isJobExecutorDeploymentAware());
-    if (Context.getProcessEngineConfiguration().isJobExecutorDeploymentAware()) {
-      Set<String> registeredDeployments = Context.getProcessEngineConfiguration().getRegisteredDeployments();
-      if (!registeredDeployments.isEmpty()) {
-        params.put("deploymentIds", registeredDeployments);
-      }
-    }
+    Map<String,Object> params = createJobAcquisitionParameters();
 
     List<QueryOrderingProperty> orderingProperties = new ArrayList<QueryOrderingProperty>();
     if (Context.getProcessEngineConfiguration().isJobExecutorAcquireByPriority()) {
@@ -171,6 +169,29 @@ public class JobManager extends AbstractManager {
     return getDbEntityManager().selectList("selectNextJobsToExecute", params, page);
   }
 
+  /**
+   * @return the earliest due date of the jobs which are not due yet but will be acquirable
+   *   once they are due, or null if there is no such job
+   */
+  public Date findNextJobDueDate() {
+    Map<String,Object> params = createJobAcquisitionParameters();
+    return (Date) getDbEntityManager().selectOne("selectNextJobDueDate", params);
+  }
+
+  protected Map<String, Object> createJobAcquisitionParameters() {
+    Map<String,Object> params = new HashMap<String, Object>();
+    Date now = ClockUtil.getCurrentTime();
+    params.put("now", now);
+    params.put("deploymentAware", Context.getProcessEngineConfiguration().isJobExecutorDeploymentAware());
+    if (Context.getProcessEngineConfiguration().isJobExecutorDeploymentAware()) {
+      Set<String> registeredDeployments = Context.getProcessEngineConfiguration().getRegisteredDeployments();
+      if (!registeredDeployments.isEmpty()) {
+        params.put("deploymentIds", registeredDeployments);
+      }
+    }
+    return params;
+  }
+
   @SuppressWarnings("unchecked")
   public List<JobEntity> findJobsByExecutionId(String executionId) {
     return getDbEntityManager().selectList("selectJobsByExecutionId", executionId);
@@ -189,6 +210,17 @@ public class JobManager extends AbstractManager {
     return getDbEntityManager().selectList("selectExclusiveJobsToExecute", params);
   }
 
+  /**
+   * Fetches the exclusive jobs to execute of all given process instances with a single query.
+   */
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findExclusiveJobsToExecute(Collection<String> processInstanceIds) {
+    Map<String,Object> params = new HashMap<String, Object>();
+    params.put("processInstanceIds", processInstanceIds);
+    params.put("now",ClockUtil.getCurrentTime());
+    return getDbEntityManager().selectList("selectExclusiveJobsToExecuteForProcessInstances", params);
+  }
+
 
   @SuppressWarnings("unchecked")
   public List<TimerEntity> findUnlockedTimersByDuedate(Date duedate, Page page) {
@@ -225,6 +257,19 @@ public class JobManager extends AbstractManager {
     return getDbEntityManager().selectList("selectJobsByConfiguration", params);
   }
 
+  /**
+   * @return the number of jobs of the given handler types whose configuration matches the given
+   *   pattern of a <code>like</code> expression. If noRetriesLeft is true, only failed jobs are counted.
+   */
+  public long findJobCountByHandlerTypesAndConfigurationLike(Collection<String> jobHandlerTypes, String jobHandlerConfigurationLike, boolean noRetriesLeft) {
+    Map<String, Object> params = new HashMap<String, Object>();
+    params.put("handlerTypes", jobHandlerTypes);
+    params.put("handlerConfigurationLike", jobHandlerConfigurationLike);
+    params.put("noRetriesLeft", noRetriesLeft);
+
+    return (Long) getDbEntityManager().selectOne("selectJobCountByHandlerTypesAndConfigurationLike", params);
+  }
+
   public long findJobCountByQueryCriteria(JobQueryImpl jobQuery) {
     getAuthorizationManager().configureJobQuery(jobQuery);
     return (Long) getDbEntityManager().selectOne("selectJobCountByQueryCriteria", jobQuery);
@@ -35,6 +35,12 @@ public class MeterLogEntity implements DbEntity, Serializable {
 
   protected long value;
 
+  /** the process definition key of a dimensional meter, null for a global meter */
+  protected String processDefinitionKey;
+
+  /** the activity type of a dimensional meter, null for a global meter */
+  protected String activityType;
+
   public MeterLogEntity(String name, long value, Date timestamp) {
     this(name, null, value, timestamp);
   }
@@ -46,6 +52,12 @@ public class MeterLogEntity implements DbEntity, Serializable {
     this.timestamp = timestamp;
   }
 
+  public MeterLogEntity(String name, String reporter, String processDefinitionKey, String activityType, long value, Date timestamp) {
+    this(name, reporter, value, timestamp);
+    this.processDefinitionKey = processDefinitionKey;
+    this.activityType = activityType;
+  }
+
   public MeterLogEntity() {
   }
 
@@ -89,6 +101,22 @@ public class MeterLogEntity implements DbEntity, Serializable {
     this.reporter = reporter;
   }
 
+  public String getProcessDefinitionKey() {
+    return processDefinitionKey;
+  }
+
+  public void setProcessDefinitionKey(String processDefinitionKey) {
+    this.processDefinitionKey = processDefinitionKey;
+  }
+
+  public String getActivityType() {
+    return activityType;
+  }
+
+  public void setActivityType(String activityType) {
+    this.activityType = activityType;
+  }
+
   public Object getPersistentState() {
     // immutable
     return MeterLogEntity.class;
@@ -12,15 +12,25 @@
  */
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.metrics.DimensionalMeter;
 import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.impl.metrics.MetricsGroupImpl;
 import org.camunda.bpm.engine.impl.metrics.MetricsQueryImpl;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.management.MetricsGroup;
 
 /**
  * @author Daniel Meyer
@@ -33,23 +43,85 @@ public class MeterLogManager extends AbstractManager {
      .insert(meterLogEntity);
   }
 
+  /**
+   * Inserts the given meter logs. The inserts are flushed together and sent to the
+   * database as a single JDBC batch if JDBC batch processing is enabled.
+   */
+  public void insertAll(List<MeterLogEntity> meterLogEntities) {
+    for (MeterLogEntity meterLogEntity : meterLogEntities) {
+      insert(meterLogEntity);
+    }
+  }
+
   public Long executeSelectSum(MetricsQueryImpl query) {
     Long result = (Long) getDbEntityManager().selectOne("selectMeterLogSum", query);
     result = result != null ? result : 0;
 
     if(shouldAddCurrentUnloggedCount(query)) {
       // add current unlogged count
-      Meter meter = Context.getProcessEngineConfiguration()
-        .getMetricsRegistry()
-        .getMeterByName(query.getName());
-      if(meter != null) {
-        result += meter.get();
+      MetricsRegistry metricsRegistry = Context.getProcessEngineConfiguration().getMetricsRegistry();
+      if (query.isDimensional()) {
+        for (DimensionalMeter meter : metricsRegistry.getDimensionalMeters()) {
+          if (query.matches(meter)) {
+            result += meter.get();
+          }
+        }
+      }
+      else {
+        Meter meter = metricsRegistry.getMeterByName(query.getName());
+        if(meter != null) {
+          result += meter.get();
+        }
       }
     }
 
     return result;
   }
 
+  @SuppressWarnings("unchecked")
+  public List<MetricsGroup> executeSelectGroupedSum(MetricsQueryImpl query) {
+    List<MetricsGroupImpl> loggedGroups = getDbEntityManager()
+      .selectListWithRawParameter("selectMeterLogGroupedSum", query, 0, Integer.MAX_VALUE);
+
+    Map<List<String>, MetricsGroupImpl> groups = new LinkedHashMap<List<String>, MetricsGroupImpl>();
+    for (MetricsGroupImpl group : loggedGroups) {
+      // the sum over no rows is returned as a row of null values
+      if (group != null) {
+        groups.put(Arrays.asList(group.getProcessDefinitionKey(), group.getActivityType()), group);
+      }
+    }
+
+    if(shouldAddCurrentUnloggedCount(query)) {
+      // add current unlogged counts
+      MetricsRegistry metricsRegistry = Context.getProcessEngineConfiguration().getMetricsRegistry();
+      for (DimensionalMeter meter : metricsRegistry.getDimensionalMeters()) {
+        long value = meter.get();
+        if (value > 0 && query.matches(meter)) {
+          String processDefinitionKey = query.isGroupByProcessDefinitionKey() ? meter.getProcessDefinitionKey() : null;
+          String activityType = query.isGroupByActivityType() ? meter.getActivityType() : null;
+          List<String> dimensions = Arrays.asList(processDefinitionKey, activityType);
+
+          MetricsGroupImpl group = groups.get(dimensions);
+          if (group == null) {
+            group = new MetricsGroupImpl(processDefinitionKey, activityType, 0);
+            groups.put(dimensions, group);
+          }
+          group.setSum(group.getSum() + value);
+        }
+      }
+    }
+
+    List<MetricsGroup> result = new ArrayList<MetricsGroup>(groups.values());
+    Collections.sort(result, new Comparator<MetricsGroup>() {
+      public int compare(MetricsGroup group1, MetricsGroup group2) {
+        long sum1 = group1.getSum();
+        long sum2 = group2.getSum();
+        return sum1 > sum2 ? -1 : (sum1 == sum2 ? 0 : 1);
+      }
+    });
+    return result;
+  }
+
   protected boolean shouldAddCurrentUnloggedCount(MetricsQueryImpl query) {
 
     long reportingIntervalInSeconds = Context.getProcessEngineConfiguration()
@@ -32,4 +32,9 @@ public class PropertyManager extends AbstractManager {
 
   }
 
+  public void acquireAuthorizationIndexLock() {
+    // serializes the maintenance of the authorization index
+    getDbEntityManager().lock("lockAuthorizationIndexLockProperty");
+  }
+
 }
@@ -57,6 +57,8 @@ import org.camunda.bpm.engine.task.DelegationState;
 import org.camunda.bpm.engine.task.IdentityLink;
 import org.camunda.bpm.engine.task.IdentityLinkType;
 import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.task.TaskQuery;
+import org.camunda.bpm.engine.variable.VariableMap;
 import org.camunda.bpm.model.bpmn.BpmnModelInstance;
 import org.camunda.bpm.model.bpmn.instance.UserTask;
 import org.camunda.bpm.model.xml.instance.ModelElementInstance;
@@ -123,6 +125,9 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   protected boolean isFormKeyInitialized = false;
   protected String formKey;
 
+  /** the variables fetched by a task query, see {@link TaskQuery#withVariables(String...)} */
+  protected VariableMap fetchedVariables;
+
   protected transient AbstractPersistentVariableStore variableStore;
 
   protected transient boolean skipCustomListeners = false;
@@ -418,10 +423,21 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   }
 
   protected List<VariableInstanceEntity> loadVariableInstances() {
-    return Context
-      .getCommandContext()
-      .getVariableInstanceManager()
-      .findVariableInstancesByTaskId(id);
+    VariableInstanceManager variableInstanceManager = Context.getCommandContext().getVariableInstanceManager();
+
+    if (Context.getProcessEngineConfiguration().isVariablePrefetchEnabled() && processInstanceId != null) {
+      List<VariableInstanceEntity> variableInstances = variableInstanceManager.prefetchVariableInstancesByProcessInstanceId(processInstanceId);
+
+      List<VariableInstanceEntity> taskVariableInstances = new ArrayList<VariableInstanceEntity>();
+      for (VariableInstanceEntity variableInstance : variableInstances) {
+        if (id.equals(variableInstance.getTaskId())) {
+          taskVariableInstances.add(variableInstance);
+        }
+      }
+      return taskVariableInstances;
+    }
+
+    return variableInstanceManager.findVariableInstancesByTaskId(id);
   }
 
   @Override
@@ -1054,6 +1070,14 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
     return formKey;
   }
 
+  public VariableMap getFetchedVariables() {
+    return fetchedVariables;
+  }
+
+  public void setFetchedVariables(VariableMap fetchedVariables) {
+    this.fetchedVariables = fetchedVariables;
+  }
+
   public void setProcessDefinitionId(String processDefinitionId) {
     this.processDefinitionId = processDefinitionId;
   }
@@ -13,6 +13,7 @@
 package org.camunda.bpm.engine.impl.persistence.entity;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.camunda.bpm.engine.EntityTypes;
@@ -55,6 +56,10 @@ public class UserOperationLogManager extends AbstractHistoricManager {
     getDbEntityManager().delete(UserOperationLogEntryEventEntity.class, "deleteUserOperationLogEntriesByProcessInstanceId", historicProcessInstanceId);
   }
 
+  public void deleteOperationLogEntriesByProcessInstanceIds(List<String> processInstanceIds) {
+    getDbEntityManager().delete(UserOperationLogEntryEventEntity.class, "deleteUserOperationLogEntriesByProcessInstanceIds", Collections.singletonMap("processInstanceIds", processInstanceIds));
+  }
+
   public void deleteOperationLogEntriesByCaseInstanceId(String caseInstanceId) {
     getDbEntityManager().delete(UserOperationLogEntryEventEntity.class, "deleteUserOperationLogEntriesByCaseInstanceId", caseInstanceId);
   }
@@ -26,6 +26,7 @@ import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.persistence.entity.util.ByteArrayField;
 import org.camunda.bpm.engine.impl.persistence.entity.util.TypedValueField;
+import org.camunda.bpm.engine.impl.runtime.CorrelationIndex;
 import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
 import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
 import org.camunda.bpm.engine.runtime.VariableInstance;
@@ -91,6 +92,9 @@ public class VariableInstanceEntity implements VariableInstance, CoreVariableIns
    */
   protected boolean isConcurrentLocal = false;
 
+  /** the key of the value in the correlation index, see {@link CorrelationIndex} */
+  protected String correlationKey;
+
   // Default constructor for SQL mapping
   public VariableInstanceEntity() {
   }
@@ -155,6 +159,9 @@ public class VariableInstanceEntity implements VariableInstance, CoreVariableIns
 
     persistentState.put("sequenceCounter", getSequenceCounter());
     persistentState.put("concurrentLocal", isConcurrentLocal);
+    if (correlationKey != null) {
+      persistentState.put("correlationKey", correlationKey);
+    }
 
     return persistentState;
   }
@@ -225,7 +232,22 @@ public class VariableInstanceEntity implements VariableInstance, CoreVariableIns
     // clear value fields
     clearValueFields();
 
-    return typedValueField.setValue(value);
+    TypedValue typedValue = typedValueField.setValue(value);
+    updateCorrelationKey();
+
+    return typedValue;
+  }
+
+  /**
+   * Recalculates the key of the value in the correlation index.
+   */
+  public void updateCorrelationKey() {
+    if (CorrelationIndex.isIndexed(name)) {
+      correlationKey = CorrelationIndex.getKey(typedValueField.getSerializerName(), this);
+    }
+    else {
+      correlationKey = null;
+    }
   }
 
   public void clearValueFields() {
@@ -419,6 +441,14 @@ public class VariableInstanceEntity implements VariableInstance, CoreVariableIns
   }
 
 
+  public String getCorrelationKey() {
+    return correlationKey;
+  }
+
+  public void setCorrelationKey(String correlationKey) {
+    this.correlationKey = correlationKey;
+  }
+
   public boolean isConcurrentLocal() {
     return isConcurrentLocal;
   }
@@ -13,13 +13,27 @@
 
 package org.camunda.bpm.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.camunda.bpm.engine.impl.Direction;
 import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.QueryOrderingProperty;
+import org.camunda.bpm.engine.impl.QueryPropertyImpl;
 import org.camunda.bpm.engine.impl.VariableInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.cmmn.entity.runtime.CaseExecutionEntity;
 import org.camunda.bpm.engine.impl.core.variable.CoreVariableInstance;
+import org.camunda.bpm.engine.impl.core.variable.VariableMapImpl;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.impl.runtime.CorrelationIndex;
+import org.camunda.bpm.engine.impl.runtime.CorrelationIndexEntry;
+import org.camunda.bpm.engine.impl.util.CollectionUtil;
 import org.camunda.bpm.engine.runtime.VariableInstance;
 
 
@@ -28,6 +42,15 @@ import org.camunda.bpm.engine.runtime.VariableInstance;
  */
 public class VariableInstanceManager extends AbstractManager {
 
+  /** the maximum number of elements of an in-list, which is limited on some databases */
+  protected static final int MAX_IN_LIST_SIZE = 1000;
+
+  protected static final QueryOrderingProperty ID_ORDERING_PROPERTY = new QueryOrderingProperty(null, new QueryPropertyImpl("ID_"));
+
+  static {
+    ID_ORDERING_PROPERTY.setDirection(Direction.ASCENDING);
+  }
+
   @SuppressWarnings("unchecked")
   public List<VariableInstanceEntity> findVariableInstancesByTaskId(String taskId) {
     return getDbEntityManager().selectList("selectVariablesByTaskId", taskId);
@@ -38,6 +61,294 @@ public class VariableInstanceManager extends AbstractManager {
     return getDbEntityManager().selectList("selectVariablesByExecutionId", executionId);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<VariableInstanceEntity> findVariableInstancesByProcessInstanceId(String processInstanceId) {
+    return getDbEntityManager().selectList("selectVariablesByProcessInstanceId", processInstanceId);
+  }
+
+  /**
+   * Fetches the variables of all executions and tasks of the process instance with one query.
+   * The executions and tasks of the process instance which are already loaded but have not
+   * initialized their variables yet get their variables assigned.
+   *
+   * @return all variables of the process instance
+   */
+  public List<VariableInstanceEntity> prefetchVariableInstancesByProcessInstanceId(String processInstanceId) {
+    List<VariableInstanceEntity> variableInstances = findVariableInstancesByProcessInstanceId(processInstanceId);
+
+    Map<String, Map<String, VariableInstanceEntity>> executionVariables = new HashMap<String, Map<String, VariableInstanceEntity>>();
+    Map<String, Map<String, VariableInstanceEntity>> taskVariables = new HashMap<String, Map<String, VariableInstanceEntity>>();
+
+    for (VariableInstanceEntity variableInstance : variableInstances) {
+      if (variableInstance.getTaskId() != null) {
+        addVariableInstance(taskVariables, variableInstance.getTaskId(), variableInstance);
+      }
+      else {
+        addVariableInstance(executionVariables, variableInstance.getExecutionId(), variableInstance);
+      }
+    }
+
+    DbEntityManager dbEntityManager = getDbEntityManager();
+
+    for (ExecutionEntity execution : dbEntityManager.getCachedEntitiesByType(ExecutionEntity.class)) {
+      if (processInstanceId.equals(execution.getProcessInstanceId())
+          && execution.variableStore.getVariableInstancesDirect() == null) {
+        execution.variableStore.setVariableInstances(getVariableInstances(executionVariables, execution.getId()));
+      }
+    }
+
+    for (TaskEntity task : dbEntityManager.getCachedEntitiesByType(TaskEntity.class)) {
+      if (processInstanceId.equals(task.getProcessInstanceId())
+          && task.variableStore.getVariableInstancesDirect() == null) {
+        task.variableStore.setVariableInstances(getVariableInstances(taskVariables, task.getId()));
+      }
+    }
+
+    return variableInstances;
+  }
+
+  protected void addVariableInstance(Map<String, Map<String, VariableInstanceEntity>> variablesByScope, String scopeId, VariableInstanceEntity variableInstance) {
+    Map<String, VariableInstanceEntity> variables = variablesByScope.get(scopeId);
+    if (variables == null) {
+      variables = new HashMap<String, VariableInstanceEntity>();
+      variablesByScope.put(scopeId, variables);
+    }
+    variables.put(variableInstance.getName(), variableInstance);
+  }
+
+  protected Map<String, VariableInstanceEntity> getVariableInstances(Map<String, Map<String, VariableInstanceEntity>> variablesByScope, String scopeId) {
+    Map<String, VariableInstanceEntity> variables = variablesByScope.get(scopeId);
+    if (variables == null) {
+      variables = new HashMap<String, VariableInstanceEntity>();
+    }
+    return variables;
+  }
+
+  /**
+   * Fetches the variables with the given names which are visible from the given tasks with
+   * one query per thousand tasks and attaches them to the tasks, see {@link TaskEntity#getFetchedVariables()}.
+   * Like for {@link TaskEntity#getVariables()}, local variables of a task hide variables with
+   * the same name of its execution or case execution and their parents.
+   */
+  public void fetchTaskVariables(List<TaskEntity> tasks, List<String> variableNames) {
+    if (tasks.isEmpty()) {
+      return;
+    }
+    if (tasks.size() > MAX_IN_LIST_SIZE) {
+      for (List<TaskEntity> partition : CollectionUtil.partition(tasks, MAX_IN_LIST_SIZE)) {
+        fetchTaskVariables(partition, variableNames);
+      }
+      return;
+    }
+
+    List<String> taskIds = new ArrayList<String>();
+    Set<String> processInstanceIds = new LinkedHashSet<String>();
+    Set<String> caseInstanceIds = new LinkedHashSet<String>();
+
+    for (TaskEntity task : tasks) {
+      taskIds.add(task.getId());
+      if (task.getProcessInstanceId() != null) {
+        processInstanceIds.add(task.getProcessInstanceId());
+      }
+      if (task.getCaseInstanceId() != null) {
+        caseInstanceIds.add(task.getCaseInstanceId());
+      }
+    }
+
+    List<VariableInstanceEntity> variableInstances = findVariableInstancesByScopeIdsAndNames(variableNames,
+        taskIds, new ArrayList<String>(), new ArrayList<String>(processInstanceIds), new ArrayList<String>(caseInstanceIds));
+
+    Map<String, Map<String, VariableInstanceEntity>> taskVariables = new HashMap<String, Map<String, VariableInstanceEntity>>();
+    Map<String, Map<String, VariableInstanceEntity>> executionVariables = new HashMap<String, Map<String, VariableInstanceEntity>>();
+    Map<String, Map<String, VariableInstanceEntity>> caseExecutionVariables = new HashMap<String, Map<String, VariableInstanceEntity>>();
+    boolean hasExecutionTreeVariables = false;
+    boolean hasCaseExecutionTreeVariables = false;
+
+    for (VariableInstanceEntity variableInstance : variableInstances) {
+      if (variableInstance.getTaskId() != null) {
+        addVariableInstance(taskVariables, variableInstance.getTaskId(), variableInstance);
+      }
+      else if (variableInstance.getExecutionId() != null) {
+        addVariableInstance(executionVariables, variableInstance.getExecutionId(), variableInstance);
+        hasExecutionTreeVariables |= !variableInstance.getExecutionId().equals(variableInstance.getProcessInstanceId());
+      }
+      else if (variableInstance.getCaseExecutionId() != null) {
+        addVariableInstance(caseExecutionVariables, variableInstance.getCaseExecutionId(), variableInstance);
+        hasCaseExecutionTreeVariables |= !variableInstance.getCaseExecutionId().equals(variableInstance.getCaseInstanceId());
+      }
+    }
+
+    // the parents of the executions are only needed if variables are not set on the process or case instance
+    Map<String, String> parentIds = new HashMap<String, String>();
+    if (hasExecutionTreeVariables) {
+      for (ExecutionEntity execution : getProcessInstanceManager().findExecutionsByProcessInstanceIds(new ArrayList<String>(processInstanceIds))) {
+        parentIds.put(execution.getId(), execution.getParentId());
+      }
+    }
+    if (hasCaseExecutionTreeVariables) {
+      for (CaseExecutionEntity caseExecution : getCaseExecutionManager().findCaseExecutionsByCaseInstanceIds(new ArrayList<String>(caseInstanceIds))) {
+        parentIds.put(caseExecution.getId(), caseExecution.getParentId());
+      }
+    }
+
+    for (TaskEntity task : tasks) {
+      VariableMapImpl variables = new VariableMapImpl();
+      collectVariables(variables, taskVariables.get(task.getId()));
+      if (task.getExecutionId() != null) {
+        collectScopeVariables(variables, executionVariables, parentIds, task.getExecutionId(), task.getProcessInstanceId());
+      }
+      else if (task.getCaseExecutionId() != null) {
+        collectScopeVariables(variables, caseExecutionVariables, parentIds, task.getCaseExecutionId(), task.getCaseInstanceId());
+      }
+      task.setFetchedVariables(variables);
+    }
+  }
+
+  /**
+   * Fetches the variables with the given names of the given process instances with one query
+   * per thousand process instances and attaches them to the process instances, see {@link ExecutionEntity#getFetchedVariables()}.
+   */
+  public void fetchProcessInstanceVariables(List<ExecutionEntity> processInstances, List<String> variableNames) {
+    if (processInstances.isEmpty()) {
+      return;
+    }
+    if (processInstances.size() > MAX_IN_LIST_SIZE) {
+      for (List<ExecutionEntity> partition : CollectionUtil.partition(processInstances, MAX_IN_LIST_SIZE)) {
+        fetchProcessInstanceVariables(partition, variableNames);
+      }
+      return;
+    }
+
+    List<String> processInstanceIds = new ArrayList<String>();
+    for (ExecutionEntity processInstance : processInstances) {
+      processInstanceIds.add(processInstance.getId());
+    }
+
+    List<VariableInstanceEntity> variableInstances = findVariableInstancesByScopeIdsAndNames(variableNames,
+        new ArrayList<String>(), processInstanceIds, new ArrayList<String>(), new ArrayList<String>());
+
+    Map<String, Map<String, VariableInstanceEntity>> executionVariables = new HashMap<String, Map<String, VariableInstanceEntity>>();
+    for (VariableInstanceEntity variableInstance : variableInstances) {
+      addVariableInstance(executionVariables, variableInstance.getExecutionId(), variableInstance);
+    }
+
+    for (ExecutionEntity processInstance : processInstances) {
+      VariableMapImpl variables = new VariableMapImpl();
+      collectVariables(variables, executionVariables.get(processInstance.getId()));
+      processInstance.setFetchedVariables(variables);
+    }
+  }
+
+  /**
+   * Recalculates the keys of the correlation index of one page of variables, ordered by id.
+   * The variables with the given names get a key, the keys of all other variables are removed.
+   *
+   * <p>The keys are updated in bulk without incrementing the revision of the variables, so
+   * that concurrent updates of the variables do not fail. A variable whose revision changed
+   * since it was selected is skipped, since its key was recalculated by the update.</p>
+   *
+   * @param afterId the id of the last variable of the previous page or null for the first page
+   * @return the id of the last variable of the page or null if there is no further page
+   */
+  @SuppressWarnings("unchecked")
+  public String rebuildCorrelationIndex(Set<String> variableNames, String afterId, int maxResults) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("variableNames", new ArrayList<String>(variableNames));
+    parameters.put("afterId", afterId);
+    parameters.put("orderingProperties", Collections.singletonList(ID_ORDERING_PROPERTY));
+
+    List<VariableInstanceEntity> variableInstances = getDbEntityManager()
+        .selectList("selectVariablesForCorrelationIndex", parameters, new Page(0, maxResults));
+
+    for (VariableInstanceEntity variableInstance : variableInstances) {
+      String correlationKey = null;
+      if (variableNames.contains(variableInstance.getName())) {
+        correlationKey = CorrelationIndex.getKey(variableInstance.getSerializerName(), variableInstance);
+      }
+
+      if (!equals(correlationKey, variableInstance.getCorrelationKey())) {
+        Map<String, Object> updateParameters = new HashMap<String, Object>();
+        updateParameters.put("id", variableInstance.getId());
+        updateParameters.put("revision", variableInstance.getRevision());
+        updateParameters.put("correlationKey", correlationKey);
+
+        getDbEntityManager().update(VariableInstanceEntity.class, "updateVariableCorrelationKey", updateParameters);
+      }
+    }
+
+    if (variableInstances.size() < maxResults) {
+      return null;
+    }
+    else {
+      return variableInstances.get(variableInstances.size() - 1).getId();
+    }
+  }
+
+  protected static boolean equals(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  /**
+   * Selects the process instances which have a variable with the given name and one of
+   * the given keys in the correlation index.
+   */
+  @SuppressWarnings("unchecked")
+  public List<CorrelationIndexEntry> findCorrelationIndexEntries(String variableName, List<String> keys) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("variableName", variableName);
+    parameters.put("keys", keys);
+
+    return getDbEntityManager().selectList("selectCorrelationIndexEntries", parameters);
+  }
+
+  /**
+   * Selects the variables with the given names which are local to one of the given tasks,
+   * executions, process instances or case instances. Variables of process instances and case
+   * instances include the variables of all their executions but not the local task variables.
+   */
+  @SuppressWarnings("unchecked")
+  protected List<VariableInstanceEntity> findVariableInstancesByScopeIdsAndNames(List<String> variableNames, List<String> taskIds,
+      List<String> executionIds, List<String> processInstanceIds, List<String> caseInstanceIds) {
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("variableNames", variableNames);
+    parameters.put("taskIds", taskIds);
+    parameters.put("executionIds", executionIds);
+    parameters.put("processInstanceIds", processInstanceIds);
+    parameters.put("caseInstanceIds", caseInstanceIds);
+
+    return getDbEntityManager().selectList("selectVariablesByScopeIdsAndNames", parameters);
+  }
+
+  /**
+   * Collects the variables of the scope and its parents. Scopes without a known parent
+   * continue with the root scope, which is sufficient if only variables of the root scope
+   * and the scope itself exist.
+   */
+  protected void collectScopeVariables(VariableMapImpl variables, Map<String, Map<String, VariableInstanceEntity>> variablesByScope,
+      Map<String, String> parentIds, String scopeId, String rootScopeId) {
+
+    while (scopeId != null) {
+      collectVariables(variables, variablesByScope.get(scopeId));
+
+      if (scopeId.equals(rootScopeId)) {
+        break;
+      }
+      String parentId = parentIds.get(scopeId);
+      scopeId = parentId != null ? parentId : rootScopeId;
+    }
+  }
+
+  protected void collectVariables(VariableMapImpl variables, Map<String, VariableInstanceEntity> scopeVariables) {
+    if (scopeVariables != null) {
+      for (VariableInstanceEntity variableInstance : scopeVariables.values()) {
+        if (!variables.containsKey(variableInstance.getName())) {
+          variables.put(variableInstance.getName(), variableInstance.getTypedValue(true));
+        }
+      }
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public List<VariableInstanceEntity> findVariableInstancesByCaseExecutionId(String caseExecutionId) {
     return getDbEntityManager().selectList("selectVariablesByCaseExecutionId", caseExecutionId);
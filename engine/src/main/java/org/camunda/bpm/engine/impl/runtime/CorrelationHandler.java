@@ -46,4 +46,17 @@ public interface CorrelationHandler {
    */
   public List<MessageCorrelationResult> correlateMessages(CommandContext commandContext, String messageName, CorrelationSet correlationSet);
 
+  /**
+   * Correlate each of the given messages and return the executions that match it or, if no execution
+   * matches, the process definition that matches it. Unlike {@link #correlateMessage(CommandContext, String, CorrelationSet)},
+   * the correlations of all messages should be resolved together with as few queries as possible.
+   * The {@link List} of a message is empty if the message could not be correlated.
+   *
+   * @param commandContext
+   * @param messageNames the names of the messages, any of them may be <code>null</code>
+   * @param correlationSets the correlation sets of the messages in the order of the message names
+   * @return the {@link MessageCorrelationResult}s of each message in the order of the message names
+   */
+  public List<List<MessageCorrelationResult>> correlateMessagesInBatch(CommandContext commandContext, List<String> messageNames, List<CorrelationSet> correlationSets);
+
 }
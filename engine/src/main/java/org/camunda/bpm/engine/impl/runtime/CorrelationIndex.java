@@ -0,0 +1,167 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.runtime;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.QueryOperator;
+import org.camunda.bpm.engine.impl.QueryVariableValue;
+import org.camunda.bpm.engine.impl.SingleQueryVariableValueCondition;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
+import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
+
+/**
+ * <p>Computes the keys of the correlation index. The index holds a key for each variable
+ * whose name is contained in the {@link ProcessEngineConfigurationImpl#getCorrelationIndexKeys()
+ * correlation index keys} of the process engine configuration. The key is stored together
+ * with the variable, so it is updated and deleted with the variable.</p>
+ *
+ * <p>Two values have the same key if and only if a <code>variableValueEquals</code> query
+ * for the one value matches the other value. Values which are stored in a byte array
+ * (e.g. serialized objects) have no key.</p>
+ */
+public class CorrelationIndex {
+
+  /** the maximum length of a key, longer keys are replaced by a hash of the value */
+  public static final int MAX_KEY_LENGTH = 255;
+
+  protected static final String NULL_KEY = "null";
+
+  /**
+   * @return true if the variable with the given name is maintained in the correlation index
+   */
+  public static boolean isIndexed(String variableName) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration == null || variableName == null) {
+      return false;
+    }
+
+    Set<String> correlationIndexKeys = processEngineConfiguration.getCorrelationIndexKeys();
+    return correlationIndexKeys != null && correlationIndexKeys.contains(variableName);
+  }
+
+  /**
+   * @return the key of the given variable value or null if the value cannot be indexed
+   */
+  public static String getKey(String type, ValueFields valueFields) {
+    if (valueFields.getByteArrayValueId() != null) {
+      return null;
+    }
+
+    if (valueFields.getTextValue() == null && valueFields.getTextValue2() == null
+        && valueFields.getLongValue() == null && valueFields.getDoubleValue() == null) {
+      // a null value matches regardless of the type
+      return NULL_KEY;
+    }
+
+    return createKey(type, valueFields);
+  }
+
+  /**
+   * Returns the keys of the values which are equal to the given value. The value
+   * matches a variable if the key of the variable is one of the returned keys.
+   *
+   * @return the keys or null if the value cannot be looked up in the index
+   */
+  public static List<String> getQueryKeys(String variableName, Object value, VariableSerializers serializers) {
+    QueryVariableValue queryValue = new QueryVariableValue(variableName, value, QueryOperator.EQUALS, false);
+    try {
+      queryValue.initialize(serializers);
+    }
+    catch (ProcessEngineException e) {
+      // the value cannot be used to query
+      return null;
+    }
+
+    List<SingleQueryVariableValueCondition> conditions = queryValue.getValueConditions();
+    List<String> keys = new ArrayList<String>(conditions.size());
+
+    for (SingleQueryVariableValueCondition condition : conditions) {
+      if (condition.getTextValue() == null && condition.getTextValue2() == null
+          && condition.getLongValue() == null && condition.getDoubleValue() == null) {
+
+        if (!NULL_KEY.equals(condition.getType())) {
+          // a typed null value has no equivalent in the index
+          return null;
+        }
+        keys.add(NULL_KEY);
+      }
+      else {
+        keys.add(createKey(condition.getType(), condition));
+      }
+    }
+
+    return keys;
+  }
+
+  protected static String createKey(String type, ValueFields valueFields) {
+    StringBuilder key = new StringBuilder(type).append(':');
+
+    // the text of numeric values is ignored by variable queries
+    if (valueFields.getLongValue() != null || valueFields.getDoubleValue() != null) {
+      key.append('n');
+      if (valueFields.getLongValue() != null) {
+        key.append(':').append(valueFields.getLongValue());
+      }
+      if (valueFields.getDoubleValue() != null) {
+        // 0.0 and -0.0 are equal
+        key.append(':').append(valueFields.getDoubleValue().doubleValue() + 0.0d);
+      }
+    }
+    else {
+      String text = valueFields.getTextValue();
+      key.append('t');
+      if (text != null) {
+        // the length separates the text from the second text
+        key.append(':').append(text.length()).append(':').append(text);
+      }
+      if (valueFields.getTextValue2() != null) {
+        key.append(':').append(valueFields.getTextValue2());
+      }
+    }
+
+    if (key.length() > MAX_KEY_LENGTH) {
+      return type + ":h:" + hash(key.toString());
+    }
+    else {
+      return key.toString();
+    }
+  }
+
+  protected static String hash(String value) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes("UTF-8"));
+
+      StringBuilder hex = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new ProcessEngineException("Cannot compute the correlation key", e);
+    }
+    catch (UnsupportedEncodingException e) {
+      throw new ProcessEngineException("Cannot compute the correlation key", e);
+    }
+  }
+
+}
@@ -14,8 +14,12 @@
 package org.camunda.bpm.engine.impl.runtime;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,6 +31,8 @@ import org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache;
 import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.MessageEventSubscriptionEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceManager;
+import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
 import org.camunda.bpm.engine.runtime.Execution;
 
 /**
@@ -38,6 +44,8 @@ public class DefaultCorrelationHandler implements CorrelationHandler {
 
   private final static Logger LOGGER = Logger.getLogger(DefaultCorrelationHandler.class.getName());
 
+  protected static final int MAX_IN_LIST_SIZE = 1000;
+
   public MessageCorrelationResult correlateMessage(CommandContext commandContext, String messageName, CorrelationSet correlationSet) {
 
     // first try to correlate to execution
@@ -71,6 +79,200 @@ public class DefaultCorrelationHandler implements CorrelationHandler {
     return result;
   }
 
+  public List<List<MessageCorrelationResult>> correlateMessagesInBatch(CommandContext commandContext, List<String> messageNames,
+      List<CorrelationSet> correlationSets) {
+
+    List<Set<String>> candidateProcessInstanceIds = findCandidateProcessInstanceIds(commandContext, correlationSets);
+    Map<String, Map<String, List<ExecutionEntity>>> waitingExecutions = findWaitingExecutions(commandContext, messageNames, candidateProcessInstanceIds);
+
+    // the correlations to process definitions only depend on the message name
+    Map<String, MessageCorrelationResult> processDefinitionCorrelations = new HashMap<String, MessageCorrelationResult>();
+
+    List<List<MessageCorrelationResult>> result = new ArrayList<List<MessageCorrelationResult>>(correlationSets.size());
+
+    for (int i = 0; i < correlationSets.size(); i++) {
+      String messageName = messageNames.get(i);
+      CorrelationSet correlationSet = correlationSets.get(i);
+      Set<String> processInstanceIds = candidateProcessInstanceIds.get(i);
+
+      List<MessageCorrelationResult> correlations;
+      if (processInstanceIds != null) {
+        correlations = new ArrayList<MessageCorrelationResult>();
+        Map<String, List<ExecutionEntity>> executionsByProcessInstanceId = waitingExecutions.get(messageName);
+        for (String processInstanceId : processInstanceIds) {
+          List<ExecutionEntity> executions = executionsByProcessInstanceId.get(processInstanceId);
+          if (executions != null) {
+            for (ExecutionEntity execution : executions) {
+              correlations.add(MessageCorrelationResult.matchedExecution(execution));
+            }
+          }
+        }
+      }
+      else {
+        // the correlation set cannot be resolved together with the others
+        correlations = correlateMessageToExecutions(commandContext, messageName, correlationSet);
+      }
+
+      if (correlations.isEmpty()) {
+        if (!processDefinitionCorrelations.containsKey(messageName)) {
+          processDefinitionCorrelations.put(messageName, tryCorrelateMessageToProcessDefinition(commandContext, messageName, correlationSet));
+        }
+        MessageCorrelationResult processDefinitionCorrelation = processDefinitionCorrelations.get(messageName);
+        if (processDefinitionCorrelation != null) {
+          correlations.add(processDefinitionCorrelation);
+        }
+      }
+
+      result.add(correlations);
+    }
+
+    return result;
+  }
+
+  /**
+   * Determines the process instances each correlation set can match. Correlation sets which consist
+   * of a process instance id or of a single indexed correlation key are resolved with one lookup in the
+   * correlation index per variable name. The candidates of other correlation sets are <code>null</code>.
+   */
+  protected List<Set<String>> findCandidateProcessInstanceIds(CommandContext commandContext, List<CorrelationSet> correlationSets) {
+    VariableSerializers serializers = commandContext.getProcessEngineConfiguration().getVariableSerializers();
+
+    List<Set<String>> candidates = new ArrayList<Set<String>>(correlationSets.size());
+    List<List<String>> indexKeys = new ArrayList<List<String>>(correlationSets.size());
+    Map<String, Set<String>> indexKeysByVariableName = new HashMap<String, Set<String>>();
+
+    for (CorrelationSet correlationSet : correlationSets) {
+      Set<String> processInstanceIds = null;
+      List<String> keys = null;
+
+      Map<String, Object> correlationKeys = correlationSet.getCorrelationKeys();
+      boolean hasCorrelationKeys = correlationKeys != null && !correlationKeys.isEmpty();
+
+      if (correlationSet.getBusinessKey() == null) {
+        if (correlationSet.getProcessInstanceId() != null && !hasCorrelationKeys) {
+          processInstanceIds = Collections.singleton(correlationSet.getProcessInstanceId());
+        }
+        else if (correlationSet.getProcessInstanceId() == null && hasCorrelationKeys && correlationKeys.size() == 1) {
+          Map.Entry<String, Object> correlationKey = correlationKeys.entrySet().iterator().next();
+          if (CorrelationIndex.isIndexed(correlationKey.getKey())) {
+            keys = CorrelationIndex.getQueryKeys(correlationKey.getKey(), correlationKey.getValue(), serializers);
+          }
+          if (keys != null) {
+            processInstanceIds = new HashSet<String>();
+            getOrCreate(indexKeysByVariableName, correlationKey.getKey()).addAll(keys);
+          }
+        }
+      }
+
+      candidates.add(processInstanceIds);
+      indexKeys.add(keys);
+    }
+
+    // process instance ids by variable name and key
+    Map<String, Map<String, Set<String>>> indexEntries = new HashMap<String, Map<String, Set<String>>>();
+    VariableInstanceManager variableInstanceManager = commandContext.getVariableInstanceManager();
+
+    for (Map.Entry<String, Set<String>> variableKeys : indexKeysByVariableName.entrySet()) {
+      Map<String, Set<String>> processInstanceIdsByKey = new HashMap<String, Set<String>>();
+      for (List<String> keys : split(new ArrayList<String>(variableKeys.getValue()))) {
+        for (CorrelationIndexEntry entry : variableInstanceManager.findCorrelationIndexEntries(variableKeys.getKey(), keys)) {
+          getOrCreate(processInstanceIdsByKey, entry.getKey()).add(entry.getProcessInstanceId());
+        }
+      }
+      indexEntries.put(variableKeys.getKey(), processInstanceIdsByKey);
+    }
+
+    for (int i = 0; i < correlationSets.size(); i++) {
+      List<String> keys = indexKeys.get(i);
+      if (keys != null) {
+        String variableName = correlationSets.get(i).getCorrelationKeys().keySet().iterator().next();
+        Map<String, Set<String>> processInstanceIdsByKey = indexEntries.get(variableName);
+        for (String key : keys) {
+          Set<String> processInstanceIds = processInstanceIdsByKey.get(key);
+          if (processInstanceIds != null) {
+            candidates.get(i).addAll(processInstanceIds);
+          }
+        }
+      }
+    }
+
+    return candidates;
+  }
+
+  /**
+   * Selects the active executions of the candidate process instances which wait for the messages,
+   * with one query per message name.
+   *
+   * @return the executions by message name and process instance id
+   */
+  protected Map<String, Map<String, List<ExecutionEntity>>> findWaitingExecutions(CommandContext commandContext, List<String> messageNames,
+      List<Set<String>> candidateProcessInstanceIds) {
+
+    Map<String, Set<String>> processInstanceIdsByMessageName = new HashMap<String, Set<String>>();
+    for (int i = 0; i < messageNames.size(); i++) {
+      Set<String> processInstanceIds = candidateProcessInstanceIds.get(i);
+      if (processInstanceIds != null) {
+        getOrCreate(processInstanceIdsByMessageName, messageNames.get(i)).addAll(processInstanceIds);
+      }
+    }
+
+    Map<String, Map<String, List<ExecutionEntity>>> result = new HashMap<String, Map<String, List<ExecutionEntity>>>();
+
+    for (Map.Entry<String, Set<String>> messageProcessInstances : processInstanceIdsByMessageName.entrySet()) {
+      String messageName = messageProcessInstances.getKey();
+      Map<String, List<ExecutionEntity>> executionsByProcessInstanceId = new HashMap<String, List<ExecutionEntity>>();
+
+      for (List<String> processInstanceIds : split(new ArrayList<String>(messageProcessInstances.getValue()))) {
+        ExecutionQueryImpl query = new ExecutionQueryImpl();
+        query.processInstanceIds(new HashSet<String>(processInstanceIds));
+
+        if (messageName != null) {
+          query.messageEventSubscriptionName(messageName);
+        } else {
+          query.messageEventSubscription();
+        }
+
+        // restrict to active executions
+        query.active();
+
+        for (Execution execution : query.evaluateExpressionsAndExecuteList(commandContext, null)) {
+          String processInstanceId = execution.getProcessInstanceId();
+          List<ExecutionEntity> executions = executionsByProcessInstanceId.get(processInstanceId);
+          if (executions == null) {
+            executions = new ArrayList<ExecutionEntity>();
+            executionsByProcessInstanceId.put(processInstanceId, executions);
+          }
+          executions.add((ExecutionEntity) execution);
+        }
+      }
+
+      result.put(messageName, executionsByProcessInstanceId);
+    }
+
+    return result;
+  }
+
+  protected <T> Set<String> getOrCreate(Map<T, Set<String>> map, T key) {
+    Set<String> values = map.get(key);
+    if (values == null) {
+      values = new HashSet<String>();
+      map.put(key, values);
+    }
+    return values;
+  }
+
+  /**
+   * Splits the values into lists which fit into an in-list, which is limited
+   * to 1000 elements on some databases.
+   */
+  protected List<List<String>> split(List<String> values) {
+    List<List<String>> result = new ArrayList<List<String>>();
+    for (int from = 0; from < values.size(); from += MAX_IN_LIST_SIZE) {
+      result.add(values.subList(from, Math.min(from + MAX_IN_LIST_SIZE, values.size())));
+    }
+    return result;
+  }
+
   protected List<MessageCorrelationResult> correlateMessageToExecutions(CommandContext commandContext, String messageName,
       CorrelationSet correlationSet) {
 
@@ -79,7 +281,7 @@ public class DefaultCorrelationHandler implements CorrelationHandler {
     Map<String, Object> correlationKeys = correlationSet.getCorrelationKeys();
     if (correlationKeys != null) {
       for (Map.Entry<String, Object> correlationKey : correlationKeys.entrySet()) {
-        query.processVariableValueEquals(correlationKey.getKey(), correlationKey.getValue());
+        addCorrelationKey(commandContext, query, correlationKey.getKey(), correlationKey.getValue());
       }
     }
 
@@ -113,6 +315,25 @@ public class DefaultCorrelationHandler implements CorrelationHandler {
     return result;
   }
 
+  /**
+   * Restricts the query to process instances with the given variable value. The process
+   * instances are looked up in the correlation index if the variable is indexed.
+   */
+  protected void addCorrelationKey(CommandContext commandContext, ExecutionQueryImpl query, String variableName, Object value) {
+    List<String> indexKeys = null;
+    if (CorrelationIndex.isIndexed(variableName)) {
+      VariableSerializers serializers = commandContext.getProcessEngineConfiguration().getVariableSerializers();
+      indexKeys = CorrelationIndex.getQueryKeys(variableName, value, serializers);
+    }
+
+    if (indexKeys != null) {
+      query.correlationIndexKeyIn(variableName, indexKeys);
+    }
+    else {
+      query.processVariableValueEquals(variableName, value);
+    }
+  }
+
   protected MessageCorrelationResult tryCorrelateMessageToProcessDefinition(CommandContext commandContext, String messageName, CorrelationSet correlationSet) {
     if (messageName == null) {
       return null;
@@ -0,0 +1,62 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.runtime;
+
+import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.camunda.bpm.engine.runtime.MessageCorrelationItemResult;
+
+public class MessageCorrelationItemResultImpl implements MessageCorrelationItemResult {
+
+  protected MessageCorrelationBuilder messageCorrelation;
+  protected String processInstanceId;
+  protected RuntimeException failure;
+
+  public MessageCorrelationItemResultImpl(MessageCorrelationBuilder messageCorrelation) {
+    this.messageCorrelation = messageCorrelation;
+  }
+
+  public MessageCorrelationItemResultImpl(MessageCorrelationBuilder messageCorrelation, RuntimeException failure) {
+    this.messageCorrelation = messageCorrelation;
+    this.failure = failure;
+  }
+
+  public MessageCorrelationBuilder getMessageCorrelation() {
+    return messageCorrelation;
+  }
+
+  public boolean isCorrelated() {
+    return processInstanceId != null;
+  }
+
+  public String getProcessInstanceId() {
+    return processInstanceId;
+  }
+
+  public void setProcessInstanceId(String processInstanceId) {
+    this.processInstanceId = processInstanceId;
+  }
+
+  public RuntimeException getFailure() {
+    return failure;
+  }
+
+  public void setFailure(RuntimeException failure) {
+    this.failure = failure;
+  }
+
+  public String toString() {
+    return "MessageCorrelationItemResultImpl [processInstanceId=" + processInstanceId
+      + ", failure=" + failure + "]";
+  }
+
+}
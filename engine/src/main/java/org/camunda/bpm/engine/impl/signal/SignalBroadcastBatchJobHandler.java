@@ -0,0 +1,61 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.signal;
+
+import static org.camunda.bpm.engine.impl.signal.SignalBroadcastJobHandler.CFG_SIGNAL_NAME;
+
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cmd.SignalEventReceivedCmd;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobHandler;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.SignalEventSubscriptionEntity;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+
+/**
+ * Delivers the signal of an asynchronous broadcast to the subscriptions of one batch,
+ * created by the {@link SignalBroadcastJobHandler}. The subscriptions of a batch are
+ * triggered in one transaction, which also deletes the ids of the subscriptions.
+ * Since the completion checks of the broadcast stop while all remaining batch jobs have
+ * failed, a batch job ensures that the completion of the broadcast is checked again.
+ */
+public class SignalBroadcastBatchJobHandler implements JobHandler {
+
+  public static final String TYPE = "signal-broadcast-batch";
+
+  public String getType() {
+    return TYPE;
+  }
+
+  public void execute(String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    JSONObject config = new JSONObject(configuration);
+    String signalName = config.getString(CFG_SIGNAL_NAME);
+
+    // subscriptions which were deleted since the batch was created are not selected
+    List<String> subscriptionIds = SignalBroadcastJobHandler.loadSubscriptionIds(config, commandContext);
+    List<SignalEventSubscriptionEntity> subscriptions = commandContext
+      .getEventSubscriptionManager()
+      .findSignalEventSubscriptionsByEventNameAndIds(signalName, subscriptionIds);
+
+    if (!subscriptions.isEmpty()) {
+      Map<String, Object> variables = SignalBroadcastJobHandler.loadPayload(config, commandContext);
+      new SignalEventReceivedCmd(signalName, null, variables).sendSignal(subscriptions, commandContext);
+    }
+
+    SignalBroadcastJobHandler.deleteSubscriptionIds(config, commandContext);
+    SignalBroadcastJobHandler.ensureCompletionCheck(config, commandContext);
+  }
+
+}
@@ -0,0 +1,300 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.signal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobHandler;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
+import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TimerEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.impl.util.StringUtil;
+import org.camunda.bpm.engine.impl.util.json.JSONArray;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+import org.camunda.bpm.engine.variable.VariableMap;
+
+/**
+ * <p>Delivers a signal asynchronously to all subscriptions of the signal.</p>
+ *
+ * <p>Each execution selects the ids of the next page of subscriptions which were created
+ * before the broadcast started, ordered by id, and creates a
+ * {@link SignalBroadcastBatchJobHandler batch job} for each
+ * {@link org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl#getSignalBroadcastBatchSize() batch size}
+ * subscriptions. The ids of the subscriptions of a batch are kept in a byte array. The
+ * batch jobs are executed in parallel by the job executor. If the page was full, the job
+ * is continued with the next page.</p>
+ *
+ * <p>If the signal carries variables, they are kept in a {@link SignalBroadcastPayload}.
+ * All byte arrays of a broadcast have the same name. Once all batches are created, the job
+ * checks periodically whether batch jobs are left and deletes the byte arrays afterwards.
+ * The checks stop while all remaining batch jobs have failed without retries left, since
+ * they are not executed until their retries are set again. A batch job which is executed
+ * after the checks stopped schedules a new check.</p>
+ */
+public class SignalBroadcastJobHandler implements JobHandler {
+
+  public static final String TYPE = "signal-broadcast";
+
+  /** the number of batch jobs created per execution */
+  public static final int BATCHES_PER_PAGE = 10;
+
+  /** the delay between the checks whether all batch jobs of a broadcast are executed */
+  public static final long COMPLETION_CHECK_DELAY = 10 * 1000L;
+
+  protected static final String CFG_BROADCAST_ID = "broadcastId";
+  protected static final String CFG_SIGNAL_NAME = "signalName";
+  protected static final String CFG_START_TIME = "startTime";
+  protected static final String CFG_PAYLOAD_ID = "payloadId";
+  protected static final String CFG_AFTER_SUBSCRIPTION_ID = "afterSubscriptionId";
+  protected static final String CFG_SUBSCRIPTION_IDS_ID = "subscriptionIdsId";
+  protected static final String CFG_COMPLETION_CHECK = "completionCheck";
+
+  protected static final String BYTE_ARRAY_NAME_PREFIX = "signal-broadcast-";
+
+  public String getType() {
+    return TYPE;
+  }
+
+  public void execute(String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    JSONObject config = new JSONObject(configuration);
+
+    if (config.optBoolean(CFG_COMPLETION_CHECK)) {
+      checkCompletion(config, commandContext);
+    }
+    else {
+      createBatches(config, commandContext);
+    }
+  }
+
+  protected void createBatches(JSONObject config, CommandContext commandContext) {
+    String signalName = config.getString(CFG_SIGNAL_NAME);
+    String afterSubscriptionId = config.optString(CFG_AFTER_SUBSCRIPTION_ID, null);
+
+    int batchSize = commandContext.getProcessEngineConfiguration().getSignalBroadcastBatchSize();
+    int pageSize = batchSize * BATCHES_PER_PAGE;
+
+    // subscriptions which are created during the broadcast do not receive the signal
+    Date startTime = new Date(config.getLong(CFG_START_TIME));
+
+    List<String> subscriptionIds = commandContext
+      .getEventSubscriptionManager()
+      .findSignalEventSubscriptionIdsByEventName(signalName, startTime, afterSubscriptionId, pageSize);
+
+    String byteArrayName = getByteArrayName(config.getString(CFG_BROADCAST_ID));
+    for (int first = 0; first < subscriptionIds.size(); first += batchSize) {
+      List<String> batchSubscriptionIds = subscriptionIds.subList(first, Math.min(first + batchSize, subscriptionIds.size()));
+
+      JSONObject batchConfig = copyBroadcast(config);
+      batchConfig.put(CFG_SUBSCRIPTION_IDS_ID, insertSubscriptionIds(byteArrayName, batchSubscriptionIds, commandContext));
+
+      sendJob(SignalBroadcastBatchJobHandler.TYPE, batchConfig, commandContext);
+    }
+
+    JSONObject nextConfig = copyBroadcast(config);
+    if (subscriptionIds.size() == pageSize) {
+      nextConfig.put(CFG_AFTER_SUBSCRIPTION_ID, subscriptionIds.get(pageSize - 1));
+      sendJob(TYPE, nextConfig, commandContext);
+    }
+    else if (nextConfig.has(CFG_PAYLOAD_ID) || !subscriptionIds.isEmpty() || afterSubscriptionId != null) {
+      // all batches are created, the byte arrays are deleted once they are executed
+      nextConfig.put(CFG_COMPLETION_CHECK, true);
+      scheduleCompletionCheck(nextConfig, commandContext);
+    }
+  }
+
+  protected void checkCompletion(JSONObject config, CommandContext commandContext) {
+    String broadcastId = config.getString(CFG_BROADCAST_ID);
+
+    JobManager jobManager = commandContext.getJobManager();
+    List<String> batchJobHandlerTypes = Arrays.asList(SignalBroadcastBatchJobHandler.TYPE);
+    long batchJobs = jobManager.findJobCountByHandlerTypesAndConfigurationLike(batchJobHandlerTypes, getConfigurationLike(broadcastId), false);
+
+    if (batchJobs > 0) {
+      long failedBatchJobs = jobManager.findJobCountByHandlerTypesAndConfigurationLike(batchJobHandlerTypes, getConfigurationLike(broadcastId), true);
+      if (failedBatchJobs < batchJobs) {
+        scheduleCompletionCheck(config, commandContext);
+      }
+      // otherwise the check is scheduled again once a failed batch job is executed
+    }
+    else {
+      // the payload and the subscription ids of batch jobs which were deleted before their execution
+      deleteByteArrays(broadcastId, commandContext);
+    }
+  }
+
+  /**
+   * Schedules the completion check of the broadcast of the given batch if the checks have
+   * stopped because all remaining batch jobs had failed.
+   */
+  public static void ensureCompletionCheck(JSONObject batchConfig, CommandContext commandContext) {
+    String broadcastId = batchConfig.getString(CFG_BROADCAST_ID);
+
+    long broadcastJobs = commandContext
+      .getJobManager()
+      .findJobCountByHandlerTypesAndConfigurationLike(Arrays.asList(TYPE), getConfigurationLike(broadcastId), false);
+
+    if (broadcastJobs == 0) {
+      JSONObject config = copyBroadcast(batchConfig);
+      config.put(CFG_COMPLETION_CHECK, true);
+      scheduleCompletionCheck(config, commandContext);
+    }
+  }
+
+  protected static void scheduleCompletionCheck(JSONObject config, CommandContext commandContext) {
+    TimerEntity timer = new TimerEntity();
+    timer.setDuedate(new Date(ClockUtil.getCurrentTime().getTime() + COMPLETION_CHECK_DELAY));
+    timer.setJobHandlerType(TYPE);
+    timer.setJobHandlerConfiguration(config.toString());
+
+    commandContext.getJobManager().schedule(timer);
+  }
+
+  protected static JSONObject copyBroadcast(JSONObject config) {
+    JSONObject copy = new JSONObject();
+    copy.put(CFG_BROADCAST_ID, config.getString(CFG_BROADCAST_ID));
+    copy.put(CFG_SIGNAL_NAME, config.getString(CFG_SIGNAL_NAME));
+    copy.put(CFG_START_TIME, config.getLong(CFG_START_TIME));
+    if (config.has(CFG_PAYLOAD_ID)) {
+      copy.put(CFG_PAYLOAD_ID, config.getString(CFG_PAYLOAD_ID));
+    }
+    return copy;
+  }
+
+  // broadcast ////////////////////////////////////////////////////////////////
+
+  /**
+   * The creation time of a subscription may be stored with a precision of seconds, so the
+   * start time is rounded up to the next second. Subscriptions created within this second
+   * may receive the signal as well.
+   */
+  protected static long getStartTime() {
+    long now = ClockUtil.getCurrentTime().getTime();
+    return (now / 1000 + 1) * 1000;
+  }
+
+  /**
+   * Starts the broadcast of the signal by creating the first job.
+   *
+   * @return the id of the broadcast
+   */
+  public static String startBroadcast(String signalName, Map<String, Object> variables, CommandContext commandContext) {
+    String broadcastId = commandContext.getProcessEngineConfiguration().getIdGenerator().getNextId();
+
+    JSONObject config = new JSONObject();
+    config.put(CFG_BROADCAST_ID, broadcastId);
+    config.put(CFG_SIGNAL_NAME, signalName);
+    config.put(CFG_START_TIME, getStartTime());
+    if (variables != null && !variables.isEmpty()) {
+      config.put(CFG_PAYLOAD_ID, SignalBroadcastPayload.insert(getByteArrayName(broadcastId), variables, commandContext));
+    }
+
+    sendJob(TYPE, config, commandContext);
+
+    return broadcastId;
+  }
+
+  /**
+   * @return the pattern of a <code>like</code> expression which matches the job
+   *   configurations of the given broadcast
+   */
+  public static String getConfigurationLike(String broadcastId) {
+    return "%\"" + CFG_BROADCAST_ID + "\":\"" + broadcastId + "\"%";
+  }
+
+  protected static void sendJob(String type, JSONObject config, CommandContext commandContext) {
+    MessageEntity message = new MessageEntity();
+    message.setJobHandlerType(type);
+    message.setJobHandlerConfiguration(config.toString());
+
+    commandContext.getJobManager().send(message);
+  }
+
+  // byte arrays //////////////////////////////////////////////////////////////
+
+  protected static String getByteArrayName(String broadcastId) {
+    return BYTE_ARRAY_NAME_PREFIX + broadcastId;
+  }
+
+  protected static String insertSubscriptionIds(String byteArrayName, List<String> subscriptionIds, CommandContext commandContext) {
+    byte[] bytes = StringUtil.toByteArray(new JSONArray(subscriptionIds).toString());
+
+    ByteArrayEntity byteArray = new ByteArrayEntity(byteArrayName, bytes);
+    commandContext.getDbEntityManager().insert(byteArray);
+
+    return byteArray.getId();
+  }
+
+  /**
+   * @return the ids of the subscriptions of the given batch
+   */
+  public static List<String> loadSubscriptionIds(JSONObject config, CommandContext commandContext) {
+    ByteArrayEntity byteArray = findSubscriptionIds(config, commandContext);
+
+    JSONArray json = new JSONArray(StringUtil.fromBytes(byteArray.getBytes()));
+    List<String> subscriptionIds = new ArrayList<String>(json.length());
+    for (int i = 0; i < json.length(); i++) {
+      subscriptionIds.add(json.getString(i));
+    }
+    return subscriptionIds;
+  }
+
+  /**
+   * Deletes the subscription ids of the given batch once the batch is delivered.
+   */
+  public static void deleteSubscriptionIds(JSONObject config, CommandContext commandContext) {
+    commandContext.getDbEntityManager().delete(findSubscriptionIds(config, commandContext));
+  }
+
+  protected static ByteArrayEntity findSubscriptionIds(JSONObject config, CommandContext commandContext) {
+    String subscriptionIdsId = config.getString(CFG_SUBSCRIPTION_IDS_ID);
+
+    ByteArrayEntity byteArray = commandContext.getDbEntityManager().selectById(ByteArrayEntity.class, subscriptionIdsId);
+    if (byteArray == null) {
+      throw new ProcessEngineException("Cannot find the subscriptions of a batch of signal broadcast '" + config.getString(CFG_BROADCAST_ID) + "'");
+    }
+    return byteArray;
+  }
+
+  /**
+   * @return the variables of the signal or null if the signal has no variables
+   */
+  public static VariableMap loadPayload(JSONObject config, CommandContext commandContext) {
+    if (!config.has(CFG_PAYLOAD_ID)) {
+      return null;
+    }
+    return SignalBroadcastPayload.load(config.getString(CFG_PAYLOAD_ID), commandContext);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected void deleteByteArrays(String broadcastId, CommandContext commandContext) {
+    List<String> byteArrayIds = commandContext
+      .getDbEntityManager()
+      .selectList("selectByteArrayIdsByName", getByteArrayName(broadcastId));
+
+    ByteArrayManager byteArrayManager = commandContext.getByteArrayManager();
+    for (String byteArrayId : byteArrayIds) {
+      byteArrayManager.deleteByteArrayById(byteArrayId);
+    }
+  }
+
+}
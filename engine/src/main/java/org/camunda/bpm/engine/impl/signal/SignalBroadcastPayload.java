@@ -0,0 +1,227 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.signal;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.core.variable.value.UntypedValueImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.util.StringUtil;
+import org.camunda.bpm.engine.impl.util.json.JSONArray;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
+import org.camunda.bpm.engine.impl.variable.serializer.VariableSerializers;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+
+/**
+ * <p>Keeps the variables of an asynchronous signal broadcast until the signal is delivered.</p>
+ *
+ * <p>The variables are written by the variable serializers of the process engine, like
+ * variable instances. The value fields of the variables are kept as JSON in one byte array.
+ * Values which are serialized into bytes are kept in byte arrays of their own, which have
+ * the same name as the byte array of the payload.</p>
+ */
+public class SignalBroadcastPayload {
+
+  protected static final String NAME = "name";
+  protected static final String SERIALIZER_NAME = "serializerName";
+  protected static final String TEXT_VALUE = "textValue";
+  protected static final String TEXT_VALUE2 = "textValue2";
+  protected static final String LONG_VALUE = "longValue";
+  protected static final String DOUBLE_VALUE = "doubleValue";
+  protected static final String BYTE_ARRAY_ID = "byteArrayId";
+
+  /**
+   * Inserts the byte arrays holding the given variables.
+   *
+   * @return the id of the byte array of the payload
+   */
+  public static String insert(String byteArrayName, Map<String, Object> variables, CommandContext commandContext) {
+    VariableSerializers serializers = commandContext.getProcessEngineConfiguration().getVariableSerializers();
+
+    JSONArray payload = new JSONArray();
+    for (String variableName : variables.keySet()) {
+      TypedValue value;
+      if (variables instanceof VariableMap) {
+        value = ((VariableMap) variables).getValueTyped(variableName);
+      }
+      else {
+        value = Variables.untypedValue(variables.get(variableName));
+      }
+
+      PayloadVariable variable = new PayloadVariable(variableName, byteArrayName, commandContext);
+      variable.setValue(value, serializers);
+      payload.put(variable.toJson());
+    }
+
+    ByteArrayEntity byteArray = new ByteArrayEntity(byteArrayName, StringUtil.toByteArray(payload.toString()));
+    commandContext.getDbEntityManager().insert(byteArray);
+
+    return byteArray.getId();
+  }
+
+  public static VariableMap load(String payloadId, CommandContext commandContext) {
+    ByteArrayEntity byteArray = commandContext.getDbEntityManager().selectById(ByteArrayEntity.class, payloadId);
+    if (byteArray == null) {
+      throw new ProcessEngineException("Cannot find the variables of the signal in byte array '" + payloadId + "'");
+    }
+
+    VariableSerializers serializers = commandContext.getProcessEngineConfiguration().getVariableSerializers();
+    JSONArray payload = new JSONArray(StringUtil.fromBytes(byteArray.getBytes()));
+
+    VariableMap variables = Variables.createVariables();
+    for (int i = 0; i < payload.length(); i++) {
+      PayloadVariable variable = PayloadVariable.fromJson(payload.getJSONObject(i), byteArray.getName(), commandContext);
+      variables.putValueTyped(variable.getName(), variable.getTypedValue(serializers));
+    }
+    return variables;
+  }
+
+  /**
+   * The value fields of a variable of the payload.
+   */
+  protected static class PayloadVariable implements ValueFields {
+
+    protected final String name;
+    protected final String byteArrayName;
+    protected final CommandContext commandContext;
+
+    protected String serializerName;
+    protected String textValue;
+    protected String textValue2;
+    protected Long longValue;
+    protected Double doubleValue;
+    protected String byteArrayId;
+    protected ByteArrayEntity byteArrayValue;
+
+    public PayloadVariable(String name, String byteArrayName, CommandContext commandContext) {
+      this.name = name;
+      this.byteArrayName = byteArrayName;
+      this.commandContext = commandContext;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void setValue(TypedValue value, VariableSerializers serializers) {
+      TypedValueSerializer<TypedValue> serializer = serializers.findSerializerForValue(value);
+      if (value instanceof UntypedValueImpl) {
+        value = serializer.convertToTypedValue((UntypedValueImpl) value);
+      }
+
+      serializer.writeValue(value, this);
+      serializerName = serializer.getName();
+    }
+
+    public TypedValue getTypedValue(VariableSerializers serializers) {
+      TypedValueSerializer<?> serializer = serializers.getSerializerByName(serializerName);
+      if (serializer == null) {
+        throw new ProcessEngineException("Cannot find serializer '" + serializerName + "' of signal variable '" + name + "'");
+      }
+      return serializer.readValue(this, false);
+    }
+
+    public JSONObject toJson() {
+      JSONObject json = new JSONObject();
+      json.put(NAME, name);
+      json.put(SERIALIZER_NAME, serializerName);
+      json.putOpt(TEXT_VALUE, textValue);
+      json.putOpt(TEXT_VALUE2, textValue2);
+      json.putOpt(LONG_VALUE, longValue);
+      if (doubleValue != null) {
+        // the bits keep values like NaN which are not valid in JSON
+        json.put(DOUBLE_VALUE, Double.doubleToLongBits(doubleValue));
+      }
+      json.putOpt(BYTE_ARRAY_ID, byteArrayId);
+      return json;
+    }
+
+    public static PayloadVariable fromJson(JSONObject json, String byteArrayName, CommandContext commandContext) {
+      PayloadVariable variable = new PayloadVariable(json.getString(NAME), byteArrayName, commandContext);
+      variable.serializerName = json.getString(SERIALIZER_NAME);
+      variable.textValue = json.optString(TEXT_VALUE, null);
+      variable.textValue2 = json.optString(TEXT_VALUE2, null);
+      if (json.has(LONG_VALUE)) {
+        variable.longValue = json.getLong(LONG_VALUE);
+      }
+      if (json.has(DOUBLE_VALUE)) {
+        variable.doubleValue = Double.longBitsToDouble(json.getLong(DOUBLE_VALUE));
+      }
+      variable.byteArrayId = json.optString(BYTE_ARRAY_ID, null);
+      return variable;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getTextValue() {
+      return textValue;
+    }
+
+    public void setTextValue(String textValue) {
+      this.textValue = textValue;
+    }
+
+    public String getTextValue2() {
+      return textValue2;
+    }
+
+    public void setTextValue2(String textValue2) {
+      this.textValue2 = textValue2;
+    }
+
+    public Long getLongValue() {
+      return longValue;
+    }
+
+    public void setLongValue(Long longValue) {
+      this.longValue = longValue;
+    }
+
+    public Double getDoubleValue() {
+      return doubleValue;
+    }
+
+    public void setDoubleValue(Double doubleValue) {
+      this.doubleValue = doubleValue;
+    }
+
+    public String getByteArrayValueId() {
+      return byteArrayId;
+    }
+
+    public ByteArrayEntity getByteArrayValue() {
+      if (byteArrayValue == null && byteArrayId != null) {
+        byteArrayValue = commandContext.getDbEntityManager().selectById(ByteArrayEntity.class, byteArrayId);
+      }
+      return byteArrayValue;
+    }
+
+    public void setByteArrayValue(byte[] bytes) {
+      if (bytes != null) {
+        byteArrayValue = new ByteArrayEntity(byteArrayName, bytes);
+        commandContext.getDbEntityManager().insert(byteArrayValue);
+        byteArrayId = byteArrayValue.getId();
+      }
+      else {
+        byteArrayValue = null;
+        byteArrayId = null;
+      }
+    }
+  }
+
+}
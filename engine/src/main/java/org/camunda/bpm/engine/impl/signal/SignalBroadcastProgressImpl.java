@@ -0,0 +1,51 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.signal;
+
+import org.camunda.bpm.engine.management.SignalBroadcastProgress;
+
+public class SignalBroadcastProgressImpl implements SignalBroadcastProgress {
+
+  protected String broadcastId;
+  protected long pendingJobs;
+  protected long failedJobs;
+
+  public SignalBroadcastProgressImpl(String broadcastId, long pendingJobs, long failedJobs) {
+    this.broadcastId = broadcastId;
+    this.pendingJobs = pendingJobs;
+    this.failedJobs = failedJobs;
+  }
+
+  public String getBroadcastId() {
+    return broadcastId;
+  }
+
+  public long getPendingJobs() {
+    return pendingJobs;
+  }
+
+  public long getFailedJobs() {
+    return failedJobs;
+  }
+
+  public boolean isCompleted() {
+    return pendingJobs == 0 && failedJobs == 0;
+  }
+
+  public String toString() {
+    return "SignalBroadcastProgressImpl [broadcastId=" + broadcastId
+        + ", pendingJobs=" + pendingJobs
+        + ", failedJobs=" + failedJobs + "]";
+  }
+
+}
@@ -51,6 +51,17 @@ public class CollectionUtil {
     return result;
   }
 
+  /**
+   * Splits the values into lists with at most the given number of elements.
+   */
+  public static <T> List<List<T>> partition(List<T> values, int partitionSize) {
+    List<List<T>> partitions = new ArrayList<List<T>>();
+    for (int from = 0; from < values.size(); from += partitionSize) {
+      partitions.add(new ArrayList<T>(values.subList(from, Math.min(from + partitionSize, values.size()))));
+    }
+    return partitions;
+  }
+
   public static <S, T> void addToMapOfLists(Map<S, List<T>> map, S key, T value) {
     List<T> list = map.get(key);
     if (list == null) {
@@ -13,8 +13,11 @@
 package org.camunda.bpm.engine.impl.variable.serializer;
 
 import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.core.variable.value.UntypedValueImpl;
 import org.camunda.bpm.engine.impl.digest._apacheCommonsCodec.Base64;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
 import org.camunda.bpm.engine.impl.util.StringUtil;
 import org.camunda.bpm.engine.variable.type.SerializableValueType;
 import org.camunda.bpm.engine.variable.value.SerializableValue;
@@ -75,10 +78,15 @@ public abstract class AbstractSerializableValueSerializer<T extends Serializable
     if(deserializeObjectValue) {
       Object deserializedObject = null;
       if(serializedByteValue != null) {
-        try {
-          deserializedObject = deserializeFromByteArray(serializedByteValue, valueFields);
-        } catch (Exception e) {
-          throw new ProcessEngineException("Cannot deserialize object in variable '"+valueFields.getName()+"': "+e.getMessage(), e);
+        deserializedObject = getCachedDeserializedValue(serializedByteValue, valueFields);
+
+        if (deserializedObject == null) {
+          try {
+            deserializedObject = deserializeFromByteArray(serializedByteValue, valueFields);
+          } catch (Exception e) {
+            throw new ProcessEngineException("Cannot deserialize object in variable '"+valueFields.getName()+"': "+e.getMessage(), e);
+          }
+          cacheDeserializedValue(deserializedObject, serializedByteValue, valueFields);
         }
       }
       T value = createDeserializedValue(deserializedObject, serializedStringValue, valueFields);
@@ -89,6 +97,38 @@ public abstract class AbstractSerializableValueSerializer<T extends Serializable
     }
   }
 
+  protected Object getCachedDeserializedValue(byte[] serializedByteValue, ValueFields valueFields) {
+    DeserializedValueCache deserializedValueCache = getDeserializedValueCache();
+    ByteArrayEntity byteArray = valueFields.getByteArrayValue();
+
+    // only values which are read from the byte array are cached
+    if (deserializedValueCache != null && byteArray != null && serializedByteValue == byteArray.getBytes()) {
+      return deserializedValueCache.get(byteArray);
+    }
+    else {
+      return null;
+    }
+  }
+
+  protected void cacheDeserializedValue(Object deserializedObject, byte[] serializedByteValue, ValueFields valueFields) {
+    DeserializedValueCache deserializedValueCache = getDeserializedValueCache();
+    ByteArrayEntity byteArray = valueFields.getByteArrayValue();
+
+    if (deserializedValueCache != null && byteArray != null && serializedByteValue == byteArray.getBytes()) {
+      deserializedValueCache.put(byteArray, deserializedObject);
+    }
+  }
+
+  protected DeserializedValueCache getDeserializedValueCache() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null) {
+      return processEngineConfiguration.getDeserializedValueCache();
+    }
+    else {
+      return null;
+    }
+  }
+
   protected abstract T createDeserializedValue(Object deserializedObject, String serializedStringValue, ValueFields valueFields);
 
   protected abstract T createSerializedValue(String serializedStringValue, ValueFields valueFields);
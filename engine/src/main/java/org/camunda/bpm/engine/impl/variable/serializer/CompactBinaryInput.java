@@ -0,0 +1,383 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer;
+
+import static org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryOutput.*;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.util.ReflectUtil;
+
+/**
+ * <p>Reads values written by a {@link CompactBinaryOutput}.</p>
+ *
+ * <p>Fields which do not exist in the class anymore are skipped and fields
+ * which are not contained in the serialized value keep their initial value.
+ * Collections and maps of classes which cannot be instantiated are read as
+ * the closest general purpose implementation, see {@link #getSubstituteType(Class)}.</p>
+ */
+public class CompactBinaryInput {
+
+  protected static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+
+  static {
+    for (Class<?> type : new Class<?>[] {
+        boolean.class, byte.class, short.class, int.class, long.class, float.class, double.class, char.class }) {
+      PRIMITIVE_TYPES.put(type.getName(), type);
+    }
+  }
+
+  protected final byte[] bytes;
+  protected int position = 0;
+
+  protected final List<String> names = new ArrayList<String>();
+  protected final List<Object> references = new ArrayList<Object>();
+  protected final Map<Class<?>, Map<String, Field>> fields = new HashMap<Class<?>, Map<String, Field>>();
+
+  public CompactBinaryInput(byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  public Object readValue() {
+    int tag = readByte();
+
+    switch (tag) {
+      case TAG_NULL:
+        return null;
+      case TAG_TRUE:
+        return Boolean.TRUE;
+      case TAG_FALSE:
+        return Boolean.FALSE;
+      case TAG_BYTE:
+        return (byte) readByte();
+      case TAG_SHORT:
+        return (short) unZigZag(readVarLong());
+      case TAG_INT:
+        return (int) unZigZag(readVarLong());
+      case TAG_LONG:
+        return unZigZag(readVarLong());
+      case TAG_FLOAT:
+        return Float.intBitsToFloat(readFixedInt());
+      case TAG_DOUBLE:
+        return Double.longBitsToDouble(readFixedLong());
+      case TAG_CHAR:
+        return (char) readVarLong();
+      case TAG_STRING:
+        return readString();
+      case TAG_DATE:
+        return new Date(unZigZag(readVarLong()));
+      case TAG_BIG_DECIMAL:
+        return new BigDecimal(readString());
+      case TAG_BIG_INTEGER:
+        return new BigInteger(readBytes());
+      case TAG_BYTES:
+        return readBytes();
+      case TAG_ENUM:
+        return readEnum();
+      case TAG_ARRAY:
+        return readArray();
+      case TAG_COLLECTION:
+        return readCollection();
+      case TAG_MAP:
+        return readMap();
+      case TAG_ENUM_SET:
+        return readEnumSet();
+      case TAG_ENUM_MAP:
+        return readEnumMap();
+      case TAG_OBJECT:
+        return readObject();
+      case TAG_REFERENCE:
+        return references.get((int) readVarLong());
+      default:
+        throw new ProcessEngineException("Unknown tag " + tag + " at position " + (position - 1) + " of serialized value");
+    }
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected Object readEnum() {
+    Class enumType = loadClass(readName());
+    return Enum.valueOf(enumType, readName());
+  }
+
+  protected Object readArray() {
+    Class<?> componentType = loadClass(readName());
+    int length = (int) readVarLong();
+
+    Object array = Array.newInstance(componentType, length);
+    references.add(array);
+
+    for (int i = 0; i < length; i++) {
+      Array.set(array, i, readValue());
+    }
+    return array;
+  }
+
+  @SuppressWarnings("unchecked")
+  protected Object readCollection() {
+    Class<?> type = loadClass(readName());
+    int size = (int) readVarLong();
+
+    Collection<Object> collection = (Collection<Object>) instantiate(type);
+    if (collection == null) {
+      collection = (Collection<Object>) instantiate(getSubstituteType(type));
+    }
+    references.add(collection);
+
+    for (int i = 0; i < size; i++) {
+      collection.add(readValue());
+    }
+    return collection;
+  }
+
+  @SuppressWarnings("unchecked")
+  protected Object readMap() {
+    Class<?> type = loadClass(readName());
+    int size = (int) readVarLong();
+
+    Map<Object, Object> map = (Map<Object, Object>) instantiate(type);
+    if (map == null) {
+      map = (Map<Object, Object>) instantiate(getSubstituteType(type));
+    }
+    references.add(map);
+
+    for (int i = 0; i < size; i++) {
+      Object key = readValue();
+      map.put(key, readValue());
+    }
+    return map;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected Object readEnumSet() {
+    Class enumType = loadClass(readName());
+    int size = (int) readVarLong();
+
+    EnumSet enumSet = EnumSet.noneOf(enumType);
+    references.add(enumSet);
+
+    for (int i = 0; i < size; i++) {
+      enumSet.add(Enum.valueOf(enumType, readName()));
+    }
+    return enumSet;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected Object readEnumMap() {
+    Class enumType = loadClass(readName());
+    int size = (int) readVarLong();
+
+    EnumMap enumMap = new EnumMap(enumType);
+    references.add(enumMap);
+
+    for (int i = 0; i < size; i++) {
+      Enum key = Enum.valueOf(enumType, readName());
+      enumMap.put(key, readValue());
+    }
+    return enumMap;
+  }
+
+  protected Object readObject() {
+    Class<?> type = loadClass(readName());
+    int fieldCount = (int) readVarLong();
+
+    Object object = instantiate(type);
+    if (object == null) {
+      throw new ProcessEngineException("Cannot deserialize object of " + type.getName() + ": no constructor without arguments");
+    }
+    references.add(object);
+
+    Map<String, Field> typeFields = getFields(type);
+    for (int i = 0; i < fieldCount; i++) {
+      String fieldName = readName();
+      Object value = readValue();
+
+      Field field = typeFields.get(fieldName);
+      if (field != null) {
+        try {
+          field.set(object, value);
+        } catch (Exception e) {
+          throw new ProcessEngineException("Cannot set field '" + fieldName + "' of " + type.getName() + ": " + e.getMessage(), e);
+        }
+      }
+    }
+    return object;
+  }
+
+  /**
+   * @return a new instance of the type or null if the type has no accessible constructor without arguments
+   */
+  protected Object instantiate(Class<?> type) {
+    try {
+      Constructor<?> constructor = type.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      return constructor.newInstance();
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (Exception e) {
+      if (Modifier.isAbstract(type.getModifiers())) {
+        return null;
+      }
+      throw new ProcessEngineException("Cannot instantiate " + type.getName() + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @return the general purpose implementation which is read instead of a collection
+   *   or map of the given type if the type cannot be instantiated
+   */
+  protected static Class<?> getSubstituteType(Class<?> type) {
+    if (SortedSet.class.isAssignableFrom(type)) {
+      return TreeSet.class;
+    }
+    else if (Set.class.isAssignableFrom(type)) {
+      return LinkedHashSet.class;
+    }
+    else if (Collection.class.isAssignableFrom(type)) {
+      return ArrayList.class;
+    }
+    else if (SortedMap.class.isAssignableFrom(type)) {
+      return TreeMap.class;
+    }
+    else {
+      return LinkedHashMap.class;
+    }
+  }
+
+  protected Map<String, Field> getFields(Class<?> type) {
+    Map<String, Field> typeFields = fields.get(type);
+
+    if (typeFields == null) {
+      typeFields = new HashMap<String, Field>();
+      for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+        for (Field field : clazz.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          // fields of sub classes hide fields of super classes with the same name
+          if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !typeFields.containsKey(field.getName())) {
+            field.setAccessible(true);
+            typeFields.put(field.getName(), field);
+          }
+        }
+      }
+      fields.put(type, typeFields);
+    }
+
+    return typeFields;
+  }
+
+  protected Class<?> loadClass(String className) {
+    Class<?> primitiveType = PRIMITIVE_TYPES.get(className);
+    if (primitiveType != null) {
+      return primitiveType;
+    }
+    return ReflectUtil.loadClass(className);
+  }
+
+  // decoding ///////////////////////////////////////////////////////////////
+
+  protected String readName() {
+    int index = (int) readVarLong();
+    if (index > 0) {
+      return names.get(index - 1);
+    }
+    else {
+      String name = readString();
+      names.add(name);
+      return name;
+    }
+  }
+
+  protected String readString() {
+    int length = (int) readVarLong();
+    ensureAvailable(length);
+    String value = new String(bytes, position, length, UTF_8);
+    position += length;
+    return value;
+  }
+
+  protected byte[] readBytes() {
+    int length = (int) readVarLong();
+    ensureAvailable(length);
+    byte[] value = new byte[length];
+    System.arraycopy(bytes, position, value, 0, length);
+    position += length;
+    return value;
+  }
+
+  public int readByte() {
+    ensureAvailable(1);
+    return bytes[position++];
+  }
+
+  protected int readFixedInt() {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      value = (value << 8) | (readByte() & 0xFF);
+    }
+    return value;
+  }
+
+  protected long readFixedLong() {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | (readByte() & 0xFF);
+    }
+    return value;
+  }
+
+  protected long readVarLong() {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      if (shift > 63) {
+        throw new ProcessEngineException("Malformed variable-length number at position " + position + " of serialized value");
+      }
+      b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  protected void ensureAvailable(int length) {
+    if (length < 0 || position + length > bytes.length) {
+      throw new ProcessEngineException("Unexpected end of serialized value at position " + position);
+    }
+  }
+
+  protected static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+}
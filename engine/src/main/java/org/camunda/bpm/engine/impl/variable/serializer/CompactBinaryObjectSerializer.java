@@ -0,0 +1,187 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.variable.value.SerializableValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+
+/**
+ * <p>Serializes objects in a compact, schema-less binary format. Supported are
+ * primitives and their wrappers, strings, dates, big numbers, enums, arrays,
+ * collections, maps and objects with a no-argument constructor, whose non-static
+ * and non-transient fields are serialized. Sorted collections and maps with a
+ * comparator and empty enum maps are not supported.</p>
+ *
+ * <p>Values which do not request a serialization data format are only serialized
+ * with this serializer if {@link #DATA_FORMAT} is the default serialization format
+ * of the process engine.</p>
+ *
+ * <p>Serialized values larger than the compression threshold are deflated.</p>
+ *
+ * @see CompactBinaryOutput
+ * @see CompactBinaryInput
+ */
+public class CompactBinaryObjectSerializer extends AbstractObjectValueSerializer {
+
+  public static final String NAME = "compact-binary";
+
+  public static final String DATA_FORMAT = "application/x-camunda-compact-binary";
+
+  public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+  protected static final int FORMAT_VERSION = 1;
+
+  protected static final int FLAG_COMPRESSED = 0x80;
+
+  protected final int compressionThreshold;
+
+  public CompactBinaryObjectSerializer() {
+    this(DEFAULT_COMPRESSION_THRESHOLD);
+  }
+
+  /**
+   * @param compressionThreshold the minimum size in bytes of serialized values which are compressed
+   */
+  public CompactBinaryObjectSerializer(int compressionThreshold) {
+    super(DATA_FORMAT);
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  public String getName() {
+    return NAME;
+  }
+
+  protected boolean isSerializationTextBased() {
+    return false;
+  }
+
+  protected String getTypeNameForDeserialized(Object deserializedObject) {
+    return deserializedObject.getClass().getName();
+  }
+
+  protected boolean canSerializeValue(Object value) {
+    // values which cannot be read again are left to other serializers
+    return new CompactBinaryOutput().canWrite(value);
+  }
+
+  protected boolean canWriteValue(TypedValue typedValue) {
+    if (!isDataFormatRequested(typedValue) && !isDefaultSerializationFormat()) {
+      return false;
+    }
+    return super.canWriteValue(typedValue);
+  }
+
+  protected boolean isDataFormatRequested(TypedValue typedValue) {
+    return typedValue instanceof SerializableValue
+        && ((SerializableValue) typedValue).getSerializationDataFormat() != null;
+  }
+
+  protected boolean isDefaultSerializationFormat() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    return processEngineConfiguration != null
+        && DATA_FORMAT.equals(processEngineConfiguration.getDefaultSerializationFormat());
+  }
+
+  protected byte[] serializeToByteArray(Object deserializedObject) throws Exception {
+    CompactBinaryOutput output = new CompactBinaryOutput();
+    output.writeByte(FORMAT_VERSION);
+    output.writeValue(deserializedObject);
+    byte[] bytes = output.toByteArray();
+
+    if (bytes.length >= compressionThreshold) {
+      byte[] compressedBytes = compress(bytes);
+      if (compressedBytes.length < bytes.length) {
+        return compressedBytes;
+      }
+    }
+    return bytes;
+  }
+
+  protected Object deserializeFromByteArray(byte[] bytes, String objectTypeName) throws Exception {
+    if (bytes.length == 0) {
+      throw new ProcessEngineException("Cannot deserialize empty value");
+    }
+
+    if ((bytes[0] & FLAG_COMPRESSED) != 0) {
+      bytes = decompress(bytes);
+    }
+
+    CompactBinaryInput input = new CompactBinaryInput(bytes);
+    int version = input.readByte();
+    if (version != FORMAT_VERSION) {
+      throw new ProcessEngineException("Unsupported version " + version + " of serialized value");
+    }
+    return input.readValue();
+  }
+
+  /**
+   * The first byte of a compressed value is the format version with the
+   * compression flag, followed by the deflated value without the version.
+   */
+  protected byte[] compress(byte[] bytes) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes, 1, bytes.length - 1);
+      deflater.finish();
+
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2);
+      outputStream.write(bytes[0] | FLAG_COMPRESSED);
+
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        int length = deflater.deflate(buffer);
+        outputStream.write(buffer, 0, length);
+      }
+      return outputStream.toByteArray();
+    }
+    finally {
+      deflater.end();
+    }
+  }
+
+  protected byte[] decompress(byte[] bytes) throws DataFormatException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes, 1, bytes.length - 1);
+
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length * 2);
+      outputStream.write(bytes[0] & ~FLAG_COMPRESSED);
+
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int length = inflater.inflate(buffer);
+        if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new DataFormatException("truncated compressed value");
+        }
+        outputStream.write(buffer, 0, length);
+      }
+      return outputStream.toByteArray();
+    }
+    finally {
+      inflater.end();
+    }
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+}
@@ -0,0 +1,518 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+
+/**
+ * <p>Writes values in the format of the {@link CompactBinaryObjectSerializer}.</p>
+ *
+ * <p>Every value starts with a tag. Integral numbers and lengths are written as
+ * variable-length quantities. Class names and field names are written once and
+ * referenced by their index afterwards. Arrays, collections, maps and objects
+ * which occur more than once are referenced by their index, so shared and
+ * cyclic references are preserved.</p>
+ *
+ * <p>Sorted collections and maps with a comparator cannot be written, since
+ * the comparator is not serialized. Neither can empty enum maps, whose key
+ * type is unknown. Use {@link #canWrite(Object)} to check
+ * whether a value can be written and read again.</p>
+ */
+public class CompactBinaryOutput {
+
+  protected static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  protected static final int TAG_NULL = 0;
+  protected static final int TAG_TRUE = 1;
+  protected static final int TAG_FALSE = 2;
+  protected static final int TAG_BYTE = 3;
+  protected static final int TAG_SHORT = 4;
+  protected static final int TAG_INT = 5;
+  protected static final int TAG_LONG = 6;
+  protected static final int TAG_FLOAT = 7;
+  protected static final int TAG_DOUBLE = 8;
+  protected static final int TAG_CHAR = 9;
+  protected static final int TAG_STRING = 10;
+  protected static final int TAG_DATE = 11;
+  protected static final int TAG_BYTES = 12;
+  protected static final int TAG_BIG_DECIMAL = 13;
+  protected static final int TAG_BIG_INTEGER = 14;
+  protected static final int TAG_ENUM = 15;
+  protected static final int TAG_ARRAY = 16;
+  protected static final int TAG_COLLECTION = 17;
+  protected static final int TAG_MAP = 18;
+  protected static final int TAG_OBJECT = 19;
+  protected static final int TAG_REFERENCE = 20;
+  protected static final int TAG_ENUM_SET = 21;
+  protected static final int TAG_ENUM_MAP = 22;
+
+  protected final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+  protected final Map<String, Integer> names = new HashMap<String, Integer>();
+  protected final Map<Object, Integer> references = new IdentityHashMap<Object, Integer>();
+  protected final Map<Class<?>, List<Field>> fields = new HashMap<Class<?>, List<Field>>();
+
+  public byte[] toByteArray() {
+    return buffer.toByteArray();
+  }
+
+  public void writeValue(Object value) {
+    if (value == null) {
+      writeByte(TAG_NULL);
+    }
+    else if (value instanceof String) {
+      writeByte(TAG_STRING);
+      writeString((String) value);
+    }
+    else if (value instanceof Integer) {
+      writeByte(TAG_INT);
+      writeVarLong(zigZag((Integer) value));
+    }
+    else if (value instanceof Long) {
+      writeByte(TAG_LONG);
+      writeVarLong(zigZag((Long) value));
+    }
+    else if (value instanceof Boolean) {
+      writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+    }
+    else if (value instanceof Double) {
+      writeByte(TAG_DOUBLE);
+      writeFixedLong(Double.doubleToLongBits((Double) value));
+    }
+    else if (value instanceof Float) {
+      writeByte(TAG_FLOAT);
+      writeFixedInt(Float.floatToIntBits((Float) value));
+    }
+    else if (value instanceof Short) {
+      writeByte(TAG_SHORT);
+      writeVarLong(zigZag((Short) value));
+    }
+    else if (value instanceof Byte) {
+      writeByte(TAG_BYTE);
+      writeByte((Byte) value);
+    }
+    else if (value instanceof Character) {
+      writeByte(TAG_CHAR);
+      writeVarLong((Character) value);
+    }
+    else if (value.getClass() == Date.class) {
+      writeByte(TAG_DATE);
+      writeVarLong(zigZag(((Date) value).getTime()));
+    }
+    else if (value instanceof BigDecimal) {
+      writeByte(TAG_BIG_DECIMAL);
+      writeString(value.toString());
+    }
+    else if (value instanceof BigInteger) {
+      writeByte(TAG_BIG_INTEGER);
+      writeBytes(((BigInteger) value).toByteArray());
+    }
+    else if (value instanceof byte[]) {
+      writeByte(TAG_BYTES);
+      writeBytes((byte[]) value);
+    }
+    else if (value instanceof Enum) {
+      writeByte(TAG_ENUM);
+      writeName(((Enum<?>) value).getDeclaringClass().getName());
+      writeName(((Enum<?>) value).name());
+    }
+    else {
+      writeReferenceType(value);
+    }
+  }
+
+  protected void writeReferenceType(Object value) {
+    Integer reference = references.get(value);
+    if (reference != null) {
+      writeByte(TAG_REFERENCE);
+      writeVarLong(reference);
+      return;
+    }
+    references.put(value, references.size());
+
+    if (value.getClass().isArray()) {
+      writeArray(value);
+    }
+    else if (value instanceof EnumSet) {
+      writeEnumSet((EnumSet<?>) value);
+    }
+    else if (value instanceof EnumMap) {
+      writeEnumMap((EnumMap<?, ?>) value);
+    }
+    else if (value instanceof Collection) {
+      writeCollection((Collection<?>) value);
+    }
+    else if (value instanceof Map) {
+      writeMap((Map<?, ?>) value);
+    }
+    else {
+      writeObject(value);
+    }
+  }
+
+  protected void writeArray(Object array) {
+    int length = Array.getLength(array);
+
+    writeByte(TAG_ARRAY);
+    writeName(array.getClass().getComponentType().getName());
+    writeVarLong(length);
+    for (int i = 0; i < length; i++) {
+      writeValue(Array.get(array, i));
+    }
+  }
+
+  protected void writeEnumSet(EnumSet<?> enumSet) {
+    Class<?> elementType = getElementType(enumSet);
+    if (elementType == null) {
+      throw new ProcessEngineException("Cannot serialize empty EnumSet of an enum without constants");
+    }
+
+    writeByte(TAG_ENUM_SET);
+    writeName(elementType.getName());
+    writeVarLong(enumSet.size());
+    for (Enum<?> element : enumSet) {
+      writeName(element.name());
+    }
+  }
+
+  protected void writeEnumMap(EnumMap<?, ?> enumMap) {
+    Class<?> keyType = getKeyType(enumMap);
+    if (keyType == null) {
+      throw new ProcessEngineException("Cannot serialize empty EnumMap");
+    }
+
+    writeByte(TAG_ENUM_MAP);
+    writeName(keyType.getName());
+    writeVarLong(enumMap.size());
+    for (Entry<? extends Enum<?>, ?> entry : enumMap.entrySet()) {
+      writeName(entry.getKey().name());
+      writeValue(entry.getValue());
+    }
+  }
+
+  protected void writeCollection(Collection<?> collection) {
+    if (collection instanceof SortedSet && ((SortedSet<?>) collection).comparator() != null) {
+      throw new ProcessEngineException("Cannot serialize " + collection.getClass().getName() + " with a comparator");
+    }
+
+    writeByte(TAG_COLLECTION);
+    writeName(collection.getClass().getName());
+    writeVarLong(collection.size());
+    for (Object element : collection) {
+      writeValue(element);
+    }
+  }
+
+  protected void writeMap(Map<?, ?> map) {
+    if (map instanceof SortedMap && ((SortedMap<?, ?>) map).comparator() != null) {
+      throw new ProcessEngineException("Cannot serialize " + map.getClass().getName() + " with a comparator");
+    }
+
+    writeByte(TAG_MAP);
+    writeName(map.getClass().getName());
+    writeVarLong(map.size());
+    for (Entry<?, ?> entry : map.entrySet()) {
+      writeValue(entry.getKey());
+      writeValue(entry.getValue());
+    }
+  }
+
+  protected void writeObject(Object object) {
+    Class<?> type = object.getClass();
+    List<Field> objectFields = getFields(type);
+
+    writeByte(TAG_OBJECT);
+    writeName(type.getName());
+    writeVarLong(objectFields.size());
+    for (Field field : objectFields) {
+      writeName(field.getName());
+      try {
+        writeValue(field.get(object));
+      } catch (IllegalAccessException e) {
+        throw new ProcessEngineException("Cannot read field '" + field.getName() + "' of " + type.getName(), e);
+      }
+    }
+  }
+
+  // checks //////////////////////////////////////////////////////////////////
+
+  /**
+   * @return true if the value and all values it references can be written and
+   *   are read as objects of the same types
+   */
+  public boolean canWrite(Object value) {
+    return canWrite(value, null, new IdentityHashMap<Object, Object>());
+  }
+
+  /**
+   * @param declaredType the type of the field holding the value or null
+   * @param visited the arrays, collections, maps and objects which are checked already
+   */
+  protected boolean canWrite(Object value, Class<?> declaredType, Map<Object, Object> visited) {
+    if (value == null || isSimpleValue(value)) {
+      return true;
+    }
+
+    Class<?> type = value.getClass();
+    if (declaredType != null && !declaredType.isAssignableFrom(getReadType(type))) {
+      // the value would be read as an implementation which cannot be assigned to the field
+      return false;
+    }
+    if (visited.put(value, value) != null) {
+      return true;
+    }
+
+    if (type.isArray()) {
+      if (!type.getComponentType().isPrimitive()) {
+        for (Object element : (Object[]) value) {
+          if (!canWrite(element, type.getComponentType(), visited)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+    else if (value instanceof EnumSet) {
+      return getElementType((EnumSet<?>) value) != null;
+    }
+    else if (value instanceof EnumMap) {
+      return getKeyType((EnumMap<?, ?>) value) != null
+          && canWriteAll(((Map<?, ?>) value).values(), visited);
+    }
+    else if (value instanceof Collection) {
+      return !(value instanceof SortedSet && ((SortedSet<?>) value).comparator() != null)
+          && canWriteAll((Collection<?>) value, visited);
+    }
+    else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      return !(value instanceof SortedMap && ((SortedMap<?, ?>) value).comparator() != null)
+          && canWriteAll(map.keySet(), visited)
+          && canWriteAll(map.values(), visited);
+    }
+    else {
+      return canWriteObject(value, visited);
+    }
+  }
+
+  protected boolean canWriteAll(Collection<?> values, Map<Object, Object> visited) {
+    for (Object value : values) {
+      if (!canWrite(value, null, visited)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected boolean canWriteObject(Object object, Map<Object, Object> visited) {
+    Class<?> type = object.getClass();
+    if (!isInstantiable(type)) {
+      return false;
+    }
+
+    for (Field field : getFields(type)) {
+      try {
+        if (!canWrite(field.get(object), field.getType(), visited)) {
+          return false;
+        }
+      } catch (IllegalAccessException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the value is written without a reference
+   */
+  protected boolean isSimpleValue(Object value) {
+    return value instanceof String
+        || value instanceof Integer
+        || value instanceof Long
+        || value instanceof Boolean
+        || value instanceof Double
+        || value instanceof Float
+        || value instanceof Short
+        || value instanceof Byte
+        || value instanceof Character
+        || value.getClass() == Date.class
+        || value instanceof BigDecimal
+        || value instanceof BigInteger
+        || value instanceof byte[]
+        || value instanceof Enum;
+  }
+
+  /**
+   * @return the type of the object which is read for a value of the given type
+   */
+  protected Class<?> getReadType(Class<?> type) {
+    if (EnumSet.class.isAssignableFrom(type)) {
+      return EnumSet.class;
+    }
+    else if (EnumMap.class.isAssignableFrom(type)) {
+      return EnumMap.class;
+    }
+    else if ((Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) && !isInstantiable(type)) {
+      return CompactBinaryInput.getSubstituteType(type);
+    }
+    else {
+      return type;
+    }
+  }
+
+  protected boolean isInstantiable(Class<?> type) {
+    if (Modifier.isAbstract(type.getModifiers())) {
+      return false;
+    }
+    try {
+      type.getDeclaredConstructor();
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the enum type of the set or null if it cannot be determined
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  protected static Class<?> getElementType(EnumSet<?> enumSet) {
+    // the complement of an empty set contains all constants of the type
+    EnumSet<?> elements = enumSet.isEmpty() ? EnumSet.complementOf((EnumSet) enumSet) : enumSet;
+    if (elements.isEmpty()) {
+      return null;
+    }
+    return ((Enum<?>) elements.iterator().next()).getDeclaringClass();
+  }
+
+  /**
+   * @return the enum type of the keys of the map or null if the map is empty,
+   *   since the key type of an empty map is not accessible
+   */
+  protected static Class<?> getKeyType(EnumMap<?, ?> enumMap) {
+    if (enumMap.isEmpty()) {
+      return null;
+    }
+    return enumMap.keySet().iterator().next().getDeclaringClass();
+  }
+
+  /**
+   * @return the non-static and non-transient fields of the class and its super classes
+   */
+  protected List<Field> getFields(Class<?> type) {
+    List<Field> typeFields = fields.get(type);
+
+    if (typeFields == null) {
+      try {
+        type.getDeclaredConstructor();
+      } catch (NoSuchMethodException e) {
+        throw new ProcessEngineException("Cannot serialize object of " + type.getName() + ": no constructor without arguments");
+      }
+
+      typeFields = new ArrayList<Field>();
+      for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+        for (Field field : clazz.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+            field.setAccessible(true);
+            typeFields.add(field);
+          }
+        }
+      }
+      fields.put(type, typeFields);
+    }
+
+    return typeFields;
+  }
+
+  // encoding ///////////////////////////////////////////////////////////////
+
+  /**
+   * Writes a class or field name once and its index afterwards.
+   */
+  protected void writeName(String name) {
+    Integer index = names.get(name);
+    if (index != null) {
+      writeVarLong(index + 1);
+    }
+    else {
+      names.put(name, names.size());
+      writeVarLong(0);
+      writeString(name);
+    }
+  }
+
+  protected void writeString(String value) {
+    writeBytes(value.getBytes(UTF_8));
+  }
+
+  protected void writeBytes(byte[] bytes) {
+    writeVarLong(bytes.length);
+    buffer.write(bytes, 0, bytes.length);
+  }
+
+  protected void writeByte(int value) {
+    buffer.write(value);
+  }
+
+  protected void writeFixedInt(int value) {
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      buffer.write(value >>> shift);
+    }
+  }
+
+  protected void writeFixedLong(long value) {
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer.write((int) (value >>> shift));
+    }
+  }
+
+  /**
+   * Writes an unsigned value with seven bits per byte, the highest bit
+   * indicates that another byte follows.
+   */
+  protected void writeVarLong(long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.write((int) value);
+  }
+
+  /**
+   * Maps signed values to unsigned values, so that small negative values are written with few bytes.
+   */
+  protected static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+}
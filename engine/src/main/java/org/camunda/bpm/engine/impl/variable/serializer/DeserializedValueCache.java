@@ -0,0 +1,171 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.variable.serializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.ConcurrentLruCache;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+
+/**
+ * <p>Engine-wide cache of deserialized object values, keyed by the id and the
+ * revision of the byte array which holds the serialized value.</p>
+ *
+ * <p>A cached object is shared by all commands which read the value, including
+ * the callers of the public API and delegates. Therefore only objects of immutable
+ * types are cached: enums, immutable JDK types like {@link String} or {@link BigDecimal}
+ * and the types which are declared immutable in the process engine configuration.
+ * Objects of other types are deserialized by every command.</p>
+ *
+ * @see AbstractSerializableValueSerializer#readValue(ValueFields, boolean)
+ */
+public class DeserializedValueCache {
+
+  protected static final int CONCURRENCY_LEVEL = 16;
+
+  protected static final Set<Class<?>> JDK_IMMUTABLE_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+      String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+      Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class, Locale.class));
+
+  protected final ConcurrentLruCache<CacheKey, CachedValue> cache;
+
+  /** names of the classes whose instances cannot be modified */
+  protected final Set<String> immutableTypes;
+
+  /**
+   * @param capacity the maximum number of cached objects
+   */
+  public DeserializedValueCache(int capacity) {
+    this(capacity, null);
+  }
+
+  /**
+   * @param capacity the maximum number of cached objects
+   * @param immutableTypes names of additional classes whose instances cannot be modified
+   */
+  public DeserializedValueCache(int capacity, Collection<String> immutableTypes) {
+    this.cache = new ConcurrentLruCache<CacheKey, CachedValue>(capacity, CONCURRENCY_LEVEL);
+    this.immutableTypes = immutableTypes != null ? new HashSet<String>(immutableTypes) : new HashSet<String>();
+  }
+
+  /**
+   * @return the object deserialized from the given byte array or null if no
+   *   object with the same bytes is cached
+   */
+  public Object get(ByteArrayEntity byteArray) {
+    if (byteArray.getId() == null || byteArray.getBytes() == null) {
+      return null;
+    }
+
+    CachedValue cachedValue = cache.get(new CacheKey(byteArray.getId(), byteArray.getRevision()));
+
+    // the bytes may have been changed by the current command without a new revision
+    if (cachedValue == null || cachedValue.bytesHash != Arrays.hashCode(byteArray.getBytes())) {
+      return null;
+    }
+    return cachedValue.value;
+  }
+
+  /**
+   * Caches an object which is deserialized from the bytes of the given byte
+   * array, unless the object is mutable.
+   */
+  public void put(ByteArrayEntity byteArray, Object value) {
+    if (byteArray.getId() == null || byteArray.getBytes() == null || !isImmutable(value)) {
+      return;
+    }
+
+    CacheKey key = new CacheKey(byteArray.getId(), byteArray.getRevision());
+    cache.put(key, new CachedValue(value, Arrays.hashCode(byteArray.getBytes())));
+  }
+
+  /**
+   * @return true if the object can be shared since it cannot be modified
+   */
+  public boolean isImmutable(Object value) {
+    if (value == null) {
+      return false;
+    }
+    Class<?> type = value.getClass();
+    return type.isEnum() || JDK_IMMUTABLE_TYPES.contains(type) || immutableTypes.contains(type.getName());
+  }
+
+  public void clear() {
+    cache.clear();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public int getCapacity() {
+    return cache.getCapacity();
+  }
+
+  public Set<String> getImmutableTypes() {
+    return immutableTypes;
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  protected static class CacheKey {
+
+    protected final String byteArrayId;
+    protected final int revision;
+
+    public CacheKey(String byteArrayId, int revision) {
+      this.byteArrayId = byteArrayId;
+      this.revision = revision;
+    }
+
+    public int hashCode() {
+      return 31 * byteArrayId.hashCode() + revision;
+    }
+
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) obj;
+      return revision == other.revision && byteArrayId.equals(other.byteArrayId);
+    }
+  }
+
+  protected static class CachedValue {
+
+    protected final Object value;
+    protected final int bytesHash;
+
+    public CachedValue(Object value, int bytesHash) {
+      this.value = value;
+      this.bytesHash = bytesHash;
+    }
+  }
+
+}
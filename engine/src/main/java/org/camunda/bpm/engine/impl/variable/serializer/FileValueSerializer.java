@@ -12,10 +12,19 @@
  */
 package org.camunda.bpm.engine.impl.variable.serializer;
 
+import java.io.InputStream;
 import java.util.Arrays;
 
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.core.variable.value.FileValueImpl;
 import org.camunda.bpm.engine.impl.core.variable.value.UntypedValueImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.blob.BlobFileValueImpl;
+import org.camunda.bpm.engine.impl.persistence.blob.BlobStore;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
+import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.variable.Variables;
 import org.camunda.bpm.engine.variable.type.ValueType;
 import org.camunda.bpm.engine.variable.value.FileValue;
@@ -46,8 +55,15 @@ public class FileValueSerializer extends AbstractTypedValueSerializer<FileValue>
 
   @Override
   public void writeValue(FileValue value, ValueFields valueFields) {
-    byte[] data = ((FileValueImpl) value).getByteArray();
-    valueFields.setByteArrayValue(data);
+    if (isStoredAsBlob(value)) {
+      // the byte array only references the content in the blob store
+      valueFields.setByteArrayValue(new byte[0]);
+      writeBlob(value, valueFields.getByteArrayValue());
+    }
+    else {
+      byte[] data = ((FileValueImpl) value).getByteArray();
+      valueFields.setByteArrayValue(data);
+    }
     valueFields.setTextValue(value.getFilename());
     if (value.getMimeType() == null && value.getEncoding() != null) {
       valueFields.setTextValue2(MIMETYPE_ENCODING_SEPARATOR + value.getEncoding());
@@ -63,25 +79,73 @@ public class FileValueSerializer extends AbstractTypedValueSerializer<FileValue>
     throw new UnsupportedOperationException("Currently no automatic conversation from UntypedValue to FileValue");
   }
 
+  protected boolean isStoredAsBlob(FileValue value) {
+    ByteArrayManager byteArrayManager = getByteArrayManager();
+    if (byteArrayManager == null) {
+      return false;
+    }
+
+    if (value instanceof BlobFileValueImpl && ((BlobFileValueImpl) value).isStreamed()) {
+      // copy the content from blob to blob without reading it into memory
+      return byteArrayManager.isBlobStoreUsed(Integer.MAX_VALUE);
+    }
+    else {
+      byte[] data = ((FileValueImpl) value).getByteArray();
+      return data != null && byteArrayManager.isBlobStoreUsed(data.length);
+    }
+  }
+
+  protected void writeBlob(FileValue value, ByteArrayEntity byteArray) {
+    InputStream content = value.getValue();
+    try {
+      getByteArrayManager().writeBlob(byteArray, content);
+    }
+    finally {
+      IoUtil.closeSilently(content);
+    }
+  }
+
   @Override
   public FileValue readValue(ValueFields valueFields, boolean deserializeValue) {
-    FileValueBuilder builder = Variables.fileValue(valueFields.getTextValue());
-    if (valueFields.getByteArrayValue() != null) {
-      builder.file(valueFields.getByteArrayValue().getBytes());
-    }
+    String mimeType = null;
+    String encoding = null;
+
     // to ensure the same array size all the time
     if (valueFields.getTextValue2() != null) {
       String[] split = Arrays.copyOf(valueFields.getTextValue2().split(MIMETYPE_ENCODING_SEPARATOR, NR_OF_VALUES_IN_TEXTFIELD2), NR_OF_VALUES_IN_TEXTFIELD2);
 
-      String mimeType = returnNullIfEmptyString(split[0]);
-      String encoding = returnNullIfEmptyString(split[1]);
+      mimeType = returnNullIfEmptyString(split[0]);
+      encoding = returnNullIfEmptyString(split[1]);
+    }
 
-      builder.mimeType(mimeType);
-      builder.encoding(encoding);
+    ByteArrayEntity byteArray = valueFields.getByteArrayValue();
+
+    if (byteArray != null && byteArray.isBlob()) {
+      // the content is opened lazily from the blob store
+      ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+      BlobStore blobStore = processEngineConfiguration != null ? processEngineConfiguration.getBlobStore() : null;
+      return new BlobFileValueImpl(blobStore, byteArray.getId(), valueFields.getTextValue(), mimeType, encoding);
     }
+
+    FileValueBuilder builder = Variables.fileValue(valueFields.getTextValue());
+    if (byteArray != null) {
+      builder.file(byteArray.getBytes());
+    }
+    builder.mimeType(mimeType);
+    builder.encoding(encoding);
     return builder.create();
   }
 
+  protected ByteArrayManager getByteArrayManager() {
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      return commandContext.getByteArrayManager();
+    }
+    else {
+      return null;
+    }
+  }
+
   protected String returnNullIfEmptyString(String s) {
     if (s.isEmpty()) {
       return null;
@@ -0,0 +1,64 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+/**
+ * Represents the executions of a command class since the process engine was started
+ * or the command statistics were reset. Only available if command metrics are enabled
+ * in the process engine configuration.
+ *
+ * @see org.camunda.bpm.engine.ManagementService#getCommandStatistics()
+ */
+public interface CommandStatistics {
+
+  /**
+   * Returns the fully qualified class name of the command.
+   */
+  String getCommandName();
+
+  /**
+   * Returns the number of executions.
+   */
+  long getCount();
+
+  /**
+   * Returns the total duration of all executions in microseconds.
+   */
+  long getTotalDuration();
+
+  /**
+   * Returns the maximum duration of an execution in microseconds.
+   */
+  long getMaxDuration();
+
+  /**
+   * Returns the estimated duration in microseconds which 95 percent of the executions did not exceed.
+   */
+  long getDuration95thPercentile();
+
+  /**
+   * Returns the total number of SQL statements executed, including the flush.
+   */
+  long getTotalStatementCount();
+
+  /**
+   * Returns the maximum number of SQL statements executed by an execution.
+   */
+  long getMaxStatementCount();
+
+  /**
+   * Returns the maximum number of entities which were held in the entity cache of an execution.
+   */
+  long getMaxCachedEntityCount();
+
+}
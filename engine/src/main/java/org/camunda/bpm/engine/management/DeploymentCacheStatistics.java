@@ -0,0 +1,60 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+/**
+ * Represents the size and the usage of one of the caches which hold
+ * the deployed definitions and model instances.
+ *
+ * @see org.camunda.bpm.engine.ManagementService#getDeploymentCacheStatistics()
+ */
+public interface DeploymentCacheStatistics {
+
+  String PROCESS_DEFINITION_CACHE = "processDefinition";
+  String BPMN_MODEL_INSTANCE_CACHE = "bpmnModelInstance";
+  String CASE_DEFINITION_CACHE = "caseDefinition";
+  String CMMN_MODEL_INSTANCE_CACHE = "cmmnModelInstance";
+  String DECISION_DEFINITION_CACHE = "decisionDefinition";
+  String DMN_MODEL_INSTANCE_CACHE = "dmnModelInstance";
+
+  /**
+   * Returns the name of the cache.
+   */
+  String getCacheName();
+
+  /**
+   * Returns the number of entries currently present in the cache.
+   */
+  int getSize();
+
+  /**
+   * Returns the maximum number of entries of the cache or -1 if the cache is unbounded.
+   */
+  int getCapacity();
+
+  /**
+   * Returns the number of lookups which found an entry.
+   */
+  long getHitCount();
+
+  /**
+   * Returns the number of lookups which did not find an entry.
+   */
+  long getMissCount();
+
+  /**
+   * Returns the number of entries removed to stay within the capacity.
+   */
+  long getEvictionCount();
+
+}
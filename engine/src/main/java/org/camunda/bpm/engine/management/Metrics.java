@@ -55,4 +55,28 @@ public class Metrics {
    */
   public final static String EXECUTED_DECISION_ELEMENTS = "executed-decision-elements";
 
+  /**
+   * Number of times the id generator ran out of ids and had to wait for the next id block
+   * to be fetched from the database.
+   */
+  public final static String ID_GENERATOR_REFILL_STALL = "id-generator-refill-stall";
+
+  /**
+   * Duration of job executions in milliseconds. Reported as <code>job-execution-duration-count</code>
+   * (number of executed jobs) and <code>job-execution-duration-sum</code> (total duration).
+   */
+  public final static String JOB_EXECUTION_DURATION = "job-execution-duration";
+
+  /**
+   * Duration of job acquisitions in milliseconds. Not reported to the database,
+   * only available through a {@link org.camunda.bpm.engine.impl.metrics.exporter.MetricsExporter}.
+   */
+  public final static String JOB_ACQUISITION_DURATION = "job-acquisition-duration";
+
+  /**
+   * Number of database operations executed per flush of a command context. Not reported
+   * to the database, only available through a {@link org.camunda.bpm.engine.impl.metrics.exporter.MetricsExporter}.
+   */
+  public final static String DB_FLUSH_SIZE = "db-flush-size";
+
 }
@@ -0,0 +1,40 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+/**
+ * The aggregated sum of a metric for a process definition key and/or
+ * activity type, as returned by {@link MetricsQuery#groupedSum()}.
+ *
+ * @since 7.4
+ */
+public interface MetricsGroup {
+
+  /**
+   * @return the process definition key of the group or null if the
+   *   query is not grouped by process definition key
+   */
+  String getProcessDefinitionKey();
+
+  /**
+   * @return the activity type of the group or null if the
+   *   query is not grouped by activity type
+   */
+  String getActivityType();
+
+  /**
+   * @return the aggregated sum of the group
+   */
+  long getSum();
+
+}
@@ -13,6 +13,7 @@
 package org.camunda.bpm.engine.management;
 
 import java.util.Date;
+import java.util.List;
 
 /**
  * @author Daniel Meyer
@@ -42,9 +43,48 @@ public interface MetricsQuery {
    */
   MetricsQuery endDate(Date endTime);
 
+  /**
+   * Restrict to data collected for process definitions with the given key.
+   * Requires dimensional metrics to be enabled in the process engine configuration.
+   *
+   * @since 7.4
+   */
+  MetricsQuery processDefinitionKey(String processDefinitionKey);
+
+  /**
+   * Restrict to data collected for activities of the given type (e.g. <code>userTask</code>).
+   * Requires dimensional metrics to be enabled in the process engine configuration.
+   *
+   * @since 7.4
+   */
+  MetricsQuery activityType(String activityType);
+
+  /**
+   * Group the results of {@link #groupedSum()} by process definition key.
+   *
+   * @since 7.4
+   */
+  MetricsQuery groupByProcessDefinitionKey();
+
+  /**
+   * Group the results of {@link #groupedSum()} by activity type.
+   *
+   * @since 7.4
+   */
+  MetricsQuery groupByActivityType();
+
   /**
    * @return the aggregated sum
    */
   long sum();
 
+  /**
+   * @return the aggregated sum per group, ordered by descending sum. If no grouping
+   *   is specified, the result contains a single group with the sum of all data
+   *   collected per process definition key and activity type.
+   *
+   * @since 7.4
+   */
+  List<MetricsGroup> groupedSum();
+
 }
\ No newline at end of file
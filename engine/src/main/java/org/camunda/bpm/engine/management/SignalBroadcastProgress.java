@@ -0,0 +1,45 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+/**
+ * Represents the progress of an asynchronous signal broadcast, which is
+ * executed by jobs of the job executor.
+ *
+ * @see org.camunda.bpm.engine.RuntimeService#signalEventReceivedAsync(String)
+ * @see org.camunda.bpm.engine.ManagementService#getSignalBroadcastProgress(String)
+ */
+public interface SignalBroadcastProgress {
+
+  /**
+   * Returns the id of the broadcast.
+   */
+  String getBroadcastId();
+
+  /**
+   * Returns the number of jobs of the broadcast which are not executed yet, including
+   * the jobs which page through the subscriptions and clean up the variables of the signal.
+   */
+  long getPendingJobs();
+
+  /**
+   * Returns the number of jobs of the broadcast which failed and have no retries left.
+   */
+  long getFailedJobs();
+
+  /**
+   * Returns true if no jobs of the broadcast are left, i.e. the signal is delivered to all subscriptions.
+   */
+  boolean isCompleted();
+
+}
@@ -0,0 +1,45 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.runtime;
+
+/**
+ * The result of one message correlation of a batch correlated by
+ * {@link org.camunda.bpm.engine.RuntimeService#correlateMessages(java.util.List)}.
+ */
+public interface MessageCorrelationItemResult {
+
+  /**
+   * Returns the message correlation this result belongs to.
+   */
+  MessageCorrelationBuilder getMessageCorrelation();
+
+  /**
+   * Returns true if the message was correlated, i.e. it triggered a waiting
+   * execution or started a process instance.
+   */
+  boolean isCorrelated();
+
+  /**
+   * Returns the id of the process instance the message was correlated to, or
+   * null if the message was not correlated.
+   */
+  String getProcessInstanceId();
+
+  /**
+   * Returns the exception which prevented the correlation of the message, e.g. a
+   * {@link org.camunda.bpm.engine.MismatchingMessageCorrelationException} if none or
+   * more than one execution matches. Returns null if the message was correlated.
+   */
+  RuntimeException getFailure();
+
+}
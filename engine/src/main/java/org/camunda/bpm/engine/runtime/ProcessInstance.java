@@ -13,6 +13,7 @@
 package org.camunda.bpm.engine.runtime;
 
 import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.variable.VariableMap;
 
 
 
@@ -44,4 +45,14 @@ public interface ProcessInstance extends Execution {
    */
   boolean isSuspended();
 
+  /**
+   * The variables fetched together with the process instance. Only populated if the
+   * process instance is obtained through a query which calls
+   * {@link ProcessInstanceQuery#withVariables(String...)}.
+   *
+   * @return the requested variables of the process instance which exist or
+   *   <code>null</code> if no variables were fetched
+   */
+  VariableMap getFetchedVariables();
+
 }
@@ -186,6 +186,16 @@ public interface ProcessInstanceQuery extends Query<ProcessInstanceQuery, Proces
    */
   ProcessInstanceQuery incidentMessageLike(String incidentMessageLike);
 
+  /**
+   * If called, the variables with the given names of all fetched process instances are
+   * fetched with one additional query and {@link ProcessInstance#getFetchedVariables()}
+   * returns them.
+   *
+   * @param variableNames the names of the variables to fetch
+   * @return the query itself
+   */
+  ProcessInstanceQuery withVariables(String... variableNames);
+
   //ordering /////////////////////////////////////////////////////////////////
 
   /** Order by id (needs to be followed by {@link #asc()} or {@link #desc()}). */
@@ -16,6 +16,7 @@ import java.util.Date;
 
 import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.variable.VariableMap;
 
 
 
@@ -145,4 +146,15 @@ public interface Task {
    * @throws BadUserRequestException in case the form key is not initialized.
    */
   String getFormKey();
+
+  /**
+   * Provides the variables fetched together with the task.
+   *
+   * <p><strong>NOTE:</strong> This property is only populated if the task is obtained through a query
+   * which calls {@link TaskQuery#withVariables(String...)}. It contains the requested variables which are
+   * visible from the task and exist.</p>
+   *
+   * @return the fetched variables or <code>null</code> if no variables were fetched
+   */
+  VariableMap getFetchedVariables();
 }
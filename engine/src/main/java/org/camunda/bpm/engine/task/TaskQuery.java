@@ -597,6 +597,16 @@ public interface TaskQuery extends Query<TaskQuery, Task>{
    */
   TaskQuery initializeFormKeys();
 
+  /**
+   * If called, the variables with the given names which are visible from the fetched tasks
+   * are fetched with one additional query and {@link Task#getFetchedVariables()} returns them.
+   * Local task variables hide variables with the same name of the execution or case execution.
+   *
+   * @param variableNames the names of the variables to fetch
+   * @return the query itself
+   */
+  TaskQuery withVariables(String... variableNames);
+
   // ordering ////////////////////////////////////////////////////////////
 
   /** Order by task id (needs to be followed by {@link #asc()} or {@link #desc()}). */
@@ -17,6 +17,9 @@ values ('next.dbid', '1', 1);
 insert into ACT_GE_PROPERTY
 values ('deployment.lock', '0', 1);
 
+insert into ACT_GE_PROPERTY
+values ('authorization-index.lock', '0', 1);
+
 create table ACT_GE_BYTEARRAY (
     ID_ varchar(64) not null,
     REV_ integer,
@@ -24,6 +27,7 @@ create table ACT_GE_BYTEARRAY (
     DEPLOYMENT_ID_ varchar(64),
     BYTES_ BLOB,
     GENERATED_ smallint check(GENERATED_ in (1,0)),
+    IS_BLOB_ smallint check(IS_BLOB_ in (1,0)),
     primary key (ID_)
 );
 
@@ -163,6 +167,7 @@ create table ACT_RU_VARIABLE (
     VAR_SCOPE_ varchar(64) not null,
     SEQUENCE_COUNTER_ bigint,
     IS_CONCURRENT_LOCAL_ smallint check(IS_CONCURRENT_LOCAL_ in (1,0)),
+    CORR_KEY_ varchar(255),
     primary key (ID_)
 );
 
@@ -210,6 +215,15 @@ create table ACT_RU_AUTHORIZATION (
   UNI_RESOURCE_ID_ varchar (64) not null generated always as (case when "RESOURCE_ID_" is null then "ID_" else "RESOURCE_ID_" end)
 );
 
+create table ACT_RU_AUTH_INDEX (
+  SUBJECT_ID_ varchar(255) not null,
+  RESOURCE_TYPE_ integer not null,
+  RESOURCE_ID_ varchar(64) not null,
+  PERMS_ integer not null,
+  DECIDED_PERMS_ integer not null,
+  primary key (SUBJECT_ID_, RESOURCE_TYPE_, RESOURCE_ID_)
+);
+
 create table ACT_RU_FILTER (
   ID_ varchar(64) not null,
   REV_ integer not null,
@@ -225,6 +239,8 @@ create table ACT_RU_METER_LOG (
     ID_ varchar(64) not null,
     NAME_ varchar(64) not null,
     REPORTER_ varchar(255),
+    PROC_DEF_KEY_ varchar(255),
+    ACT_TYPE_ varchar(255),
     VALUE_ bigint,
     TIMESTAMP_ timestamp not null,
     primary key (ID_)
@@ -237,6 +253,7 @@ create index ACT_IDX_IDENT_LNK_USER on ACT_RU_IDENTITYLINK(USER_ID_);
 create index ACT_IDX_IDENT_LNK_GROUP on ACT_RU_IDENTITYLINK(GROUP_ID_);
 create index ACT_IDX_EVENT_SUBSCR_CONFIG_ on ACT_RU_EVENT_SUBSCR(CONFIGURATION_);
 create index ACT_IDX_VARIABLE_TASK_ID on ACT_RU_VARIABLE(TASK_ID_);
+create index ACT_IDX_VARIABLE_CORR_KEY on ACT_RU_VARIABLE(CORR_KEY_);
 create index ACT_IDX_ATHRZ_PROCEDEF on ACT_RU_IDENTITYLINK(PROC_DEF_ID_);
 create index ACT_IDX_INC_CONFIGURATION on ACT_RU_INCIDENT(CONFIGURATION_);
 create index ACT_IDX_JOB_PROCINST on ACT_RU_JOB(PROCESS_INSTANCE_ID_);
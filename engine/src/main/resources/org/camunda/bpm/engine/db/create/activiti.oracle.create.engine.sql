@@ -17,6 +17,9 @@ values ('next.dbid', '1', 1);
 insert into ACT_GE_PROPERTY
 values ('deployment.lock', '0', 1);
 
+insert into ACT_GE_PROPERTY
+values ('authorization-index.lock', '0', 1);
+
 create table ACT_GE_BYTEARRAY (
     ID_ NVARCHAR2(64),
     REV_ INTEGER,
@@ -24,6 +27,7 @@ create table ACT_GE_BYTEARRAY (
     DEPLOYMENT_ID_ NVARCHAR2(64),
     BYTES_ BLOB,
     GENERATED_ NUMBER(1,0) CHECK (GENERATED_ IN (1,0)),
+    IS_BLOB_ NUMBER(1,0) CHECK (IS_BLOB_ IN (1,0)),
     primary key (ID_)
 );
 
@@ -163,6 +167,7 @@ create table ACT_RU_VARIABLE (
     VAR_SCOPE_ NVARCHAR2(64) not null,
     SEQUENCE_COUNTER_ NUMBER(19,0),
     IS_CONCURRENT_LOCAL_ NUMBER(1,0) CHECK (IS_CONCURRENT_LOCAL_ IN (1,0)),
+    CORR_KEY_ NVARCHAR2(255),
     primary key (ID_)
 );
 
@@ -207,6 +212,15 @@ create table ACT_RU_AUTHORIZATION (
   primary key (ID_)
 );
 
+create table ACT_RU_AUTH_INDEX (
+  SUBJECT_ID_ NVARCHAR2(255) not null,
+  RESOURCE_TYPE_ integer not null,
+  RESOURCE_ID_ NVARCHAR2(64) not null,
+  PERMS_ integer not null,
+  DECIDED_PERMS_ integer not null,
+  primary key (SUBJECT_ID_, RESOURCE_TYPE_, RESOURCE_ID_)
+);
+
 create table ACT_RU_FILTER (
   ID_ NVARCHAR2(64) not null,
   REV_ integer not null,
@@ -222,6 +236,8 @@ create table ACT_RU_METER_LOG (
   ID_ NVARCHAR2(64) not null,
   NAME_ NVARCHAR2(64) not null,
   REPORTER_ NVARCHAR2(255),
+  PROC_DEF_KEY_ NVARCHAR2(255),
+  ACT_TYPE_ NVARCHAR2(255),
   VALUE_ NUMBER(19,0),
   TIMESTAMP_ TIMESTAMP(6) not null,
   primary key (ID_)
@@ -234,6 +250,7 @@ create index ACT_IDX_IDENT_LNK_USER on ACT_RU_IDENTITYLINK(USER_ID_);
 create index ACT_IDX_IDENT_LNK_GROUP on ACT_RU_IDENTITYLINK(GROUP_ID_);
 create index ACT_IDX_EVENT_SUBSCR_CONFIG_ on ACT_RU_EVENT_SUBSCR(CONFIGURATION_);
 create index ACT_IDX_VARIABLE_TASK_ID on ACT_RU_VARIABLE(TASK_ID_);
+create index ACT_IDX_VARIABLE_CORR_KEY on ACT_RU_VARIABLE(CORR_KEY_);
 create index ACT_IDX_INC_CONFIGURATION on ACT_RU_INCIDENT(CONFIGURATION_);
 create index ACT_IDX_JOB_PROCINST on ACT_RU_JOB(PROCESS_INSTANCE_ID_);
 create index ACT_IDX_METER_LOG on ACT_RU_METER_LOG(NAME_,TIMESTAMP_);
@@ -4,6 +4,7 @@ drop index ACT_IDX_TASK_ASSIGNEE;
 drop index ACT_IDX_IDENT_LNK_USER;
 drop index ACT_IDX_IDENT_LNK_GROUP;
 drop index ACT_IDX_VARIABLE_TASK_ID;
+drop index ACT_IDX_VARIABLE_CORR_KEY;
 drop index ACT_IDX_INC_CONFIGURATION;
 drop index ACT_IDX_JOB_PROCINST;
 
@@ -112,6 +113,7 @@ drop table ACT_RU_VARIABLE if exists;
 drop table ACT_RU_EVENT_SUBSCR if exists;
 drop table ACT_RU_INCIDENT if exists;
 drop table ACT_RU_AUTHORIZATION if exists;
+drop table ACT_RU_AUTH_INDEX if exists;
 drop table ACT_RU_FILTER if exists;
 drop table ACT_RU_METER_LOG if exists;
 
@@ -4,6 +4,7 @@ drop index ACT_RU_TASK.ACT_IDX_TASK_ASSIGNEE;
 drop index ACT_RU_IDENTITYLINK.ACT_IDX_IDENT_LNK_USER;
 drop index ACT_RU_IDENTITYLINK.ACT_IDX_IDENT_LNK_GROUP;
 drop index ACT_RU_VARIABLE.ACT_IDX_VARIABLE_TASK_ID;
+drop index ACT_RU_VARIABLE.ACT_IDX_VARIABLE_CORR_KEY;
 drop index ACT_RU_EVENT_SUBSCR.ACT_IDX_EVENT_SUBSCR_CONFIG_;
 drop index ACT_RU_INCIDENT.ACT_IDX_INC_CONFIGURATION;
 drop index ACT_RU_JOB.ACT_IDX_JOB_PROCINST;
@@ -114,5 +115,6 @@ if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = '
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_JOBDEF') drop table ACT_RU_JOBDEF;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_INCIDENT') drop table ACT_RU_INCIDENT;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_AUTHORIZATION') drop table ACT_RU_AUTHORIZATION;
+if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_AUTH_INDEX') drop table ACT_RU_AUTH_INDEX;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_FILTER') drop table ACT_RU_FILTER;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_METER_LOG') drop table ACT_RU_METER_LOG;
@@ -19,6 +19,7 @@ drop index ACT_IDX_TASK_ASSIGNEE;
 drop index ACT_IDX_IDENT_LNK_USER;
 drop index ACT_IDX_IDENT_LNK_GROUP;
 drop index ACT_IDX_VARIABLE_TASK_ID;
+drop index ACT_IDX_VARIABLE_CORR_KEY;
 
 drop index ACT_IDX_METER_LOG;
 
@@ -120,5 +121,6 @@ drop table  ACT_RU_JOBDEF;
 drop table  ACT_RU_EVENT_SUBSCR;
 drop table  ACT_RU_INCIDENT;
 drop table  ACT_RU_AUTHORIZATION;
+drop table  ACT_RU_AUTH_INDEX;
 drop table  ACT_RU_FILTER;
 drop table  ACT_RU_METER_LOG;
@@ -0,0 +1,127 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.identity;
+
+import static org.camunda.bpm.engine.authorization.Authorization.ANY;
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_GLOBAL;
+import static org.camunda.bpm.engine.authorization.Permissions.ALL;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.authorization.Authorization;
+import org.camunda.bpm.engine.impl.db.AuthorizationDecisionCache;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+
+public class AuthorizationDecisionCacheTest extends PluggableProcessEngineTestCase {
+
+  protected AuthorizationDecisionCache decisionCache;
+  protected TestResource resource = new TestResource("resource1", 100);
+  protected List<String> groupIds = Arrays.asList("sales", "marketing");
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    decisionCache = new AuthorizationDecisionCache(60000, 100);
+    processEngineConfiguration.setAuthorizationDecisionCache(decisionCache);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setAuthorizationDecisionCache(null);
+    for (Authorization authorization : authorizationService.createAuthorizationQuery().list()) {
+      authorizationService.deleteAuthorization(authorization.getId());
+    }
+    super.tearDown();
+  }
+
+  public void testCacheDecision() {
+    assertFalse(authorizationService.isUserAuthorized("jonny", groupIds, ALL, resource));
+    assertEquals(1, decisionCache.size());
+
+    // the order of the groups does not matter
+    assertFalse(authorizationService.isUserAuthorized("jonny", Arrays.asList("marketing", "sales"), ALL, resource));
+    assertEquals(1, decisionCache.size());
+
+    assertFalse(authorizationService.isUserAuthorized("jonny", groupIds, ALL, resource, "someId"));
+    assertEquals(2, decisionCache.size());
+  }
+
+  public void testInvalidateDecisionsOnSaveAuthorization() {
+    assertFalse(authorizationService.isUserAuthorized("jonny", groupIds, ALL, resource));
+
+    // when
+    Authorization authorization = createGlobalAuthorization();
+
+    // then
+    assertEquals(0, decisionCache.size());
+    assertTrue(authorizationService.isUserAuthorized("jonny", groupIds, ALL, resource));
+
+    // when
+    authorization.removePermission(ALL);
+    authorizationService.saveAuthorization(authorization);
+
+    // then
+    assertFalse(authorizationService.isUserAuthorized("jonny", groupIds, ALL, resource));
+  }
+
+  public void testInvalidateDecisionsOnDeleteAuthorization() {
+    Authorization authorization = createGlobalAuthorization();
+    assertTrue(authorizationService.isUserAuthorized("jonny", groupIds, ALL, resource));
+
+    // when
+    authorizationService.deleteAuthorization(authorization.getId());
+
+    // then
+    assertFalse(authorizationService.isUserAuthorized("jonny", groupIds, ALL, resource));
+  }
+
+  public void testDoNotCacheDecisionReadBeforeInvalidation() {
+    long generation = decisionCache.getGeneration();
+    decisionCache.invalidate();
+
+    decisionCache.put("key", true, generation);
+
+    assertNull(decisionCache.get("key"));
+  }
+
+  public void testExpiredDecision() {
+    AuthorizationDecisionCache cache = new AuthorizationDecisionCache(0, 100);
+    cache.put("key", true, cache.getGeneration());
+
+    assertNull(cache.get("key"));
+  }
+
+  public void testEvictLeastRecentlyUsedDecision() {
+    AuthorizationDecisionCache cache = new AuthorizationDecisionCache(60000, 2);
+    cache.put("key1", true, cache.getGeneration());
+    cache.put("key2", true, cache.getGeneration());
+
+    // when
+    cache.put("key3", false, cache.getGeneration());
+
+    // then
+    // the cache is bounded without being cleared
+    assertTrue(cache.size() <= 2);
+    assertEquals(Boolean.FALSE, cache.get("key3"));
+  }
+
+  protected Authorization createGlobalAuthorization() {
+    Authorization authorization = authorizationService.createNewAuthorization(AUTH_TYPE_GLOBAL);
+    authorization.setResource(resource);
+    authorization.setResourceId(ANY);
+    authorization.addPermission(ALL);
+    return authorizationService.saveAuthorization(authorization);
+  }
+
+}
@@ -0,0 +1,284 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.identity;
+
+import static org.camunda.bpm.engine.authorization.Authorization.ANY;
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_GLOBAL;
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_GRANT;
+import static org.camunda.bpm.engine.authorization.Authorization.AUTH_TYPE_REVOKE;
+import static org.camunda.bpm.engine.authorization.Permissions.READ;
+import static org.camunda.bpm.engine.authorization.Resources.USER;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.camunda.bpm.engine.authorization.Authorization;
+import org.camunda.bpm.engine.authorization.Permission;
+import org.camunda.bpm.engine.identity.Group;
+import org.camunda.bpm.engine.identity.User;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationIndexEntry;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+
+public class AuthorizationIndexTest extends PluggableProcessEngineTestCase {
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    processEngineConfiguration.setAuthorizationIndexEnabled(true);
+
+    createUser("jonny");
+    createUser("demo");
+    createUser("mary");
+    createGroup("sales");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    identityService.clearAuthentication();
+    processEngineConfiguration.setAuthorizationEnabled(false);
+
+    for (User user : identityService.createUserQuery().list()) {
+      identityService.deleteUser(user.getId());
+    }
+    for (Group group : identityService.createGroupQuery().list()) {
+      identityService.deleteGroup(group.getId());
+    }
+    for (Authorization authorization : authorizationService.createAuthorizationQuery().list()) {
+      authorizationService.deleteAuthorization(authorization.getId());
+    }
+
+    managementService.rebuildAuthorizationIndex();
+    executeAvailableJobs();
+    processEngineConfiguration.setAuthorizationIndexEnabled(false);
+    super.tearDown();
+  }
+
+  public void testQueryWithIndex() {
+    createAuthorization(AUTH_TYPE_GLOBAL, ANY, ANY, READ);
+    createAuthorization(AUTH_TYPE_REVOKE, "jonny", "mary", READ);
+    identityService.createMembership("jonny", "sales");
+
+    assertFalse(getIndexEntries("jonny").isEmpty());
+    assertFalse(getIndexEntries(ANY).isEmpty());
+
+    // when
+    processEngineConfiguration.setAuthorizationEnabled(true);
+    identityService.setAuthentication("jonny", Arrays.asList("sales"));
+
+    // then
+    assertEquals(new HashSet<String>(Arrays.asList("jonny", "demo")), getVisibleUserIds());
+    assertFalse(authorizationService.isUserAuthorized("jonny", Arrays.asList("sales"), READ, USER, "mary"));
+
+    // users without entries are checked against the global entries
+    identityService.setAuthentication("mary", null);
+    assertEquals(new HashSet<String>(Arrays.asList("jonny", "demo", "mary")), getVisibleUserIds());
+  }
+
+  public void testIgnoreIndexForGroupsWhichAreNotStored() {
+    createAuthorization(AUTH_TYPE_GRANT, "jonny", "demo", READ);
+
+    Authorization grant = authorizationService.createNewAuthorization(AUTH_TYPE_GRANT);
+    grant.setGroupId("accounting");
+    grant.setResource(USER);
+    grant.setResourceId(ANY);
+    grant.addPermission(READ);
+    authorizationService.saveAuthorization(grant);
+
+    // the entries of jonny are calculated without the group
+    assertFalse(getIndexEntries("jonny").isEmpty());
+
+    processEngineConfiguration.setAuthorizationEnabled(true);
+
+    // when
+    // the group is not stored as membership, e.g. it is provided by LDAP
+    identityService.setAuthentication("jonny", Arrays.asList("accounting"));
+
+    // then
+    assertEquals(new HashSet<String>(Arrays.asList("jonny", "demo", "mary")), getVisibleUserIds());
+    assertTrue(authorizationService.isUserAuthorized("jonny", Arrays.asList("accounting"), READ, USER, "mary"));
+
+    // when
+    // the user is authenticated with the stored memberships
+    identityService.setAuthentication("jonny", null);
+
+    // then
+    assertEquals(new HashSet<String>(Arrays.asList("demo")), getVisibleUserIds());
+  }
+
+  public void testGroupAuthorizationOverridesGlobalAuthorization() {
+    createAuthorization(AUTH_TYPE_GLOBAL, ANY, ANY, READ);
+
+    Authorization revoke = authorizationService.createNewAuthorization(AUTH_TYPE_REVOKE);
+    revoke.setGroupId("sales");
+    revoke.setResource(USER);
+    revoke.setResourceId("demo");
+    revoke.removePermission(READ);
+    authorizationService.saveAuthorization(revoke);
+
+    identityService.createMembership("jonny", "sales");
+
+    AuthorizationIndexEntry entry = getIndexEntry("jonny", "demo");
+    assertEquals(0, entry.getPermissions() & READ.getValue());
+    assertEquals(READ.getValue(), entry.getDecidedPermissions() & READ.getValue());
+
+    processEngineConfiguration.setAuthorizationEnabled(true);
+    identityService.setAuthentication("jonny", Arrays.asList("sales"));
+
+    assertEquals(new HashSet<String>(Arrays.asList("jonny", "mary")), getVisibleUserIds());
+  }
+
+  public void testUpdateIndexOnMembershipChange() {
+    Authorization grant = authorizationService.createNewAuthorization(AUTH_TYPE_GRANT);
+    grant.setGroupId("sales");
+    grant.setResource(USER);
+    grant.setResourceId("demo");
+    grant.addPermission(READ);
+    authorizationService.saveAuthorization(grant);
+
+    assertTrue(getIndexEntries("jonny").isEmpty());
+
+    // when
+    identityService.createMembership("jonny", "sales");
+
+    // then
+    AuthorizationIndexEntry entry = getIndexEntry("jonny", "demo");
+    assertEquals(READ.getValue(), entry.getPermissions() & READ.getValue());
+
+    // when
+    identityService.deleteMembership("jonny", "sales");
+
+    // then
+    assertTrue(getIndexEntries("jonny").isEmpty());
+  }
+
+  public void testUpdateIndexOnAuthorizationChange() {
+    Authorization authorization = createAuthorization(AUTH_TYPE_GRANT, "jonny", "demo", READ);
+
+    assertEquals(READ.getValue(), getIndexEntry("jonny", "demo").getPermissions());
+
+    // when
+    authorization.setUserId("mary");
+    authorizationService.saveAuthorization(authorization);
+
+    // then
+    assertTrue(getIndexEntries("jonny").isEmpty());
+    assertEquals(READ.getValue(), getIndexEntry("mary", "demo").getPermissions());
+
+    // when
+    authorizationService.deleteAuthorization(authorization.getId());
+
+    // then
+    assertTrue(getIndexEntries("mary").isEmpty());
+  }
+
+  public void testRebuildIndex() {
+    processEngineConfiguration.setAuthorizationIndexEnabled(false);
+
+    createAuthorization(AUTH_TYPE_GRANT, "jonny", "demo", READ);
+
+    processEngineConfiguration.setAuthorizationIndexEnabled(true);
+    assertTrue(getIndexEntries("jonny").isEmpty());
+
+    // when
+    managementService.rebuildAuthorizationIndex();
+
+    // then
+    assertEquals(READ.getValue(), getIndexEntry("jonny", "demo").getPermissions());
+  }
+
+  public void testEvaluateAuthorizationsWhileEntriesAreStale() {
+    createAuthorization(AUTH_TYPE_GLOBAL, ANY, ANY, READ);
+    createAuthorization(AUTH_TYPE_GRANT, "jonny", "demo", READ);
+    assertFalse(getIndexEntries("jonny").isEmpty());
+
+    // when
+    createAuthorization(AUTH_TYPE_REVOKE, "jonny", "mary", READ);
+
+    // then
+    // the entries are recalculated by a job
+    assertEquals(1, managementService.createJobQuery().count());
+
+    processEngineConfiguration.setAuthorizationEnabled(true);
+    identityService.setAuthentication("jonny", null);
+    assertEquals(new HashSet<String>(Arrays.asList("jonny", "demo")), getVisibleUserIds());
+
+    // when
+    identityService.clearAuthentication();
+    processEngineConfiguration.setAuthorizationEnabled(false);
+    AuthorizationIndexEntry entry = getIndexEntry("jonny", "mary");
+
+    // then
+    assertEquals(0, entry.getPermissions() & READ.getValue());
+    assertEquals(READ.getValue(), entry.getDecidedPermissions() & READ.getValue());
+
+    processEngineConfiguration.setAuthorizationEnabled(true);
+    identityService.setAuthentication("jonny", null);
+    assertEquals(new HashSet<String>(Arrays.asList("jonny", "demo")), getVisibleUserIds());
+  }
+
+  protected Authorization createAuthorization(int type, String userId, String resourceId, Permission permission) {
+    Authorization authorization = authorizationService.createNewAuthorization(type);
+    authorization.setUserId(userId);
+    authorization.setResource(USER);
+    authorization.setResourceId(resourceId);
+    if (type == AUTH_TYPE_REVOKE) {
+      authorization.removePermission(permission);
+    }
+    else {
+      authorization.addPermission(permission);
+    }
+    return authorizationService.saveAuthorization(authorization);
+  }
+
+  protected void createUser(String userId) {
+    identityService.saveUser(identityService.newUser(userId));
+  }
+
+  protected void createGroup(String groupId) {
+    identityService.saveGroup(identityService.newGroup(groupId));
+  }
+
+  protected Set<String> getVisibleUserIds() {
+    Set<String> userIds = new HashSet<String>();
+    for (User user : identityService.createUserQuery().list()) {
+      userIds.add(user.getId());
+    }
+    return userIds;
+  }
+
+  protected AuthorizationIndexEntry getIndexEntry(String subjectId, String resourceId) {
+    for (AuthorizationIndexEntry entry : getIndexEntries(subjectId)) {
+      if (entry.getResourceType() == USER.resourceType() && entry.getResourceId().equals(resourceId)) {
+        return entry;
+      }
+    }
+    fail("no index entry for " + subjectId + " and " + resourceId);
+    return null;
+  }
+
+  protected List<AuthorizationIndexEntry> getIndexEntries(final String subjectId) {
+    // execute the jobs which recalculate the stale entries
+    executeAvailableJobs();
+
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<List<AuthorizationIndexEntry>>() {
+      public List<AuthorizationIndexEntry> execute(CommandContext commandContext) {
+        return commandContext.getAuthorizationIndexManager().findEntriesBySubjectId(subjectId);
+      }
+    });
+  }
+
+}
@@ -0,0 +1,217 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.camunda.bpm.engine.runtime.MessageCorrelationItemResult;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+
+public class CorrelateMessagesTest extends PluggableProcessEngineTestCase {
+
+  protected static final String MESSAGE_PROCESS = "org/camunda/bpm/engine/test/api/runtime/MessageCorrelationTest.testCatchingMessageEventCorrelation.bpmn20.xml";
+  protected static final String MESSAGE_START_PROCESS = "org/camunda/bpm/engine/test/api/runtime/MessageCorrelationTest.testMessageStartEventCorrelation.bpmn20.xml";
+  protected static final String FAILING_PROCESS = "org/camunda/bpm/engine/test/api/runtime/CorrelateMessagesTest.failingProcess.bpmn20.xml";
+  protected static final String RECEIVE_TASK_PROCESS = "org/camunda/bpm/engine/test/api/runtime/CorrelateMessagesTest.receiveTaskProcess.bpmn20.xml";
+  protected static final String INTERRUPTING_PROCESS = "org/camunda/bpm/engine/test/api/runtime/CorrelateMessagesTest.interruptingBoundaryEventProcess.bpmn20.xml";
+  protected static final String LOOPING_PROCESS = "org/camunda/bpm/engine/test/api/runtime/CorrelateMessagesTest.loopingReceiveTaskProcess.bpmn20.xml";
+
+  protected int defaultBatchSize;
+  protected Set<String> defaultCorrelationIndexKeys;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    defaultBatchSize = processEngineConfiguration.getMessageCorrelationBatchSize();
+    defaultCorrelationIndexKeys = processEngineConfiguration.getCorrelationIndexKeys();
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setMessageCorrelationBatchSize(defaultBatchSize);
+    processEngineConfiguration.setCorrelationIndexKeys(defaultCorrelationIndexKeys);
+    super.tearDown();
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testCorrelateMessagesInBatches() {
+    processEngineConfiguration.setMessageCorrelationBatchSize(2);
+
+    List<MessageCorrelationBuilder> correlations = new ArrayList<MessageCorrelationBuilder>();
+    List<String> processInstanceIds = new ArrayList<String>();
+    for (int i = 0; i < 5; i++) {
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", i));
+      processInstanceIds.add(processInstance.getId());
+      correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceVariableEquals("aKey", i));
+    }
+
+    List<MessageCorrelationItemResult> results = runtimeService.correlateMessages(correlations);
+
+    assertEquals(5, results.size());
+    for (int i = 0; i < 5; i++) {
+      MessageCorrelationItemResult result = results.get(i);
+      assertSame(correlations.get(i), result.getMessageCorrelation());
+      assertTrue(result.isCorrelated());
+      assertNull(result.getFailure());
+      assertEquals(processInstanceIds.get(i), result.getProcessInstanceId());
+    }
+    assertEquals(5, runtimeService.createExecutionQuery().activityId("task").count());
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testCorrelateMessagesByIndexedVariable() {
+    Set<String> correlationIndexKeys = new HashSet<String>();
+    correlationIndexKeys.add("aKey");
+    processEngineConfiguration.setCorrelationIndexKeys(correlationIndexKeys);
+
+    ProcessInstance first = runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", "first"));
+    ProcessInstance second = runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", "second"));
+
+    List<MessageCorrelationBuilder> correlations = new ArrayList<MessageCorrelationBuilder>();
+    correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceVariableEquals("aKey", "second"));
+    correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceId(first.getId()));
+
+    List<MessageCorrelationItemResult> results = runtimeService.correlateMessages(correlations);
+
+    assertEquals(second.getId(), results.get(0).getProcessInstanceId());
+    assertEquals(first.getId(), results.get(1).getProcessInstanceId());
+    assertEquals(2, runtimeService.createExecutionQuery().activityId("task").count());
+  }
+
+  @Deployment(resources = MESSAGE_START_PROCESS)
+  public void testCorrelateMessagesStartsProcessInstances() {
+    List<MessageCorrelationBuilder> correlations = new ArrayList<MessageCorrelationBuilder>();
+    correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceBusinessKey("first"));
+    correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceBusinessKey("second"));
+
+    List<MessageCorrelationItemResult> results = runtimeService.correlateMessages(correlations);
+
+    assertTrue(results.get(0).isCorrelated());
+    assertTrue(results.get(1).isCorrelated());
+    assertEquals(1, runtimeService.createProcessInstanceQuery().processInstanceBusinessKey("first").count());
+    assertEquals(1, runtimeService.createProcessInstanceQuery().processInstanceBusinessKey("second").count());
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testMismatchingMessageDoesNotAffectOthers() {
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", "aValue"));
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", "anotherValue"));
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", "anotherValue"));
+
+    List<MessageCorrelationBuilder> correlations = new ArrayList<MessageCorrelationBuilder>();
+    correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceVariableEquals("aKey", "unknownValue"));
+    correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceVariableEquals("aKey", "anotherValue"));
+    correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceVariableEquals("aKey", "aValue"));
+
+    List<MessageCorrelationItemResult> results = runtimeService.correlateMessages(correlations);
+
+    // no execution matches
+    assertFalse(results.get(0).isCorrelated());
+    assertTrue(results.get(0).getFailure() instanceof MismatchingMessageCorrelationException);
+
+    // two executions match
+    assertFalse(results.get(1).isCorrelated());
+    assertTrue(results.get(1).getFailure() instanceof MismatchingMessageCorrelationException);
+
+    assertTrue(results.get(2).isCorrelated());
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+  }
+
+  @Deployment(resources = {MESSAGE_PROCESS, FAILING_PROCESS})
+  public void testFailingMessageIsIsolated() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", "aValue"));
+    ProcessInstance failingProcessInstance = runtimeService.startProcessInstanceByKey("failingProcess");
+
+    List<MessageCorrelationBuilder> correlations = new ArrayList<MessageCorrelationBuilder>();
+    correlations.add(runtimeService.createMessageCorrelation("newInvoiceMessage").processInstanceVariableEquals("aKey", "aValue"));
+    correlations.add(runtimeService.createMessageCorrelation("failingMessage").processInstanceId(failingProcessInstance.getId()));
+
+    List<MessageCorrelationItemResult> results = runtimeService.correlateMessages(correlations);
+
+    assertEquals(processInstance.getId(), results.get(0).getProcessInstanceId());
+    assertFalse(results.get(1).isCorrelated());
+    assertNotNull(results.get(1).getFailure());
+
+    // the correlation of the first message is not rolled back with the failing one
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("messageCatch").count());
+  }
+
+  @Deployment(resources = RECEIVE_TASK_PROCESS)
+  public void testMessagesForSameReceiveTaskInOneBatch() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("receiveTaskProcess",
+        Variables.createVariables().putValue("aKey", "aValue"));
+
+    List<MessageCorrelationBuilder> correlations = new ArrayList<MessageCorrelationBuilder>();
+    correlations.add(runtimeService.createMessageCorrelation("receiveMessage").processInstanceId(processInstance.getId()));
+    correlations.add(runtimeService.createMessageCorrelation("receiveMessage").processInstanceVariableEquals("aKey", "aValue"));
+
+    List<MessageCorrelationItemResult> results = runtimeService.correlateMessages(correlations);
+
+    assertEquals(processInstance.getId(), results.get(0).getProcessInstanceId());
+
+    // the receive task has been left by the first message
+    assertFalse(results.get(1).isCorrelated());
+    assertTrue(results.get(1).getFailure() instanceof MismatchingMessageCorrelationException);
+
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+    assertEquals(0, runtimeService.createEventSubscriptionQuery().count());
+  }
+
+  @Deployment(resources = INTERRUPTING_PROCESS)
+  public void testMessageForExecutionRemovedByPreviousMessage() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("interruptingProcess");
+
+    List<MessageCorrelationBuilder> correlations = new ArrayList<MessageCorrelationBuilder>();
+    correlations.add(runtimeService.createMessageCorrelation("cancelMessage").processInstanceId(processInstance.getId()));
+    correlations.add(runtimeService.createMessageCorrelation("receiveMessage").processInstanceId(processInstance.getId()));
+
+    List<MessageCorrelationItemResult> results = runtimeService.correlateMessages(correlations);
+
+    assertEquals(processInstance.getId(), results.get(0).getProcessInstanceId());
+
+    // the receive task has been removed by the interrupting boundary event
+    assertFalse(results.get(1).isCorrelated());
+    assertTrue(results.get(1).getFailure() instanceof MismatchingMessageCorrelationException);
+
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("cancelledTask").count());
+    assertEquals(0, runtimeService.createEventSubscriptionQuery().count());
+  }
+
+  @Deployment(resources = LOOPING_PROCESS)
+  public void testMessagesForLoopingReceiveTaskInOneBatch() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("loopingProcess",
+        Variables.createVariables().putValue("done", false));
+
+    List<MessageCorrelationBuilder> correlations = new ArrayList<MessageCorrelationBuilder>();
+    correlations.add(runtimeService.createMessageCorrelation("receiveMessage").processInstanceId(processInstance.getId()));
+    correlations.add(runtimeService.createMessageCorrelation("receiveMessage").processInstanceId(processInstance.getId())
+        .setVariable("done", true));
+
+    List<MessageCorrelationItemResult> results = runtimeService.correlateMessages(correlations);
+
+    // the receive task is reached again after the first message
+    assertTrue(results.get(0).isCorrelated());
+    assertTrue(results.get(1).isCorrelated());
+
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+    assertEquals(0, runtimeService.createEventSubscriptionQuery().count());
+  }
+
+}
@@ -0,0 +1,182 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+
+public class CorrelationIndexTest extends PluggableProcessEngineTestCase {
+
+  protected static final String MESSAGE_PROCESS = "org/camunda/bpm/engine/test/api/runtime/MessageCorrelationTest.testCatchingMessageEventCorrelation.bpmn20.xml";
+
+  protected Set<String> defaultCorrelationIndexKeys;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    defaultCorrelationIndexKeys = processEngineConfiguration.getCorrelationIndexKeys();
+
+    Set<String> correlationIndexKeys = new HashSet<String>();
+    correlationIndexKeys.add("aKey");
+    processEngineConfiguration.setCorrelationIndexKeys(correlationIndexKeys);
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setCorrelationIndexKeys(defaultCorrelationIndexKeys);
+    super.tearDown();
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testCorrelateByIndexedStringVariable() {
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", "aValue"));
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", "anotherValue"));
+
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("aKey", "aValue")
+      .correlate();
+
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").processVariableValueEquals("aKey", "aValue").count());
+    assertEquals(1, runtimeService.createExecutionQuery().messageEventSubscriptionName("newInvoiceMessage").count());
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testCorrelateByIndexedNumberVariable() {
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", 42));
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", 43L));
+
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("aKey", 42)
+      .correlate();
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+
+    // a number value matches all numeric types
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("aKey", Variables.numberValue(43))
+      .correlate();
+    assertEquals(2, runtimeService.createExecutionQuery().activityId("task").count());
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testCorrelateByIndexedLongStringVariable() {
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      value.append("value");
+    }
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", value.toString()));
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("aKey", value.toString() + "!"));
+
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("aKey", value.toString())
+      .correlateAll();
+
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testIndexIsUpdatedWithVariable() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process",
+        Variables.createVariables().putValue("aKey", "aValue"));
+
+    runtimeService.setVariable(processInstance.getId(), "aKey", "anotherValue");
+
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("aKey", "aValue")
+      .correlateAll();
+    assertEquals(0, runtimeService.createExecutionQuery().activityId("task").count());
+
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("aKey", "anotherValue")
+      .correlateAll();
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testCorrelateByNotIndexedVariable() {
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables()
+        .putValue("aKey", "aValue")
+        .putValue("anotherKey", "anotherValue"));
+
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("aKey", "aValue")
+      .processInstanceVariableEquals("anotherKey", "anotherValue")
+      .correlate();
+
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testRebuildIndex() {
+    processEngineConfiguration.setCorrelationIndexKeys(new HashSet<String>());
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("anotherKey", "aValue"));
+
+    Set<String> correlationIndexKeys = new HashSet<String>();
+    correlationIndexKeys.add("anotherKey");
+    processEngineConfiguration.setCorrelationIndexKeys(correlationIndexKeys);
+
+    // the variable is not indexed yet
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("anotherKey", "aValue")
+      .correlateAll();
+    assertEquals(0, runtimeService.createExecutionQuery().activityId("task").count());
+
+    managementService.rebuildCorrelationIndex();
+
+    runtimeService.createMessageCorrelation("newInvoiceMessage")
+      .processInstanceVariableEquals("anotherKey", "aValue")
+      .correlateAll();
+    assertEquals(1, runtimeService.createExecutionQuery().activityId("task").count());
+  }
+
+  @Deployment(resources = MESSAGE_PROCESS)
+  public void testRebuildIndexKeepsRevision() {
+    processEngineConfiguration.setCorrelationIndexKeys(new HashSet<String>());
+    runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("anotherKey", "aValue"));
+
+    String variableId = runtimeService.createVariableInstanceQuery().singleResult().getId();
+    int revision = getVariableInstance(variableId).getRevision();
+
+    Set<String> correlationIndexKeys = new HashSet<String>();
+    correlationIndexKeys.add("anotherKey");
+    processEngineConfiguration.setCorrelationIndexKeys(correlationIndexKeys);
+
+    managementService.rebuildCorrelationIndex();
+
+    VariableInstanceEntity variableInstance = getVariableInstance(variableId);
+    assertNotNull(variableInstance.getCorrelationKey());
+    assertEquals(revision, variableInstance.getRevision());
+
+    // the key is removed if the variable is no longer indexed
+    processEngineConfiguration.setCorrelationIndexKeys(new HashSet<String>());
+    managementService.rebuildCorrelationIndex();
+
+    variableInstance = getVariableInstance(variableId);
+    assertNull(variableInstance.getCorrelationKey());
+    assertEquals(revision, variableInstance.getRevision());
+  }
+
+  protected VariableInstanceEntity getVariableInstance(final String variableId) {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<VariableInstanceEntity>() {
+      public VariableInstanceEntity execute(CommandContext commandContext) {
+        return commandContext.getDbEntityManager().selectById(VariableInstanceEntity.class, variableId);
+      }
+    });
+  }
+
+}
@@ -33,6 +33,7 @@ import org.camunda.bpm.engine.runtime.Incident;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
 import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.VariableMap;
 import org.camunda.bpm.engine.variable.Variables;
 import org.junit.Assert;
 
@@ -1648,6 +1649,61 @@ public class ProcessInstanceQueryTest extends PluggableProcessEngineTestCase {
 
   }
 
+  public void testQueryWithVariables() {
+    runtimeService.setVariable(processInstanceIds.get(0), "a", "a0");
+    runtimeService.setVariable(processInstanceIds.get(0), "b", 0);
+    runtimeService.setVariable(processInstanceIds.get(1), "a", "a1");
+
+    List<ProcessInstance> processInstances = runtimeService.createProcessInstanceQuery()
+      .processDefinitionKey(PROCESS_DEFINITION_KEY)
+      .withVariables("a", "b")
+      .list();
+
+    assertEquals(4, processInstances.size());
+    for (ProcessInstance processInstance : processInstances) {
+      VariableMap variables = processInstance.getFetchedVariables();
+
+      if (processInstance.getId().equals(processInstanceIds.get(0))) {
+        assertEquals(2, variables.size());
+        assertEquals("a0", variables.get("a"));
+        assertEquals(0, variables.get("b"));
+      }
+      else if (processInstance.getId().equals(processInstanceIds.get(1))) {
+        assertEquals(1, variables.size());
+        assertEquals("a1", variables.get("a"));
+      }
+      else {
+        assertTrue(variables.isEmpty());
+      }
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneSubProcess.bpmn20.xml")
+  public void testQueryWithVariablesExcludesVariablesOfChildExecutions() {
+    String processInstanceId = runtimeService.startProcessInstanceByKey("startSimpleSubProcess",
+        Variables.createVariables().putValue("a", "processInstance")).getId();
+
+    Execution subProcessExecution = runtimeService.createExecutionQuery().activityId("task").singleResult();
+    runtimeService.setVariableLocal(subProcessExecution.getId(), "b", "subProcess");
+
+    ProcessInstance processInstance = runtimeService.createProcessInstanceQuery()
+      .processInstanceId(processInstanceId)
+      .withVariables("a", "b")
+      .singleResult();
+
+    VariableMap variables = processInstance.getFetchedVariables();
+    assertEquals(1, variables.size());
+    assertEquals("processInstance", variables.get("a"));
+  }
+
+  public void testQueryWithoutVariables() {
+    ProcessInstance processInstance = runtimeService.createProcessInstanceQuery()
+      .processInstanceId(processInstanceIds.get(0))
+      .singleResult();
+
+    assertNull(processInstance.getFetchedVariables());
+  }
+
   protected <T> Set<T> asSet(T... elements) {
     return new HashSet<T>(Arrays.asList(elements));
   }
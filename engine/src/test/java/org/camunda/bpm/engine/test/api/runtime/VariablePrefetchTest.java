@@ -0,0 +1,96 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+
+public class VariablePrefetchTest extends PluggableProcessEngineTestCase {
+
+  protected static final String PARALLEL_GATEWAY_PROCESS = "org/camunda/bpm/engine/test/api/runtime/ProcessInstanceModificationTest.parallelGateway.bpmn20.xml";
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    processEngineConfiguration.setVariablePrefetchEnabled(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setVariablePrefetchEnabled(false);
+    super.tearDown();
+  }
+
+  @Deployment(resources = PARALLEL_GATEWAY_PROCESS)
+  public void testGetVariablesOfExecutionsAndTasks() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("parallelGateway");
+    runtimeService.setVariable(processInstance.getId(), "global", "globalValue");
+
+    Task task1 = taskService.createTaskQuery().taskDefinitionKey("task1").singleResult();
+    Task task2 = taskService.createTaskQuery().taskDefinitionKey("task2").singleResult();
+    runtimeService.setVariableLocal(task1.getExecutionId(), "local", "task1Execution");
+    runtimeService.setVariableLocal(task2.getExecutionId(), "local", "task2Execution");
+    taskService.setVariableLocal(task1.getId(), "taskLocal", "task1");
+
+    // then
+    assertEquals("globalValue", runtimeService.getVariable(processInstance.getId(), "global"));
+    assertNull(runtimeService.getVariableLocal(processInstance.getId(), "local"));
+
+    Map<String, Object> task1Variables = taskService.getVariables(task1.getId());
+    assertEquals(3, task1Variables.size());
+    assertEquals("globalValue", task1Variables.get("global"));
+    assertEquals("task1Execution", task1Variables.get("local"));
+    assertEquals("task1", task1Variables.get("taskLocal"));
+
+    Map<String, Object> task2Variables = taskService.getVariables(task2.getId());
+    assertEquals(2, task2Variables.size());
+    assertEquals("task2Execution", task2Variables.get("local"));
+    assertTrue(taskService.getVariablesLocal(task2.getId()).isEmpty());
+  }
+
+  @Deployment(resources = PARALLEL_GATEWAY_PROCESS)
+  public void testDistributeVariablesToLoadedExecutionsAndTasks() {
+    runtimeService.startProcessInstanceByKey("parallelGateway");
+
+    final Task task1 = taskService.createTaskQuery().taskDefinitionKey("task1").singleResult();
+    final Task task2 = taskService.createTaskQuery().taskDefinitionKey("task2").singleResult();
+    runtimeService.setVariableLocal(task2.getExecutionId(), "local", "task2Execution");
+    taskService.setVariableLocal(task2.getId(), "taskLocal", "task2");
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        ExecutionEntity execution2 = commandContext.getExecutionManager().findExecutionById(task2.getExecutionId());
+        TaskEntity taskEntity2 = commandContext.getTaskManager().findTaskById(task2.getId());
+        TaskEntity taskEntity1 = commandContext.getTaskManager().findTaskById(task1.getId());
+
+        // when the variables of one task are accessed
+        taskEntity1.getVariablesLocal();
+
+        // then the already loaded execution and task get their variables without a further query
+        assertEquals("task2Execution", execution2.getVariableLocal("local"));
+        assertEquals("task2", taskEntity2.getVariableLocal("taskLocal"));
+        assertNull(taskEntity1.getVariableLocal("taskLocal"));
+        return null;
+      }
+    });
+  }
+
+}
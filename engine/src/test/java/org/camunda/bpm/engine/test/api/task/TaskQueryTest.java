@@ -62,6 +62,7 @@ import org.camunda.bpm.engine.task.DelegationState;
 import org.camunda.bpm.engine.task.Task;
 import org.camunda.bpm.engine.task.TaskQuery;
 import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.VariableMap;
 import org.camunda.bpm.engine.variable.Variables;
 import org.camunda.bpm.engine.variable.type.ValueType;
 import org.camunda.bpm.engine.variable.value.FileValue;
@@ -4136,6 +4137,99 @@ public class TaskQueryTest extends PluggableProcessEngineTestCase {
     } catch (ProcessEngineException e) {}
   }
 
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testQueryWithVariables() {
+    ProcessInstance processInstance1 = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("a", "a1").putValue("b", 1).putValue("c", "c1"));
+    ProcessInstance processInstance2 = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValue("a", "a2"));
+
+    Task task2 = taskService.createTaskQuery().processInstanceId(processInstance2.getId()).singleResult();
+    taskService.setVariableLocal(task2.getId(), "b", 2);
+
+    List<Task> tasks = taskService.createTaskQuery()
+      .processDefinitionKey("oneTaskProcess")
+      .withVariables("a", "b", "unknown")
+      .list();
+
+    assertEquals(2, tasks.size());
+    for (Task task : tasks) {
+      VariableMap variables = task.getFetchedVariables();
+      assertEquals(2, variables.size());
+
+      if (task.getProcessInstanceId().equals(processInstance1.getId())) {
+        assertEquals("a1", variables.get("a"));
+        assertEquals(1, variables.get("b"));
+      }
+      else {
+        assertEquals("a2", variables.get("a"));
+        assertEquals(2, variables.get("b"));
+      }
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneSubProcess.bpmn20.xml")
+  public void testQueryWithVariablesOfScopeExecutions() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("startSimpleSubProcess",
+        Variables.createVariables().putValue("a", "processInstance").putValue("b", "processInstance"));
+
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    runtimeService.setVariableLocal(task.getExecutionId(), "b", "subProcess");
+    taskService.setVariableLocal(task.getId(), "c", "task");
+
+    task = taskService.createTaskQuery()
+      .processInstanceId(processInstance.getId())
+      .withVariables("a", "b", "c")
+      .singleResult();
+
+    VariableMap variables = task.getFetchedVariables();
+    assertEquals(3, variables.size());
+    assertEquals("processInstance", variables.get("a"));
+    assertEquals("subProcess", variables.get("b"));
+    assertEquals("task", variables.get("c"));
+  }
+
+  public void testQueryWithVariablesOfStandaloneTask() {
+    taskService.setVariableLocal(taskIds.get(0), "a", "task");
+
+    Task task = taskService.createTaskQuery()
+      .taskId(taskIds.get(0))
+      .withVariables("a")
+      .singleResult();
+
+    assertEquals(1, task.getFetchedVariables().size());
+    assertEquals("task", task.getFetchedVariables().get("a"));
+
+    task = taskService.createTaskQuery()
+      .taskId(taskIds.get(1))
+      .withVariables("a")
+      .singleResult();
+
+    assertTrue(task.getFetchedVariables().isEmpty());
+  }
+
+  public void testQueryWithoutVariables() {
+    Task task = taskService.createTaskQuery().taskId(taskIds.get(0)).singleResult();
+
+    assertNull(task.getFetchedVariables());
+  }
+
+  public void testQueryWithVariablesInvalidParameter() {
+    try {
+      taskService.createTaskQuery().withVariables((String[]) null);
+      fail("exception expected");
+    } catch (NullValueException e) {
+      // expected
+    }
+
+    try {
+      taskService.createTaskQuery().withVariables();
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
   @Deployment(resources={"org/camunda/bpm/engine/test/api/task/oneTaskWithFormKeyProcess.bpmn20.xml"})
   public void testInitializeFormKeys() {
     ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
@@ -0,0 +1,176 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.camunda.bpm.engine.test.bpmn.event.signal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.management.SignalBroadcastProgress;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+
+public class SignalEventReceivedAsyncTest extends PluggableProcessEngineTestCase {
+
+  protected int defaultBatchSize;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    defaultBatchSize = processEngineConfiguration.getSignalBroadcastBatchSize();
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setSignalBroadcastBatchSize(defaultBatchSize);
+    ClockUtil.reset();
+    super.tearDown();
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/event/signal/SignalEventTests.catchAlertSignal.bpmn20.xml")
+  public void testSignalIsDeliveredInBatches() {
+    processEngineConfiguration.setSignalBroadcastBatchSize(2);
+    for (int i = 0; i < 5; i++) {
+      runtimeService.startProcessInstanceByKey("catchSignal");
+    }
+
+    String broadcastId = runtimeService.signalEventReceivedAsync("alert");
+
+    // the signal is not delivered yet
+    assertEquals(5, runtimeService.createProcessInstanceQuery().count());
+    SignalBroadcastProgress progress = managementService.getSignalBroadcastProgress(broadcastId);
+    assertEquals(broadcastId, progress.getBroadcastId());
+    assertEquals(1, progress.getPendingJobs());
+    assertFalse(progress.isCompleted());
+
+    // one job creates three batch jobs and checks their completion
+    executeAvailableJobs();
+
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+    assertTrue(managementService.getSignalBroadcastProgress(broadcastId).isCompleted());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/event/signal/SignalEventTests.catchAlertSignal.bpmn20.xml")
+  public void testSignalIsDeliveredInPages() {
+    processEngineConfiguration.setSignalBroadcastBatchSize(1);
+    // more subscriptions than batch jobs created per page
+    for (int i = 0; i < 12; i++) {
+      runtimeService.startProcessInstanceByKey("catchSignal");
+    }
+
+    String broadcastId = runtimeService.signalEventReceivedAsync("alert");
+    executeAvailableJobs();
+
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+    assertTrue(managementService.getSignalBroadcastProgress(broadcastId).isCompleted());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/event/signal/SignalEventTests.catchAlertSignal.bpmn20.xml")
+  public void testSubscriptionCreatedAfterStartIsNotSignaled() {
+    runtimeService.startProcessInstanceByKey("catchSignal");
+
+    String broadcastId = runtimeService.signalEventReceivedAsync("alert");
+
+    ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + 2000));
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("catchSignal");
+
+    executeAvailableJobs();
+
+    assertEquals(1, runtimeService.createProcessInstanceQuery().count());
+    assertEquals(processInstance.getId(), runtimeService.createProcessInstanceQuery().singleResult().getId());
+    assertTrue(managementService.getSignalBroadcastProgress(broadcastId).isCompleted());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/event/signal/SignalEventTests.catchAlertSignal.bpmn20.xml")
+  public void testDeletedSubscriptionIsNotSignaled() {
+    processEngineConfiguration.setSignalBroadcastBatchSize(1);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("catchSignal");
+    runtimeService.startProcessInstanceByKey("catchSignal");
+
+    String broadcastId = runtimeService.signalEventReceivedAsync("alert");
+    // creates the batch jobs
+    managementService.executeJob(managementService.createJobQuery().singleResult().getId());
+
+    runtimeService.deleteProcessInstance(processInstance.getId(), null);
+    executeAvailableJobs();
+
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+    assertTrue(managementService.getSignalBroadcastProgress(broadcastId).isCompleted());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/event/signal/SignalEventTest.signalStartEvent.bpmn20.xml")
+  public void testSignalWithTypedVariables() {
+    List<String> items = new ArrayList<String>();
+    items.add("anItem");
+
+    String broadcastId = runtimeService.signalEventReceivedAsync("alert", Variables.createVariables()
+        .putValueTyped("amount", Variables.longValue(42L))
+        .putValue("items", items));
+    executeAvailableJobs();
+
+    ProcessInstance processInstance = runtimeService.createProcessInstanceQuery().processDefinitionKey("startBySignal").singleResult();
+    assertEquals(42L, runtimeService.getVariable(processInstance.getId(), "amount"));
+    assertEquals(items, runtimeService.getVariable(processInstance.getId(), "items"));
+
+    assertTrue(managementService.getSignalBroadcastProgress(broadcastId).isCompleted());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/event/signal/SignalEventTest.signalStartEvent.bpmn20.xml")
+  public void testSignalWithVariables() {
+    String broadcastId = runtimeService.signalEventReceivedAsync("alert", Collections.<String, Object>singletonMap("foo", "bar"));
+    executeAvailableJobs();
+
+    ProcessInstance processInstance = runtimeService.createProcessInstanceQuery().processDefinitionKey("startBySignal").singleResult();
+    assertNotNull(processInstance);
+    assertEquals("bar", runtimeService.getVariable(processInstance.getId(), "foo"));
+
+    // the variables of the signal are deleted
+    assertTrue(managementService.getSignalBroadcastProgress(broadcastId).isCompleted());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/event/signal/SignalEventReceivedAsyncTest.catchAlertSignalAndFail.bpmn20.xml")
+  public void testCompletionCheckStopsWhileBatchJobsFailed() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("catchSignalAndFail");
+
+    String broadcastId = runtimeService.signalEventReceivedAsync("alert");
+    executeAvailableJobs();
+
+    // the failed batch job is left and the completion is not checked anymore
+    SignalBroadcastProgress progress = managementService.getSignalBroadcastProgress(broadcastId);
+    assertEquals(0, progress.getPendingJobs());
+    assertEquals(1, progress.getFailedJobs());
+    assertFalse(progress.isCompleted());
+
+    // when the failed batch job is executed again
+    runtimeService.setVariable(processInstance.getId(), "fail", false);
+    Job failedJob = managementService.createJobQuery().noRetriesLeft().singleResult();
+    managementService.setJobRetries(failedJob.getId(), 1);
+    executeAvailableJobs();
+
+    // then the completion is checked again
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+    assertTrue(managementService.getSignalBroadcastProgress(broadcastId).isCompleted());
+  }
+
+  public void testSignalWithoutSubscriptions() {
+    String broadcastId = runtimeService.signalEventReceivedAsync("alert");
+    executeAvailableJobs(1);
+
+    assertTrue(managementService.getSignalBroadcastProgress(broadcastId).isCompleted());
+  }
+
+}
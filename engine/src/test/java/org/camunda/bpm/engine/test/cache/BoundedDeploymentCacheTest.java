@@ -0,0 +1,88 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.cache;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.persistence.deploy.DeploymentCache;
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+/**
+ * Runs the engine with a deployment cache capacity of two entries.
+ */
+public class BoundedDeploymentCacheTest extends ResourceProcessEngineTestCase {
+
+  public BoundedDeploymentCacheTest() {
+    super("org/camunda/bpm/engine/test/cache/boundedDeploymentCache.camunda.cfg.xml");
+  }
+
+  public void testProcessDefinitionCacheIsBounded() {
+    deployment(createProcess("process1"), createProcess("process2"), createProcess("process3"));
+
+    DeploymentCache deploymentCache = processEngineConfiguration.getDeploymentCache();
+    assertEquals(2, deploymentCache.getProcessDefinitionCache().size());
+
+    DeploymentCacheStatistics statistics = getStatistics(DeploymentCacheStatistics.PROCESS_DEFINITION_CACHE);
+    assertEquals(2, statistics.getSize());
+    assertEquals(2, statistics.getCapacity());
+    assertTrue(statistics.getEvictionCount() > 0);
+  }
+
+  public void testStartEvictedProcessDefinition() {
+    deployment(createProcess("process1"), createProcess("process2"), createProcess("process3"));
+
+    long missCount = getStatistics(DeploymentCacheStatistics.PROCESS_DEFINITION_CACHE).getMissCount();
+
+    // at least one of the definitions was evicted and is deployed again
+    for (String processDefinitionKey : new String[] { "process1", "process2", "process3" }) {
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(processDefinitionKey);
+      assertNotNull(taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult());
+    }
+
+    DeploymentCacheStatistics statistics = getStatistics(DeploymentCacheStatistics.PROCESS_DEFINITION_CACHE);
+    assertTrue(statistics.getMissCount() > missCount);
+    assertTrue(statistics.getSize() <= 2);
+  }
+
+  public void testStatisticsForAllCaches() {
+    List<DeploymentCacheStatistics> statistics = managementService.getDeploymentCacheStatistics();
+
+    assertEquals(6, statistics.size());
+    for (DeploymentCacheStatistics cacheStatistics : statistics) {
+      assertEquals(2, cacheStatistics.getCapacity());
+    }
+  }
+
+  protected DeploymentCacheStatistics getStatistics(String cacheName) {
+    for (DeploymentCacheStatistics statistics : managementService.getDeploymentCacheStatistics()) {
+      if (cacheName.equals(statistics.getCacheName())) {
+        return statistics;
+      }
+    }
+    fail("no statistics for cache " + cacheName);
+    return null;
+  }
+
+  protected BpmnModelInstance createProcess(String processDefinitionKey) {
+    return Bpmn.createExecutableProcess(processDefinitionKey)
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done();
+  }
+
+}
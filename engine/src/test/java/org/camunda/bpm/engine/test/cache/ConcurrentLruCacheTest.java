@@ -0,0 +1,98 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.Cache;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.ConcurrentLruCache;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DefaultCacheFactory;
+import org.junit.Test;
+
+public class ConcurrentLruCacheTest {
+
+  @Test
+  public void testEvictLeastRecentlyUsedEntry() {
+    Cache<String, String> cache = new ConcurrentLruCache<String, String>(2, 1);
+
+    cache.put("a", "1");
+    cache.put("b", "2");
+
+    // access a, so b becomes the least recently used entry
+    assertEquals("1", cache.get("a"));
+    cache.put("c", "3");
+
+    assertEquals(2, cache.size());
+    assertTrue(cache.containsKey("a"));
+    assertFalse(cache.containsKey("b"));
+    assertTrue(cache.containsKey("c"));
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testHitAndMissCount() {
+    Cache<String, String> cache = new ConcurrentLruCache<String, String>(10, 1);
+    cache.put("a", "1");
+
+    cache.get("a");
+    cache.get("a");
+    cache.get("b");
+
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testSegmentCapacitiesAddUpToCapacity() {
+    Cache<String, Integer> cache = new ConcurrentLruCache<String, Integer>(100, 16);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.put("key" + i, i);
+    }
+
+    assertEquals(100, cache.getCapacity());
+    assertTrue(cache.size() <= 100);
+    assertEquals(1000 - cache.size(), cache.getEvictionCount());
+  }
+
+  @Test
+  public void testUnboundedCache() {
+    Cache<String, Integer> cache = new DefaultCacheFactory().createCache(0);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.put("key" + i, i);
+    }
+
+    assertEquals(-1, cache.getCapacity());
+    assertEquals(1000, cache.size());
+    assertEquals(0, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testRemoveAndClear() {
+    Cache<String, String> cache = new ConcurrentLruCache<String, String>(10, 4);
+    cache.put("a", "1");
+    cache.put("b", "2");
+
+    cache.remove("a");
+    assertNull(cache.get("a"));
+    assertEquals(1, cache.keySet().size());
+
+    cache.clear();
+    assertTrue(cache.isEmpty());
+  }
+
+}
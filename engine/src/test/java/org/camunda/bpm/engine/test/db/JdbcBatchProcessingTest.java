@@ -0,0 +1,130 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.db.sql.BatchDbSqlSession;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+
+/**
+ * Runs the engine with JDBC batch processing enabled.
+ */
+public class JdbcBatchProcessingTest extends ResourceProcessEngineTestCase {
+
+  public JdbcBatchProcessingTest() {
+    super("org/camunda/bpm/engine/test/db/jdbcBatchProcessing.camunda.cfg.xml");
+  }
+
+  public void testBatchSessionIsUsed() {
+    assertTrue(processEngineConfiguration.isJdbcBatchProcessing());
+
+    boolean isBatchSession = processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Boolean>() {
+      public Boolean execute(CommandContext commandContext) {
+        return commandContext.getDbSqlSession() instanceof BatchDbSqlSession;
+      }
+    });
+
+    assertTrue(isBatchSession);
+  }
+
+  public void testExecuteProcess() {
+    deployment(Bpmn.createExecutableProcess("testProcess")
+      .startEvent()
+      .parallelGateway("fork")
+        .userTask("task1")
+        .parallelGateway("join")
+        .endEvent()
+      .moveToNode("fork")
+        .userTask("task2")
+        .connectTo("join")
+    .done());
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+    runtimeService.setVariable(processInstance.getId(), "aVariable", "aValue");
+
+    assertEquals(2, taskService.createTaskQuery().count());
+
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.complete(task.getId());
+    }
+
+    assertProcessEnded(processInstance.getId());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().finished().count());
+    assertEquals(1, historyService.createHistoricVariableInstanceQuery().variableName("aVariable").count());
+  }
+
+  public void testOptimisticLockingIsDetected() {
+    deployment(Bpmn.createExecutableProcess("testProcess")
+      .startEvent()
+      .userTask()
+      .endEvent()
+    .done());
+
+    runtimeService.startProcessInstanceByKey("testProcess");
+    final String taskId = taskService.createTaskQuery().singleResult().getId();
+
+    try {
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          TaskEntity task = commandContext.getTaskManager().findTaskById(taskId);
+
+          // a concurrent transaction increments the revision of the task
+          incrementTaskRevision(commandContext, taskId);
+
+          task.setName("updated");
+          return null;
+        }
+      });
+      fail("exception expected");
+    }
+    catch (OptimisticLockingException e) {
+      // expected
+    }
+
+    assertNull(taskService.createTaskQuery().singleResult().getName());
+  }
+
+  protected void incrementTaskRevision(CommandContext commandContext, String taskId) {
+    Connection connection = commandContext.getDbSqlSession().getSqlSession().getConnection();
+    Statement statement = null;
+    try {
+      statement = connection.createStatement();
+      statement.executeUpdate("UPDATE ACT_RU_TASK SET REV_ = REV_ + 1 WHERE ID_ = '" + taskId + "'");
+    }
+    catch (SQLException e) {
+      throw new ProcessEngineException(e);
+    }
+    finally {
+      if (statement != null) {
+        try {
+          statement.close();
+        }
+        catch (SQLException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,150 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.db.IdBlock;
+import org.camunda.bpm.engine.impl.db.PrefetchingDbIdGenerator;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrefetchingDbIdGeneratorTest {
+
+  private static final int THREAD_COUNT = 10;
+  private static final int LOOP_COUNT = 10000;
+  private static final int ID_BLOCK_SIZE = 100;
+
+  protected PrefetchingDbIdGenerator idGenerator;
+  protected IdBlockCommandExecutor commandExecutor;
+
+  @Before
+  public void setUp() {
+    commandExecutor = new IdBlockCommandExecutor();
+
+    idGenerator = new PrefetchingDbIdGenerator();
+    idGenerator.setIdBlockSize(ID_BLOCK_SIZE);
+    idGenerator.setCommandExecutor(commandExecutor);
+  }
+
+  @After
+  public void tearDown() {
+    idGenerator.close();
+  }
+
+  @Test
+  public void testSequentialIds() {
+    for (int i = 0; i < 3 * ID_BLOCK_SIZE; i++) {
+      Assert.assertEquals(Long.toString(i), idGenerator.getNextId());
+    }
+  }
+
+  @Test
+  public void testPrefetchNextBlock() throws Exception {
+    // when the low-water mark is reached
+    for (int i = 0; i <= ID_BLOCK_SIZE - idGenerator.getLowWaterMark(); i++) {
+      idGenerator.getNextId();
+    }
+
+    // then the next block is fetched in the background
+    Assert.assertEquals(1, idGenerator.getPrefetchCount());
+
+    // and no caller waits for a block
+    idGenerator.getPrefetchedBlock().get(10, TimeUnit.SECONDS);
+    for (int i = 0; i < ID_BLOCK_SIZE; i++) {
+      idGenerator.getNextId();
+    }
+    Assert.assertEquals(0, idGenerator.getRefillStallCount());
+  }
+
+  @Test
+  public void testInitialBlockIsNoStall() {
+    idGenerator.getNextId();
+
+    Assert.assertEquals(0, idGenerator.getRefillStallCount());
+  }
+
+  @Test
+  public void testUseAfterCloseIsRejected() {
+    idGenerator.getNextId();
+    idGenerator.close();
+
+    try {
+      idGenerator.getNextId();
+      Assert.fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testMultithreaded() throws InterruptedException {
+    final List<Thread> threads = new ArrayList<Thread>();
+    final ConcurrentSkipListSet<String> generatedIds = new ConcurrentSkipListSet<String>();
+    final ConcurrentSkipListSet<String> duplicatedIds = new ConcurrentSkipListSet<String>();
+
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      Thread thread = new Thread(new Runnable() {
+        public void run() {
+          for (int j = 0; j < LOOP_COUNT; j++) {
+            String id = idGenerator.getNextId();
+            boolean wasAdded = generatedIds.add(id);
+            if (!wasAdded) {
+              duplicatedIds.add(id);
+            }
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Assert.assertEquals(THREAD_COUNT * LOOP_COUNT, generatedIds.size());
+    Assert.assertTrue(duplicatedIds.isEmpty());
+  }
+
+  /**
+   * Hands out id blocks like the GetNextIdBlockCmd without a database.
+   */
+  public static class IdBlockCommandExecutor implements CommandExecutor {
+
+    protected AtomicLong nextId = new AtomicLong(0);
+    protected AtomicLong fetchedBlocks = new AtomicLong(0);
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Command<T> command) {
+      long firstId = nextId.getAndAdd(ID_BLOCK_SIZE);
+      fetchedBlocks.incrementAndGet();
+      return (T) new IdBlock(firstId, firstId + ID_BLOCK_SIZE - 1);
+    }
+
+    public long getFetchedBlocks() {
+      return fetchedBlocks.get();
+    }
+  }
+
+}
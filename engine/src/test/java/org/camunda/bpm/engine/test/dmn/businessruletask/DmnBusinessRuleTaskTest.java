@@ -13,6 +13,8 @@
 package org.camunda.bpm.engine.test.dmn.businessruletask;
 
 import org.camunda.bpm.engine.exception.dmn.DecisionDefinitionNotFoundException;
+import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionEntity;
+import org.camunda.bpm.engine.impl.scripting.ExecutableScript;
 import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.test.Deployment;
@@ -116,6 +118,25 @@ public class DmnBusinessRuleTaskTest extends PluggableProcessEngineTestCase {
     repositoryService.deleteDeployment(thirdDeploymentId, true);
   }
 
+  @Deployment(resources = { DECISION_PROCESS, DECISION_OKAY_DMN })
+  public void testCompiledDecisionIsCached() {
+    runtimeService.startProcessInstanceByKey("testProcess");
+
+    String decisionDefinitionId = repositoryService.createDecisionDefinitionQuery().singleResult().getId();
+    DecisionDefinitionEntity decisionDefinition = processEngineConfiguration
+      .getDeploymentCache()
+      .getDecisionDefinitionCache()
+      .get(decisionDefinitionId);
+
+    ExecutableScript compiledDecision = decisionDefinition.getExecutableScript();
+    assertNotNull(compiledDecision);
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("testProcess");
+
+    assertEquals("okay", runtimeService.getVariable(processInstance.getId(), "decisionResult"));
+    assertSame(compiledDecision, decisionDefinition.getExecutableScript());
+  }
+
   protected ProcessInstance startExpressionProcess(Object decisionKey, Object version) {
     VariableMap variables = Variables.createVariables()
         .putValue("decision", decisionKey)
@@ -0,0 +1,278 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.AsyncHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.StoredHistoryEvents;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+public class AsyncHistoryEventHandlerTest extends PluggableProcessEngineTestCase {
+
+  protected HistoryEventHandler originalHistoryEventHandler;
+  protected AsyncHistoryEventHandler asyncHistoryEventHandler;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    originalHistoryEventHandler = processEngineConfiguration.getHistoryEventHandler();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    // the remaining events must be written before the deployments are removed
+    if (asyncHistoryEventHandler != null) {
+      asyncHistoryEventHandler.stop();
+    }
+    processEngineConfiguration.setHistoryEventHandler(originalHistoryEventHandler);
+    super.tearDown();
+  }
+
+  protected void startAsyncHistoryEventHandler(int queueCapacity, long queueTimeout) {
+    startAsyncHistoryEventHandler(new AsyncHistoryEventHandler(originalHistoryEventHandler), queueCapacity, queueTimeout);
+  }
+
+  protected void startAsyncHistoryEventHandler(AsyncHistoryEventHandler handler, int queueCapacity, long queueTimeout) {
+    asyncHistoryEventHandler = handler;
+    asyncHistoryEventHandler.setQueueCapacity(queueCapacity);
+    asyncHistoryEventHandler.setQueueTimeout(queueTimeout);
+    asyncHistoryEventHandler.start(processEngineConfiguration.getCommandExecutorTxRequiresNew());
+    processEngineConfiguration.setHistoryEventHandler(asyncHistoryEventHandler);
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testWriteHistoryAsynchronously() {
+    // given
+    startAsyncHistoryEventHandler(1000, 1000);
+
+    // when
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.complete(task.getId());
+
+    asyncHistoryEventHandler.flush();
+
+    // then
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
+      HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery().singleResult();
+      assertEquals(processInstance.getId(), historicProcessInstance.getId());
+      assertNotNull(historicProcessInstance.getEndTime());
+
+      // the start event is started and ended in the same transaction
+      HistoricActivityInstance startEvent = historyService.createHistoricActivityInstanceQuery().activityId("theStart").singleResult();
+      assertNotNull(startEvent.getStartTime());
+      assertNotNull(startEvent.getEndTime());
+
+      // the user task is started and ended in different transactions
+      HistoricActivityInstance userTask = historyService.createHistoricActivityInstanceQuery().activityId("theTask").singleResult();
+      assertNotNull(userTask.getStartTime());
+      assertNotNull(userTask.getEndTime());
+
+      assertEquals(0, asyncHistoryEventHandler.getQueueSize());
+    }
+  }
+
+  public void testDiscardHistoryOfRolledBackTransaction() {
+    // given
+    BpmnModelInstance model = Bpmn.createExecutableProcess("failingProcess")
+      .startEvent()
+      .serviceTask().camundaClass(FirstFailingDelegate.class.getName())
+      .endEvent()
+      .done();
+    deployment(model);
+
+    startAsyncHistoryEventHandler(1000, 1000);
+
+    // when
+    try {
+      runtimeService.startProcessInstanceByKey("failingProcess");
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+
+    asyncHistoryEventHandler.flush();
+
+    // then
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricActivityInstanceQuery().count());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testWriteHistoryInCallingThreadIfQueueIsFull() {
+    // given
+    // a queue which cannot hold the events of the transaction
+    startAsyncHistoryEventHandler(1, 0);
+
+    // when
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // then
+    // the history is written before the command returns
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+      assertEquals(2, historyService.createHistoricActivityInstanceQuery().count());
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testWriteRemainingHistoryOnStop() {
+    // given
+    startAsyncHistoryEventHandler(1000, 1000);
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // when
+    asyncHistoryEventHandler.stop();
+
+    // then
+    assertFalse(asyncHistoryEventHandler.isActive());
+    assertEquals(0, asyncHistoryEventHandler.getQueueSize());
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testRecoverEventsLostFromQueue() {
+    // given
+    startEventLosingHandler();
+
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
+      assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+      assertTrue(countStoredHistoryEvents() > 0);
+
+      // when
+      asyncHistoryEventHandler.recover();
+
+      // then
+      assertEquals(0, countStoredHistoryEvents());
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+      assertEquals(2, historyService.createHistoricActivityInstanceQuery().count());
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testKeepEventsStoredIfWriteFails() {
+    // given
+    FailingHistoryEventHandler failingHistoryEventHandler = new FailingHistoryEventHandler(originalHistoryEventHandler);
+    AsyncHistoryEventHandler handler = new AsyncHistoryEventHandler(failingHistoryEventHandler);
+    handler.setStoreEvents(true);
+    startAsyncHistoryEventHandler(handler, 1000, 1000);
+
+    // when
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    asyncHistoryEventHandler.flush();
+
+    // then
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
+      assertTrue(countStoredHistoryEvents() > 0);
+
+      // and the events are written on recovery
+      failingHistoryEventHandler.fail = false;
+      asyncHistoryEventHandler.recover();
+
+      assertEquals(0, countStoredHistoryEvents());
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testRecoverEventsInOrder() {
+    // given
+    startEventLosingHandler();
+
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    Task task = taskService.createTaskQuery().singleResult();
+    taskService.complete(task.getId());
+
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
+      assertTrue(countStoredHistoryEvents() > 1);
+
+      // when
+      asyncHistoryEventHandler.recover();
+
+      // then
+      // the events of the completion update the events of the start
+      assertEquals(0, countStoredHistoryEvents());
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().finished().count());
+      assertEquals(3, historyService.createHistoricActivityInstanceQuery().finished().count());
+    }
+  }
+
+  public void testEventsAreNotStoredByDefault() {
+    assertFalse(new AsyncHistoryEventHandler(originalHistoryEventHandler).isStoreEvents());
+    assertFalse(processEngineConfiguration.isAsyncHistoryStoreEvents());
+  }
+
+  /**
+   * Starts a handler which stores the events and loses them after the transaction is committed.
+   */
+  protected void startEventLosingHandler() {
+    AsyncHistoryEventHandler handler = new AsyncHistoryEventHandler(originalHistoryEventHandler) {
+      protected void enqueue(List<HistoryEventChunk> chunks) {
+        // simulates a crash
+      }
+    };
+    handler.setStoreEvents(true);
+    startAsyncHistoryEventHandler(handler, 1000, 1000);
+  }
+
+  protected long countStoredHistoryEvents() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Long>() {
+      public Long execute(CommandContext commandContext) {
+        return (long) StoredHistoryEvents.findIds(commandContext).size();
+      }
+    });
+  }
+
+  public static class FailingHistoryEventHandler implements HistoryEventHandler {
+
+    protected HistoryEventHandler delegate;
+    protected boolean fail = true;
+
+    public FailingHistoryEventHandler(HistoryEventHandler delegate) {
+      this.delegate = delegate;
+    }
+
+    public void handleEvent(HistoryEvent historyEvent) {
+      if (fail) {
+        throw new ProcessEngineException("cannot write history event");
+      }
+      delegate.handleEvent(historyEvent);
+    }
+
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+      for (HistoryEvent historyEvent : historyEvents) {
+        handleEvent(historyEvent);
+      }
+    }
+  }
+
+}
@@ -138,6 +138,28 @@ public class HistoricActivityInstanceTest extends PluggableProcessEngineTestCase
     assertTrue(((HistoricActivityInstanceEventEntity)historicActivityInstance).getDurationRaw() >= ONE_YEAR);
   }
 
+  @Deployment(resources = { "org/camunda/bpm/engine/test/history/HistoricActivityInstanceTest.testHistoricActivityInstanceReceive.bpmn20.xml" })
+  public void testDurationOfActivityInstanceEndedInLaterTransaction() {
+    Calendar cal = Calendar.getInstance();
+    cal.set(Calendar.SECOND, 0);
+    cal.set(Calendar.MILLISECOND, 0);
+    ClockUtil.setCurrentTime(cal.getTime());
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("receiveProcess");
+
+    // the activity instance is ended in a new transaction,
+    // the duration is calculated by the database
+    cal.add(Calendar.SECOND, 5);
+    ClockUtil.setCurrentTime(cal.getTime());
+
+    runtimeService.signal(processInstance.getId());
+
+    HistoricActivityInstance historicActivityInstance = historyService.createHistoricActivityInstanceQuery().activityId("receive").singleResult();
+    assertEquals(cal.getTime(), historicActivityInstance.getEndTime());
+    assertEquals(Long.valueOf(5000), historicActivityInstance.getDurationInMillis());
+    assertEquals(Long.valueOf(5000), ((HistoricActivityInstanceEventEntity) historicActivityInstance).getDurationRaw());
+  }
+
   @Deployment
   public void testHistoricActivityInstanceQuery() {
     ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("noopProcess");
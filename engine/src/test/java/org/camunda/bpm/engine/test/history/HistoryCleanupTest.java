@@ -0,0 +1,280 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history;
+
+import java.io.ByteArrayInputStream;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.ScheduleHistoryCleanupJobsCmd;
+import org.camunda.bpm.engine.impl.history.cleanup.HistoryCleanupBatchWindow;
+import org.camunda.bpm.engine.impl.history.cleanup.HistoryCleanupJobHandler;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+
+public class HistoryCleanupTest extends PluggableProcessEngineTestCase {
+
+  protected static final long ONE_DAY = 24 * 60 * 60 * 1000L;
+
+  protected Integer originalHistoryTimeToLive;
+  protected Map<String, Integer> originalHistoryTimeToLiveByProcessDefinitionKey;
+  protected int originalHistoryCleanupBatchSize;
+  protected HistoryCleanupBatchWindow originalHistoryCleanupBatchWindow;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    originalHistoryTimeToLive = processEngineConfiguration.getHistoryTimeToLive();
+    originalHistoryTimeToLiveByProcessDefinitionKey = processEngineConfiguration.getHistoryTimeToLiveByProcessDefinitionKey();
+    originalHistoryCleanupBatchSize = processEngineConfiguration.getHistoryCleanupBatchSize();
+    originalHistoryCleanupBatchWindow = processEngineConfiguration.getHistoryCleanupBatchWindow();
+
+    processEngineConfiguration.setHistoryCleanupEnabled(true);
+    processEngineConfiguration.setHistoryTimeToLiveByProcessDefinitionKey(new HashMap<String, Integer>());
+    processEngineConfiguration.setHistoryCleanupBatchWindow(new HistoryCleanupBatchWindow(null, null));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        for (String partition : HistoryCleanupJobHandler.getPartitions(processEngineConfiguration)) {
+          List<JobEntity> jobs = commandContext.getJobManager().findJobsByConfiguration(HistoryCleanupJobHandler.TYPE, partition);
+          for (JobEntity job : jobs) {
+            job.delete();
+          }
+        }
+        commandContext.getHistoricJobLogManager().deleteHistoricJobLogsByHandlerType(HistoryCleanupJobHandler.TYPE);
+        return null;
+      }
+    });
+
+    processEngineConfiguration.setHistoryCleanupEnabled(false);
+    processEngineConfiguration.setHistoryTimeToLive(originalHistoryTimeToLive);
+    processEngineConfiguration.setHistoryTimeToLiveByProcessDefinitionKey(originalHistoryTimeToLiveByProcessDefinitionKey);
+    processEngineConfiguration.setHistoryCleanupBatchSize(originalHistoryCleanupBatchSize);
+    processEngineConfiguration.setHistoryCleanupBatchWindow(originalHistoryCleanupBatchWindow);
+    ClockUtil.reset();
+    super.tearDown();
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testCleanupDeletesExpiredHistory() {
+    if (!isHistoryLevelAuditEnabled()) {
+      return;
+    }
+
+    // given
+    processEngineConfiguration.setHistoryTimeToLive(5);
+
+    Date start = new Date();
+    ClockUtil.setCurrentTime(start);
+    String expiredProcessInstanceId = runProcessInstance("oneTaskProcess");
+
+    ClockUtil.setCurrentTime(new Date(start.getTime() + 3 * ONE_DAY));
+    String keptProcessInstanceId = runProcessInstance("oneTaskProcess");
+
+    ClockUtil.setCurrentTime(new Date(start.getTime() + 6 * ONE_DAY));
+    scheduleHistoryCleanupJobs();
+
+    Job job = managementService.createJobQuery().singleResult();
+    assertNotNull(job);
+
+    // when
+    managementService.executeJob(job.getId());
+
+    // then
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().processInstanceId(expiredProcessInstanceId).count());
+    assertEquals(0, historyService.createHistoricVariableInstanceQuery().processInstanceId(expiredProcessInstanceId).count());
+    assertEquals(0, historyService.createHistoricActivityInstanceQuery().processInstanceId(expiredProcessInstanceId).count());
+    assertEquals(0, historyService.createHistoricTaskInstanceQuery().processInstanceId(expiredProcessInstanceId).count());
+    assertEquals(0, taskService.getProcessInstanceComments(expiredProcessInstanceId).size());
+    assertEquals(0, taskService.getProcessInstanceAttachments(expiredProcessInstanceId).size());
+
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(keptProcessInstanceId).count());
+    assertEquals(1, historyService.createHistoricVariableInstanceQuery().processInstanceId(keptProcessInstanceId).count());
+    assertEquals(1, historyService.createHistoricTaskInstanceQuery().processInstanceId(keptProcessInstanceId).count());
+    assertEquals(1, taskService.getProcessInstanceComments(keptProcessInstanceId).size());
+    assertEquals(1, taskService.getProcessInstanceAttachments(keptProcessInstanceId).size());
+
+    // the batch was not full, so the next cleanup is scheduled later
+    Job nextJob = managementService.createJobQuery().singleResult();
+    assertNotNull(nextJob);
+    assertTrue(nextJob.getDuedate().after(ClockUtil.getCurrentTime()));
+  }
+
+  @Deployment(resources = {
+      "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml",
+      "org/camunda/bpm/engine/test/api/twoTasksProcess.bpmn20.xml" })
+  public void testCleanupByProcessDefinitionKey() {
+    if (!isHistoryLevelAuditEnabled()) {
+      return;
+    }
+
+    // given
+    processEngineConfiguration.getHistoryTimeToLiveByProcessDefinitionKey().put("oneTaskProcess", 1);
+
+    Date start = new Date();
+    ClockUtil.setCurrentTime(start);
+    String oneTaskProcessInstanceId = runProcessInstance("oneTaskProcess");
+    String twoTasksProcessInstanceId = runProcessInstance("twoTasksProcess");
+
+    ClockUtil.setCurrentTime(new Date(start.getTime() + 2 * ONE_DAY));
+    scheduleHistoryCleanupJobs();
+
+    // then there is only a job for the process definition key
+    Job job = managementService.createJobQuery().singleResult();
+    assertNotNull(job);
+
+    // when
+    managementService.executeJob(job.getId());
+
+    // then
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().processInstanceId(oneTaskProcessInstanceId).count());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(twoTasksProcessInstanceId).count());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testCleanupIsRescheduledIfBatchIsFull() {
+    if (!isHistoryLevelAuditEnabled()) {
+      return;
+    }
+
+    // given
+    processEngineConfiguration.setHistoryTimeToLive(1);
+    processEngineConfiguration.setHistoryCleanupBatchSize(1);
+
+    Date start = new Date();
+    ClockUtil.setCurrentTime(start);
+    runProcessInstance("oneTaskProcess");
+    ClockUtil.setCurrentTime(new Date(start.getTime() + 1000));
+    String secondProcessInstanceId = runProcessInstance("oneTaskProcess");
+
+    ClockUtil.setCurrentTime(new Date(start.getTime() + 2 * ONE_DAY));
+    scheduleHistoryCleanupJobs();
+
+    // when
+    managementService.executeJob(managementService.createJobQuery().singleResult().getId());
+
+    // then the longest ended process instance is deleted first
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(secondProcessInstanceId).count());
+
+    // and the next batch is due immediately
+    Job nextJob = managementService.createJobQuery().singleResult();
+    assertFalse(nextJob.getDuedate().after(ClockUtil.getCurrentTime()));
+
+    // when
+    managementService.executeJob(nextJob.getId());
+
+    // then
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+  }
+
+  public void testJobsAreScheduledOnlyOnce() {
+    processEngineConfiguration.setHistoryTimeToLive(1);
+    processEngineConfiguration.getHistoryTimeToLiveByProcessDefinitionKey().put("oneTaskProcess", 2);
+
+    scheduleHistoryCleanupJobs();
+    scheduleHistoryCleanupJobs();
+
+    if (isHistoryLevelNone()) {
+      assertEquals(0, managementService.createJobQuery().count());
+    }
+    else {
+      assertEquals(2, managementService.createJobQuery().count());
+    }
+  }
+
+  public void testBatchWindow() {
+    HistoryCleanupBatchWindow batchWindow = new HistoryCleanupBatchWindow("22:00", "06:00");
+
+    assertTrue(batchWindow.isWithin(time(23, 0)));
+    assertTrue(batchWindow.isWithin(time(5, 59)));
+    assertFalse(batchWindow.isWithin(time(6, 0)));
+    assertFalse(batchWindow.isWithin(time(12, 0)));
+
+    assertEquals(time(22, 0), batchWindow.getNextStart(time(12, 0)));
+    assertEquals(new Date(time(22, 0).getTime() + ONE_DAY), batchWindow.getNextStart(time(22, 0)));
+  }
+
+  public void testInvalidBatchWindow() {
+    try {
+      new HistoryCleanupBatchWindow("22:00", null);
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+
+    try {
+      new HistoryCleanupBatchWindow("25:00", "06:00");
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  protected String runProcessInstance(String processDefinitionKey) {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(processDefinitionKey,
+        Variables.createVariables().putValue("bytes", "someBytes".getBytes()));
+
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).active().list().get(0);
+    taskService.createComment(task.getId(), processInstance.getId(), "a comment");
+    taskService.createAttachment("text", task.getId(), processInstance.getId(), "an attachment", null,
+        new ByteArrayInputStream("someContent".getBytes()));
+
+    // complete all tasks
+    List<Task> tasks = taskService.createTaskQuery().processInstanceId(processInstance.getId()).list();
+    while (!tasks.isEmpty()) {
+      for (Task openTask : tasks) {
+        taskService.complete(openTask.getId());
+      }
+      tasks = taskService.createTaskQuery().processInstanceId(processInstance.getId()).list();
+    }
+
+    return processInstance.getId();
+  }
+
+  protected void scheduleHistoryCleanupJobs() {
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new ScheduleHistoryCleanupJobsCmd());
+  }
+
+  protected boolean isHistoryLevelAuditEnabled() {
+    return processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT;
+  }
+
+  protected boolean isHistoryLevelNone() {
+    return processEngineConfiguration.getHistoryLevel().getId() == ProcessEngineConfigurationImpl.HISTORYLEVEL_NONE;
+  }
+
+  protected Date time(int hours, int minutes) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.set(2015, Calendar.JUNE, 1, hours, minutes, 0);
+    calendar.set(Calendar.MILLISECOND, 0);
+    return calendar.getTime();
+  }
+
+}
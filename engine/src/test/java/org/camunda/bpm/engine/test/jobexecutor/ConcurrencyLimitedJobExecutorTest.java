@@ -0,0 +1,100 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.ConcurrencyLimitedJobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.JobAcquisitionContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.PermitBasedJobAcquisitionStrategy;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.model.bpmn.Bpmn;
+
+public class ConcurrencyLimitedJobExecutorTest extends PluggableProcessEngineTestCase {
+
+  protected JobExecutor defaultJobExecutor;
+  protected ConcurrencyLimitedJobExecutor jobExecutor;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    defaultJobExecutor = processEngineConfiguration.getJobExecutor();
+
+    jobExecutor = new ConcurrencyLimitedJobExecutor();
+    jobExecutor.setMaxConcurrentJobs(2);
+    jobExecutor.setRejectedJobsHandler(defaultJobExecutor.getRejectedJobsHandler());
+    jobExecutor.setWaitTimeInMillis(100);
+    jobExecutor.registerProcessEngine(processEngineConfiguration.getProcessEngine());
+
+    processEngineConfiguration.setJobExecutor(jobExecutor);
+  }
+
+  protected void tearDown() throws Exception {
+    jobExecutor.shutdown();
+    processEngineConfiguration.setJobExecutor(defaultJobExecutor);
+    super.tearDown();
+  }
+
+  public void testExecuteJobs() {
+    deployment(Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .serviceTask()
+        .camundaAsyncBefore()
+        .camundaExpression("${true}")
+      .endEvent()
+      .done());
+
+    for (int i = 0; i < 10; i++) {
+      runtimeService.startProcessInstanceByKey("process");
+    }
+
+    waitForJobExecutorToProcessAllJobs(10000);
+
+    assertEquals(0, managementService.createJobQuery().count());
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+    assertEquals(2, jobExecutor.getAvailablePermits());
+  }
+
+  public void testAcquireNoMoreJobsThanPermits() {
+    PermitBasedJobAcquisitionStrategy strategy = new PermitBasedJobAcquisitionStrategy(new FixedPermitsJobExecutor(1));
+    assertEquals(1, strategy.getNumJobsToAcquire("engine"));
+
+    strategy = new PermitBasedJobAcquisitionStrategy(new FixedPermitsJobExecutor(100));
+    assertEquals(jobExecutor.getMaxJobsPerAcquisition(), strategy.getNumJobsToAcquire("engine"));
+  }
+
+  public void testWaitWhenNoPermitsAvailable() {
+    PermitBasedJobAcquisitionStrategy strategy = new PermitBasedJobAcquisitionStrategy(new FixedPermitsJobExecutor(0));
+    assertEquals(0, strategy.getNumJobsToAcquire("engine"));
+
+    JobAcquisitionContext context = new JobAcquisitionContext();
+    context.submitAcquiredJobs("engine", new AcquiredJobs(0));
+    strategy.reconfigure(context);
+
+    // no busy waiting for free permits
+    assertTrue(strategy.getWaitTime() > 0);
+  }
+
+  protected static class FixedPermitsJobExecutor extends ConcurrencyLimitedJobExecutor {
+
+    protected int availablePermits;
+
+    public FixedPermitsJobExecutor(int availablePermits) {
+      this.availablePermits = availablePermits;
+    }
+
+    public int getAvailablePermits() {
+      return availablePermits;
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import java.util.Date;
+
+import org.camunda.bpm.engine.impl.jobexecutor.JobDueDateQueue;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.test.Deployment;
+
+public class DueDateAwareJobAcquisitionTest extends PluggableProcessEngineTestCase {
+
+  protected JobExecutor jobExecutor;
+  protected int defaultWaitTime;
+  protected long defaultMaxWait;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    jobExecutor = processEngineConfiguration.getJobExecutor();
+    defaultWaitTime = jobExecutor.getWaitTimeInMillis();
+    defaultMaxWait = jobExecutor.getMaxWait();
+
+    // without due dates, a timer would not be found before the idle wait time has passed
+    jobExecutor.setWaitTimeInMillis(60000);
+    jobExecutor.setMaxWait(60000);
+    jobExecutor.setDueDateAwareAcquisition(true);
+  }
+
+  protected void tearDown() throws Exception {
+    jobExecutor.shutdown();
+    jobExecutor.setWaitTimeInMillis(defaultWaitTime);
+    jobExecutor.setMaxWait(defaultMaxWait);
+    jobExecutor.setDueDateAwareAcquisition(false);
+    jobExecutor.getDueDateQueue().clear();
+    super.tearDown();
+  }
+
+  @Deployment
+  public void testWakeUpWhenTimerIsDue() throws Exception {
+    jobExecutor.start();
+
+    // let the job acquisition go idle
+    Thread.sleep(500);
+
+    runtimeService.startProcessInstanceByKey("timerProcess");
+
+    long timeout = System.currentTimeMillis() + 20000;
+    while (runtimeService.createProcessInstanceQuery().count() > 0 && System.currentTimeMillis() < timeout) {
+      Thread.sleep(200);
+    }
+
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+  }
+
+  public void testDueDateQueue() {
+    JobDueDateQueue queue = new JobDueDateQueue(2);
+
+    assertTrue(queue.add(new Date(3000)));
+    assertTrue(queue.add(new Date(1000)));
+    assertFalse(queue.add(new Date(2000)));
+
+    // only the earliest due dates are kept
+    assertEquals(2, queue.size());
+
+    assertEquals(new Date(2000), queue.removeDueDatesUntil(new Date(1000)));
+    assertNull(queue.removeDueDatesUntil(new Date(2000)));
+    assertEquals(0, queue.size());
+  }
+
+}
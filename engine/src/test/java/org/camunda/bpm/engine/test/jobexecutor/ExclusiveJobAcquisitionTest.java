@@ -0,0 +1,81 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsCmd;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+
+/**
+ * Asserts that exclusive jobs of multiple process instances are acquired in batches per process instance.
+ */
+public class ExclusiveJobAcquisitionTest extends PluggableProcessEngineTestCase {
+
+  public void testAcquireExclusiveJobsOfMultipleProcessInstances() {
+    deployment(Bpmn.createExecutableProcess("testProcess")
+      .startEvent()
+      .parallelGateway("fork")
+        .userTask("task1")
+          .camundaAsyncBefore()
+        .endEvent()
+      .moveToNode("fork")
+        .userTask("task2")
+          .camundaAsyncBefore()
+        .endEvent()
+    .done());
+
+    // given two process instances with two exclusive jobs each
+    ProcessInstance processInstance1 = runtimeService.startProcessInstanceByKey("testProcess");
+    ProcessInstance processInstance2 = runtimeService.startProcessInstanceByKey("testProcess");
+
+    // when the jobs are acquired
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 4));
+
+    // then all jobs are acquired
+    assertEquals(4, acquiredJobs.size());
+
+    // and the jobs of a process instance form one batch
+    Set<Set<String>> expectedBatches = new HashSet<Set<String>>();
+    expectedBatches.add(getJobIds(processInstance1.getId()));
+    expectedBatches.add(getJobIds(processInstance2.getId()));
+
+    Set<Set<String>> actualBatches = new HashSet<Set<String>>();
+    for (List<String> batch : acquiredJobs.getJobIdBatches()) {
+      if (!batch.isEmpty()) {
+        actualBatches.add(new HashSet<String>(batch));
+      }
+    }
+
+    assertEquals(expectedBatches, actualBatches);
+  }
+
+  protected Set<String> getJobIds(String processInstanceId) {
+    Set<String> jobIds = new HashSet<String>();
+    for (Job job : managementService.createJobQuery().processInstanceId(processInstanceId).list()) {
+      jobIds.add(job.getId());
+    }
+    return jobIds;
+  }
+
+}
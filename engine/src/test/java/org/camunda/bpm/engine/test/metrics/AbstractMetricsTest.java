@@ -14,6 +14,8 @@ package org.camunda.bpm.engine.test.metrics;
 
 import java.util.Collection;
 
+import org.camunda.bpm.engine.impl.metrics.DimensionalMeter;
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
 import org.camunda.bpm.engine.impl.metrics.Meter;
 import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
 
@@ -36,6 +38,13 @@ public abstract class AbstractMetricsTest extends PluggableProcessEngineTestCase
     for (Meter meter : meters) {
       meter.getAndClear();
     }
+    Collection<HistogramMeter> histograms = processEngineConfiguration.getMetricsRegistry().getHistograms().values();
+    for (HistogramMeter histogram : histograms) {
+      histogram.getAndClear();
+    }
+    for (DimensionalMeter meter : processEngineConfiguration.getMetricsRegistry().getDimensionalMeters()) {
+      meter.getAndClear();
+    }
     managementService.deleteMetrics(null);
   }
 }
@@ -0,0 +1,80 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.metrics;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cmd.GetCommandStatisticsCmd;
+import org.camunda.bpm.engine.impl.cmd.StartProcessInstanceCmd;
+import org.camunda.bpm.engine.impl.test.ResourceProcessEngineTestCase;
+import org.camunda.bpm.engine.management.CommandStatistics;
+import org.camunda.bpm.engine.test.Deployment;
+
+/**
+ * Asserts the per command statistics if command metrics are enabled
+ */
+public class CommandMetricsTest extends ResourceProcessEngineTestCase {
+
+  public CommandMetricsTest() {
+    super("org/camunda/bpm/engine/test/metrics/commandMetricsTest.cfg.xml");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.getMetricsRegistry().clearCommandMetrics();
+    super.tearDown();
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/bpmn/event/end/TerminateEndEventTest.testProcessTerminate.bpmn")
+  public void testStartProcessInstanceStatistics() {
+    // given
+    processEngineConfiguration.getMetricsRegistry().clearCommandMetrics();
+
+    // when
+    runtimeService.startProcessInstanceByKey("terminateEndEventExample");
+    runtimeService.startProcessInstanceByKey("terminateEndEventExample");
+
+    // then
+    CommandStatistics statistics = getStatistics(StartProcessInstanceCmd.class.getName());
+    assertNotNull(statistics);
+    assertEquals(2, statistics.getCount());
+    assertTrue(statistics.getTotalStatementCount() > 0);
+    assertTrue(statistics.getMaxCachedEntityCount() > 0);
+    assertTrue(statistics.getMaxDuration() >= statistics.getDuration95thPercentile());
+  }
+
+  public void testStatisticsAreRecordedAfterCommandCompleted() {
+    // given
+    processEngineConfiguration.getMetricsRegistry().clearCommandMetrics();
+
+    // when
+    managementService.getCommandStatistics();
+
+    // then
+    // the statistics contain the first invocation but not the currently executing one
+    List<CommandStatistics> statistics = managementService.getCommandStatistics();
+    assertEquals(1, statistics.size());
+    assertEquals(GetCommandStatisticsCmd.class.getName(), statistics.get(0).getCommandName());
+    assertEquals(1, statistics.get(0).getCount());
+  }
+
+  protected CommandStatistics getStatistics(String commandName) {
+    for (CommandStatistics statistics : managementService.getCommandStatistics()) {
+      if (commandName.equals(statistics.getCommandName())) {
+        return statistics;
+      }
+    }
+    return null;
+  }
+
+}
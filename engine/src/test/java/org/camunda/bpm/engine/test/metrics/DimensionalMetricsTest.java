@@ -0,0 +1,161 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.metrics;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.management.MetricsGroup;
+import org.camunda.bpm.model.bpmn.Bpmn;
+
+public class DimensionalMetricsTest extends AbstractMetricsTest {
+
+  protected void setUp() throws Exception {
+    processEngineConfiguration.setDimensionalMetricsEnabled(true);
+    super.setUp();
+
+    deployment(Bpmn.createExecutableProcess("oneTaskProcess")
+        .startEvent()
+        .manualTask()
+        .endEvent()
+      .done(),
+      Bpmn.createExecutableProcess("twoTasksProcess")
+        .startEvent()
+        .manualTask()
+        .manualTask()
+        .endEvent()
+      .done());
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setDimensionalMetricsEnabled(false);
+    super.tearDown();
+  }
+
+  public void testSumByProcessDefinitionKey() {
+    // when
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    runtimeService.startProcessInstanceByKey("twoTasksProcess");
+    runtimeService.startProcessInstanceByKey("twoTasksProcess");
+
+    // then the unlogged counts are visible
+    assertSumByProcessDefinitionKey();
+
+    // and the logged counts as well
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+    assertSumByProcessDefinitionKey();
+
+    // the global count is not affected by the dimensional counts
+    assertEquals(11l, managementService.createMetricsQuery()
+        .name(Metrics.ACTIVTY_INSTANCE_START)
+        .sum());
+  }
+
+  protected void assertSumByProcessDefinitionKey() {
+    assertEquals(3l, managementService.createMetricsQuery()
+        .name(Metrics.ACTIVTY_INSTANCE_START)
+        .processDefinitionKey("oneTaskProcess")
+        .sum());
+    assertEquals(8l, managementService.createMetricsQuery()
+        .name(Metrics.ACTIVTY_INSTANCE_START)
+        .processDefinitionKey("twoTasksProcess")
+        .sum());
+    assertEquals(4l, managementService.createMetricsQuery()
+        .name(Metrics.ACTIVTY_INSTANCE_START)
+        .processDefinitionKey("twoTasksProcess")
+        .activityType("manualTask")
+        .sum());
+  }
+
+  public void testGroupByProcessDefinitionKey() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    runtimeService.startProcessInstanceByKey("twoTasksProcess");
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+    runtimeService.startProcessInstanceByKey("twoTasksProcess");
+
+    // when
+    List<MetricsGroup> groups = managementService.createMetricsQuery()
+        .name(Metrics.ACTIVTY_INSTANCE_START)
+        .groupByProcessDefinitionKey()
+        .groupedSum();
+
+    // then the logged and unlogged counts are merged and the busiest definition comes first
+    assertEquals(2, groups.size());
+    assertGroup(groups.get(0), "twoTasksProcess", null, 8l);
+    assertGroup(groups.get(1), "oneTaskProcess", null, 3l);
+  }
+
+  public void testGroupByActivityType() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    runtimeService.startProcessInstanceByKey("twoTasksProcess");
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // when
+    List<MetricsGroup> groups = managementService.createMetricsQuery()
+        .name(Metrics.ACTIVTY_INSTANCE_START)
+        .groupByActivityType()
+        .groupedSum();
+
+    // then
+    assertEquals(3, groups.size());
+    assertGroup(groups.get(0), null, "manualTask", 3l);
+
+    // start and end events have the same count
+    MetricsGroup startEventGroup = "startEvent".equals(groups.get(1).getActivityType()) ? groups.get(1) : groups.get(2);
+    assertGroup(startEventGroup, null, "startEvent", 2l);
+  }
+
+  public void testGroupByProcessDefinitionKeyAndActivityType() {
+    // given
+    runtimeService.startProcessInstanceByKey("twoTasksProcess");
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // when
+    List<MetricsGroup> groups = managementService.createMetricsQuery()
+        .name(Metrics.ACTIVTY_INSTANCE_START)
+        .processDefinitionKey("twoTasksProcess")
+        .groupByProcessDefinitionKey()
+        .groupByActivityType()
+        .groupedSum();
+
+    // then
+    assertEquals(3, groups.size());
+    assertGroup(groups.get(0), "twoTasksProcess", "manualTask", 2l);
+  }
+
+  public void testOnlyActiveMetersAreLogged() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // when
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // then no dimensional values are logged for the idle definition
+    List<MetricsGroup> groups = managementService.createMetricsQuery()
+        .name(Metrics.ACTIVTY_INSTANCE_START)
+        .groupByProcessDefinitionKey()
+        .groupedSum();
+
+    assertEquals(1, groups.size());
+    assertGroup(groups.get(0), "oneTaskProcess", null, 3l);
+  }
+
+  protected void assertGroup(MetricsGroup group, String processDefinitionKey, String activityType, long sum) {
+    assertEquals(processDefinitionKey, group.getProcessDefinitionKey());
+    assertEquals(activityType, group.getActivityType());
+    assertEquals(sum, group.getSum());
+  }
+
+}
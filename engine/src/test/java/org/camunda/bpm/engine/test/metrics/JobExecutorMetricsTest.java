@@ -24,6 +24,7 @@ import org.camunda.bpm.engine.impl.jobexecutor.CallerRunsRejectedJobsHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.DefaultJobExecutor;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.impl.jobexecutor.ThreadPoolJobExecutor;
+import org.camunda.bpm.engine.impl.metrics.reporter.MetricsCollectionTask;
 import org.camunda.bpm.engine.management.Metrics;
 import org.camunda.bpm.engine.test.Deployment;
 import org.camunda.bpm.engine.test.concurrency.ConcurrencyTestCase.ThreadControl;
@@ -121,6 +122,27 @@ public class JobExecutorMetricsTest extends AbstractMetricsTest {
     processEngineConfiguration.getDbMetricsReporter().reportNow();
   }
 
+  @Deployment(resources = "org/camunda/bpm/engine/test/metrics/asyncServiceTaskProcess.bpmn20.xml")
+  public void testJobExecutionDurationMetricReporting() {
+    // given
+    for (int i = 0; i < 3; i++) {
+      runtimeService.startProcessInstanceByKey("asyncServiceTaskProcess");
+    }
+
+    // when
+    waitForJobExecutorToProcessAllJobs(5000);
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // then the number of executed jobs and their total duration are reported
+    long executedJobs = managementService.createMetricsQuery()
+        .name(Metrics.JOB_EXECUTION_DURATION + MetricsCollectionTask.COUNT_SUFFIX).sum();
+    assertEquals(3, executedJobs);
+
+    long totalDuration = managementService.createMetricsQuery()
+        .name(Metrics.JOB_EXECUTION_DURATION + MetricsCollectionTask.SUM_SUFFIX).sum();
+    assertTrue(totalDuration >= 0);
+  }
+
   @Deployment(resources = "org/camunda/bpm/engine/test/metrics/asyncServiceTaskProcess.bpmn20.xml")
   public void testJobExecutionMetricReporting() {
     // given
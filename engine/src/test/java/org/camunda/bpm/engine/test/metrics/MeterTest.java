@@ -0,0 +1,88 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.metrics.HistogramMeter;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MeterTest {
+
+  @Test
+  public void testMarkConcurrently() throws Exception {
+    final Meter meter = new Meter("test");
+
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(new Thread() {
+        public void run() {
+          for (int j = 0; j < 10000; j++) {
+            meter.mark();
+          }
+        }
+      });
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Assert.assertEquals(80000, meter.get());
+    Assert.assertEquals(80000, meter.getAndClear());
+    Assert.assertEquals(0, meter.get());
+  }
+
+  @Test
+  public void testMarkTimes() {
+    Meter meter = new Meter("test");
+
+    meter.mark();
+    meter.markTimes(5);
+
+    Assert.assertEquals(6, meter.get());
+  }
+
+  @Test
+  public void testHistogram() {
+    HistogramMeter histogram = new HistogramMeter("test");
+
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+
+    Assert.assertEquals(100, histogram.getCount());
+    Assert.assertEquals(5050, histogram.getSum());
+    Assert.assertEquals(100, histogram.getMax());
+
+    // percentiles are accurate within a factor of two
+    long median = histogram.getValueAtPercentile(50);
+    Assert.assertTrue(median >= 50 && median <= 100);
+    Assert.assertEquals(100, histogram.getValueAtPercentile(100));
+
+    HistogramMeter.Snapshot snapshot = histogram.getAndClear();
+    Assert.assertEquals(100, snapshot.getCount());
+    Assert.assertEquals(5050, snapshot.getSum());
+    Assert.assertEquals(100, snapshot.getMax());
+
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getValueAtPercentile(50));
+  }
+
+}
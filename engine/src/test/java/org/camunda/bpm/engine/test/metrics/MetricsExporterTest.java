@@ -0,0 +1,138 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.metrics;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.impl.metrics.exporter.JmxMetricsExporter;
+import org.camunda.bpm.engine.impl.metrics.exporter.PrometheusMetricsExporter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsExporterTest {
+
+  protected MetricsRegistry metricsRegistry;
+  protected PrometheusMetricsExporter prometheusExporter;
+  protected JmxMetricsExporter jmxExporter;
+
+  @Before
+  public void createRegistry() {
+    metricsRegistry = new MetricsRegistry();
+    metricsRegistry.createMeter("activity-instance-start");
+    metricsRegistry.createHistogram("job-execution-duration");
+
+    prometheusExporter = new PrometheusMetricsExporter();
+    prometheusExporter.setPort(0);
+    jmxExporter = new JmxMetricsExporter();
+  }
+
+  @After
+  public void stopExporters() {
+    prometheusExporter.stop();
+    jmxExporter.stop();
+  }
+
+  @Test
+  public void testPrometheusTextFormat() {
+    prometheusExporter.start("default", metricsRegistry);
+
+    metricsRegistry.markOccurrence("activity-instance-start", 3);
+    metricsRegistry.getDimensionalMeter("activity-instance-start", "invoice", "userTask").markTimes(2);
+    metricsRegistry.recordValue("job-execution-duration", 10);
+
+    String metrics = prometheusExporter.getMetrics();
+
+    Assert.assertTrue(metrics.contains("# TYPE camunda_activity_instance_start_total counter\n"));
+    Assert.assertTrue(metrics.contains("camunda_activity_instance_start_total{engine=\"default\"} 3\n"));
+    Assert.assertTrue(metrics.contains(
+        "camunda_activity_instance_start_total{engine=\"default\",process_definition_key=\"invoice\",activity_type=\"userTask\"} 2\n"));
+    Assert.assertTrue(metrics.contains("# TYPE camunda_job_execution_duration summary\n"));
+    Assert.assertTrue(metrics.contains("camunda_job_execution_duration_count{engine=\"default\"} 1\n"));
+    Assert.assertTrue(metrics.contains("camunda_job_execution_duration_sum{engine=\"default\"} 10\n"));
+  }
+
+  @Test
+  public void testExportedCountersAreNotResetByReporting() {
+    prometheusExporter.start("default", metricsRegistry);
+
+    Meter meter = metricsRegistry.getMeterByName("activity-instance-start");
+    meter.markTimes(3);
+
+    // when the db metrics reporter clears the meter
+    Assert.assertEquals(3, meter.getAndClear());
+    meter.mark();
+
+    // then the exported counter still contains all occurrences
+    Assert.assertTrue(prometheusExporter.getMetrics().contains("camunda_activity_instance_start_total{engine=\"default\"} 4\n"));
+  }
+
+  @Test
+  public void testScrapeOverHttp() throws Exception {
+    prometheusExporter.start("default", metricsRegistry);
+    metricsRegistry.markOccurrence("activity-instance-start");
+
+    URL url = new URL("http://localhost:" + prometheusExporter.getPort() + "/metrics");
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try {
+      Assert.assertEquals(200, connection.getResponseCode());
+      Assert.assertEquals(PrometheusMetricsExporter.CONTENT_TYPE, connection.getContentType());
+
+      BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), "UTF-8"));
+      StringBuilder body = new StringBuilder();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        body.append(line).append('\n');
+      }
+      reader.close();
+
+      Assert.assertTrue(body.toString().contains("camunda_activity_instance_start_total{engine=\"default\"} 1\n"));
+    }
+    finally {
+      connection.disconnect();
+    }
+  }
+
+  @Test
+  public void testJmxAttributes() throws Exception {
+    jmxExporter.start("jmx-test-engine", metricsRegistry);
+
+    metricsRegistry.markOccurrence("activity-instance-start", 2);
+    metricsRegistry.recordValue("job-execution-duration", 5);
+
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName = new ObjectName(JmxMetricsExporter.DOMAIN + ":type=Metrics,engine=\"jmx-test-engine\"");
+
+    Assert.assertTrue(mBeanServer.isRegistered(objectName));
+    Assert.assertEquals(2l, mBeanServer.getAttribute(objectName, "activity-instance-start"));
+    Assert.assertEquals(1l, mBeanServer.getAttribute(objectName, "job-execution-duration-count"));
+    Assert.assertEquals(5l, mBeanServer.getAttribute(objectName, "job-execution-duration-sum"));
+
+    // when
+    jmxExporter.stop();
+
+    // then
+    Assert.assertFalse(mBeanServer.isRegistered(objectName));
+  }
+
+}
@@ -0,0 +1,230 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.variables;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.persistence.blob.BlobFileValueImpl;
+import org.camunda.bpm.engine.impl.persistence.blob.FileSystemBlobStore;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricDetailVariableInstanceUpdateEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Attachment;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.FileValue;
+
+public class BlobStoreTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/variables/oneTaskProcess.bpmn20.xml";
+
+  protected static final String LARGE_CONTENT = "content which is larger than the threshold";
+
+  protected File blobStoreDirectory;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    blobStoreDirectory = File.createTempFile("blobstore", "");
+    blobStoreDirectory.delete();
+
+    processEngineConfiguration.setBlobStore(new FileSystemBlobStore(blobStoreDirectory));
+    processEngineConfiguration.setBlobStoreThreshold(16);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setBlobStore(null);
+    processEngineConfiguration.setBlobStoreThreshold(1024 * 1024);
+
+    for (File file : blobStoreDirectory.listFiles()) {
+      file.delete();
+    }
+    blobStoreDirectory.delete();
+    super.tearDown();
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testFileValueInBlobStore() {
+    FileValue fileValue = Variables.fileValue("test.txt").file(LARGE_CONTENT.getBytes()).mimeType("text/plain").create();
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValueTyped("file", fileValue));
+
+    // then
+    assertEquals(1 + getHistoricBlobCount(), blobStoreDirectory.list().length);
+
+    FileValue value = runtimeService.getVariableTyped(processInstance.getId(), "file");
+    assertTrue(value instanceof BlobFileValueImpl);
+    assertEquals("test.txt", value.getFilename());
+    assertEquals("text/plain", value.getMimeType());
+    assertEquals(LARGE_CONTENT, readContent(value.getValue()));
+
+    VariableInstanceEntity variable = (VariableInstanceEntity) runtimeService.createVariableInstanceQuery().singleResult();
+    String blobId = variable.getByteArrayValueId();
+
+    // when
+    runtimeService.deleteProcessInstance(processInstance.getId(), null);
+
+    // then
+    assertFalse(new File(blobStoreDirectory, blobId).exists());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSmallFileValueInDatabase() {
+    FileValue fileValue = Variables.fileValue("test.txt").file("small".getBytes()).create();
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValueTyped("file", fileValue));
+
+    // then
+    assertEquals(0, blobStoreDirectory.list().length);
+
+    FileValue value = runtimeService.getVariableTyped(processInstance.getId(), "file");
+    assertFalse(value instanceof BlobFileValueImpl);
+    assertEquals("small", readContent(value.getValue()));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCopyFileValueFromBlobStore() {
+    FileValue fileValue = Variables.fileValue("test.txt").file(LARGE_CONTENT.getBytes()).create();
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess",
+        Variables.createVariables().putValueTyped("file", fileValue));
+
+    // when
+    FileValue value = runtimeService.getVariableTyped(processInstance.getId(), "file");
+    runtimeService.setVariable(processInstance.getId(), "copy", value);
+
+    // then
+    assertTrue(((BlobFileValueImpl) value).isStreamed());
+    assertEquals(2 + 2 * getHistoricBlobCount(), blobStoreDirectory.list().length);
+
+    FileValue copy = runtimeService.getVariableTyped(processInstance.getId(), "copy");
+    assertEquals(LARGE_CONTENT, readContent(copy.getValue()));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testHistoricFileValueReferencesBlob() {
+    if (processEngineConfiguration.getHistoryLevel().getId() < ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      return;
+    }
+
+    FileValue fileValue = Variables.fileValue("test.txt").file(LARGE_CONTENT.getBytes()).create();
+    runtimeService.startProcessInstanceByKey("oneTaskProcess", Variables.createVariables().putValueTyped("file", fileValue));
+
+    // then the history references its own blob instead of keeping the content in the database
+    VariableInstanceEntity variable = (VariableInstanceEntity) runtimeService.createVariableInstanceQuery().singleResult();
+    HistoricVariableInstanceEntity historicVariable = (HistoricVariableInstanceEntity) historyService
+        .createHistoricVariableInstanceQuery()
+        .singleResult();
+
+    assertFalse(variable.getByteArrayValueId().equals(historicVariable.getByteArrayId()));
+    assertTrue(new File(blobStoreDirectory, historicVariable.getByteArrayId()).isFile());
+
+    FileValue historicValue = (FileValue) historicVariable.getTypedValue();
+    assertTrue(historicValue instanceof BlobFileValueImpl);
+    assertEquals(LARGE_CONTENT, readContent(historicValue.getValue()));
+
+    if (processEngineConfiguration.getHistoryLevel().getId() >= ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
+      HistoricDetailVariableInstanceUpdateEntity variableUpdate = (HistoricDetailVariableInstanceUpdateEntity) historyService
+          .createHistoricDetailQuery()
+          .variableUpdates()
+          .singleResult();
+
+      assertFalse(historicVariable.getByteArrayId().equals(variableUpdate.getByteArrayValueId()));
+
+      FileValue updateValue = (FileValue) variableUpdate.getTypedValue();
+      assertTrue(updateValue instanceof BlobFileValueImpl);
+      assertEquals(LARGE_CONTENT, readContent(updateValue.getValue()));
+    }
+  }
+
+  public void testAttachmentContentInBlobStore() {
+    Task task = taskService.newTask();
+    taskService.saveTask(task);
+
+    // when
+    Attachment attachment = taskService.createAttachment("text", task.getId(), null, "attachment", null,
+        new ByteArrayInputStream(LARGE_CONTENT.getBytes()));
+
+    // then
+    assertEquals(1, blobStoreDirectory.list().length);
+    assertEquals(LARGE_CONTENT, readContent(taskService.getAttachmentContent(attachment.getId())));
+    assertEquals(LARGE_CONTENT, readContent(taskService.getTaskAttachmentContent(task.getId(), attachment.getId())));
+
+    // when
+    taskService.deleteAttachment(attachment.getId());
+
+    // then
+    assertEquals(0, blobStoreDirectory.list().length);
+
+    taskService.deleteTask(task.getId(), true);
+  }
+
+  public void testMissingBlobIsNotReadAsEmptyContent() {
+    Task task = taskService.newTask();
+    taskService.saveTask(task);
+
+    Attachment attachment = taskService.createAttachment("text", task.getId(), null, "attachment", null,
+        new ByteArrayInputStream(LARGE_CONTENT.getBytes()));
+
+    // when the blob is lost
+    for (File file : blobStoreDirectory.listFiles()) {
+      file.delete();
+    }
+
+    // then
+    try {
+      taskService.getAttachmentContent(attachment.getId());
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      assertTextPresent("blob does not exist", e.getMessage());
+    }
+
+    taskService.deleteTask(task.getId(), true);
+  }
+
+  /**
+   * @return the number of blobs which are kept by the history for a variable value
+   */
+  protected int getHistoricBlobCount() {
+    int historyLevel = processEngineConfiguration.getHistoryLevel().getId();
+    if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
+      // the historic variable instance and the variable update
+      return 2;
+    }
+    else if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      return 1;
+    }
+    else {
+      return 0;
+    }
+  }
+
+  protected String readContent(InputStream content) {
+    try {
+      return new String(IoUtil.readInputStream(content, null));
+    }
+    finally {
+      IoUtil.closeSilently(content);
+    }
+  }
+
+}
@@ -0,0 +1,131 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.variables;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Object without {@link java.io.Serializable} which can be serialized by the compact binary serializer.
+ */
+public class CompactBinaryPojo {
+
+  private String name;
+  private int count;
+  private double amount;
+  private Date created;
+  private TimeUnit unit;
+  private long[] numbers;
+  private List<String> tags = new ArrayList<String>();
+  private Map<String, Object> attributes = new HashMap<String, Object>();
+  private CompactBinaryPojo parent;
+  private EnumSet<TimeUnit> units;
+  private EnumMap<TimeUnit, String> unitNames;
+
+  private transient String cachedDescription;
+
+  public CompactBinaryPojo() {
+  }
+
+  public CompactBinaryPojo(String name, int count) {
+    this.name = name;
+    this.count = count;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public double getAmount() {
+    return amount;
+  }
+
+  public void setAmount(double amount) {
+    this.amount = amount;
+  }
+
+  public Date getCreated() {
+    return created;
+  }
+
+  public void setCreated(Date created) {
+    this.created = created;
+  }
+
+  public TimeUnit getUnit() {
+    return unit;
+  }
+
+  public void setUnit(TimeUnit unit) {
+    this.unit = unit;
+  }
+
+  public long[] getNumbers() {
+    return numbers;
+  }
+
+  public void setNumbers(long[] numbers) {
+    this.numbers = numbers;
+  }
+
+  public List<String> getTags() {
+    return tags;
+  }
+
+  public Map<String, Object> getAttributes() {
+    return attributes;
+  }
+
+  public CompactBinaryPojo getParent() {
+    return parent;
+  }
+
+  public void setParent(CompactBinaryPojo parent) {
+    this.parent = parent;
+  }
+
+  public EnumSet<TimeUnit> getUnits() {
+    return units;
+  }
+
+  public void setUnits(EnumSet<TimeUnit> units) {
+    this.units = units;
+  }
+
+  public EnumMap<TimeUnit, String> getUnitNames() {
+    return unitNames;
+  }
+
+  public void setUnitNames(EnumMap<TimeUnit, String> unitNames) {
+    this.unitNames = unitNames;
+  }
+
+  public String getCachedDescription() {
+    return cachedDescription;
+  }
+
+  public void setCachedDescription(String cachedDescription) {
+    this.cachedDescription = cachedDescription;
+  }
+
+}
@@ -0,0 +1,249 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.variables;
+
+import static org.camunda.bpm.engine.variable.Variables.objectValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.variable.serializer.CompactBinaryObjectSerializer;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+
+public class CompactBinarySerializationTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/variables/oneTaskProcess.bpmn20.xml";
+
+  protected static final String COMPACT_DATA_FORMAT = CompactBinaryObjectSerializer.DATA_FORMAT;
+
+  protected static final String JAVA_DATA_FORMAT = Variables.SerializationDataFormats.JAVA.getName();
+
+  protected String defaultSerializationFormat;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    defaultSerializationFormat = processEngineConfiguration.getDefaultSerializationFormat();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setDefaultSerializationFormat(defaultSerializationFormat);
+    super.tearDown();
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSerializeObject() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    Date created = new Date();
+    CompactBinaryPojo parent = new CompactBinaryPojo("parent", 1);
+    CompactBinaryPojo pojo = new CompactBinaryPojo("child", -42);
+    pojo.setAmount(12.5);
+    pojo.setCreated(created);
+    pojo.setUnit(TimeUnit.SECONDS);
+    pojo.setNumbers(new long[] { 1, Long.MAX_VALUE, Long.MIN_VALUE });
+    pojo.getTags().add("a");
+    pojo.getTags().add(null);
+    pojo.getAttributes().put("nested", Arrays.asList(1, "two", 3.0));
+    pojo.getAttributes().put("self", pojo);
+    pojo.setParent(parent);
+    pojo.setCachedDescription("not serialized");
+
+    // when
+    runtimeService.setVariable(instance.getId(), "pojo", objectValue(pojo).serializationDataFormat(COMPACT_DATA_FORMAT).create());
+
+    // then
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "pojo");
+    assertEquals(COMPACT_DATA_FORMAT, typedValue.getSerializationDataFormat());
+    assertEquals(CompactBinaryPojo.class.getName(), typedValue.getObjectTypeName());
+
+    CompactBinaryPojo value = (CompactBinaryPojo) typedValue.getValue();
+    assertEquals("child", value.getName());
+    assertEquals(-42, value.getCount());
+    assertEquals(12.5, value.getAmount());
+    assertEquals(created, value.getCreated());
+    assertEquals(TimeUnit.SECONDS, value.getUnit());
+    assertTrue(Arrays.equals(new long[] { 1, Long.MAX_VALUE, Long.MIN_VALUE }, value.getNumbers()));
+    assertEquals(Arrays.asList("a", null), value.getTags());
+    assertEquals(Arrays.asList(1, "two", 3.0), value.getAttributes().get("nested"));
+    assertSame(value, value.getAttributes().get("self"));
+    assertEquals("parent", value.getParent().getName());
+    assertNull(value.getCachedDescription());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSerializeEnumCollections() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    EnumMap<TimeUnit, String> unitNames = new EnumMap<TimeUnit, String>(TimeUnit.class);
+    unitNames.put(TimeUnit.SECONDS, "s");
+    unitNames.put(TimeUnit.MINUTES, "min");
+
+    CompactBinaryPojo pojo = new CompactBinaryPojo("units", 1);
+    pojo.setUnits(EnumSet.of(TimeUnit.SECONDS, TimeUnit.DAYS));
+    pojo.setUnitNames(unitNames);
+
+    // when
+    runtimeService.setVariable(instance.getId(), "pojo", objectValue(pojo).serializationDataFormat(COMPACT_DATA_FORMAT).create());
+    runtimeService.setVariable(instance.getId(), "emptySet",
+        objectValue(EnumSet.noneOf(TimeUnit.class)).serializationDataFormat(COMPACT_DATA_FORMAT).create());
+
+    // then
+    CompactBinaryPojo value = (CompactBinaryPojo) runtimeService.getVariable(instance.getId(), "pojo");
+    assertEquals(EnumSet.of(TimeUnit.SECONDS, TimeUnit.DAYS), value.getUnits());
+    assertEquals(unitNames, value.getUnitNames());
+
+    EnumSet<?> emptySet = (EnumSet<?>) runtimeService.getVariable(instance.getId(), "emptySet");
+    assertTrue(emptySet.isEmpty());
+    assertEquals(EnumSet.allOf(TimeUnit.class), EnumSet.complementOf(EnumSet.copyOf(emptySet)));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSerializeSortedCollections() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    TreeMap<String, Integer> map = new TreeMap<String, Integer>();
+    map.put("b", 2);
+    map.put("a", 1);
+
+    // when
+    runtimeService.setVariable(instance.getId(), "set",
+        objectValue(new TreeSet<String>(Arrays.asList("b", "c", "a"))).serializationDataFormat(COMPACT_DATA_FORMAT).create());
+    runtimeService.setVariable(instance.getId(), "map", objectValue(map).serializationDataFormat(COMPACT_DATA_FORMAT).create());
+
+    // then
+    TreeSet<?> set = (TreeSet<?>) runtimeService.getVariable(instance.getId(), "set");
+    assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<Object>(set));
+    assertEquals(map, runtimeService.getVariable(instance.getId(), "map"));
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSortedCollectionWithComparatorIsNotSupported() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    TreeSet<String> set = new TreeSet<String>(Collections.<String>reverseOrder());
+    set.addAll(Arrays.asList("a", "b"));
+
+    try {
+      runtimeService.setVariable(instance.getId(), "set", objectValue(set).serializationDataFormat(COMPACT_DATA_FORMAT).create());
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // expected, the comparator cannot be serialized
+    }
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testUnsupportedValuesAreSerializedWithJava() {
+    processEngineConfiguration.setDefaultSerializationFormat(COMPACT_DATA_FORMAT);
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    TreeSet<String> sortedSet = new TreeSet<String>(Collections.<String>reverseOrder());
+    sortedSet.addAll(Arrays.asList("a", "b"));
+    ArrayList<UUID> ids = new ArrayList<UUID>(Arrays.asList(UUID.randomUUID()));
+    EnumMap<TimeUnit, String> emptyMap = new EnumMap<TimeUnit, String>(TimeUnit.class);
+
+    // when
+    runtimeService.setVariable(instance.getId(), "sortedSet", sortedSet);
+    runtimeService.setVariable(instance.getId(), "ids", ids);
+    runtimeService.setVariable(instance.getId(), "emptyMap", emptyMap);
+
+    // then
+    ObjectValue sortedSetValue = runtimeService.getVariableTyped(instance.getId(), "sortedSet");
+    assertEquals(JAVA_DATA_FORMAT, sortedSetValue.getSerializationDataFormat());
+    assertEquals(Arrays.asList("b", "a"), new ArrayList<Object>((SortedSet<?>) sortedSetValue.getValue()));
+
+    ObjectValue idsValue = runtimeService.getVariableTyped(instance.getId(), "ids");
+    assertEquals(JAVA_DATA_FORMAT, idsValue.getSerializationDataFormat());
+    assertEquals(ids, idsValue.getValue());
+
+    ObjectValue emptyMapValue = runtimeService.getVariableTyped(instance.getId(), "emptyMap");
+    assertEquals(JAVA_DATA_FORMAT, emptyMapValue.getSerializationDataFormat());
+    assertEquals(emptyMap, emptyMapValue.getValue());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testSerializedValueIsSmallerThanJavaSerialization() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    List<String> list = new ArrayList<String>();
+    for (int i = 0; i < 1000; i++) {
+      list.add("element" + i);
+    }
+
+    // when
+    runtimeService.setVariable(instance.getId(), "compact", objectValue(list).serializationDataFormat(COMPACT_DATA_FORMAT).create());
+    runtimeService.setVariable(instance.getId(), "java", objectValue(list).serializationDataFormat(JAVA_DATA_FORMAT).create());
+
+    // then
+    ObjectValue compactValue = runtimeService.getVariableTyped(instance.getId(), "compact");
+    ObjectValue javaValue = runtimeService.getVariableTyped(instance.getId(), "java");
+
+    assertEquals(list, compactValue.getValue());
+    assertTrue(compactValue.getValueSerialized().length() < javaValue.getValueSerialized().length() / 2);
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testJavaSerializationRemainsDefault() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // when
+    runtimeService.setVariable(instance.getId(), "list", new ArrayList<String>(Arrays.asList("a", "b")));
+
+    // then
+    ObjectValue typedValue = runtimeService.getVariableTyped(instance.getId(), "list");
+    assertEquals(JAVA_DATA_FORMAT, typedValue.getSerializationDataFormat());
+
+    try {
+      runtimeService.setVariable(instance.getId(), "pojo", new CompactBinaryPojo("name", 1));
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // expected, the object is not serializable
+    }
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testCompactSerializationAsDefault() {
+    processEngineConfiguration.setDefaultSerializationFormat(COMPACT_DATA_FORMAT);
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+    // when
+    runtimeService.setVariable(instance.getId(), "pojo", new CompactBinaryPojo("name", 1));
+    runtimeService.setVariable(instance.getId(), "list", new ArrayList<String>(Arrays.asList("a", "b")));
+
+    // then
+    ObjectValue pojoValue = runtimeService.getVariableTyped(instance.getId(), "pojo");
+    assertEquals(COMPACT_DATA_FORMAT, pojoValue.getSerializationDataFormat());
+    assertEquals("name", ((CompactBinaryPojo) pojoValue.getValue()).getName());
+
+    ObjectValue listValue = runtimeService.getVariableTyped(instance.getId(), "list");
+    assertEquals(COMPACT_DATA_FORMAT, listValue.getSerializationDataFormat());
+    assertEquals(Arrays.asList("a", "b"), listValue.getValue());
+  }
+
+}
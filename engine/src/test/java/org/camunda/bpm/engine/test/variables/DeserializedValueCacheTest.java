@@ -0,0 +1,113 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.variables;
+
+import static org.camunda.bpm.engine.variable.Variables.objectValue;
+
+import java.io.Serializable;
+import java.util.Collections;
+
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.variable.serializer.DeserializedValueCache;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.variable.Variables;
+
+public class DeserializedValueCacheTest extends PluggableProcessEngineTestCase {
+
+  protected static final String ONE_TASK_PROCESS = "org/camunda/bpm/engine/test/variables/oneTaskProcess.bpmn20.xml";
+
+  protected static final String JAVA_DATA_FORMAT = Variables.SerializationDataFormats.JAVA.getName();
+
+  protected DeserializedValueCache deserializedValueCache;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    deserializedValueCache = new DeserializedValueCache(100, Collections.singleton(ImmutableValue.class.getName()));
+    processEngineConfiguration.setDeserializedValueCache(deserializedValueCache);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setDeserializedValueCache(null);
+    super.tearDown();
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testReuseImmutableValue() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    setVariable(instance.getId(), new ImmutableValue("foo"));
+
+    // when
+    ImmutableValue value = (ImmutableValue) runtimeService.getVariable(instance.getId(), "aVariable");
+    ImmutableValue reusedValue = (ImmutableValue) runtimeService.getVariable(instance.getId(), "aVariable");
+
+    // then
+    assertEquals("foo", value.getProperty());
+    assertSame(value, reusedValue);
+    assertEquals(1, deserializedValueCache.getHitCount());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testMutableValueIsNotShared() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    setVariable(instance.getId(), new JavaSerializable("foo"));
+
+    // when
+    JavaSerializable value = (JavaSerializable) runtimeService.getVariable(instance.getId(), "aVariable");
+    value.setProperty("bar");
+
+    // then
+    // the change of the caller does not leak into other commands
+    JavaSerializable otherValue = (JavaSerializable) runtimeService.getVariable(instance.getId(), "aVariable");
+    assertNotSame(value, otherValue);
+    assertEquals("foo", otherValue.getProperty());
+    assertEquals(0, deserializedValueCache.size());
+  }
+
+  @Deployment(resources = ONE_TASK_PROCESS)
+  public void testUpdatedValueIsNotReused() {
+    ProcessInstance instance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    setVariable(instance.getId(), new ImmutableValue("foo"));
+    ImmutableValue value = (ImmutableValue) runtimeService.getVariable(instance.getId(), "aVariable");
+
+    // when
+    setVariable(instance.getId(), new ImmutableValue("bar"));
+
+    // then
+    ImmutableValue updatedValue = (ImmutableValue) runtimeService.getVariable(instance.getId(), "aVariable");
+    assertNotSame(value, updatedValue);
+    assertEquals("bar", updatedValue.getProperty());
+  }
+
+  protected void setVariable(String executionId, Object value) {
+    runtimeService.setVariable(executionId, "aVariable", objectValue(value).serializationDataFormat(JAVA_DATA_FORMAT).create());
+  }
+
+  public static final class ImmutableValue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String property;
+
+    public ImmutableValue(String property) {
+      this.property = property;
+    }
+
+    public String getProperty() {
+      return property;
+    }
+  }
+
+}
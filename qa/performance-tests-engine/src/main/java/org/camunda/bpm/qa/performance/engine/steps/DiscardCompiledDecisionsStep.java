@@ -0,0 +1,45 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.steps;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.Cache;
+import org.camunda.bpm.qa.performance.engine.framework.PerfTestRunContext;
+
+/**
+ * Discards the compiled decisions of the deployment cache, so that the next
+ * evaluation of a decision has to compile it again. Used to measure the
+ * evaluation of decisions without the compiled decision cache.
+ */
+public class DiscardCompiledDecisionsStep extends ProcessEngineAwareStep {
+
+  public DiscardCompiledDecisionsStep(ProcessEngine processEngine) {
+    super(processEngine);
+  }
+
+  @Override
+  public void execute(PerfTestRunContext context) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+    Cache<String, DecisionDefinitionEntity> decisionDefinitionCache = processEngineConfiguration.getDeploymentCache().getDecisionDefinitionCache();
+
+    for (String decisionDefinitionId : decisionDefinitionCache.keySet()) {
+      DecisionDefinitionEntity decisionDefinition = decisionDefinitionCache.get(decisionDefinitionId);
+      if (decisionDefinition != null) {
+        decisionDefinition.setExecutableScript(null);
+      }
+    }
+  }
+
+}
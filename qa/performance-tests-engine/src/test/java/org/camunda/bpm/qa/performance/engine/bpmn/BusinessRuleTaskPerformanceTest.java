@@ -0,0 +1,56 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.bpmn;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.qa.performance.engine.junit.ProcessEnginePerformanceTestCase;
+import org.camunda.bpm.qa.performance.engine.steps.DiscardCompiledDecisionsStep;
+import org.camunda.bpm.qa.performance.engine.steps.StartProcessInstanceStep;
+import org.junit.Test;
+
+/**
+ * Evaluates a decision table with 400 rules with a business rule task,
+ * with and without the compiled decision cached by the deployment cache.
+ */
+public class BusinessRuleTaskPerformanceTest extends ProcessEnginePerformanceTestCase {
+
+  protected static final String PROCESS = "org/camunda/bpm/qa/performance/engine/bpmn/BusinessRuleTaskPerformanceTest.process.bpmn";
+  protected static final String DECISION_TABLE = "org/camunda/bpm/qa/performance/engine/bpmn/BusinessRuleTaskPerformanceTest.decisionTable400Rules.dmn";
+
+  @Test
+  @Deployment(resources = { PROCESS, DECISION_TABLE })
+  public void decisionTable400Rules() {
+    performanceTest()
+      .step(new StartProcessInstanceStep(engine, "process", createVariables()))
+    .run();
+  }
+
+  @Test
+  @Deployment(resources = { PROCESS, DECISION_TABLE })
+  public void decisionTable400RulesUncompiled() {
+    performanceTest()
+      .step(new DiscardCompiledDecisionsStep(engine))
+      .step(new StartProcessInstanceStep(engine, "process", createVariables()))
+    .run();
+  }
+
+  protected Map<String, Object> createVariables() {
+    Map<String, Object> variables = new HashMap<String, Object>();
+    variables.put("input", "value200");
+    return variables;
+  }
+
+}